@@ -0,0 +1,156 @@
+package evaluation.benchmarks;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractParameters;
+import core.Game;
+import core.ParameterFactory;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the raw simulation speed of every game: the parts of the forward model and game state that
+ * search agents call in their inner loops, and whole random playouts.
+ * <p>
+ * Build with the benchmark profile and run the resulting jar, for example:
+ * <pre>
+ *     mvn -P benchmark package
+ *     java -jar target/Benchmarks-jar-with-dependencies.jar ForwardModelBenchmark -p gameType=Connect4,Uno -p nPlayers=2
+ * </pre>
+ * By default every GameType is benchmarked with its minimum number of players and default parameters.
+ * <ul>
+ *     <li>nPlayers - number of players; 0 uses the minimum for each game.</li>
+ *     <li>gameParameters - a JSON file with the game parameters (see ParameterFactory.createFromFile), or empty
+ *     for the defaults.</li>
+ *     <li>recordHistory - whether states record the history of actions; search agents turn this off.</li>
+ * </ul>
+ * computeAvailableActions, next and copy are measured on a fixed sample of states taken from random games, so that
+ * they cover the whole length of a game rather than just its start.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForwardModelBenchmark {
+
+    // Number of states sampled from random games
+    static final int SAMPLE_STATES = 256;
+    // Random playouts are cut short after this many actions, in case a game does not end under random play
+    static final int MAX_PLAYOUT_ACTIONS = 10000;
+
+    @Param
+    public GameType gameType;
+    @Param("0")
+    public int nPlayers;
+    @Param("")
+    public String gameParameters;
+    @Param("false")
+    public boolean recordHistory;
+
+    AbstractForwardModel forwardModel;
+    AbstractGameState initialState;
+    List<AbstractGameState> sampleStates;
+    int nextSample;
+    Random rnd;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        AbstractParameters params = ParameterFactory.createFromFile(gameType, gameParameters);
+        Game game = gameType.createGameInstance(nPlayers == 0 ? gameType.getMinPlayers() : nPlayers, 42, params);
+        game.reset(Collections.emptyList());
+        forwardModel = game.getForwardModel();
+        initialState = game.getGameState().copy();
+        initialState.setRecordHistory(recordHistory);
+        rnd = new Random(42);
+
+        // Play random games until enough states have been seen, keeping every state in which there is a decision
+        sampleStates = new ArrayList<>(SAMPLE_STATES);
+        while (sampleStates.size() < SAMPLE_STATES) {
+            AbstractGameState state = initialState.copy();
+            int nActions = 0;
+            while (state.isNotTerminal() && nActions < MAX_PLAYOUT_ACTIONS && sampleStates.size() < SAMPLE_STATES) {
+                List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+                if (actions.isEmpty())
+                    break;
+                sampleStates.add(state.copy());
+                forwardModel.next(state, actions.get(rnd.nextInt(actions.size())));
+                nActions++;
+            }
+        }
+    }
+
+    AbstractGameState nextSample() {
+        AbstractGameState state = sampleStates.get(nextSample);
+        nextSample = (nextSample + 1) % sampleStates.size();
+        return state;
+    }
+
+    /**
+     * The state and action for one call to next(), which changes the state and so needs a fresh copy each time.
+     */
+    @State(Scope.Thread)
+    public static class NextInvocation {
+        AbstractGameState state;
+        AbstractAction action;
+
+        @Setup(Level.Invocation)
+        public void setupInvocation(ForwardModelBenchmark benchmark) {
+            state = benchmark.nextSample().copy();
+            List<AbstractAction> actions = benchmark.forwardModel.computeAvailableActions(state);
+            action = actions.get(benchmark.rnd.nextInt(actions.size()));
+        }
+    }
+
+    @Benchmark
+    public AbstractGameState setup() {
+        AbstractGameState state = initialState.copy();
+        forwardModel.setup(state);
+        return state;
+    }
+
+    @Benchmark
+    public List<AbstractAction> computeAvailableActions() {
+        return forwardModel.computeAvailableActions(nextSample());
+    }
+
+    @Benchmark
+    public AbstractGameState next(NextInvocation invocation) {
+        forwardModel.next(invocation.state, invocation.action);
+        return invocation.state;
+    }
+
+    @Benchmark
+    public AbstractGameState copy() {
+        AbstractGameState state = nextSample();
+        return state.copy(state.getCurrentPlayer());
+    }
+
+    /**
+     * A random playout from the start of the game, with the same loop as the rollouts of search agents.
+     * Reported as playouts per second.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public AbstractGameState playout() {
+        AbstractGameState state = initialState.copy();
+        int nActions = 0;
+        while (state.isNotTerminal() && nActions < MAX_PLAYOUT_ACTIONS) {
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+            if (actions.isEmpty())
+                break;
+            forwardModel.next(state, actions.get(rnd.nextInt(actions.size())));
+            nActions++;
+        }
+        return state;
+    }
+}
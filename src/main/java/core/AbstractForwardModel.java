@@ -1,6 +1,9 @@
 package core;
 
 import core.actions.AbstractAction;
+import core.components.Component;
+import core.interfaces.IGamePhase;
+import core.turnorders.TurnOrder;
 import utilities.ElapsedCpuChessTimer;
 import utilities.Utils;
 
@@ -73,6 +76,30 @@ public abstract class AbstractForwardModel {
      */
     protected abstract AbstractForwardModel _copy();
 
+    /**
+     * Applies the given action as _next() does, and returns whatever the game needs to take back the changes this
+     * makes to its own part of the state (see _undo()). Only called if supportsUndo() returns true.
+     * The parts of the state common to all games (turn order, game status, player results, game phase and history)
+     * are restored by the framework, and need not be recorded.
+     *
+     * @param currentState - current game state, to be modified by the action.
+     * @param action       - action requested to be played by a player.
+     * @return - game specific undo information, passed back to _undo().
+     */
+    protected Object _nextWithUndo(AbstractGameState currentState, AbstractAction action) {
+        throw new UnsupportedOperationException("Undo is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Takes back the changes made to the game's own part of the state by a call to _nextWithUndo().
+     *
+     * @param currentState - game state, as left by _nextWithUndo() (and any later moves that have been undone).
+     * @param gameUndo     - the value returned by _nextWithUndo().
+     */
+    protected void _undo(AbstractGameState currentState, Object gameUndo) {
+        throw new UnsupportedOperationException("Undo is not supported by " + getClass().getSimpleName());
+    }
+
     /**
      * Performs any end of game computations, as needed. Not necessary to be implemented in the subclass, but can be.
      * The last thing to be called in the game loop, after the game is finished.
@@ -115,8 +142,10 @@ public abstract class AbstractForwardModel {
      * @param gameState - game state to be modified.
      */
     public final void setup(AbstractGameState gameState) {
-        gameState.reset();
-        abstractSetup(gameState);
+        Component.withSetupIDs(() -> {
+            gameState.reset();
+            abstractSetup(gameState);
+        });
     }
 
     /**
@@ -141,6 +170,51 @@ public abstract class AbstractForwardModel {
         }
     }
 
+    /**
+     * @return true if this forward model can take back moves with undo(), so that search can make and unmake moves
+     * on one state instead of copying it. False by default.
+     */
+    public boolean supportsUndo() {
+        return false;
+    }
+
+    /**
+     * Applies the given action to the game state as next() does, and returns a token that undo() can use to put the
+     * state back as it was. Only available if supportsUndo() returns true.
+     * Moves must be undone in the reverse order to that in which they were made.
+     *
+     * @param currentState - current game state, to be modified by the action.
+     * @param action       - action requested to be played by a player.
+     * @return - token to pass to undo().
+     */
+    public final UndoToken nextWithUndo(AbstractGameState currentState, AbstractAction action) {
+        if (action == null)
+            throw new IllegalArgumentException("A null action cannot be undone");
+        if (currentState.isActionInProgress())
+            throw new IllegalStateException("Moves within an extended action sequence cannot be undone");
+        UndoToken token = new UndoToken(currentState);
+        // The live turn order is kept in the token, and the state continues with a copy of it
+        currentState.turnOrder = currentState.turnOrder.copy();
+        currentState.recordAction(action);
+        token.gameUndo = _nextWithUndo(currentState, action);
+        return token;
+    }
+
+    /**
+     * Takes back the move that returned the given token from nextWithUndo().
+     *
+     * @param currentState - game state the move was made on.
+     * @param token        - token returned by nextWithUndo().
+     */
+    public final void undo(AbstractGameState currentState, UndoToken token) {
+        _undo(currentState, token.gameUndo);
+        currentState.turnOrder = token.turnOrder;
+        currentState.gameStatus = token.gameStatus;
+        currentState.playerResults = token.playerResults;
+        currentState.gamePhase = token.gamePhase;
+        currentState.setHistoryEntry(token.history);
+    }
+
     /**
      * Computes the available actions and updates the game state accordingly.
      *
@@ -163,4 +237,25 @@ public abstract class AbstractForwardModel {
     public final AbstractForwardModel copy() {
         return _copy();
     }
+
+    /**
+     * What is needed to take back one move made with nextWithUndo(). The parts of the state common to all games are
+     * held here, and gameUndo is whatever the game's own _nextWithUndo() returned.
+     */
+    public static final class UndoToken {
+        private final TurnOrder turnOrder;
+        private final Utils.GameResult gameStatus;
+        private final Utils.GameResult[] playerResults;
+        private final IGamePhase gamePhase;
+        private final AbstractGameState.HistoryEntry history;
+        private Object gameUndo;
+
+        private UndoToken(AbstractGameState state) {
+            turnOrder = state.turnOrder;
+            gameStatus = state.gameStatus;
+            playerResults = state.playerResults.clone();
+            gamePhase = state.gamePhase;
+            history = state.getHistoryEntry();
+        }
+    }
 }
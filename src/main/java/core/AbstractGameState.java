@@ -3,18 +3,19 @@ package core;
 import core.actions.AbstractAction;
 import core.components.Area;
 import core.components.Component;
-import core.components.PartialObservableDeck;
+import core.components.ComponentRegistry;
 import core.interfaces.IComponentContainer;
 import core.interfaces.IExtendedSequence;
 import core.interfaces.IGamePhase;
 import core.turnorders.TurnOrder;
 import games.GameType;
 import utilities.ElapsedCpuChessTimer;
+import utilities.Hash;
+import utilities.Pair;
 import utilities.Utils;
 
 import java.util.*;
 
-import static java.util.stream.Collectors.toList;
 import static utilities.Utils.GameResult.GAME_ONGOING;
 
 
@@ -42,15 +43,25 @@ public abstract class AbstractGameState {
     protected final AbstractParameters gameParameters;
     protected TurnOrder turnOrder;
     private Area allComponents;
-
-    // Timers for all players
+    // True if allComponents has not been filled in since this state was copied; it is then filled in on first use
+    private boolean allComponentsStale;
+    // Finds components by ID for getComponentById(). This is given the components when first needed after a copy
+    // (registryStale), and only walks as many of them as the lookups need (see ComponentRegistry)
+    private ComponentRegistry registry;
+    private boolean registryStale;
+
+    // Timers for all players. A copy shares the timers of the state it was copied from until they are used
+    // (see getPlayerTimer()), as most copies (e.g. in MCTS) never touch them.
     protected ElapsedCpuChessTimer[] playerTimer;
+    private boolean playerTimerShared;
     // Game being played
     protected final GameType gameType;
 
-    // A record of all actions taken to reach this game state
-    private List<AbstractAction> history = new ArrayList<>();
-    private List<String> historyText = new ArrayList<>();
+    // A record of all actions taken to reach this game state, as the most recent entry of a list that is shared
+    // with copies of this state (so copying does not need to copy the whole history)
+    private HistoryEntry history;
+    // False if actions applied to this state (and its copies) are not to be recorded, e.g. in search simulations
+    private boolean recordHistory = true;
 
     // Status of the game, and status for each player (in cooperative games, the game status is also each player's status)
     protected Utils.GameResult gameStatus;
@@ -92,9 +103,9 @@ public abstract class AbstractGameState {
         playerResults = new Utils.GameResult[getNPlayers()];
         Arrays.fill(playerResults, GAME_ONGOING);
         gamePhase = DefaultGamePhase.Main;
-        history = new ArrayList<>();
-        historyText = new ArrayList<>();
+        history = null;
         playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
+        playerTimerShared = false;
         _reset();
     }
 
@@ -132,7 +143,10 @@ public abstract class AbstractGameState {
         return gamePhase;
     }
     public final Component getComponentById(int id) {
-        return allComponents.getComponent(id);
+        if (registryStale)
+            registerComponents(_getAllComponents());
+        // null until the components are first added, at the end of game set-up
+        return registry == null ? null : registry.get(id);
     }
     public final Area getAllComponents() {
         addAllComponents(); // otherwise the list of allComponents is only ever updated when we copy the state!
@@ -153,12 +167,28 @@ public abstract class AbstractGameState {
 
     /* Limited access final methods */
 
+    private Area componentIndex() {
+        if (allComponentsStale)
+            addAllComponents();
+        return allComponents;
+    }
+
     /**
      * Adds all components given by the game to the allComponents map in the correct way, first clearing the map.
      */
     protected final void addAllComponents() {
+        List<Component> components = _getAllComponents();
         allComponents.clear();
-        allComponents.putComponents(_getAllComponents());
+        allComponents.putComponents(components);
+        allComponentsStale = false;
+        registerComponents(components);
+    }
+
+    private void registerComponents(List<Component> components) {
+        if (registry == null)
+            registry = new ComponentRegistry();
+        registry.setAll(components);
+        registryStale = false;
     }
 
     /**
@@ -177,9 +207,9 @@ public abstract class AbstractGameState {
         s.gamePhase = gamePhase;
         s.coreGameParameters = coreGameParameters;
 
+        s.recordHistory = recordHistory;
         if (!coreGameParameters.competitionMode) {
-            s.history = new ArrayList<>(history);
-            s.historyText = new ArrayList<>(historyText);
+            s.history = history;
             // we do not copy individual actions in history, as these are now dead and should not change
             // History is for debugging and spectation of games. There is a risk that History might contain information
             // formally hidden to some participants. For this reason, in COMPETITION_MODE we explicitly do not copy
@@ -192,13 +222,14 @@ public abstract class AbstractGameState {
                 a -> s.actionsInProgress.push(a.copy())
         );
 
-        s.playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
-        for (int i = 0; i < getNPlayers(); i++) {
-            s.playerTimer[i] = playerTimer[i].copy();
-        }
+        s.playerTimer = playerTimer;
+        s.playerTimerShared = true;
+        playerTimerShared = true;
 
-        // Update the list of components for ID matching in actions.
-        s.addAllComponents();
+        // The components are only indexed by ID when first needed (for actions in getComponentById(), and for
+        // equals() and hashCode() in allComponents)
+        s.allComponentsStale = true;
+        s.registryStale = true;
         return s;
     }
 
@@ -315,44 +346,43 @@ public abstract class AbstractGameState {
         return new ArrayList<>();
     }
 
-    private List<Integer> unknownComponents(IComponentContainer<?> container, int player) {
-        ArrayList<Integer> retValue = new ArrayList<>();
-        if (container instanceof PartialObservableDeck<?>) {
-            PartialObservableDeck<?> pod = (PartialObservableDeck<?>) container;
-            for (int i = 0; i < pod.getSize(); i++) {
-                if (!pod.getVisibilityForPlayer(i, player))
-                    retValue.add(pod.get(i).getComponentID());
-            }
-        } else {
-            switch (container.getVisibilityMode()) {
-                case VISIBLE_TO_ALL:
-                    break;
-                case HIDDEN_TO_ALL:
-                    retValue.addAll(container.getComponents().stream().map(Component::getComponentID).collect(toList()));
-                    break;
-                case VISIBLE_TO_OWNER:
-                    if (((Component) container).getOwnerId() != player)
-                        retValue.addAll(container.getComponents().stream().map(Component::getComponentID).collect(toList()));
-                    break;
-                case FIRST_VISIBLE_TO_ALL:
-                    // add everything as unseen, and then remove the first element
-                    retValue.addAll(container.getComponents().stream().map(Component::getComponentID).collect(toList()));
-                    retValue.remove(container.getComponents().get(0).getComponentID());
-                    break;
-                case LAST_VISIBLE_TO_ALL:
-                    // add in the ID of the last item only
-                    int length = container.getComponents().size();
-                    retValue.add(container.getComponents().get(length - 1).getComponentID());
-                    break;
-                case MIXED_VISIBILITY:
-                    throw new AssertionError("If something uses this visibility mode, then you need to also add code to this method please!");
-            }
+    private void unknownComponents(IComponentContainer<?> container, int player, List<Integer> retValue) {
+        List<? extends Component> components = container.getComponents();
+        for (int i = 0; i < components.size(); i++) {
+            Component c = components.get(i);
+            if (Determiniser.isHidden(container, i, player))
+                retValue.add(c.getComponentID());
+            // we also need to run through the contents in case that contains any Containers
+            if (c instanceof IComponentContainer<?>)
+                unknownComponents((IComponentContainer<?>) c, player, retValue);
         }
-        // we also need to run through the contents in case that contains any Containers
-        container.getComponents().stream().filter(c -> c instanceof IComponentContainer<?>).forEach( c->
-                retValue.addAll(unknownComponents((IComponentContainer<?>) c, player))
-        );
-        return retValue;
+    }
+
+    /**
+     * Games should override this to return true if everything hidden from players is held in a Deck (a
+     * PartialObservableDeck, or a Deck with a VisibilityMode), and copy(playerId) does no more than shuffle these
+     * hidden components. A Determiniser can then sample what a player cannot see in a full copy of the state, without
+     * calling copy(playerId) for each sample.
+     *
+     * @return - true if a Determiniser may be used for this game.
+     */
+    public boolean isDeterminisable() {
+        return false;
+    }
+
+    /**
+     * Used by a Determiniser to decide which hidden components may be swapped with each other. Hidden components of
+     * the same class are shuffled together if their containers are in the same group.
+     *
+     * The default is the owner of the container, so that (for example) the hidden hand of a player is shuffled with
+     * their own draw pile, but not with those of anyone else. Games in which all unseen components come from one pool
+     * can return the same group for everything.
+     *
+     * @param container - a container holding hidden components.
+     * @return - the group of the container.
+     */
+    protected int getDeterminisationGroup(IComponentContainer<?> container) {
+        return ((Component) container).getOwnerId();
     }
 
     /**
@@ -378,7 +408,19 @@ public abstract class AbstractGameState {
         return copy(-1);
     }
 
+    /**
+     * @return the timers of all players, which may be modified. If they are shared with another state (after a copy)
+     * then this state first takes its own copies.
+     */
     public final ElapsedCpuChessTimer[] getPlayerTimer() {
+        if (playerTimerShared) {
+            ElapsedCpuChessTimer[] timers = new ElapsedCpuChessTimer[playerTimer.length];
+            for (int i = 0; i < timers.length; i++) {
+                timers[i] = playerTimer[i].copy();
+            }
+            playerTimer = timers;
+            playerTimerShared = false;
+        }
         return playerTimer;
     }
 
@@ -417,7 +459,7 @@ public abstract class AbstractGameState {
 
         for (Component c : everything) {
             if (c instanceof IComponentContainer<?>)
-                retValue.addAll(unknownComponents((IComponentContainer<?>) c, playerId));
+                unknownComponents((IComponentContainer<?>) c, playerId, retValue);
         }
         retValue.addAll(_getUnknownComponentsIds(playerId));
         return  retValue;
@@ -429,21 +471,77 @@ public abstract class AbstractGameState {
      * @param action The action that has just been applied (or is about to be applied) to the game state
      */
     protected void recordAction(AbstractAction action) {
-        history.add(action);
-        historyText.add("Player " + this.getCurrentPlayer() + " : " + action.getString(this));
+        if (recordHistory)
+            history = new HistoryEntry(history, action, getCurrentPlayer(), this);
+    }
+
+    /**
+     * Sets whether actions applied to this state are recorded in its history. Copies of the state take the same
+     * setting. Search agents switch this off on the copies they simulate with, as they never look at the history.
+     *
+     * @param recordHistory - true to record actions (the default), false otherwise.
+     */
+    public final void setRecordHistory(boolean recordHistory) {
+        this.recordHistory = recordHistory;
+    }
+    public final boolean isRecordingHistory() {
+        return recordHistory;
     }
 
     /**
      * @return All actions that have been executed on this state since reset()/initialisation
      */
     public List<AbstractAction> getHistory() {
-        return new ArrayList<>(history);
+        List<AbstractAction> retValue = new ArrayList<>();
+        for (HistoryEntry entry = history; entry != null; entry = entry.previous)
+            retValue.add(entry.action);
+        Collections.reverse(retValue);
+        return retValue;
+    }
+    /**
+     * @return As getHistory(), but with the player who took each action
+     */
+    public List<Pair<Integer, AbstractAction>> getHistoryWithPlayers() {
+        List<Pair<Integer, AbstractAction>> retValue = new ArrayList<>();
+        for (HistoryEntry entry = history; entry != null; entry = entry.previous)
+            retValue.add(new Pair<>(entry.player, entry.action));
+        Collections.reverse(retValue);
+        return retValue;
     }
+    /**
+     * @return The actions in getHistory() as text, as they were described by the state they were applied to
+     */
     public List<String> getHistoryAsText() {
-        return new ArrayList<>(historyText);
+        List<String> retValue = new ArrayList<>();
+        for (HistoryEntry entry = history; entry != null; entry = entry.previous)
+            retValue.add(entry.text);
+        Collections.reverse(retValue);
+        return retValue;
+    }
+
+    /**
+     * One action in the history of a state. Entries are never changed once created, so a copy of a state can share
+     * all of its history with the original, and each then adds its own later actions.
+     * The text is made when the action is applied, using the state it is applied to: the text may depend on
+     * information hidden from some players, so it must not be made later from a copy (or another player's view).
+     */
+    static class HistoryEntry {
+        final HistoryEntry previous;
+        final AbstractAction action;
+        final int player;
+        final String text;
+
+        HistoryEntry(HistoryEntry previous, AbstractAction action, int player, AbstractGameState state) {
+            this.previous = previous;
+            this.action = action;
+            this.player = player;
+            this.text = "Player " + player + " : " + action.getString(state);
+        }
     }
 
     void setGameID(int id) {gameID = id;} // package level deliberately
+    HistoryEntry getHistoryEntry() {return history;} // package level deliberately
+    void setHistoryEntry(HistoryEntry entry) {history = entry;} // package level deliberately
     public int getGameID() {return gameID;}
     void setCoreGameParameters(CoreParameters coreGameParameters) {
         this.coreGameParameters = coreGameParameters;
@@ -459,7 +557,7 @@ public abstract class AbstractGameState {
         AbstractGameState gameState = (AbstractGameState) o;
         return Objects.equals(gameParameters, gameState.gameParameters) &&
                 Objects.equals(turnOrder, gameState.turnOrder) &&
-                Objects.equals(allComponents, gameState.allComponents) &&
+                Objects.equals(componentIndex(), gameState.componentIndex()) &&
                 gameStatus == gameState.gameStatus &&
                 Arrays.equals(playerResults, gameState.playerResults) &&
                 Objects.equals(gamePhase, gameState.gamePhase) &&
@@ -470,8 +568,44 @@ public abstract class AbstractGameState {
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(gameParameters, turnOrder, allComponents, gameStatus, gamePhase);
+        int result = Objects.hash(gameParameters, turnOrder, componentIndex(), gameStatus, gamePhase);
         result = 31 * result + Arrays.hashCode(playerResults);
         return result;
     }
+
+    /**
+     * A 64-bit hash of this state, for use as a key in transposition tables and other caches of states. Unlike
+     * hashCode(), this should be cheap to call after every action.
+     * <p>
+     * The default is hashCode() spread over 64 bits, which looks at everything in the state. Games that hold all
+     * their state in their components (as returned by _getAllComponents()) can opt in to a cheaper hash by
+     * overriding this to return componentsLongHash(); games with other state may combine that with their own fields.
+     * MCTS only keeps a transposition table for games that override this.
+     *
+     * @return - 64-bit hash of this state.
+     */
+    public long longHash() {
+        return Hash.mix(hashCode());
+    }
+
+    /**
+     * Combines the longHash() of each top-level component, which those that contain others (e.g. Decks and
+     * GridBoards) keep up to date as they are changed, with the turn order and status of the game. The parameters
+     * are left out as they do not change during a game.
+     *
+     * @return - 64-bit hash of the components and status of this state.
+     */
+    protected final long componentsLongHash() {
+        long retValue = Hash.mix(turnOrder.hashCode());
+        retValue = Hash.combine(retValue, gameStatus.ordinal());
+        for (Utils.GameResult result : playerResults)
+            retValue = Hash.combine(retValue, result.ordinal());
+        retValue = Hash.combine(retValue, Objects.hashCode(gamePhase));
+        for (IExtendedSequence action : actionsInProgress)
+            retValue = Hash.combine(retValue, action.hashCode());
+        // components are combined with XOR, so that the order in which the game lists them does not matter
+        for (Component c : _getAllComponents())
+            retValue ^= c.longHash();
+        return retValue;
+    }
 }
@@ -150,6 +150,7 @@ public abstract class AbstractParameters {
 
     @Override
     public int hashCode() {
-        return Objects.hash(randomSeed, thinkingTimeMins, incrementActionS, incrementTurnS, incrementRoundS, incrementMilestoneS);
+        // the random seed is left out, as copy() changes it, and states should hash the same as their copies
+        return Objects.hash(thinkingTimeMins, incrementActionS, incrementTurnS, incrementRoundS, incrementMilestoneS);
     }
 }
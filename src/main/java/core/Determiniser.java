@@ -0,0 +1,205 @@
+package core;
+
+import core.components.Component;
+import core.components.Deck;
+import core.components.PartialObservableDeck;
+import core.interfaces.IComponentContainer;
+import utilities.Pair;
+
+import java.util.*;
+
+/**
+ * Samples the information hidden from one player in a game state: the components that the player cannot see are
+ * shuffled between the positions they are in, so that the state is one of those the player thinks may be the real one.
+ *
+ * The hidden positions are found once, when this is created, from the visibility of each PartialObservableDeck and the
+ * VisibilityMode of any other Deck (see isHidden()). Each sample is then made in place on a copy of the state, by
+ * swapping components between these positions with Deck.setComponent(). This can be done as many times as wanted on
+ * the same copy (for example to evaluate several determinisations of one decision), as the hidden positions do not
+ * change. Nothing is allocated for a sample, other than by the game in walking its containers.
+ *
+ * Hidden components are only swapped with others of the same class in containers of the same group (see
+ * AbstractGameState.getDeterminisationGroup()). Hidden components of other containers are not changed.
+ *
+ * This is only valid for games where everything hidden from players is in a Deck (see
+ * AbstractGameState.isDeterminisable()); other games implement their own shuffling in _copy(playerId).
+ */
+public class Determiniser {
+
+    private final int playerId;
+    // The decks with hidden components, by the order they are met in walking the state (see walk()), with their IDs
+    // and sizes to check that the state sampled has the same containers as the one this was made from
+    private final int[] deckOrdinals;
+    private final int[] deckIDs;
+    private final int[] deckSizes;
+    // The hidden positions, as a deck (index into the arrays above) and position in it, sorted by group; the positions
+    // of group g are from groupStart[g] up to groupStart[g + 1]
+    private final int[] slotDeck;
+    private final int[] slotPosition;
+    private final int[] groupStart;
+
+    // Working space for determinise()
+    private final List<Deck<?>> decks = new ArrayList<>();
+    private final Component[] hidden;
+
+    /**
+     * @param state    - the state to find hidden components in.
+     * @param playerId - the player that they are hidden from.
+     */
+    public Determiniser(AbstractGameState state, int playerId) {
+        this.playerId = playerId;
+        walk(state, decks);
+        Map<Pair<Integer, Class<?>>, List<int[]>> groups = new LinkedHashMap<>();
+        List<Integer> ordinals = new ArrayList<>();
+        for (int d = 0; d < decks.size() && playerId != -1; d++) {
+            Deck<?> deck = decks.get(d);
+            int group = state.getDeterminisationGroup(deck);
+            boolean found = false;
+            for (int i = 0; i < deck.getSize(); i++) {
+                if (deck.get(i) instanceof IComponentContainer<?> || !isHidden(deck, i, playerId))
+                    continue;
+                if (!found) {
+                    ordinals.add(d);
+                    found = true;
+                }
+                groups.computeIfAbsent(new Pair<>(group, deck.get(i).getClass()), k -> new ArrayList<>())
+                        .add(new int[]{ordinals.size() - 1, i});
+            }
+        }
+
+        deckOrdinals = new int[ordinals.size()];
+        deckIDs = new int[ordinals.size()];
+        deckSizes = new int[ordinals.size()];
+        for (int k = 0; k < deckOrdinals.length; k++) {
+            deckOrdinals[k] = ordinals.get(k);
+            deckIDs[k] = decks.get(deckOrdinals[k]).getComponentID();
+            deckSizes[k] = decks.get(deckOrdinals[k]).getSize();
+        }
+        int nSlots = 0;
+        for (List<int[]> slots : groups.values())
+            nSlots += slots.size();
+        slotDeck = new int[nSlots];
+        slotPosition = new int[nSlots];
+        groupStart = new int[groups.size() + 1];
+        int s = 0, g = 0;
+        for (List<int[]> slots : groups.values()) {
+            groupStart[g++] = s;
+            for (int[] slot : slots) {
+                slotDeck[s] = slot[0];
+                slotPosition[s++] = slot[1];
+            }
+        }
+        groupStart[g] = s;
+        hidden = new Component[nSlots];
+        decks.clear();
+    }
+
+    /**
+     * @return the player whose hidden information this samples.
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * @return the number of hidden components that are shuffled in each sample.
+     */
+    public int getHiddenCount() {
+        return hidden.length;
+    }
+
+    /**
+     * Shuffles the hidden components of the state between their positions. The state should be a copy of the one
+     * this was made from, or of one with the same containers (such as a state after this has been applied to it).
+     *
+     * @param state - the state to change.
+     * @param rnd   - random number generator for the shuffle.
+     */
+    @SuppressWarnings("unchecked")
+    public void determinise(AbstractGameState state, Random rnd) {
+        if (hidden.length == 0)
+            return;
+        walk(state, decks);
+        for (int k = 0; k < deckOrdinals.length; k++) {
+            Deck<?> deck = deckOrdinals[k] < decks.size() ? decks.get(deckOrdinals[k]) : null;
+            if (deck == null || deck.getComponentID() != deckIDs[k] || deck.getSize() != deckSizes[k]) {
+                decks.clear();
+                throw new IllegalArgumentException("State does not have the containers of the one this Determiniser was made from");
+            }
+        }
+        for (int s = 0; s < hidden.length; s++)
+            hidden[s] = decks.get(deckOrdinals[slotDeck[s]]).get(slotPosition[s]);
+        for (int g = 0; g < groupStart.length - 1; g++) {
+            // Fisher-Yates shuffle within the group
+            for (int s = groupStart[g + 1] - 1; s > groupStart[g]; s--) {
+                int other = groupStart[g] + rnd.nextInt(s - groupStart[g] + 1);
+                Component c = hidden[s];
+                hidden[s] = hidden[other];
+                hidden[other] = c;
+            }
+        }
+        for (int s = 0; s < hidden.length; s++) {
+            Deck<Component> deck = (Deck<Component>) decks.get(deckOrdinals[slotDeck[s]]);
+            if (deck.get(slotPosition[s]) != hidden[s])
+                deck.setComponent(slotPosition[s], hidden[s]);
+            hidden[s] = null;
+        }
+        decks.clear();
+    }
+
+    /**
+     * Finds all the decks in the state, including those held in other containers, in a fixed order.
+     */
+    private static void walk(AbstractGameState state, List<Deck<?>> decks) {
+        decks.clear();
+        for (Component c : state.getAllTopLevelComponents()) {
+            if (c instanceof IComponentContainer<?>)
+                walk((IComponentContainer<?>) c, decks);
+        }
+    }
+
+    private static void walk(IComponentContainer<?> container, List<Deck<?>> decks) {
+        if (container instanceof Deck<?>) {
+            // Deck.getComponents() is avoided, as it assumes the list is changed
+            Deck<?> deck = (Deck<?>) container;
+            decks.add(deck);
+            for (int i = 0; i < deck.getSize(); i++) {
+                if (deck.get(i) instanceof IComponentContainer<?>)
+                    walk((IComponentContainer<?>) deck.get(i), decks);
+            }
+        } else {
+            for (Component c : container.getComponents()) {
+                if (c instanceof IComponentContainer<?>)
+                    walk((IComponentContainer<?>) c, decks);
+            }
+        }
+    }
+
+    /**
+     * Checks if a component in a container is hidden from a player, using the visibility of each component for a
+     * PartialObservableDeck, and the VisibilityMode of the container otherwise.
+     *
+     * @param container - the container holding the component.
+     * @param index     - position of the component in the container.
+     * @param playerId  - the player observing the container.
+     * @return - true if the player cannot see the component.
+     */
+    public static boolean isHidden(IComponentContainer<?> container, int index, int playerId) {
+        if (container instanceof PartialObservableDeck<?>)
+            return !((PartialObservableDeck<?>) container).getVisibilityForPlayer(index, playerId);
+        switch (container.getVisibilityMode()) {
+            case VISIBLE_TO_ALL:
+                return false;
+            case HIDDEN_TO_ALL:
+                return true;
+            case VISIBLE_TO_OWNER:
+                return ((Component) container).getOwnerId() != playerId;
+            case FIRST_VISIBLE_TO_ALL:
+                return index != 0;
+            case LAST_VISIBLE_TO_ALL:
+                return index != container.getSize() - 1;
+            default:
+                throw new AssertionError("If something uses this visibility mode, then you need to also add code to this method please!");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package core;
 
 import core.actions.AbstractAction;
 import core.actions.DoNothing;
+import core.components.Component;
 import core.interfaces.IGameListener;
 import core.interfaces.IPrintable;
 import core.turnorders.ReactiveTurnOrder;
@@ -30,6 +31,10 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static core.CoreConstants.GameEvents;
@@ -195,6 +200,40 @@ public class Game {
     public static void runMany(List<GameType> gamesToPlay, List<AbstractPlayer> players, Long seed,
                                int nRepetitions, boolean randomizeParameters,
                                boolean detailedStatistics, List<IGameListener> listeners, int turnPause) {
+        runMany(gamesToPlay, players, seed, nRepetitions, randomizeParameters, detailedStatistics, listeners, turnPause,
+                (Utils.GameResult[][][]) null);
+    }
+
+    /**
+     * Runs several games with a given random seed, on nThreads threads.
+     * <p>
+     * The seed for every repetition of each game is drawn up front from the seed given, and every game is played by
+     * its own copies of the players, taken in order before any game starts. The games are then shared out between the
+     * threads, and the results are added to the statistics in the original order once all are done. So the results
+     * do not depend on the number of threads (though they are not those of the overload above, which plays the
+     * players given, each seed depending on the length of the game before).
+     * With more than one thread, no listeners may be given, as they keep the state of the game they are listening to
+     * between events; and every player must be copied by copy(), rather than returned by it.
+     *
+     * @param nThreads - number of games to play in parallel.
+     * @return - the player results of each repetition of each game, indexed as gamesToPlay and then by repetition;
+     * null for any game that could not be created.
+     */
+    public static Utils.GameResult[][][] runMany(List<GameType> gamesToPlay, List<AbstractPlayer> players, Long seed,
+                                                 int nRepetitions, boolean randomizeParameters,
+                                                 boolean detailedStatistics, List<IGameListener> listeners, int turnPause, int nThreads) {
+        Utils.GameResult[][][] results = runInParallel(gamesToPlay, players, seed, nRepetitions, randomizeParameters, listeners, turnPause, nThreads);
+        runMany(gamesToPlay, players, seed, nRepetitions, randomizeParameters, detailedStatistics, listeners, turnPause, results);
+        return results;
+    }
+
+    /**
+     * Prints the statistics of the results given (from runInParallel()), or if there are none plays the games in
+     * turn with the players given and prints theirs.
+     */
+    private static void runMany(List<GameType> gamesToPlay, List<AbstractPlayer> players, Long seed,
+                                int nRepetitions, boolean randomizeParameters, boolean detailedStatistics,
+                                List<IGameListener> listeners, int turnPause, Utils.GameResult[][][] parallelResults) {
         int nPlayers = players.size();
 
         // Save win rate statistics over all games
@@ -208,7 +247,8 @@ public class Game {
         }
 
         // For each game...
-        for (GameType gt : gamesToPlay) {
+        for (int g = 0; g < gamesToPlay.size(); g++) {
+            GameType gt = gamesToPlay.get(g);
 
             // Save win rate statistics over all repetitions of this game
             TAGStatSummary[] statSummaries = new TAGStatSummary[nPlayers];
@@ -216,6 +256,16 @@ public class Game {
                 statSummaries[i] = new TAGStatSummary("{Game: " + gt.name() + "; Player: " + agentNames[i] + "}");
             }
 
+            if (parallelResults != null) {
+                // the games have all been played already, so we just record the results
+                for (Utils.GameResult[] results : parallelResults[g])
+                    if (results != null)
+                        recordPlayerResults(statSummaries, results);
+                if (nRepetitions > 0 && parallelResults[g][0] != null)
+                    printStatistics(statSummaries, overall, detailedStatistics);
+                continue;
+            }
+
             // Play n repetitions of this game and record player results
             Game game = null;
             int offset = 0;
@@ -233,18 +283,7 @@ public class Game {
             }
 
             if (game != null) {
-                System.out.println("---------------------");
-                for (int i = 0; i < nPlayers; i++) {
-                    // Print statistics for this game
-                    if (detailedStatistics) {
-                        System.out.println(statSummaries[i].toString());
-                    } else {
-                        System.out.println(statSummaries[i].name + ": " + statSummaries[i].mean() + " (n=" + statSummaries[i].n() + ")");
-                    }
-
-                    // Record in overall statistics
-                    overall[i].add(statSummaries[i]);
-                }
+                printStatistics(statSummaries, overall, detailedStatistics);
             }
         }
 
@@ -260,6 +299,88 @@ public class Game {
         }
     }
 
+    private static void printStatistics(TAGStatSummary[] statSummaries, TAGStatSummary[] overall, boolean detailedStatistics) {
+        System.out.println("---------------------");
+        for (int i = 0; i < statSummaries.length; i++) {
+            // Print statistics for this game
+            if (detailedStatistics) {
+                System.out.println(statSummaries[i].toString());
+            } else {
+                System.out.println(statSummaries[i].name + ": " + statSummaries[i].mean() + " (n=" + statSummaries[i].n() + ")");
+            }
+
+            // Record in overall statistics
+            overall[i].add(statSummaries[i]);
+        }
+    }
+
+    /**
+     * Plays all repetitions of all the games on nThreads threads (see runMany()).
+     *
+     * @return - the player results of each repetition of each game, indexed as gamesToPlay and then by repetition;
+     * null for any game that could not be created.
+     */
+    private static Utils.GameResult[][][] runInParallel(List<GameType> gamesToPlay, List<AbstractPlayer> players, Long seed,
+                                                        int nRepetitions, boolean randomizeParameters,
+                                                        List<IGameListener> listeners, int turnPause, int nThreads) {
+        if (nThreads < 1)
+            throw new IllegalArgumentException("nThreads must be at least 1, not " + nThreads);
+        if (nThreads > 1 && listeners != null && !listeners.isEmpty())
+            throw new IllegalArgumentException("Listeners can only be used with one thread, as games played in parallel would be mixed up in them");
+        Random seedGenerator = new Random(seed == null ? System.currentTimeMillis() : seed);
+        long[] seeds = new long[nRepetitions];
+        for (int i = 0; i < nRepetitions; i++)
+            seeds[i] = seedGenerator.nextLong();
+
+        // players are copied here, rather than on the threads, as copy() need not be thread-safe; and all of them
+        // before any game starts, so that each copy is the same whatever the number of threads
+        List<List<List<AbstractPlayer>>> gamePlayers = new ArrayList<>();
+        for (int g = 0; g < gamesToPlay.size(); g++) {
+            List<List<AbstractPlayer>> repetitions = new ArrayList<>();
+            for (int i = 0; i < nRepetitions; i++) {
+                List<AbstractPlayer> copies = new ArrayList<>();
+                for (AbstractPlayer player : players) {
+                    AbstractPlayer copy = player.copy();
+                    if (copy == player && nThreads > 1)
+                        throw new IllegalArgumentException(player + " cannot play games in parallel, as copy() does not copy it");
+                    copies.add(copy);
+                }
+                repetitions.add(copies);
+            }
+            gamePlayers.add(repetitions);
+        }
+
+        Utils.GameResult[][][] results = new Utils.GameResult[gamesToPlay.size()][nRepetitions][];
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<?>> games = new ArrayList<>();
+            for (int g = 0; g < gamesToPlay.size(); g++) {
+                GameType gameType = gamesToPlay.get(g);
+                Utils.GameResult[][] gameResults = results[g];
+                for (int i = 0; i < nRepetitions; i++) {
+                    List<AbstractPlayer> copies = gamePlayers.get(g).get(i);
+                    long gameSeed = seeds[i];
+                    int repetition = i;
+                    games.add(executor.submit(() -> {
+                        Game game = runOne(gameType, null, copies, gameSeed, randomizeParameters, listeners, null, turnPause);
+                        if (game != null)
+                            gameResults[repetition] = game.getGameState().getPlayerResults().clone();
+                    }));
+                }
+            }
+            for (Future<?> game : games)
+                game.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while running games", e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Error in game", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return results;
+    }
+
     /**
      * Runs several games with a set of random seeds, one for each repetition of a game.
      *
@@ -322,8 +443,17 @@ public class Game {
      * @param game          - finished game
      */
     public static void recordPlayerResults(TAGStatSummary[] statSummaries, Game game) {
+        recordPlayerResults(statSummaries, game.getGameState().getPlayerResults());
+    }
+
+    /**
+     * Records the results of one game into the given StatSummary objects, as above.
+     *
+     * @param statSummaries - object recording statistics
+     * @param results       - result of the game for each player
+     */
+    public static void recordPlayerResults(TAGStatSummary[] statSummaries, Utils.GameResult[] results) {
         int nPlayers = statSummaries.length;
-        Utils.GameResult[] results = game.getGameState().getPlayerResults();
         for (int p = 0; p < nPlayers; p++) {
             if (results[p] == Utils.GameResult.WIN || results[p] == Utils.GameResult.LOSE || results[p] == Utils.GameResult.DRAW) {
                 statSummaries[p].add(results[p].value);
@@ -361,8 +491,10 @@ public class Game {
      * @param newRandomSeed - random seed is updated in the game parameters object and used throughout the game.
      */
     public final void reset(List<AbstractPlayer> players, long newRandomSeed) {
-        gameState.reset(newRandomSeed);
-        forwardModel.abstractSetup(gameState);
+        Component.withSetupIDs(() -> {
+            gameState.reset(newRandomSeed);
+            forwardModel.abstractSetup(gameState);
+        });
         if (players.size() == gameState.getNPlayers()) {
             this.players = players;
         } else if (players.isEmpty()) {
@@ -531,7 +663,7 @@ public class Game {
         }
 
         // Start the timer for this decision
-        gameState.playerTimer[activePlayer].resume();
+        gameState.getPlayerTimer()[activePlayer].resume();
 
         // Either ask player which action to use or, in case no actions are available, report the updated observation
         AbstractAction action = null;
@@ -560,8 +692,8 @@ public class Game {
         }
 
         // End the timer for this decision
-        gameState.playerTimer[activePlayer].pause();
-        gameState.playerTimer[activePlayer].incrementAction();
+        gameState.getPlayerTimer()[activePlayer].pause();
+        gameState.getPlayerTimer()[activePlayer].incrementAction();
 
         if (gameState.coreGameParameters.verbose && !(action == null)) {
             System.out.println(action);
@@ -28,7 +28,7 @@ public class Area extends Component implements IComponentContainer<Component> {
 
     public Area copy() {
         Area new_area = new Area(ownerId, componentName, componentID);
-        new_area.components = new HashMap<>();
+        new_area.components = new HashMap<>(components.size() * 4 / 3 + 1);
         for (Map.Entry<Integer, Component> c: this.components.entrySet()){
             new_area.components.put(c.getKey(), c.getValue().copy());
         }
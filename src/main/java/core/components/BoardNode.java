@@ -5,8 +5,7 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import utilities.Utils;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.*;
 
 public class BoardNode extends Component {
 
@@ -14,6 +13,12 @@ public class BoardNode extends Component {
     private HashMap<BoardNode, Integer> neighbourSideMapping;  // Neighbours mapping to a side of this board node
     private int maxNeighbours;  // Maximum number of neighbours for this board node
 
+    // The GraphBoard holding the neighbours of this node in its shared arrays (see GraphBoard.copy()), and the
+    // position of this node on it. A node copied along with the board takes its neighbours from there when first
+    // needed, and any node on such a board tells it before changing its neighbours.
+    GraphBoard board;
+    int position;
+
     public BoardNode(int maxNeighbours, String name) {
         super(Utils.ComponentType.BOARD_NODE, name);
         this.maxNeighbours = maxNeighbours;
@@ -32,11 +37,50 @@ public class BoardNode extends Component {
         this.neighbourSideMapping = new HashMap<>();
     }
 
+    /**
+     * A copy of a node on a board, with its neighbours in the shared arrays of the board.
+     */
+    BoardNode(int maxNeighbours, int ID, GraphBoard board, int position) {
+        super(Utils.ComponentType.BOARD_NODE, "", ID);
+        this.maxNeighbours = maxNeighbours;
+        this.board = board;
+        this.position = position;
+    }
+
+    /**
+     * Creates the neighbours of this node from the shared arrays of its board, if not done yet.
+     */
+    void loadNeighbours() {
+        if (neighbours == null) {
+            neighbours = new HashSet<>();
+            neighbourSideMapping = new HashMap<>();
+            board.loadNeighbours(this);
+        }
+    }
+
+    /**
+     * Called before the neighbours of this node are changed, as the shared arrays of its board no longer apply.
+     */
+    private void neighboursChanging() {
+        if (board != null)
+            board.connectionsChanged();
+    }
+
+    /**
+     * Adds a neighbour without any checks, when loading neighbours from a board.
+     */
+    void loadNeighbour(BoardNode neighbour, int side) {
+        neighbours.add(neighbour);
+        if (side >= 0)
+            neighbourSideMapping.put(neighbour, side);
+    }
+
     /**
      * Adds a neighbour for this node.
      * @param neighbour - new neighbour of this node.
      */
     public void addNeighbour(BoardNode neighbour) {
+        neighboursChanging();
         if (neighbours.size() <= maxNeighbours || maxNeighbours == -1) {
             neighbours.add(neighbour);
         }
@@ -48,6 +92,7 @@ public class BoardNode extends Component {
      * @return - true if removed successfully, false otherwise. may fail if neighbour didn't exist in the first place.
      */
     public boolean removeNeighbour(BoardNode neighbour) {
+        neighboursChanging();
         if (neighbours.contains(neighbour)) {
             neighbours.remove(neighbour);
             neighbourSideMapping.remove(neighbour);
@@ -63,6 +108,7 @@ public class BoardNode extends Component {
      * @return - true if added successfully, false otherwise. may fail if too many neighbours added already.
      */
     public boolean addNeighbour(BoardNode neighbour, int side) {
+        neighboursChanging();
         if (neighbours.size() <= maxNeighbours && side <= maxNeighbours || maxNeighbours == -1) {
             if (!(neighbours.contains(neighbour)) && !(neighbourSideMapping.containsKey(neighbour))) {
                 neighbours.add(neighbour);
@@ -84,17 +130,19 @@ public class BoardNode extends Component {
     }
 
     /**
-     * @return the neighbours of this node.
+     * @return the neighbours of this node. These cannot be changed directly, use addNeighbour() and removeNeighbour().
      */
-    public HashSet<BoardNode> getNeighbours() {
-        return neighbours;
+    public Set<BoardNode> getNeighbours() {
+        loadNeighbours();
+        return Collections.unmodifiableSet(neighbours);
     }
 
     /**
      * @return the neighbours mapping to sides of this node.
      */
-    public HashMap<BoardNode, Integer> getNeighbourSideMapping() {
-        return neighbourSideMapping;
+    public Map<BoardNode, Integer> getNeighbourSideMapping() {
+        loadNeighbours();
+        return Collections.unmodifiableMap(neighbourSideMapping);
     }
 
     /**
@@ -3,12 +3,19 @@ package core.components;
 import core.properties.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import utilities.Hash;
 import utilities.Utils.ComponentType;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Component {
-    private static int ID = 0;  // All components receive a unique and final ID from this always increasing counter
+    // Components created outside of game set-up receive a unique and final ID from this always increasing counter
+    private static final AtomicInteger ID = new AtomicInteger();
+    // Components created during game set-up take their IDs from a counter confined to the set-up (see withSetupIDs)
+    private static final ThreadLocal<int[]> setupID = new ThreadLocal<>();
+    // Set-up IDs start here, so that they do not overlap those from the global counter
+    static final int SETUP_ID_BASE = 1 << 30;
 
     protected final int componentID;  // Unique ID of this component
     protected final ComponentType type;  // Type of this component
@@ -17,14 +24,14 @@ public abstract class Component {
     protected String componentName;  // Name of this component
 
     public Component(ComponentType type, String name) {
-        this.componentID = ID++;
+        this.componentID = nextID();
         this.type = type;
         this.componentName = name;
         this.properties = new HashMap<>();
     }
 
     public Component(ComponentType type) {
-        this.componentID = ID++;
+        this.componentID = nextID();
         this.type = type;
         this.componentName = type.toString();
         this.properties = new HashMap<>();
@@ -44,6 +51,31 @@ public abstract class Component {
         this.properties = new HashMap<>();
     }
 
+    private static int nextID() {
+        int[] counter = setupID.get();
+        return counter == null ? ID.getAndIncrement() : counter[0]++;
+    }
+
+    /**
+     * Runs the set-up of a game state, with all components created by it (on this thread) numbered from
+     * SETUP_ID_BASE. The IDs are then the same every time a game is set up with the same seed, however many other
+     * games are being set up or played at the same time, and do not grow over the course of a long tournament.
+     * Components created outside of set-up (e.g. during play, or in the game state constructor) are still numbered
+     * from a global counter, so they never share an ID with one created during set-up.
+     *
+     * @param setup - code that sets up one game state.
+     */
+    public static void withSetupIDs(Runnable setup) {
+        int[] previous = setupID.get();
+        setupID.set(new int[]{SETUP_ID_BASE});
+        try {
+            setup.run();
+        } finally {
+            if (previous == null) setupID.remove();
+            else setupID.set(previous);
+        }
+    }
+
     /**
      * To be implemented by subclass, all components should be able to create copies of themselves.
      * @return - a new Component with the same properties.
@@ -236,4 +268,15 @@ public abstract class Component {
     public int hashCode() {
         return componentID;
     }
+
+    /**
+     * A 64-bit hash of this component, for use in AbstractGameState.longHash(). This should change whenever anything
+     * included in equals() changes. By default it is just the hash code spread over 64 bits; components that contain
+     * others (such as Decks and GridBoards) keep their hash up to date as they change, so this is always cheap.
+     *
+     * @return - 64-bit hash of this component.
+     */
+    public long longHash() {
+        return Hash.mix(hashCode());
+    }
 }
@@ -0,0 +1,109 @@
+package core.components;
+
+import core.interfaces.IComponentContainer;
+
+import java.util.*;
+
+/**
+ * Finds the components of one game state by their IDs. Components created during game set-up have dense IDs from
+ * Component.SETUP_ID_BASE (see Component.withSetupIDs()), so these are held in an array indexed by their offset from
+ * that, with no boxing or hashing of the ID. Any others are kept in a map.
+ * <p>
+ * The components given to setAll() are not all looked at straight away: each lookup walks back from the last
+ * top-level component given only until one holding the ID is found. Where several components have the same ID, the
+ * one found is the last in the order of a walk of everything given, as every later top-level component
+ * has been walked by then. So a state copied to make a few moves only walks what those moves look up.
+ */
+public class ComponentRegistry {
+
+    // Set-up IDs beyond this are unexpected, and are kept in the map rather than in a huge array
+    private static final int MAX_SETUP_COMPONENTS = 1 << 20;
+
+    // Components with set-up IDs, by componentID - SETUP_ID_BASE
+    private Component[] setupComponents = new Component[64];
+    // Components with any other IDs (created outside of set-up); null until needed
+    private Map<Integer, Component> otherComponents;
+    // Top-level components given to setAll(); those before index unwalked have not yet been walked
+    private Component[] topLevel = new Component[0];
+    private int unwalked;
+    // The contents of one top-level component, in the order of a full walk (reused to save allocation)
+    private final List<Component> walked = new ArrayList<>();
+
+    /**
+     * @param id - ID of the component to look for.
+     * @return - the component with the given ID, or null if there is none.
+     */
+    public Component get(int id) {
+        Component found = find(id);
+        while (found == null && unwalked > 0) {
+            walk(topLevel[--unwalked]);
+            found = find(id);
+        }
+        return found;
+    }
+
+    private Component find(int id) {
+        int index = id - Component.SETUP_ID_BASE;
+        if (index >= 0 && index < MAX_SETUP_COMPONENTS)
+            return index < setupComponents.length ? setupComponents[index] : null;
+        return otherComponents == null ? null : otherComponents.get(id);
+    }
+
+    /**
+     * Adds a component (replacing any other with the same ID), but not anything it contains.
+     *
+     * @param component - component to add.
+     */
+    public void put(Component component) {
+        int index = component.componentID - Component.SETUP_ID_BASE;
+        if (index >= 0 && index < MAX_SETUP_COMPONENTS) {
+            if (index >= setupComponents.length)
+                setupComponents = Arrays.copyOf(setupComponents, Math.max(index + 1, setupComponents.length * 2));
+            setupComponents[index] = component;
+        } else {
+            if (otherComponents == null)
+                otherComponents = new HashMap<>();
+            otherComponents.put(component.componentID, component);
+        }
+    }
+
+    /**
+     * Replaces all components with those in the list, and everything they contain (as Area.putComponents() does).
+     * These are only walked as lookups need them (see above).
+     *
+     * @param components - list of top-level components.
+     */
+    public void setAll(List<? extends Component> components) {
+        Arrays.fill(setupComponents, null);
+        otherComponents = null;
+        topLevel = components.toArray(topLevel.length == components.size() ? topLevel : new Component[components.size()]);
+        unwalked = topLevel.length;
+    }
+
+    // Adds the component and its contents, but not any ID already found in a later top-level component
+    private void walk(Component c) {
+        collect(c);
+        // the last of several components with the same ID in a full walk is the first one here
+        for (int i = walked.size() - 1; i >= 0; i--) {
+            Component component = walked.get(i);
+            if (find(component.componentID) == null)
+                put(component);
+        }
+        walked.clear();
+    }
+
+    private void collect(Component c) {
+        if (c == null)
+            return;
+        walked.add(c);
+        if (c instanceof Deck) {
+            // not getComponents(), which assumes the deck is about to be changed
+            Deck<?> deck = (Deck<?>) c;
+            for (int i = 0; i < deck.getSize(); i++)
+                collect(deck.get(i));
+        } else if (c instanceof IComponentContainer) {
+            for (Component contained : ((IComponentContainer<?>) c).getComponents())
+                collect(contained);
+        }
+    }
+}
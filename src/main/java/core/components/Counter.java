@@ -4,6 +4,7 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Hash;
 import utilities.Utils.ComponentType;
 
 import java.io.FileReader;
@@ -172,4 +173,9 @@ public class Counter extends Component {
     public int hashCode() {
         return componentID;
     }
+
+    @Override
+    public long longHash() {
+        return Hash.mix(componentID, value);
+    }
 }
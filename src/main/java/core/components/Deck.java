@@ -5,11 +5,13 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Hash;
 import utilities.Utils.ComponentType;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static core.CoreConstants.VisibilityMode;
 
@@ -26,6 +28,12 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     protected int capacity;  // Capacity of the deck (maximum number of elements)
     protected ArrayList<T> components;  // List of components in this deck
     protected VisibilityMode visibility;
+    // Zobrist hash of the components (see longHash()), each keyed by its position counted from the bottom of the deck,
+    // so that adding to or drawing from the top changes just one key. This is only kept up to date once longHash()
+    // has been called, and while componentsHashValid is true; that is set to false whenever the list may have been
+    // changed directly (e.g. through getComponents()), and the hash is then recalculated when next needed.
+    private long componentsHash;
+    private boolean componentsHashValid;
 
     public Deck(String name, VisibilityMode visibility) {
         this(name, -1, visibility);
@@ -72,6 +80,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     public T pick(int idx) {
         if(components.size() > 0 && idx < components.size() && idx >= 0) {
             T c = components.get(idx);
+            hashOut(idx);
             components.remove(idx);
             return c;
         }
@@ -145,6 +154,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         if (c==null)
             throw new IllegalArgumentException("null cannot be added to a Deck");
         c.setOwnerId(ownerId);
+        if (componentsHashValid) {
+            shiftHashes(index, 1);
+            componentsHash ^= Hash.mix(components.size() - index, c.hashCode());
+        }
         components.add(index, c);
         return capacity == -1 || components.size() <= capacity;
     }
@@ -165,6 +178,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(Deck<T> d, int index){
+        hashIn(d.components, index);
         components.addAll(index, d.components);
         for (T comp: d.components) {
             comp.setOwnerId(ownerId);
@@ -177,6 +191,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     public boolean add(Collection<T> d, int index){
+        hashIn(d, index);
         components.addAll(index, d);
         for (T comp: d) {
             comp.setOwnerId(ownerId);
@@ -207,6 +222,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     public boolean remove(int idx) {
         if (idx >= 0 && idx < components.size()) {
             components.get(idx).setOwnerId(-1);
+            hashOut(idx);
             components.remove(idx);
             return true;
         }
@@ -221,6 +237,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
             comp.setOwnerId(-1);
         }
         components.clear();
+        componentsHash = 0;
     }
     
     /**
@@ -228,6 +245,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void shuffle(Random rnd) {
         Collections.shuffle(components, rnd);
+        componentsChanged();
     }
 
     /**
@@ -244,6 +262,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
             components.set(fromIndex + i, component);
             i++;
         }
+        componentsChanged();
     }
 
     // Getters, Setters
@@ -253,8 +272,20 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     @Override
     public List<T> getComponents() {
+        // the list may be changed by the caller
+        componentsChanged();
         return components;
     }
+
+    @Override
+    public int getSize() {
+        return components.size();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return components.stream();
+    }
     
     /**
      * Maximum number of components this deck may contain.
@@ -284,6 +315,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void setComponents(ArrayList<T> components) {
         this.components = components;
+        componentsChanged();
         for (T comp: components) {
             comp.setOwnerId(ownerId);
         }
@@ -296,6 +328,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void setComponent(int idx, T component) {
         component.setOwnerId(ownerId);
+        if (componentsHashValid) {
+            int position = components.size() - 1 - idx;
+            componentsHash ^= Hash.mix(position, components.get(idx).hashCode()) ^ Hash.mix(position, component.hashCode());
+        }
         components.set(idx, component);
     }
 
@@ -329,18 +365,76 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     protected void copyTo(Deck<T> deck) {
-        ArrayList<T> newComponents = new ArrayList<>();
+        ArrayList<T> newComponents = new ArrayList<>(components.size());
         for (T c : components)
         {
             newComponents.add((T)c.copy());
         }
         deck.components = newComponents;
         deck.capacity = capacity;
+        deck.componentsHash = componentsHash;
+        deck.componentsHashValid = componentsHashValid;
 
         //copy type and component.
         copyComponentTo(deck);
     }
 
+    /**
+     * To be called by subclasses after changing the list of components directly, rather than through the methods of
+     * this class.
+     */
+    protected void componentsChanged() {
+        componentsHashValid = false;
+    }
+
+    /**
+     * Updates the hash for the component at idx being removed, which moves those above it down one position.
+     */
+    private void hashOut(int idx) {
+        if (componentsHashValid) {
+            componentsHash ^= Hash.mix(components.size() - 1 - idx, components.get(idx).hashCode());
+            shiftHashes(idx, -1);
+        }
+    }
+
+    /**
+     * Updates the hash for the given components being inserted at index, which moves those above them up.
+     */
+    private void hashIn(Collection<T> added, int index) {
+        if (componentsHashValid) {
+            shiftHashes(index, added.size());
+            int position = components.size() + added.size() - 1 - index;
+            for (T c : added)
+                componentsHash ^= Hash.mix(position--, c.hashCode());
+        }
+    }
+
+    /**
+     * Updates the hash for the top n components moving by shift positions (before the list itself is changed).
+     */
+    private void shiftHashes(int n, int shift) {
+        for (int i = 0; i < n; i++) {
+            int position = components.size() - 1 - i;
+            int hash = components.get(i).hashCode();
+            componentsHash ^= Hash.mix(position, hash) ^ Hash.mix(position + shift, hash);
+        }
+    }
+
+    /**
+     * A Zobrist hash of the components in the deck (in order), which is kept up to date as they are added and
+     * removed, so that this does not usually have to look at all of them.
+     */
+    @Override
+    public long longHash() {
+        if (!componentsHashValid) {
+            componentsHash = 0;
+            for (int i = 0; i < components.size(); i++)
+                componentsHash ^= Hash.mix(components.size() - 1 - i, components.get(i).hashCode());
+            componentsHashValid = true;
+        }
+        return Hash.combine(Hash.mix(componentID, ownerId) + capacity, componentsHash);
+    }
+
     /**
      * Loads all decks of cards from a given JSON file.
      * @param filename - path to file.
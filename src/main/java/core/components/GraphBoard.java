@@ -13,6 +13,7 @@ import utilities.Utils.ComponentType;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static core.CoreConstants.imgHash;
 import static core.CoreConstants.nameHash;
@@ -22,6 +23,29 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     // List of nodes in the board graph
     protected List<BoardNode> boardNodes;
 
+    // Indexes of nodes by string property value and by ID, as positions in boardNodes. These are built when first
+    // needed, and shared with copies (which keep the same order of nodes) until the list of nodes is changed.
+    private Map<Integer, Map<String, Integer>> stringPropertyIndex = new ConcurrentHashMap<>();
+    private int[] idIndex;  // component ID - firstID -> position in boardNodes, or -1
+    private int firstID;
+
+    // The connections between the nodes, built on the first copy and then shared by all copies until the nodes or
+    // their connections are changed, so that copying the board only needs to copy the properties of each node.
+    private Topology topology;
+
+    /**
+     * The neighbours of each node, as positions in boardNodes, and the side of the node each is on (or -1).
+     */
+    private static final class Topology {
+        final int[][] neighbours;
+        final int[][] sides;
+
+        Topology(int[][] neighbours, int[][] sides) {
+            this.neighbours = neighbours;
+            this.sides = sides;
+        }
+    }
+
     public GraphBoard(String name)
     {
         super(ComponentType.BOARD, name);
@@ -47,19 +71,51 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     }
 
     /**
-     * Copy method, to be implemented by all subclasses.
+     * Copy method, to be implemented by all subclasses. The connections between nodes are shared with the copy (see
+     * Topology), and only the nodes themselves and their properties are copied.
      * @return - a new instance of this Board, deep copy.
      */
     @Override
     public GraphBoard copy()
     {
+        Topology shared = topology;
+        if (shared == null) {
+            shared = buildTopology();
+            if (shared == null) return copyConnections();
+        }
+        GraphBoard b = new GraphBoard(componentName, componentID);
+        // Copy board nodes, keeping their order; their neighbours are set from the topology when first needed
+        b.boardNodes = new ArrayList<>(boardNodes.size());
+        for (int i = 0; i < boardNodes.size(); i++) {
+            BoardNode bn = boardNodes.get(i);
+            BoardNode bnCopy = new BoardNode(bn.getMaxNeighbours(), bn.getComponentID(), b, i);
+            bn.copyComponentTo(bnCopy);
+            b.boardNodes.add(bnCopy);
+        }
+        b.topology = shared;
+        // The nodes are in the same positions, so the indexes still apply
+        b.stringPropertyIndex = stringPropertyIndex;
+        b.idIndex = idIndex;
+        b.firstID = firstID;
+        // Copy properties
+        copyComponentTo(b);
+        return b;
+    }
+
+    /**
+     * Copies the board along with all the connections between nodes, for boards with nodes connected to others not on
+     * the board (for which a shared topology cannot be built).
+     */
+    private GraphBoard copyConnections() {
         GraphBoard b = new GraphBoard(componentName, componentID);
         HashMap<Integer, BoardNode> nodeCopies = new HashMap<>();
-        // Copy board nodes
+        List<BoardNode> nodes = new ArrayList<>(boardNodes.size());
+        // Copy board nodes, keeping their order
         for (BoardNode bn: boardNodes) {
             BoardNode bnCopy = new BoardNode(bn.getMaxNeighbours(), "", bn.getComponentID());
             bn.copyComponentTo(bnCopy);
             nodeCopies.put(bn.getComponentID(), bnCopy);
+            nodes.add(bnCopy);
         }
         // Assign neighbours
         for (BoardNode bn: boardNodes) {
@@ -72,12 +128,76 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
             }
         }
         // Assign new neighbours
-        b.setBoardNodes(new ArrayList<>(nodeCopies.values()));
+        b.setBoardNodes(nodes);
+        // The nodes are in the same positions, so the indexes still apply
+        b.stringPropertyIndex = stringPropertyIndex;
+        b.idIndex = idIndex;
+        b.firstID = firstID;
         // Copy properties
         copyComponentTo(b);
         return b;
     }
 
+    /**
+     * Builds the topology of this board from the neighbours of its nodes, and links the nodes to the board so that it
+     * is told if they change.
+     * @return - the topology, or null if any node has a neighbour which is not on this board.
+     */
+    private Topology buildTopology() {
+        HashMap<BoardNode, Integer> positions = new HashMap<>();
+        for (int i = 0; i < boardNodes.size(); i++) {
+            positions.putIfAbsent(boardNodes.get(i), i);
+        }
+        if (positions.size() != boardNodes.size()) return null;
+        int[][] neighbours = new int[boardNodes.size()][];
+        int[][] sides = new int[boardNodes.size()][];
+        for (int i = 0; i < boardNodes.size(); i++) {
+            BoardNode bn = boardNodes.get(i);
+            Map<BoardNode, Integer> sideMapping = bn.getNeighbourSideMapping();
+            neighbours[i] = new int[bn.getNeighbours().size()];
+            sides[i] = new int[neighbours[i].length];
+            int k = 0;
+            for (BoardNode neighbour : bn.getNeighbours()) {
+                Integer position = positions.get(neighbour);
+                if (position == null || boardNodes.get(position) != neighbour) return null;
+                neighbours[i][k] = position;
+                sides[i][k++] = sideMapping.getOrDefault(neighbour, -1);
+            }
+        }
+        for (int i = 0; i < boardNodes.size(); i++) {
+            boardNodes.get(i).board = this;
+            boardNodes.get(i).position = i;
+        }
+        topology = new Topology(neighbours, sides);
+        return topology;
+    }
+
+    /**
+     * Sets the neighbours of a node copied along with this board from the topology.
+     */
+    void loadNeighbours(BoardNode bn) {
+        int[] neighbours = topology.neighbours[bn.position];
+        int[] sides = topology.sides[bn.position];
+        for (int k = 0; k < neighbours.length; k++) {
+            bn.loadNeighbour(boardNodes.get(neighbours[k]), sides[k]);
+        }
+    }
+
+    /**
+     * Called before any connection between nodes, or the list of nodes, is changed. Each node is given its own
+     * neighbours, and the topology (which may still be shared with copies of this board) is no longer used.
+     */
+    void connectionsChanged() {
+        if (topology == null) return;
+        for (BoardNode bn : boardNodes) {
+            if (bn.board == this) bn.loadNeighbours();
+        }
+        for (BoardNode bn : boardNodes) {
+            if (bn.board == this) bn.board = null;
+        }
+        topology = null;
+    }
+
     /**
      * Returns the node in the list which matches the given property
      * @param prop_id - ID of the property to look for.
@@ -85,6 +205,8 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      * @return - node matching property.
      */
     public BoardNode getNodeByProperty(int prop_id, Property p) {
+        if (p instanceof PropertyString)
+            return getNodeByStringProperty(prop_id, ((PropertyString) p).value);
         for (BoardNode n : boardNodes) {
             Property prop = n.getProperty(prop_id);
             if(prop != null)
@@ -97,14 +219,43 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     }
 
     /**
-     * Returns the node in the list which matches the given string property
+     * Returns the node in the list which matches the given string property. This is looked up in an index of the
+     * values of the property, so is intended for properties that identify a node (such as its name); if the value
+     * has been changed since the index was built, then the list is searched instead.
      * @param prop_id - ID of the property to look for.
      * @param value - String value for the property.
      * @return - node matching property
      */
     public BoardNode getNodeByStringProperty(int prop_id, String value)
     {
-        return getNodeByProperty(prop_id, new PropertyString(value));
+        if (value != null) {
+            Integer position = stringPropertyIndex.computeIfAbsent(prop_id, this::indexStringProperty).get(value);
+            if (position != null && position < boardNodes.size()) {
+                BoardNode n = boardNodes.get(position);
+                if (hasStringProperty(n, prop_id, value))
+                    return n;
+            }
+        }
+        for (BoardNode n : boardNodes) {
+            if (hasStringProperty(n, prop_id, value))
+                return n;
+        }
+        return null;
+    }
+
+    private static boolean hasStringProperty(BoardNode n, int prop_id, String value) {
+        Property prop = n.getProperty(prop_id);
+        return prop instanceof PropertyString && Objects.equals(((PropertyString) prop).value, value);
+    }
+
+    private Map<String, Integer> indexStringProperty(int prop_id) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < boardNodes.size(); i++) {
+            Property prop = boardNodes.get(i).getProperty(prop_id);
+            if (prop instanceof PropertyString && ((PropertyString) prop).value != null)
+                index.putIfAbsent(((PropertyString) prop).value, i);
+        }
+        return index;
     }
 
     /**
@@ -115,34 +266,75 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     }
 
     /**
-     * Returns the node in the list which matches the given ID
+     * Returns the node in the list which matches the given ID, using an array indexed by ID (the IDs of the nodes of a
+     * board are usually consecutive).
      * @param id - ID of node to search for.
      * @return - node matching ID.
      */
     protected BoardNode getNodeByID(int id) {
+        if (idIndex == null)
+            indexIDs();
+        int i = id - firstID;
+        if (i >= 0 && i < idIndex.length && idIndex[i] >= 0 && idIndex[i] < boardNodes.size()) {
+            BoardNode n = boardNodes.get(idIndex[i]);
+            if (n.componentID == id) return n;
+        }
+        // not in the index, so the list may have been changed directly
         for (BoardNode n : boardNodes) {
             if (n.componentID == id) return n;
         }
         return null;
     }
 
+    private void indexIDs() {
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (BoardNode n : boardNodes) {
+            min = Math.min(min, n.componentID);
+            max = Math.max(max, n.componentID);
+        }
+        int[] index = new int[boardNodes.isEmpty() ? 0 : max - min + 1];
+        Arrays.fill(index, -1);
+        for (int i = 0; i < boardNodes.size(); i++) {
+            int slot = boardNodes.get(i).componentID - min;
+            if (index[slot] == -1) index[slot] = i;
+        }
+        firstID = min;
+        idIndex = index;
+    }
+
+    /**
+     * Called whenever nodes are added or removed, as the positions in the indexes may then be wrong. The old indexes
+     * may still be in use by copies of this board, so are replaced rather than cleared.
+     */
+    private void nodesChanged() {
+        stringPropertyIndex = new ConcurrentHashMap<>();
+        idIndex = null;
+    }
+
     /**
      * Sets the list of board nodes to the given list.
      * @param boardNodes - new list of board nodes.
      */
     public void setBoardNodes(List<BoardNode> boardNodes) {
+        connectionsChanged();
         this.boardNodes = boardNodes;
+        nodesChanged();
     }
 
     public void addBoardNode(BoardNode bn) {
+        connectionsChanged();
         this.boardNodes.add(bn);
+        nodesChanged();
     }
 
     public void removeBoardNode(BoardNode bn) {
+        connectionsChanged();
         this.boardNodes.remove(bn);
+        nodesChanged();
     }
 
     public void breakConnection(BoardNode bn1, BoardNode bn2) {
+        connectionsChanged();
         bn1.removeNeighbour(bn2);
         bn2.removeNeighbour(bn1);
 
@@ -164,9 +356,11 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
             }
         }
         if (!inBoard) boardNodes.remove(bn2);
+        nodesChanged();
     }
 
     public void addConnection(BoardNode bn1, BoardNode bn2) {
+        connectionsChanged();
         bn1.addNeighbour(bn2);
         bn2.addNeighbour(bn1);
         if (!boardNodes.contains(bn1)) {
@@ -175,6 +369,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
         if (!boardNodes.contains(bn2)) {
             boardNodes.add(bn2);
         }
+        nodesChanged();
     }
 
     /**
@@ -219,6 +414,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
             properties.put(imgHash, new PropertyString("img", (String) board.get("img")));
         }
 
+        connectionsChanged();
         JSONArray nodeList = (JSONArray) board.get("nodes");
         for(Object o : nodeList)
         {
@@ -230,6 +426,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
             newBN.setMaxNeighbours(maxNeighbours);
             boardNodes.add(newBN);
         }
+        nodesChanged();
 
         int _hash_neighbours_ = Hash.GetInstance().hash(neighboursKey);
         int _hash_vertices_ = Hash.GetInstance().hash(verticesKey);
@@ -8,6 +8,7 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Hash;
 import utilities.Pair;
 import utilities.Utils;
 import utilities.Vector2D;
@@ -26,6 +27,12 @@ public class GridBoard<T extends Component> extends Component implements ICompon
     private int height;  // Height of the board
 
     private Component[][] grid;  // 2D grid representation of this board
+    // Rows of the grid that may be shared with copies of this board (see copy()), and must be copied before writing
+    private boolean[] sharedRows;
+    // XOR of Hash.mix(cell, element) over all cells (see longHash()), updated by setElement(). This is only valid if
+    // cellsHashValid is true: it is false if the grid may have been changed some other way, and is recalculated
+    private long cellsHash;
+    private boolean cellsHashValid;
 
     protected GridBoard() {
         super(Utils.ComponentType.BOARD);
@@ -70,6 +77,10 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = orig.getWidth();
         this.height = orig.getHeight();
         this.grid = orig.grid.clone();
+        orig.shareRows();
+        this.shareRows();
+        this.cellsHash = orig.cellsHash;
+        this.cellsHashValid = orig.cellsHashValid;
     }
 
     /**
@@ -123,6 +134,27 @@ public class GridBoard<T extends Component> extends Component implements ICompon
             if (w >= 0) System.arraycopy(this.grid[i], 0, grid[i + offsetY], offsetX, w);
         }
         this.grid = grid;
+        this.sharedRows = null;
+        this.cellsHashValid = false;
+    }
+
+    /**
+     * Marks all rows of the grid as shared with another board.
+     */
+    private void shareRows() {
+        if (sharedRows == null || sharedRows.length != grid.length)
+            sharedRows = new boolean[grid.length];
+        Arrays.fill(sharedRows, true);
+    }
+
+    /**
+     * Makes sure row y of the grid belongs to this board only, copying it if it is shared.
+     */
+    private void ownRow(int y) {
+        if (sharedRows != null && sharedRows[y]) {
+            grid[y] = grid[y].clone();
+            sharedRows[y] = false;
+        }
     }
 
     /**
@@ -135,6 +167,9 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      */
     public boolean setElement(int x, int y, T value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            ownRow(y);
+            if (cellsHashValid)
+                cellsHash ^= cellHash(x, y, grid[y][x]) ^ cellHash(x, y, value);
             grid[y][x] = value;
             return true;
         } else
@@ -155,14 +190,38 @@ public class GridBoard<T extends Component> extends Component implements ICompon
     }
 
     /**
-     * Retrieves the grid.
+     * Retrieves the grid. This may be modified, so any rows shared with copies of this board are copied first.
+     * Use getElement() if the grid is only to be read.
      *
      * @return - 2D grid.
      */
     public Component[][] getGridValues() {
+        for (int y = 0; y < height; y++)
+            ownRow(y);
+        cellsHashValid = false;
         return grid;
     }
 
+    private long cellHash(int x, int y, Component element) {
+        return element == null ? 0 : Hash.mix(y * width + x, element.hashCode());
+    }
+
+    /**
+     * A Zobrist hash of the elements in the grid, which setElement() keeps up to date so that this does not have to
+     * look at every cell.
+     */
+    @Override
+    public long longHash() {
+        if (!cellsHashValid) {
+            cellsHash = 0;
+            for (int y = 0; y < height; y++)
+                for (int x = 0; x < width; x++)
+                    cellsHash ^= cellHash(x, y, grid[y][x]);
+            cellsHashValid = true;
+        }
+        return Hash.combine(componentID, cellsHash);
+    }
+
     public List<Vector2D> getEmptyCells(T defaultElement) {
         List<Vector2D> emptyCells = new ArrayList<>();
         for (int i = 0; i < height; i++) {
@@ -182,12 +241,19 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      * @return - new grid with the same elements and correct orientation.
      */
     public Component[][] rotate(int orientation) {
-        GridBoard<T> copy = copy();
         orientation %= 4;  // Maximum 4 sides to a grid
+        if (orientation <= 0) {
+            // the rows of this grid may be shared with copies, so the caller gets its own
+            Component[][] copy = new Component[height][];
+            for (int y = 0; y < height; y++)
+                copy[y] = grid[y].clone();
+            return copy;
+        }
+        Component[][] rotated = grid;
         for (int i = 0; i < orientation; i++) {
-            copy.grid = rotateClockWise(copy.grid);
+            rotated = rotateClockWise(rotated);
         }
-        return copy.grid;
+        return rotated;
     }
 
     /**
@@ -224,11 +290,12 @@ public class GridBoard<T extends Component> extends Component implements ICompon
 
     @Override
     public GridBoard<T> copy() {
-        Component[][] gridCopy = new Component[getHeight()][getWidth()];
-        for (int i = 0; i < height; i++) {
-            if (width >= 0) System.arraycopy(grid[i], 0, gridCopy[i], 0, width);
-        }
-        GridBoard<T> g = new GridBoard<>(gridCopy, componentID);
+        // The rows are shared between the two boards, and only copied by whichever board first changes them
+        GridBoard<T> g = new GridBoard<>(grid.clone(), componentID);
+        shareRows();
+        g.shareRows();
+        g.cellsHash = cellsHash;
+        g.cellsHashValid = cellsHashValid;
         copyComponentTo(g);
         return g;
     }
@@ -295,6 +362,8 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         }
 
         this.grid = new Component[height][width];
+        this.sharedRows = null;
+        this.cellsHashValid = false;
 
         JSONArray grids = (JSONArray) board.get("grid");
         int y = 0;
@@ -16,6 +16,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     protected boolean[] deckVisibility;
 
     // Visibility of each component in the deck, order corresponds to order of elements in the deck;
+    // the arrays may be shared with copies of this deck, so they are replaced rather than changed in place
     protected ArrayList<boolean[]> elementVisibility = new ArrayList<>();
 
     public boolean getVisibilityForPlayer(int elementIdx, int playerID) {
@@ -119,9 +120,11 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setVisibilityOfComponent(int index, int playerID, boolean visibility) {
         if (index >= 0 && index < elementVisibility.size()) {
-            if (playerID >= 0 && playerID < deckVisibility.length)
-                this.elementVisibility.get(index)[playerID] = visibility;
-            else
+            if (playerID >= 0 && playerID < deckVisibility.length) {
+                boolean[] b = this.elementVisibility.get(index).clone();
+                b[playerID] = visibility;
+                this.elementVisibility.set(index, b);
+            } else
                 throw new IllegalArgumentException("playerID " + playerID + "needs to be in range [0," + deckVisibility.length + "]");
         } else {
             throw new IllegalArgumentException("component index " + index + " needs to be in range [0," + components.size() + "]");
@@ -258,6 +261,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         Pair<ArrayList<T>, ArrayList<boolean[]>> shuffled = shuffleLists(components, elementVisibility, rnd);
         components = shuffled.a;
         elementVisibility = shuffled.b;
+        componentsChanged();
     }
 
     /**
@@ -321,6 +325,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
                 n++;
             }
         }
+        componentsChanged();
     }
 
     public boolean[] getDeckVisibility() {
@@ -334,11 +339,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
         dp.deckVisibility = deckVisibility.clone();
 
-        ArrayList<boolean[]> newVisibility = new ArrayList<>();
-        for (boolean[] visibility : elementVisibility) {
-            newVisibility.add(visibility.clone());
-        }
-        dp.elementVisibility = newVisibility;
+        dp.elementVisibility = new ArrayList<>(elementVisibility);
 
         return dp;
     }
@@ -6,6 +6,18 @@ public interface IStateFeatureVector {
 
     double[] featureVector(AbstractGameState state, int playerID);
 
+    /**
+     * Writes the feature vector into the given array, instead of allocating a new one. This is used by heuristics
+     * that are called many times (in MCTS for example), so implementations should override it where they can;
+     * the default just copies the result of featureVector().
+     *
+     * @param buffer - array of the same length as names(), to which the features are written.
+     */
+    default void featureVector(AbstractGameState state, int playerID, double[] buffer) {
+        double[] phi = featureVector(state, playerID);
+        System.arraycopy(phi, 0, buffer, 0, phi.length);
+    }
+
     String[] names();
 
 }
@@ -13,4 +13,14 @@ public interface IStateHeuristic {
      * @return - value of given state.
      */
     double evaluateState(AbstractGameState gs, int playerId);
+
+    /**
+     * Evaluates the state for every player at once. Heuristics can override this to share work between players.
+     * @param gs - game state to evaluate and score.
+     * @param values - array of length (at least) the number of players, to which the value for each player is written.
+     */
+    default void evaluateAllPlayers(AbstractGameState gs, double[] values) {
+        for (int p = 0; p < gs.getNPlayers(); p++)
+            values[p] = evaluateState(gs, p);
+    }
 }
\ No newline at end of file
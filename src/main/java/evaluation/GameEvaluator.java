@@ -19,12 +19,11 @@ import evodef.SearchSpace;
 import evodef.SolutionEvaluator;
 import games.GameType;
 import utilities.SummaryLogger;
+import utilities.SynchronisedLogger;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
-import java.util.function.BiFunction;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
@@ -50,6 +49,10 @@ public class GameEvaluator implements SolutionEvaluator {
     public IStatisticLogger statsLogger = new SummaryLogger();
     IStateHeuristic stateHeuristic;
     IGameHeuristic gameHeuristic;
+    // the number of games played (and averaged) for each NTBEA trial
+    public int gamesPerTrial = 1;
+    // the number of games to play in parallel
+    public int nThreads = 1;
 
     /**
      * GameEvaluator
@@ -104,12 +107,80 @@ public class GameEvaluator implements SolutionEvaluator {
      *                 The length of settings corresponds to searchSpace.nDims()
      *                 the value of settings[i] is a number in [0, searchSpace.nValues(i)]
      *                 the actual underlying parameter value can be found with searchSpace.value(i, settings[i])
-     * @return Returns the game score for the agent being optimised
+     * @return Returns the game score for the agent being optimised, averaged over gamesPerTrial games
      */
     @Override
     public double evaluate(int[] settings) {
-    //    System.out.printf("Starting evaluation %d of %s at %tT%n", nEvals,
-     //           Arrays.toString(settings), System.currentTimeMillis());
+        return Arrays.stream(evaluate(settings, gamesPerTrial)).average().orElse(0.0);
+    }
+
+    /**
+     * Plays nGames games with the given settings, nThreads at a time.
+     * <p>
+     * The players, seed and position of the tuned player for each game are chosen in turn on the calling thread, so
+     * that they depend only on the seed of this evaluator, and not on the number of threads (each game gets its own
+     * copies of the opponents). At most nThreads games are waiting to be played at any time, and each Game (and its
+     * state) is only created when a thread takes it, so memory does not grow with nGames. The results are returned in
+     * the order the games were chosen.
+     *
+     * @param settings as for evaluate(int[] settings)
+     * @param nGames   the number of games to play
+     * @return the game score for the agent being optimised in each game
+     */
+    public double[] evaluate(int[] settings, int nGames) {
+        double[] results = new double[nGames];
+        if (nThreads <= 1 || nGames == 1) {
+            for (int g = 0; g < nGames; g++)
+                results[g] = play(nextGame(settings, g));
+            return results;
+        }
+
+        int workers = Math.min(nThreads, nGames);
+        BlockingQueue<EvaluationGame> queue = new ArrayBlockingQueue<>(workers);
+        // the first error in any game; the other workers carry on taking games, so that this thread is never blocked
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int t = 0; t < workers; t++) {
+                futures.add(executor.submit(() -> {
+                    for (EvaluationGame next = queue.take(); next.index >= 0; next = queue.take()) {
+                        try {
+                            if (error.get() == null)
+                                results[next.index] = play(next);
+                        } catch (Throwable e) {
+                            error.compareAndSet(null, e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int g = 0; g < nGames; g++)
+                queue.put(nextGame(settings, g));
+            for (int t = 0; t < workers; t++)
+                queue.put(EvaluationGame.END);
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while running evaluation games", e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Error in evaluation game", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        if (error.get() != null)
+            throw new AssertionError("Error in evaluation game", error.get());
+        return results;
+    }
+
+    /**
+     * Chooses the players, seed and position of the tuned player for the next game.
+     *
+     * @param settings as for evaluate(int[] settings)
+     * @param index    the position of the game in the results
+     */
+    private EvaluationGame nextGame(int[] settings, int index) {
         Object configuredThing = searchSpace.getAgent(settings);
         boolean tuningPlayer = configuredThing instanceof AbstractPlayer;
         boolean tuningGame = configuredThing instanceof Game;
@@ -132,19 +203,51 @@ public class GameEvaluator implements SolutionEvaluator {
                 allPlayers.add(opponents.get(oppIndex).copy());
             } else {
                 AbstractPlayer tunedPlayer = (AbstractPlayer) searchSpace.getAgent(settings); // we create for each, in case this is coop
-                if (reportStatistics) tunedPlayer.setStatsLogger(statsLogger);
+                if (reportStatistics)
+                    tunedPlayer.setStatsLogger(nThreads > 1 ? new SynchronisedLogger(statsLogger) : statsLogger);
                 allPlayers.add(tunedPlayer);
             }
         }
-
-        Game newGame = tuningGame ? (Game) configuredThing : game.createGameInstance(nPlayers, gameParams);
+        nEvals++;
         // always reset the random seed for each new game
-        newGame.reset(allPlayers, rnd.nextLong());
+        return new EvaluationGame(index, tuningGame ? (Game) configuredThing : null, allPlayers, rnd.nextLong(), playerIndex);
+    }
 
+    /**
+     * Creates the game (unless it was configured by the search space) and plays it.
+     *
+     * @return the score of the agent being optimised
+     */
+    private double play(EvaluationGame next) {
+        // each game has its own parameters, as reset() changes their random seed
+        Game newGame = next.tunedGame != null ? next.tunedGame :
+                game.createGameInstance(nPlayers, gameParams == null ? null : gameParams.copy());
+        newGame.reset(next.players, next.seed);
         newGame.run();
+        return next.tunedGame != null ? gameHeuristic.evaluateGame(newGame) :
+                stateHeuristic.evaluateState(newGame.getGameState(), next.playerIndex);
+    }
 
-        nEvals++;
-        return tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerIndex);
+    /**
+     * One game chosen by nextGame(), waiting to be played.
+     */
+    private static class EvaluationGame {
+        // marks the end of the games, for the threads playing them
+        static final EvaluationGame END = new EvaluationGame(-1, null, null, 0, 0);
+
+        final int index;
+        final Game tunedGame;
+        final List<AbstractPlayer> players;
+        final long seed;
+        final int playerIndex;
+
+        EvaluationGame(int index, Game tunedGame, List<AbstractPlayer> players, long seed, int playerIndex) {
+            this.index = index;
+            this.tunedGame = tunedGame;
+            this.players = players;
+            this.seed = seed;
+            this.playerIndex = playerIndex;
+        }
     }
 
     /**
@@ -71,7 +71,10 @@ public class ParameterSearch {
                         "\trepeat=        The number of times NTBEA should be re-run, to find a single best recommendation \n" +
                         "\tverbose        Will log the results marginalised to each dimension, and the Top 10 best tuples for each run \n" +
                         "\tseed=          Random seed for Game use (not used by NTBEA itself). Defaults to System.currentTimeMillis()\n" +
-                        "\tlogFile=       Output file with results of each run for easier statistical analysis\n"
+                        "\tlogFile=       Output file with results of each run for easier statistical analysis\n" +
+                        "\ttrialGames=    The number of games played (and averaged) for each NTBEA trial. Defaults to 1.\n" +
+                        "\tnThreads=      The number of games to play in parallel, within each trial and for evalGames. Defaults to 1.\n" +
+                        "\t               This only applies when an opponent is specified (i.e. not with MultiNTBEA).\n"
         );
 
         if (argsList.size() < 3)
@@ -162,6 +165,8 @@ public class ParameterSearch {
         String logfile = getArg(args, "logFile", "");
         String evalMethod = getArg(args, "eval", "Win");
         String paramFile = getArg(args, "gameParam", "");
+        int trialGames = getArg(args, "trialGames", 1);
+        int nThreads = getArg(args, "nThreads", 1);
         AbstractParameters gameParams = ParameterFactory.createFromFile(game, paramFile);
 
         ITPSearchSpace searchSpace = (ITPSearchSpace) landscapeModel.getSearchSpace();
@@ -224,6 +229,8 @@ public class ParameterSearch {
                 gameHeuristic,
                 !allowDupes
         );
+        evaluator.gamesPerTrial = trialGames;
+        evaluator.nThreads = nThreads;
 
         // Get the results. And then log them.
         // This loops once for each complete repetition of NTBEA specified.
@@ -547,13 +554,10 @@ public class ParameterSearch {
         // now run the evaluation games on the final recommendation
         if (evaluator instanceof GameEvaluator && evalGames > 0) {
             ((GameEvaluator) evaluator).reportStatistics = true;
-            double[] results = IntStream.range(0, evalGames)
-                    .mapToDouble(answer -> {
-                        int[] settings = Arrays.stream(landscapeModel.getBestOfSampled())
-                                .mapToInt(d -> (int) d)
-                                .toArray();
-                        return evaluator.evaluate(settings);
-                    }).toArray();
+            int[] settings = Arrays.stream(landscapeModel.getBestOfSampled())
+                    .mapToInt(d -> (int) d)
+                    .toArray();
+            double[] results = ((GameEvaluator) evaluator).evaluate(settings, evalGames);
 
             double avg = Arrays.stream(results).average().orElse(0.0);
             double stdErr = Math.sqrt(Arrays.stream(results)
@@ -3,6 +3,7 @@ package evaluation;
 import core.AbstractParameters;
 import core.AbstractPlayer;
 import core.CoreConstants;
+import core.Game;
 import core.ParameterFactory;
 import core.interfaces.IGameListener;
 import core.interfaces.ILearner;
@@ -11,12 +12,17 @@ import core.interfaces.IStatisticLogger;
 import games.GameType;
 import players.PlayerFactory;
 import players.learners.AbstractLearner;
+import utilities.BinaryStatsLogger;
 import utilities.FileStatsLogger;
 import utilities.StateFeatureListener;
 import utilities.Utils;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -29,10 +35,11 @@ public class ProgressiveLearner {
     AbstractParameters params;
     List<AbstractPlayer> agents;
     ILearner learner;
-    int nPlayers, matchups, iterations, iter, finalMatchups;
+    int nPlayers, matchups, iterations, iter, finalMatchups, nThreads;
+    Random seedGenerator;
     AbstractPlayer basePlayer;
     AbstractPlayer[] agentsPerGeneration;
-    String[] dataFilesByIteration;
+    String[][] dataFilesByIteration;
     String[] learnedFilesByIteration;
     IStateFeatureVector phi;
     CoreConstants.GameEvents frequency;
@@ -56,7 +63,9 @@ public class ProgressiveLearner {
         iterations = getArg(args, "iterations", 100);
         useOnlyLast = getArg(args, "useOnlyLast", false);
         agentsPerGeneration = new AbstractPlayer[iterations];
-        dataFilesByIteration = new String[iterations];
+        dataFilesByIteration = new String[iterations][];
+        nThreads = getArg(args, "nThreads", 1);
+        seedGenerator = new Random(getArg(args, "seed", System.currentTimeMillis()));
         String learnerClass = getArg(args, "learner", "");
         if (learnerClass.equals(""))
             throw new IllegalArgumentException("Must specify a learner class");
@@ -109,6 +118,13 @@ public class ProgressiveLearner {
                             "\tdir=           The directory containing agent JSON files for learned heuristics and raw data\n" +
                             "\tgameParams=    (Optional) A JSON file from which the game parameters will be initialised.\n" +
                             "\tmatchups=      Defaults to 1. The number of games to play before the learning process is called.\n" +
+                            "\tnThreads=      Defaults to 1. The number of threads on which to play these games. Each thread plays\n" +
+                            "\t               a run of consecutive games, and writes its own data file.\n" +
+                            "\t               The learner is then given all of these files. (The final tournament, whose\n" +
+                            "\t               results are logged game by game, is played on one thread.)\n" +
+                            "\tseed=          The random seed from which the match-ups and seeds for all games are generated. Each game\n" +
+                            "\t               is played by its own copies of the agents, so with the same seed the same data is\n" +
+                            "\t               generated, whatever nThreads is. Defaults to the system time.\n" +
                             "\tstatePhi=      The full class name of an IStateFeatureVector implementation that defines the inputs \n" +
                             "\t               to the heuristic used in the player files.\n" +
                             "\tstateFreq=     How frequently to record a value to regress against (ROUND_OVER, TURN_OVER, ACTION_CHOSEN, ACTION_TAKEN)\n" +
@@ -136,7 +152,8 @@ public class ProgressiveLearner {
          which is what we are learning. The name of this file can be controlled from here - say ILearner name, date, iteration
          The ILearner will generate the file - the idea is that we decide what data to use here; load it into memory, pass this
          to the ILearner, along with the name of the file it should create with the results.
-         For the moment we will use a synchronous, single-threaded method, and wait between game runs.
+         The games for each iteration can be played on several threads (see nThreads), but we wait for all of them to
+         finish before learning from the data.
          */
 
         pl.run();
@@ -157,7 +174,9 @@ public class ProgressiveLearner {
         List<AbstractPlayer> finalAgents = Arrays.stream(agentsPerGeneration).collect(Collectors.toList());
         finalAgents.add(basePlayer);
         RoundRobinTournament tournament = new RandomRRTournament(finalAgents, gameToPlay, nPlayers,  true, finalMatchups,
-                System.currentTimeMillis(), params);
+                seedGenerator.nextLong(), params);
+        // the results of each game are logged by a listener, which can only be used with one thread
+        tournament.nThreads = 1;
 
         tournament.listeners = new ArrayList<>();
         IStatisticLogger logger = new FileStatsLogger(prefix + "_Final.txt");
@@ -194,20 +213,67 @@ public class ProgressiveLearner {
     }
 
     private void runGamesWithAgents() {
+        // Every game is set up here, in order, from the seed for this iteration and the index of the game: its
+        // match-up, its seed, and the copies of the agents that play it. The games are then split into runs of
+        // consecutive games, one for each thread, each with its own data file. So the data (read from the files in
+        // order) does not depend on the number of threads.
+        long iterationSeed = seedGenerator.nextLong();
+        RandomRRTournament.PermutationCycler matchUps = new RandomRRTournament.PermutationCycler(agents.size(), iterationSeed, nPlayers);
+        List<List<AbstractPlayer>> players = new ArrayList<>();
+        for (int i = 0; i < matchups; i++) {
+            List<AbstractPlayer> matchUpPlayers = new ArrayList<>();
+            for (int j = 0; j < nPlayers; j++)
+                matchUpPlayers.add(agents.get(matchUps.getAsInt()).copy());
+            players.add(matchUpPlayers);
+        }
+
+        int nShards = Math.max(1, Math.min(nThreads, matchups));
+        dataFilesByIteration[iter] = new String[nShards];
+        List<Runnable> shards = new ArrayList<>();
+        int firstGame = 0;
+        for (int shard = 0; shard < nShards; shard++) {
+            int from = firstGame, to = firstGame + matchups / nShards + (shard < matchups % nShards ? 1 : 0);
+            firstGame = to;
+            String fileName = nShards == 1 ? String.format("%s_%d.data", prefix, iter) :
+                    String.format("%s_%d_%d.data", prefix, iter, shard);
+            dataFilesByIteration[iter][shard] = fileName;
+            // created here, rather than on the threads, as params.copy() need not be thread-safe
+            Game game = gameToPlay.createGameInstance(nPlayers, params.copy());
+            StateFeatureListener dataTracker = new StateFeatureListener(new BinaryStatsLogger(fileName, false), phi, frequency, currentPlayerOnly);
+            game.addListener(dataTracker);
+            shards.add(() -> {
+                for (int i = from; i < to; i++) {
+                    game.reset(players.get(i), iterationSeed + i);
+                    game.run();
+                }
+                dataTracker.allGamesFinished();
+            });
+        }
+
         // Run!
-        RoundRobinTournament tournament = new RandomRRTournament(agents, gameToPlay, nPlayers,  true, matchups,
-                System.currentTimeMillis(), params);
-        tournament.verbose = false;
-
-        String fileName = String.format("%s_%d.data", prefix, iter);
-        dataFilesByIteration[iter] = fileName;
-        StateFeatureListener dataTracker = new StateFeatureListener(new FileStatsLogger(fileName), phi, frequency, currentPlayerOnly);
-        tournament.listeners = Collections.singletonList(dataTracker);
-        tournament.runTournament();
+        if (nShards == 1) {
+            shards.get(0).run();
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(nShards);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (Runnable shard : shards)
+                workers.add(executor.submit(shard));
+            for (Future<?> worker : workers)
+                worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while generating data", e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Error while generating data", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
     }
 
     private void learnFromNewData() {
-        // for the moment we will just supply the most recent file
+        // for the moment we will just supply the most recent files
         learner.learnFrom(dataFilesByIteration[iter]);
 
         String fileName = String.format("%s_%d.txt", prefix, iter);
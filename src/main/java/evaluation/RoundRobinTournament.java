@@ -1,9 +1,6 @@
 package evaluation;
 
-import core.AbstractParameters;
-import core.AbstractPlayer;
-import core.Game;
-import core.ParameterFactory;
+import core.*;
 import core.interfaces.IGameListener;
 import core.interfaces.IStatisticLogger;
 import games.GameType;
@@ -14,9 +11,12 @@ import players.rmhc.RMHCPlayer;
 import players.simple.OSLAPlayer;
 import players.simple.RandomPlayer;
 import utilities.FileStatsLogger;
+import utilities.SynchronisedLogger;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static utilities.Utils.GameResult;
 import static utilities.Utils.getArg;
@@ -26,11 +26,15 @@ public class RoundRobinTournament extends AbstractTournament {
     private static boolean debug = false;
     public final boolean selfPlay;
     private final int gamesPerMatchUp;
-    protected List<IGameListener> listeners;
+    protected List<IGameListener> listeners = new ArrayList<>();
     int[] pointsPerPlayer;
     LinkedList<Integer> agentIDs;
     private int matchUpsRun;
     public boolean verbose = true;
+    // number of games to run in parallel (see runQueuedGames()); listeners can only be used with one
+    public int nThreads = 1;
+    private long currentSeed;
+    private final List<QueuedGame> queuedGames = new ArrayList<>();
 
     /**
      * Create a round robin tournament, which plays all agents against all others.
@@ -92,7 +96,11 @@ public class RoundRobinTournament extends AbstractTournament {
                             "\t               use a different log file.\n" +
                             "\tstatsLog=      The file to use for logging agent-specific statistics (e.g. MCTS iterations/depth)\n" +
                             "\t               A single line will be generated as the average for each agent, implicitly assuming they are\n" +
-                            "\t               all of the same type. If not supplied, then no logging will take place.\n"
+                            "\t               all of the same type. If not supplied, then no logging will take place.\n" +
+                            "\tnThreads=      The number of games to run in parallel. Defaults to 1.\n" +
+                            "\t               Every game is played by fresh copies of the agents, so the results are the\n" +
+                            "\t               same whatever the number of threads. With more than one, no listeners can\n" +
+                            "\t               be used, so only the points of each agent are reported.\n"
             );
             return;
         }
@@ -105,8 +113,12 @@ public class RoundRobinTournament extends AbstractTournament {
         String playerDirectory = getArg(args, "players", "");
         String gameParams = getArg(args, "gameParams", "");
         String statsLogPrefix = getArg(args, "statsLog", "");
+        int nThreads = getArg(args, "nThreads", 1);
 
-        List<String> listenerClasses = new ArrayList<>(Arrays.asList(getArg(args, "listener", "utilities.GameResultListener").split("\\|")));
+        // listeners cannot be shared by games played in parallel, so by default there are none with several threads
+        String defaultListener = nThreads > 1 ? "" : "utilities.GameResultListener";
+        List<String> listenerClasses = new ArrayList<>(Arrays.asList(getArg(args, "listener", defaultListener).split("\\|")));
+        listenerClasses.remove("");
         List<String> listenerFiles = new ArrayList<>(Arrays.asList(getArg(args, "listenerFile", "RoundRobinReport.txt").split("\\|")));
 
         if (listenerClasses.size() > 1 && listenerFiles.size() > 1 && listenerClasses.size() != listenerFiles.size())
@@ -138,6 +150,7 @@ public class RoundRobinTournament extends AbstractTournament {
                 new RoundRobinTournament(agents, gameToPlay, nPlayersPerGame, matchups, selfPlay, params) :
                 new RandomRRTournament(agents, gameToPlay, nPlayersPerGame, selfPlay, matchups,
                         System.currentTimeMillis(), params);
+        tournament.nThreads = nThreads;
 
         tournament.listeners = new ArrayList<>();
         for (int l = 0; l < listenerClasses.size(); l++) {
@@ -166,7 +179,9 @@ public class RoundRobinTournament extends AbstractTournament {
                 System.out.println("Playing " + games.get(g).getGameType().name());
 
             LinkedList<Integer> matchUp = new LinkedList<>();
+            currentSeed = games.get(g).getGameState().getGameParameters().getRandomSeed();
             createAndRunMatchUp(matchUp, g);
+            runQueuedGames(g);
             int gameCounter = (gamesPerMatchUp * matchUpsRun);
             int gamesPerPlayer = gameCounter * playersPerGame.get(g) / agents.size();
 
@@ -183,6 +198,13 @@ public class RoundRobinTournament extends AbstractTournament {
             listener.allGamesFinished();
     }
 
+    /**
+     * @return the number of games won by each agent so far, indexed as the agents were given to the constructor.
+     */
+    public int[] getPointsPerPlayer() {
+        return pointsPerPlayer.clone();
+    }
+
     /**
      * Recursively creates one combination of players and evaluates it.
      *
@@ -212,27 +234,101 @@ public class RoundRobinTournament extends AbstractTournament {
     protected void evaluateMatchUp(List<Integer> agentIDs, int gameIdx) {
         if (debug)
             System.out.printf("Evaluate %s at %tT%n", agentIDs.toString(), System.currentTimeMillis());
-        LinkedList<AbstractPlayer> matchUpPlayers = new LinkedList<>();
-        for (int agentID : agentIDs)
-            matchUpPlayers.add(this.agents.get(agentID));
+        // Queue the games N = gamesPerMatchUp times with these players, to be run by runQueuedGames
+        for (int i = 0; i < this.gamesPerMatchUp; i++)
+            queuedGames.add(new QueuedGame(new ArrayList<>(agentIDs), currentSeed + i + 1));
+        currentSeed += gamesPerMatchUp;
+        matchUpsRun++;
+    }
 
-        for (IGameListener listener : listeners) {
-            games.get(gameIdx).addListener(listener);
+    /**
+     * Runs all the games queued by evaluateMatchUp on nThreads threads. Each thread has its own Game (and hence
+     * forward model), and each game is played by fresh copies of the agents. The copies and the Games are all made
+     * up front on this thread (as copy() need not be thread-safe), the copies in the order the games were queued,
+     * and the points are added up in the same order once all games are over, so the results do not depend on the
+     * number of threads or on the order in which the games finish.
+     * <p>
+     * Listeners can only be used with one thread, as they keep the state of the game they are listening to from
+     * one event to the next.
+     *
+     * @param gameIdx - index of game to play.
+     */
+    private void runQueuedGames(int gameIdx) {
+        if (nThreads < 1)
+            throw new IllegalArgumentException("nThreads must be at least 1, not " + nThreads);
+        if (nThreads > 1 && !listeners.isEmpty())
+            throw new IllegalArgumentException("Listeners can only be used with one thread, as games played in parallel would be mixed up in them");
+        List<List<AbstractPlayer>> players = new ArrayList<>();
+        for (QueuedGame queuedGame : queuedGames) {
+            List<AbstractPlayer> matchUpPlayers = new ArrayList<>();
+            for (int agentID : queuedGame.agentIDs) {
+                AbstractPlayer agent = this.agents.get(agentID);
+                AbstractPlayer copy = agent.copy();
+                if (agent.getStatsLogger() != null)
+                    copy.setStatsLogger(nThreads > 1 ? new SynchronisedLogger(agent.getStatsLogger()) : agent.getStatsLogger());
+                matchUpPlayers.add(copy);
+            }
+            players.add(matchUpPlayers);
         }
 
-        // Run the game N = gamesPerMatchUp times with these players
-        long currentSeed = games.get(gameIdx).getGameState().getGameParameters().getRandomSeed();
-        for (int i = 0; i < this.gamesPerMatchUp; i++) {
-            games.get(gameIdx).reset(matchUpPlayers, currentSeed + i + 1);
+        GameType gameType = games.get(gameIdx).getGameType();
+        AbstractParameters gameParams = games.get(gameIdx).getGameState().getGameParameters();
+        int nPlayers = playersPerGame.get(gameIdx);
+        GameResult[][] results = new GameResult[queuedGames.size()][];
+        AtomicInteger nextGame = new AtomicInteger();
+        List<Runnable> workers = new ArrayList<>();
+        for (int t = 0; t < nThreads; t++) {
+            Game game = gameType.createGameInstance(nPlayers, gameParams.copy());
+            for (IGameListener listener : listeners)
+                game.addListener(listener);
+            workers.add(() -> {
+                for (int i = nextGame.getAndIncrement(); i < results.length; i = nextGame.getAndIncrement()) {
+                    game.reset(players.get(i), queuedGames.get(i).seed);
+                    game.run();
+                    results[i] = game.getGameState().getPlayerResults().clone();
+                }
+            });
+        }
 
-            games.get(gameIdx).run();  // Always running tournaments without visuals
+        if (nThreads == 1) {
+            workers.get(0).run();
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+            try {
+                List<Future<?>> running = new ArrayList<>();
+                for (Runnable worker : workers)
+                    running.add(executor.submit(worker));
+                for (Future<?> worker : running)
+                    worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted while running tournament games", e);
+            } catch (ExecutionException e) {
+                throw new AssertionError("Error in tournament game", e.getCause());
+            } finally {
+                executor.shutdown();
+            }
+        }
 
-            GameResult[] results = games.get(gameIdx).getGameState().getPlayerResults();
-            for (int j = 0; j < matchUpPlayers.size(); j++) {
-                pointsPerPlayer[agentIDs.get(j)] += results[j] == GameResult.WIN ? 1 : 0;
+        for (int i = 0; i < results.length; i++) {
+            List<Integer> matchUp = queuedGames.get(i).agentIDs;
+            for (int j = 0; j < matchUp.size(); j++) {
+                pointsPerPlayer[matchUp.get(j)] += results[i][j] == GameResult.WIN ? 1 : 0;
             }
         }
-        games.get(gameIdx).clearListeners();
-        matchUpsRun++;
+        queuedGames.clear();
+    }
+
+    /**
+     * One game waiting to be run: the agents in player order, and the seed for the game.
+     */
+    private static class QueuedGame {
+        final List<Integer> agentIDs;
+        final long seed;
+
+        QueuedGame(List<Integer> agentIDs, long seed) {
+            this.agentIDs = agentIDs;
+            this.seed = seed;
+        }
     }
 }
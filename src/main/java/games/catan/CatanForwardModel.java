@@ -361,7 +361,7 @@ public class CatanForwardModel extends AbstractForwardModel {
         return board;
     }
 
-    private Graph extractGraphFromBoard(CatanTile[][] board) {
+    private Graph<Settlement, Road> extractGraphFromBoard(CatanTile[][] board) {
         Graph<Settlement, Road> graph = new Graph<>();
         for (int x = 0; x < board.length; x++) {
             for (int y = 0; y < board[x].length; y++) {
@@ -10,9 +10,9 @@ import core.components.Deck;
 import core.interfaces.IGamePhase;
 import games.GameType;
 import games.catan.actions.OfferPlayerTrade;
-import games.catan.components.Edge;
 import games.catan.components.Graph;
 import games.catan.components.Road;
+import games.catan.components.RoadNetwork;
 import games.catan.components.Settlement;
 import utilities.Utils;
 
@@ -24,6 +24,7 @@ import static games.catan.CatanConstants.*;
 public class CatanGameState extends AbstractGameState {
     protected CatanTile[][] board;
     protected Graph<Settlement, Road> catanGraph;
+    protected RoadNetwork roadNetwork; // who owns which roads and settlements, to measure roads
     protected Card boughtDevCard; // used to keep a reference to a dev card bought in the current turn to avoid playing it
     protected int scores[]; // score for each player
     protected int victoryPoints[]; // secret points from victory cards
@@ -85,6 +86,7 @@ public class CatanGameState extends AbstractGameState {
         board = null;
         currentTradeOffer = null;
         catanGraph = null;
+        roadNetwork = null;
 
         CatanParameters pp = (CatanParameters) gameParameters;
         scores = new int[getNPlayers()];
@@ -113,11 +115,12 @@ public class CatanGameState extends AbstractGameState {
         return board;
     }
 
-    public void setGraph(Graph graph) {
+    public void setGraph(Graph<Settlement, Road> graph) {
         this.catanGraph = graph;
+        this.roadNetwork = new RoadNetwork(catanGraph, getNPlayers());
     }
 
-    public Graph getGraph() {
+    public Graph<Settlement, Road> getGraph() {
         return catanGraph;
     }
 
@@ -239,78 +242,15 @@ public class CatanGameState extends AbstractGameState {
         return boughtDevCard;
     }
 
-    public int getRoadDistance(int x, int y, int edge) {
-        // As the settlements are the nodes, we expand them to find roads
-        // calculates the distance length of the road
-        HashSet<Road> roadSet = new HashSet<>();
-        HashSet<Road> roadSet2 = new HashSet<>();
+    public RoadNetwork getRoadNetwork() {
+        return roadNetwork;
+    }
 
-        ArrayList<Settlement> dir1 = new ArrayList<>();
-        ArrayList<Settlement> dir2 = new ArrayList<>();
+    public int getRoadDistance(int x, int y, int edge) {
+        // calculates the length of the road of the current player through the given edge of the tile
         Settlement settl1 = board[x][y].getSettlements()[edge];
         Settlement settl2 = board[x][y].getSettlements()[(edge + 1) % 6];
-
-        dir1.add(settl1);
-        dir2.add(settl2);
-
-        // find longest segment, we first follow dir_1 then dir_2
-        roadSet = expandRoad(this, roadSet, new ArrayList<>(dir1), new ArrayList<>(dir2));
-        roadSet.addAll(expandRoad(this, roadSet2, new ArrayList<>(dir2), new ArrayList<>(dir1)));
-
-//        System.out.println("Current road length is " + roadSet.size() + " for player " + getCurrentPlayer());
-        return roadSet.size();
-    }
-
-    private static HashSet<Road> expandRoad(CatanGameState gs, HashSet<Road> roadSet, List<Settlement> unexpanded, List<Settlement> expanded) {
-        // return length, makes it possible to compare segments
-        // modify original set
-        if (unexpanded.size() == 0) {
-            return roadSet;
-        }
-        if (unexpanded.size() == 2) {
-            // Handle branching
-            int length = 0;
-            HashSet<Road> longestSegment = new HashSet<>(roadSet);
-            for (Settlement settlement : unexpanded) {
-                ArrayList<Settlement> toExpand = new ArrayList<>();
-                toExpand.add(settlement);
-                HashSet<Road> roadSetCopy = new HashSet<>(roadSet);
-                roadSetCopy = expandRoad(gs, roadSetCopy, toExpand, expanded);
-                if (roadSetCopy.size() >= length) {
-                    length = roadSetCopy.size();
-                    longestSegment = roadSetCopy;
-                }
-            }
-            roadSet.addAll(longestSegment);
-            return roadSet;
-        } else {
-            // case of expanding a single settlement
-            Settlement settlement = unexpanded.remove(0);
-            expanded.add(settlement);
-
-            List<Edge<Settlement, Road>> edges = gs.getGraph().getEdges(settlement);
-            if (edges != null) {
-                for (Edge<Settlement, Road> e : edges) {
-                    Road road = e.getValue();
-                    if (road.getOwner() == gs.getCurrentPlayer()) {
-                        if (expanded.contains(e.getDest())) {
-                            // The road used to get here
-                            roadSet.add(road);
-                        } else {
-                            // if settlement belongs to somebody else it's a deadend
-                            if (e.getDest().getOwner() == -1 || e.getDest().getOwner() == gs.getCurrentPlayer()) {
-                                unexpanded.add(e.getDest());
-                            }
-                        }
-                    }
-
-                }
-
-            }
-        }
-
-        // only gets here when explored a single road
-        return expandRoad(gs, roadSet, unexpanded, expanded);
+        return roadNetwork.getRoadDistance(settl1.getID(), settl2.getID(), getCurrentPlayer());
     }
 
     public ArrayList<Road> getRoads() {
@@ -479,6 +419,7 @@ public class CatanGameState extends AbstractGameState {
         copy.board = copyBoard();
         copy.boughtDevCard = boughtDevCard == null ? null : boughtDevCard.copy();
         copy.catanGraph = catanGraph.copy();
+        copy.roadNetwork = roadNetwork.copy();
         copy.areas = copyAreas();
         if (playerId != -1) {
             copy.shuffleDevelopmentCards(playerId);
@@ -61,6 +61,7 @@ public class BuildRoad extends AbstractAction {
                     e.getValue().setOwner(playerID);
                 }
             }
+            cgs.getRoadNetwork().addRoad(board[x][y].getRoads()[edge].getID(), playerID);
             return true;
         } else {
             throw new AssertionError("Road already owned: " + this.toString());
@@ -47,6 +47,7 @@ public class BuildSettlement extends AbstractAction {
                 }
             }
             board[x][y].addSettlement(vertex, playerID);
+            cgs.getRoadNetwork().addSettlement(board[x][y].getSettlements()[vertex].getID(), playerID);
             if(board[x][y].getSettlements()[vertex].getHarbour()!=null){
                 int defaultExchangeRate = ((CatanParameters)cgs.getGameParameters()).default_exchange_rate;
                 int[] exchangeRates = cgs.getExchangeRates(playerID);
@@ -51,6 +51,12 @@ public class Graph<N extends Copiable, E extends Copiable> {
         return nodes;
     }
 
+    /* Returns all the nodes in the graph
+     *  */
+    public Set<N> getNodes(){
+        return map.keySet();
+    }
+
     /* Returns the the edges [src, dest, edge]
     *  */
     public List<Edge<N, E>> getEdges(N src){
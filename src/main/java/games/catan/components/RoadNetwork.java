@@ -0,0 +1,194 @@
+package games.catan.components;
+
+import java.util.*;
+
+/*
+ * Keeps track of who owns which roads and settlements as they are built, so that the length of a road can be found
+ * without searching the Graph.
+ *
+ * The layout of the board (which settlements each road joins) is indexed once from the Graph and shared by all
+ * copies; only who owns what is copied. Settlements and roads are identified by their IDs, so the copies of them
+ * made along with the game state are all treated as the same. The roads at each settlement are kept in the same
+ * order as Graph.getEdges gives them, and a settlement with no edges in the Graph has no roads here either.
+ *
+ * For each player a bitmask per settlement gives which of its (at most 3) roads the player owns, and building a road
+ * or a settlement only updates the bits and owners it touches. The length of a road is then found by a search that
+ * only visits the roads of the player connected to it, with the roads found kept as bits in a long[].
+ * */
+public class RoadNetwork {
+
+    private static final int MAX_DEGREE = 3;
+
+    // board layout, shared by all copies
+    private final Map<Integer, Integer> nodeIndex; // settlement ID -> node
+    private final Map<Integer, Integer> edgeIndex; // road ID -> edge
+    private final int[][] nodeEdges; // edges at each node, in the order of the Graph
+    private final int[][] nodeDests; // the node at the other end of each of nodeEdges
+    private final int[][] edgeNodes; // the 2 nodes of each edge
+
+    private final int nPlayers;
+    private final int[] nodeOwner;
+    private final int[][] adjacency; // [player][node] -> bit k set if the player owns nodeEdges[node][k]
+
+    // working space for the search
+    private final boolean[] expanded;
+    private int[] queue;
+    private int head, tail;
+
+    /*
+     * Indexes the roads and settlements in the graph, all of which should be unowned
+     * */
+    public RoadNetwork(Graph<Settlement, Road> graph, int nPlayers) {
+        this.nPlayers = nPlayers;
+        nodeIndex = new HashMap<>();
+        edgeIndex = new HashMap<>();
+        List<int[]> edges = new ArrayList<>();
+        Map<Integer, List<Edge<Settlement, Road>>> edgesAt = new HashMap<>();
+        for (Settlement settlement : graph.getNodes()) {
+            int node = nodeIndex.computeIfAbsent(settlement.getID(), k -> nodeIndex.size());
+            edgesAt.put(node, graph.getEdges(settlement));
+            for (Edge<Settlement, Road> e : graph.getEdges(settlement)) {
+                int dest = nodeIndex.computeIfAbsent(e.getDest().getID(), k -> nodeIndex.size());
+                if (!edgeIndex.containsKey(e.getValue().getID())) {
+                    edgeIndex.put(e.getValue().getID(), edges.size());
+                    edges.add(new int[]{node, dest});
+                }
+            }
+        }
+        edgeNodes = edges.toArray(new int[0][]);
+        nodeEdges = new int[nodeIndex.size()][];
+        nodeDests = new int[nodeIndex.size()][];
+        for (int node = 0; node < nodeEdges.length; node++) {
+            List<Edge<Settlement, Road>> list = edgesAt.getOrDefault(node, Collections.emptyList());
+            if (list.size() > MAX_DEGREE)
+                throw new AssertionError("Settlement with " + list.size() + " roads");
+            nodeEdges[node] = new int[list.size()];
+            nodeDests[node] = new int[list.size()];
+            for (int k = 0; k < list.size(); k++) {
+                nodeEdges[node][k] = edgeIndex.get(list.get(k).getValue().getID());
+                nodeDests[node][k] = nodeIndex.get(list.get(k).getDest().getID());
+            }
+        }
+
+        nodeOwner = new int[nodeEdges.length];
+        Arrays.fill(nodeOwner, -1);
+        adjacency = new int[nPlayers][nodeEdges.length];
+        expanded = new boolean[nodeEdges.length];
+        queue = new int[nodeEdges.length];
+    }
+
+    private RoadNetwork(RoadNetwork other) {
+        nodeIndex = other.nodeIndex;
+        edgeIndex = other.edgeIndex;
+        nodeEdges = other.nodeEdges;
+        nodeDests = other.nodeDests;
+        edgeNodes = other.edgeNodes;
+        nPlayers = other.nPlayers;
+        nodeOwner = other.nodeOwner.clone();
+        adjacency = new int[nPlayers][];
+        for (int p = 0; p < nPlayers; p++) {
+            adjacency[p] = other.adjacency[p].clone();
+        }
+        expanded = new boolean[nodeEdges.length];
+        queue = new int[nodeEdges.length];
+    }
+
+    public RoadNetwork copy() {
+        return new RoadNetwork(this);
+    }
+
+    /* Records that the player has built the road */
+    public void addRoad(int roadID, int player) {
+        int edge = edgeIndex.get(roadID);
+        for (int node : edgeNodes[edge]) {
+            for (int k = 0; k < nodeEdges[node].length; k++) {
+                if (nodeEdges[node][k] == edge)
+                    adjacency[player][node] |= 1 << k;
+            }
+        }
+    }
+
+    /* Records that the player has built the settlement */
+    public void addSettlement(int settlementID, int player) {
+        nodeOwner[nodeIndex.get(settlementID)] = player;
+    }
+
+    /*
+     * Returns the length of the road of the player through the road between the two settlements, which the player
+     * has just built. The roads are followed from each end in turn, and the roads found in either direction are
+     * counted. At a fork only the branch that finds the most roads is kept, and a settlement of another player is a
+     * dead end.
+     * */
+    public int getRoadDistance(int settlementID1, int settlementID2, int player) {
+        int node1 = nodeIndex.get(settlementID1);
+        int node2 = nodeIndex.get(settlementID2);
+        long[] roads = expandFrom(node1, node2, player);
+        long[] roads2 = expandFrom(node2, node1, player);
+        int length = 0;
+        for (int i = 0; i < roads.length; i++) {
+            length += Long.bitCount(roads[i] | roads2[i]);
+        }
+        return length;
+    }
+
+    private long[] expandFrom(int start, int behind, int player) {
+        Arrays.fill(expanded, false);
+        expanded[behind] = true;
+        head = tail = 0;
+        push(start);
+        return expandRoad(new long[(edgeNodes.length + 63) / 64], player);
+    }
+
+    /*
+     * Expands the settlements in the queue one at a time, adding the roads to those already expanded to the set, until
+     * there are none left or there is a fork of 2 to choose between.
+     * */
+    private long[] expandRoad(long[] roads, int player) {
+        while (tail - head != 0) {
+            if (tail - head == 2) {
+                // Handle branching, the settlements expanded by one branch stay expanded for the other
+                int[] branches = {queue[head], queue[head + 1]};
+                int length = 0;
+                long[] longestSegment = roads;
+                for (int settlement : branches) {
+                    head = tail = 0;
+                    push(settlement);
+                    long[] segment = expandRoad(roads.clone(), player);
+                    int size = 0;
+                    for (long word : segment) {
+                        size += Long.bitCount(word);
+                    }
+                    if (size >= length) {
+                        length = size;
+                        longestSegment = segment;
+                    }
+                }
+                return longestSegment;
+            }
+            // case of expanding a single settlement
+            int node = queue[head++];
+            expanded[node] = true;
+            int mask = adjacency[player][node];
+            for (int k = 0; k < nodeEdges[node].length; k++) {
+                if ((mask & (1 << k)) == 0)
+                    continue;
+                int dest = nodeDests[node][k];
+                if (expanded[dest]) {
+                    // The road used to get here
+                    int edge = nodeEdges[node][k];
+                    roads[edge >> 6] |= 1L << edge;
+                } else if (nodeOwner[dest] == -1 || nodeOwner[dest] == player) {
+                    // if settlement belongs to somebody else it's a deadend
+                    push(dest);
+                }
+            }
+        }
+        return roads;
+    }
+
+    private void push(int node) {
+        if (tail == queue.length)
+            queue = Arrays.copyOf(queue, 2 * queue.length);
+        queue[tail++] = node;
+    }
+}
@@ -16,12 +16,25 @@ import java.util.List;
 
 public class Connect4ForwardModel extends AbstractForwardModel {
 
+    // Directions in which a line can be made, as (columns right, rows up). Each is checked in the order (and towards
+    // the end) in which the cells of a line were originally scanned, so the same winning cells are reported.
+    private static final int[][] lineDirections = {{0, 1}, {1, 0}, {1, 1}, {-1, 1}};
+
+    // All the moves there can be on the current board, indexed by [player][x][y]; SetGridValueAction is immutable, so
+    // the same objects can be returned every time. Rebuilt if the board changes.
+    private SetGridValueAction<Token>[][][] moves;
+    private int movesBoardID;
+
     @Override
     protected void _setup(AbstractGameState firstState) {
         Connect4GameParameters c4gp = (Connect4GameParameters) firstState.getGameParameters();
         int gridSize = c4gp.gridSize;
+        if (gridSize > 63)
+            throw new IllegalArgumentException("gridSize must be at most 63, so that a column fits in a long");
         Connect4GameState state = (Connect4GameState) firstState;
         state.gridBoard = new GridBoard<>(gridSize, gridSize, new Token(Connect4Constants.emptyCell));
+        state.playerColumns = new long[Connect4Constants.playerMapping.size()][gridSize];
+        state.columnHeights = new int[gridSize];
     }
 
     @Override
@@ -30,25 +43,37 @@ public class Connect4ForwardModel extends AbstractForwardModel {
         ArrayList<AbstractAction> actions = new ArrayList<>();
         int player = gameState.getTurnOrder().getCurrentPlayer(gameState);
 
-        if (gameState.isNotTerminal())
+        if (gameState.isNotTerminal()) {
+            SetGridValueAction<Token>[][] playerMoves = getMoves(c4gs)[player];
+            int height = c4gs.gridBoard.getHeight();
+            // The move in each column that is not full is to the lowest empty cell
             for (int x = 0; x < c4gs.gridBoard.getWidth(); x++) {
-                int y = c4gs.gridBoard.getHeight() - 1; // this is bottom of column
-                boolean end = false;
-                while(!end)
-                {
-                    boolean newCol = false;
-                    if (c4gs.gridBoard.getElement(x, y).getTokenType().equals(Connect4Constants.emptyCell)) {
-                        actions.add(new SetGridValueAction<>(c4gs.gridBoard.getComponentID(), x, y, Connect4Constants.playerMapping.get(player)));
-                        newCol = true;
-                    }
-
-                    //Stop when reaching top (column is full) or on finding the first empty cell (action available)
-                    end = (--y <  0 || newCol);
-                }
+                if (c4gs.columnHeights[x] < height)
+                    actions.add(playerMoves[x][height - 1 - c4gs.columnHeights[x]]);
             }
+        }
         return actions;
     }
 
+    private SetGridValueAction<Token>[][][] getMoves(Connect4GameState c4gs) {
+        GridBoard<Token> gridBoard = c4gs.gridBoard;
+        SetGridValueAction<Token>[][][] retValue = moves;
+        if (retValue == null || movesBoardID != gridBoard.getComponentID() || retValue[0].length != gridBoard.getWidth()
+                || retValue[0][0].length != gridBoard.getHeight()) {
+            // generic arrays cannot be created directly, but every element is set to a SetGridValueAction<Token> below
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            SetGridValueAction<Token>[][][] created = new SetGridValueAction[Connect4Constants.playerMapping.size()][gridBoard.getWidth()][gridBoard.getHeight()];
+            retValue = created;
+            for (int p = 0; p < retValue.length; p++)
+                for (int x = 0; x < gridBoard.getWidth(); x++)
+                    for (int y = 0; y < gridBoard.getHeight(); y++)
+                        retValue[p][x][y] = new SetGridValueAction<>(gridBoard.getComponentID(), x, y, Connect4Constants.playerMapping.get(p));
+            movesBoardID = gridBoard.getComponentID();
+            moves = retValue;
+        }
+        return retValue;
+    }
+
     @Override
     protected AbstractForwardModel _copy() {
         return new Connect4ForwardModel();
@@ -56,7 +81,14 @@ public class Connect4ForwardModel extends AbstractForwardModel {
 
     @Override
     protected void _next(AbstractGameState currentState, AbstractAction action) {
-        action.execute(currentState);
+        Connect4GameState c4gs = (Connect4GameState) currentState;
+        SetGridValueAction<Token> move = asMove(action);
+        int player = Connect4Constants.playerMapping.indexOf(move.getValue());
+        int row = c4gs.gridBoard.getHeight() - 1 - move.getY();  // counted from the bottom
+        c4gs.gridBoard.setElement(move.getX(), move.getY(), move.getValue());
+        c4gs.playerColumns[player][move.getX()] |= 1L << row;
+        c4gs.columnHeights[move.getX()] = Math.max(c4gs.columnHeights[move.getX()], row + 1);
+
         Connect4GameParameters c4gp = (Connect4GameParameters) currentState.getGameParameters();
         int gridSize = c4gp.gridSize;
         if (currentState.getTurnOrder().getRoundCounter() == (gridSize * gridSize)) {
@@ -64,181 +96,116 @@ public class Connect4ForwardModel extends AbstractForwardModel {
             return;
         }
 
-        if (checkGameEnd((Connect4GameState) currentState)) {
+        if (checkGameEnd(c4gs, move.getX(), row, player)) {
             return;
         }
         currentState.getTurnOrder().endPlayerTurn(currentState);
     }
 
-    /**
-     * Checks if the game ended.
-     *
-     * @param gameState - game state to check game end.
-     */
-    private boolean checkGameEnd(Connect4GameState gameState) {
-        GridBoard<Token> gridBoard = gameState.getGridBoard();
-        Connect4GameParameters c4gp = (Connect4GameParameters) gameState.getGameParameters();
-        boolean gap = false;
-        LinkedList<Pair<Integer, Integer>> winning = new LinkedList<>();;
-
-        // Check columns
-        for (int x = 0; x < gridBoard.getWidth(); x++) {
-            int count = 0;
-            String lastToken = null;
-            winning.clear();
-            for (int y = gridBoard.getHeight() - 1; y >= 0; y--) {
-                Token c = gridBoard.getElement(x, y);
-                if (c.getTokenType().equals(Connect4Constants.emptyCell)) {
-                    count = 0;
-                    lastToken = null;
-                    winning.clear();
-                    gap = true;
-                } else if (lastToken == null || !lastToken.equals(c.getTokenType())) {
-                    winning.clear();
-                    count = 1;
-                    lastToken = c.getTokenType();
-                    winning.add(new Pair<>(x, y));
-                } else {
-                    {
-                        count++;
-                        winning.add(new Pair<>(x, y));
-                        if (count == c4gp.winCount) {
-                            registerWinner(gameState, c, winning);
-                            return true;
-                        }
-                    }
-                    lastToken = c.getTokenType();
-                }
-            }
-        }
-
-        // Check rows
-        for (int y = gridBoard.getHeight() - 1; y >= 0; y--) {
-            int count = 0;
-            String lastToken = null;
-            winning.clear();
-            for (int x = 0; x < gridBoard.getWidth(); x++) {
-                Token c = gridBoard.getElement(x, y);
-                if (c.getTokenType().equals(Connect4Constants.emptyCell)) {
-                    count = 0;
-                    lastToken = null;
-                    winning.clear();
-                } else if (lastToken == null || !lastToken.equals(c.getTokenType())) {
-                    winning.clear();
-                    count = 1;
-                    lastToken = c.getTokenType();
-                    winning.add(new Pair<>(x, y));
-                } else {
-                    {
-                        count++;
-                        winning.add(new Pair<>(x, y));
-                        if (count == c4gp.winCount) {
-                            registerWinner(gameState, c, winning);
-                            return true;
-                        }
-                    }
-                    lastToken = c.getTokenType();
-                }
-            }
-        }
-
-        //Check main diagonals (from col 0)
-        for (int y = gridBoard.getHeight() - 1; y >= 0; y--) {
-            if (checkMainDiagonals(gameState, 0, y))
-                return true;
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
 
-        }
+    @Override
+    protected Object _nextWithUndo(AbstractGameState currentState, AbstractAction action) {
+        Connect4GameState c4gs = (Connect4GameState) currentState;
+        SetGridValueAction<Token> move = asMove(action);
+        Connect4Undo undo = new Connect4Undo(move, c4gs.gridBoard.getElement(move.getX(), move.getY()),
+                c4gs.columnHeights[move.getX()], c4gs.winnerCells);
+        _next(currentState, action);
+        return undo;
+    }
 
-        //Check main and inverse diagonals (from row 0)
-        for (int x = 1; x < gridBoard.getWidth(); x++) {
-            if (checkMainDiagonals(gameState, x, gridBoard.getHeight() - 1))
-                return true;
-            if (checkInvDiagonals(gameState, x, gridBoard.getHeight() - 1))
-                return true;
-        }
+    @Override
+    protected void _undo(AbstractGameState currentState, Object gameUndo) {
+        Connect4GameState c4gs = (Connect4GameState) currentState;
+        Connect4Undo undo = (Connect4Undo) gameUndo;
+        int x = undo.move.getX();
+        long cell = 1L << (c4gs.gridBoard.getHeight() - 1 - undo.move.getY());
+        c4gs.gridBoard.setElement(x, undo.move.getY(), undo.previous);
+        for (int p = 0; p < c4gs.playerColumns.length; p++)
+            c4gs.playerColumns[p][x] &= ~cell;
+        c4gs.columnHeights[x] = undo.columnHeight;
+        // registerWinningCells() replaces the list rather than changing it, so the old one is still intact
+        c4gs.winnerCells = undo.winnerCells;
+    }
 
-        //Check inv diagonals (from last column)
-        for (int y = gridBoard.getHeight() - 2; y >= 0; y--) { //height -1 is checked in previous loop
-            if (checkInvDiagonals(gameState, gridBoard.getWidth()-1, y))
-                return true;
-        }
+    /**
+     * The only actions in this game are SetGridValueActions placing a Token, so this cast is safe.
+     */
+    @SuppressWarnings("unchecked")
+    private static SetGridValueAction<Token> asMove(AbstractAction action) {
+        return (SetGridValueAction<Token>) action;
+    }
 
-        if (!gap) { //tie
-            gameState.setGameStatus(Utils.GameResult.DRAW);
-            Arrays.fill(gameState.getPlayerResults(), Utils.GameResult.DRAW);
-            return true;
+    /**
+     * The changes made by one move: the cell set (and what was there before), the height of its column before the
+     * move, and the winning cells before the move.
+     */
+    private static class Connect4Undo {
+        final SetGridValueAction<Token> move;
+        final Token previous;
+        final int columnHeight;
+        final LinkedList<Pair<Integer, Integer>> winnerCells;
+
+        Connect4Undo(SetGridValueAction<Token> move, Token previous, int columnHeight,
+                     LinkedList<Pair<Integer, Integer>> winnerCells) {
+            this.move = move;
+            this.previous = previous;
+            this.columnHeight = columnHeight;
+            this.winnerCells = winnerCells;
         }
-
-        return false;
     }
 
-
-    private boolean checkMainDiagonals(Connect4GameState gameState, int xStart, int yStart)
-    {
-        GridBoard<Token> gridBoard = gameState.getGridBoard();
+    /**
+     * Checks if the game ended after player put a piece at (x, row). Any new line must go through that piece, as the
+     * game would have ended already on any other, so only the lines through it are checked.
+     *
+     * @param gameState - game state to check game end.
+     * @param x         - column of the last piece.
+     * @param row       - row of the last piece, counted from the bottom.
+     * @param player    - player who put it there.
+     */
+    private boolean checkGameEnd(Connect4GameState gameState, int x, int row, int player) {
         Connect4GameParameters c4gp = (Connect4GameParameters) gameState.getGameParameters();
-        int count = 0;
-        String lastToken = null;
-        LinkedList<Pair<Integer, Integer>> winning = new LinkedList<>();
-
-        for (int x = xStart, y = yStart; x < gridBoard.getWidth() && y >=0; x++, y--) {
-            Token c = gridBoard.getElement(x, y);
-
-            if (c.getTokenType().equals(Connect4Constants.emptyCell)) {
-                count = 0;
-                lastToken = null;
-                winning.clear();
-            } else if (lastToken == null || !lastToken.equals(c.getTokenType())) {
-                winning.clear();
-                count = 1;
-                lastToken = c.getTokenType();
-                winning.add(new Pair<>(x, y));
-            } else {
+        long[] columns = gameState.playerColumns[player];
+        int width = gameState.gridBoard.getWidth();
+        int height = gameState.gridBoard.getHeight();
+
+        for (int[] direction : lineDirections) {
+            // Find the first piece of the line through (x, row), then count forwards from it
+            int startX = x, startRow = row;
+            while (hasPiece(columns, width, height, startX - direction[0], startRow - direction[1])) {
+                startX -= direction[0];
+                startRow -= direction[1];
+            }
+            int count = 1;
+            while (count < c4gp.winCount && hasPiece(columns, width, height,
+                    startX + count * direction[0], startRow + count * direction[1]))
                 count++;
-                winning.add(new Pair<>(x, y));
-                if (count == c4gp.winCount) {
-                    registerWinner(gameState, c, winning);
-                    return true;
-                }
-                lastToken = c.getTokenType();
+            if (count == c4gp.winCount) {
+                LinkedList<Pair<Integer, Integer>> winning = new LinkedList<>();
+                for (int i = 0; i < count; i++)
+                    winning.add(new Pair<>(startX + i * direction[0], height - 1 - (startRow + i * direction[1])));
+                registerWinner(gameState, Connect4Constants.playerMapping.get(player), winning);
+                return true;
             }
         }
-        return false;
-    }
 
-    private boolean checkInvDiagonals(Connect4GameState gameState, int xStart, int yStart)
-    {
-        GridBoard<Token> gridBoard = gameState.getGridBoard();
-        Connect4GameParameters c4gp = (Connect4GameParameters) gameState.getGameParameters();
-        int count = 0;
-        String lastToken = null;
-        LinkedList<Pair<Integer, Integer>> winning = new LinkedList<>();
-
-        for (int x = xStart, y = yStart; x >= 0 && y >= 0; x--, y--) {
-            Token c = gridBoard.getElement(x, y);
-
-            if (c.getTokenType().equals(Connect4Constants.emptyCell)) {
-                count = 0;
-                lastToken = null;
-                winning.clear();
-            } else if (lastToken == null || !lastToken.equals(c.getTokenType())) {
-                winning.clear();
-                count = 1;
-                lastToken = c.getTokenType();
-                winning.add(new Pair<>(x, y));
-            } else {
-                count++;
-                winning.add(new Pair<>(x, y));
-                if (count == c4gp.winCount) {
-                    registerWinner(gameState, c, winning);
-                    return true;
-                }
-                lastToken = c.getTokenType();
-            }
+        // A tie if the board is full
+        for (int h : gameState.columnHeights) {
+            if (h < height)
+                return false;
         }
-        return false;
+        gameState.setGameStatus(Utils.GameResult.DRAW);
+        Arrays.fill(gameState.getPlayerResults(), Utils.GameResult.DRAW);
+        return true;
     }
 
+    private static boolean hasPiece(long[] columns, int width, int height, int x, int row) {
+        return x >= 0 && x < width && row >= 0 && row < height && (columns[x] & (1L << row)) != 0;
+    }
 
     @Override
     protected void endGame(AbstractGameState gameState) {
@@ -259,4 +226,4 @@ public class Connect4ForwardModel extends AbstractForwardModel {
         gameState.setPlayerResult(Utils.GameResult.LOSE, 1 - winningPlayer);
         gameState.registerWinningCells(winPos);
     }
-}
\ No newline at end of file
+}
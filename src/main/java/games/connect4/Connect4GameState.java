@@ -22,6 +22,13 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
     GridBoard<Token> gridBoard;
     LinkedList<Pair<Integer, Integer>> winnerCells;
 
+    // Bitboards holding the same pieces as gridBoard, which the forward model uses to find moves and wins without
+    // looking at Tokens. For each player there is one long per column, with bit i set if the player has a piece
+    // i rows up from the bottom of that column.
+    long[][] playerColumns;
+    // Number of pieces in each column
+    int[] columnHeights;
+
     public Connect4GameState(AbstractParameters gameParameters, int nPlayers) {
         super(gameParameters, new AlternatingTurnOrder(nPlayers), GameType.Connect4);
         winnerCells = new LinkedList<>();
@@ -38,10 +45,13 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
     protected AbstractGameState _copy(int playerId) {
         Connect4GameState s = new Connect4GameState(gameParameters.copy(), getNPlayers());
         s.gridBoard = gridBoard.copy();
+        s.playerColumns = new long[playerColumns.length][];
+        for (int p = 0; p < playerColumns.length; p++)
+            s.playerColumns[p] = playerColumns[p].clone();
+        s.columnHeights = columnHeights.clone();
 
-        s.winnerCells.clear();
-        for (Pair<Integer, Integer> wC : this.winnerCells)
-            s.winnerCells.add(wC.copy());
+        // registerWinningCells() replaces the list rather than changing it, so it can be shared
+        s.winnerCells = winnerCells;
 
         return s;
     }
@@ -67,13 +77,14 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
     @Override
     protected void _reset() {
         gridBoard = null;
+        playerColumns = null;
+        columnHeights = null;
     }
 
     @Override
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Connect4GameState)) return false;
-        if (!super.equals(o)) return false;
         Connect4GameState that = (Connect4GameState) o;
         return Objects.equals(gridBoard, that.gridBoard);
     }
@@ -83,6 +94,12 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
         return Objects.hash(super.hashCode(), gridBoard);
     }
 
+    @Override
+    public long longHash() {
+        // all the state is in gridBoard (playerColumns and columnHeights are derived from it)
+        return componentsLongHash();
+    }
+
     @Override
     public GridBoard<Token> getGridBoard() {
         return gridBoard;
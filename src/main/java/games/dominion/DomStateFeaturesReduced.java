@@ -6,6 +6,8 @@ import games.dominion.cards.CardType;
 import games.dominion.cards.DominionCard;
 import utilities.Utils;
 
+import java.util.Arrays;
+
 public class DomStateFeaturesReduced implements IStateFeatureVector {
 
     String[] names = new String[]{"victoryPoints", "treasureValue", "actionCards", "treasureInHand",
@@ -14,10 +16,17 @@ public class DomStateFeaturesReduced implements IStateFeatureVector {
 
     @Override
     public double[] featureVector(AbstractGameState gs, int playerId) {
+        double[] retValue = new double[names.length];
+        featureVector(gs, playerId, retValue);
+        return retValue;
+    }
+
+    @Override
+    public void featureVector(AbstractGameState gs, int playerId, double[] retValue) {
         DominionGameState state = (DominionGameState) gs;
         Utils.GameResult playerResult = state.getPlayerResults()[playerId];
 
-        double[] retValue = new double[names.length];
+        Arrays.fill(retValue, 0.0);
 
         // victoryPoints - simply the current score divided by 100 and number of players
         retValue[0] = Math.min(state.getGameScore(playerId) / 100.0, 1.0);
@@ -50,8 +59,6 @@ public class DomStateFeaturesReduced implements IStateFeatureVector {
         retValue[9] = state.getTotal(playerId, c -> c.cardType() == CardType.ESTATE ? 1 : 0) / 12.0;
 
         retValue[10] = state.getTotalCards(playerId) / 40.0;
-
-        return retValue;
     }
 
     @Override
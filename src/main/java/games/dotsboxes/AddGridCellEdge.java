@@ -3,11 +3,10 @@ package games.dotsboxes;
 import core.AbstractGameState;
 import core.actions.AbstractAction;
 
-import java.util.HashSet;
 import java.util.Objects;
 
 public class AddGridCellEdge extends AbstractAction {
-    DBEdge edge;  // Normally not good practice to keep references, as they wouldn't match the copies. But our equals should match.
+    final DBEdge edge;  // Normally not good practice to keep references, as they wouldn't match the copies. But our equals should match.
 
     public AddGridCellEdge(DBEdge edge) {
         this.edge = edge;
@@ -15,22 +14,9 @@ public class AddGridCellEdge extends AbstractAction {
 
     @Override
     public boolean execute(AbstractGameState gs) {
-        // Find neighbouring cells
+        // Mark this edge as complete by current player, which also checks if connected cells are complete too
         DBGameState dbgs = (DBGameState) gs;
-
-        // Mark this edge as complete by current player and check if connected cells are complete too
-        dbgs.edgeToOwnerMap.put(edge, gs.getCurrentPlayer());
-
-        HashSet<DBCell> cells = dbgs.edgeToCellMap.get(edge);
-        for (DBCell c : cells) {
-            int nEdgesComplete = dbgs.countCompleteEdges(c);
-            if (nEdgesComplete == 4) {  // A cell has 4 sides
-                // All edges complete, this box complete
-                dbgs.cellToOwnerMap.put(c, gs.getCurrentPlayer());
-                dbgs.nCellsPerPlayer[gs.getCurrentPlayer()]++;
-            }
-        }
-
+        dbgs.addEdge(dbgs.edgeIndex(edge), gs.getCurrentPlayer());
         return true;  // Always able to execute
     }
 
@@ -7,8 +7,7 @@ import utilities.Utils;
 import utilities.Vector2D;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
 
 public class DBForwardModel extends AbstractForwardModel {
@@ -17,51 +16,88 @@ public class DBForwardModel extends AbstractForwardModel {
     protected void _setup(AbstractGameState firstState) {
         DBGameState dbgs = (DBGameState) firstState;
         DBParameters dbp = (DBParameters) firstState.getGameParameters();
+        int width = dbp.gridWidth, height = dbp.gridHeight;
 
-        // Generate edge to cell mapping and all cell objects with appropriate constructor
-        dbgs.edgeToCellMap = new HashMap<>();
-        dbgs.cellToEdgesMap = new HashMap<>();
-        dbgs.cellToOwnerMap = new HashMap<>();
-        dbgs.edgeToOwnerMap = new HashMap<>();
-        dbgs.edges = new HashSet<>();
-        dbgs.cells = new HashSet<>();
-        for (int i = 0; i < dbp.gridHeight; i++) {
-            for (int j = 0; j < dbp.gridWidth; j++) {
+        // Generate all edge and cell objects, and the mappings between them, indexed as in DBGameState.edgeIndex()
+        // and DBGameState.cellIndex()
+        dbgs.width = width;
+        dbgs.height = height;
+        int nEdges = (height + 1) * width + height * (width + 1);
+        dbgs.edges = new DBEdge[nEdges];
+        dbgs.cells = new DBCell[width * height];
+        dbgs.edgeActions = new AddGridCellEdge[nEdges];
+        for (int i = 0; i <= height; i++) {
+            for (int j = 0; j <= width; j++) {
+                if (j < width) {
+                    DBEdge edge = new DBEdge(new Vector2D(j, i), new Vector2D(j+1, i));
+                    dbgs.edges[dbgs.edgeIndex(edge)] = edge;
+                }
+                if (i < height) {
+                    DBEdge edge = new DBEdge(new Vector2D(j, i), new Vector2D(j, i+1));
+                    dbgs.edges[dbgs.edgeIndex(edge)] = edge;
+                }
+            }
+        }
+        int[] nCellsPerEdge = new int[nEdges];
+        dbgs.cellToEdges = new int[width * height][];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
                 DBCell c = new DBCell(j, i);
-                dbgs.cells.add(c);
-                HashSet<DBEdge> edges = new HashSet<>(4);
-                edges.add(new DBEdge(new Vector2D(j, i), new Vector2D(j, i+1)));
-                edges.add(new DBEdge(new Vector2D(j, i), new Vector2D(j+1, i)));
-                edges.add(new DBEdge(new Vector2D(j+1, i), new Vector2D(j+1, i+1)));
-                edges.add(new DBEdge(new Vector2D(j, i+1), new Vector2D(j+1, i+1)));
-                
-                for (DBEdge edge: edges) {
-                    dbgs.edges.add(edge);
-                    if (!dbgs.edgeToCellMap.containsKey(edge)) {
-                        dbgs.edgeToCellMap.put(edge, new HashSet<>());
-                    }
-                    dbgs.edgeToCellMap.get(edge).add(c);
+                int cell = dbgs.cellIndex(c);
+                dbgs.cells[cell] = c;
+                int[] edges = new int[] {
+                        dbgs.edgeIndex(new DBEdge(new Vector2D(j, i), new Vector2D(j, i+1))),
+                        dbgs.edgeIndex(new DBEdge(new Vector2D(j, i), new Vector2D(j+1, i))),
+                        dbgs.edgeIndex(new DBEdge(new Vector2D(j+1, i), new Vector2D(j+1, i+1))),
+                        dbgs.edgeIndex(new DBEdge(new Vector2D(j, i+1), new Vector2D(j+1, i+1)))
+                };
+                for (int e : edges) {
+                    nCellsPerEdge[e]++;
                 }
-
-                dbgs.cellToEdgesMap.put(c, edges);
+                dbgs.cellToEdges[cell] = edges;
             }
         }
+        dbgs.edgeToCells = new int[nEdges][];
+        for (int e = 0; e < nEdges; e++) {
+            dbgs.edgeToCells[e] = new int[nCellsPerEdge[e]];
+            dbgs.edgeActions[e] = new AddGridCellEdge(dbgs.edges[e]);
+        }
+        int[] nCellsAdded = new int[nEdges];
+        for (int c = 0; c < dbgs.cells.length; c++) {
+            for (int e : dbgs.cellToEdges[c]) {
+                dbgs.edgeToCells[e][nCellsAdded[e]++] = c;
+            }
+        }
+
         // Initialise other variables
         dbgs.nCellsPerPlayer = new int[dbgs.getNPlayers()];
+        dbgs.edgeOwner = new int[nEdges];
+        Arrays.fill(dbgs.edgeOwner, -1);
+        dbgs.cellOwner = new int[dbgs.cells.length];
+        Arrays.fill(dbgs.cellOwner, -1);
+        dbgs.cellEdgeCount = new int[dbgs.cells.length];
+        dbgs.nCellsComplete = 0;
+        dbgs.ownersHash = 0;
+        dbgs.freeEdges = new int[nEdges];
+        dbgs.freeEdgePosition = new int[nEdges];
+        for (int e = 0; e < nEdges; e++) {
+            dbgs.freeEdges[e] = e;
+            dbgs.freeEdgePosition[e] = e;
+        }
+        dbgs.nFreeEdges = nEdges;
     }
 
     @Override
     protected void _next(AbstractGameState currentState, AbstractAction action) {
         DBGameState dbgs = (DBGameState) currentState;
-        DBParameters dbp = (DBParameters) currentState.getGameParameters();
 
         // Will need to check if any cells completed through this action, as that would keep the turn to the current
         // player, otherwise it changes. So keep track of current number of cells completed before action is executed.
-        int nCellsCompleteBefore = dbgs.cellToOwnerMap.size();
+        int nCellsCompleteBefore = dbgs.nCellsComplete;
         // Execute action
         action.execute(currentState);
         // Check end of game (when all cells completed)
-        if (dbgs.cellToOwnerMap.size() == dbp.gridWidth * dbp.gridHeight) {
+        if (dbgs.nCellsComplete == dbgs.cells.length) {
             // Game is over. Set status and find winner
             dbgs.setGameStatus(Utils.GameResult.GAME_END);
             int winner = -1;
@@ -82,25 +118,43 @@ public class DBForwardModel extends AbstractForwardModel {
         }
 
         // If not returned, check if the action completed one more box, otherwise move to the next player
-        if (dbgs.cellToOwnerMap.size() == nCellsCompleteBefore) {
+        if (dbgs.nCellsComplete == nCellsCompleteBefore) {
             currentState.getTurnOrder().endPlayerTurn(currentState);
         }
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _nextWithUndo(AbstractGameState currentState, AbstractAction action) {
+        // An edge can only be added once, so undoing it needs only the edge and where it was in the free edges
+        DBGameState dbgs = (DBGameState) currentState;
+        int e = dbgs.edgeIndex(((AddGridCellEdge) action).edge);
+        int[] undo = new int[] {e, dbgs.freeEdgePosition[e]};
+        _next(currentState, action);
+        return undo;
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, Object gameUndo) {
+        int[] undo = (int[]) gameUndo;
+        ((DBGameState) currentState).removeEdge(undo[0], undo[1]);
+    }
+
     @Override
     protected List<AbstractAction> _computeAvailableActions(AbstractGameState gameState) {
-        HashSet<AbstractAction> actions = new HashSet<>();  // Same edge may appear in multiple cells, ensure unique actions
         DBGameState dbgs = (DBGameState) gameState;
+        ArrayList<AbstractAction> actions = new ArrayList<>(dbgs.nFreeEdges);
 
         // Actions in this game are adding edges to the board (that don't already exist)
-        for (DBEdge e: dbgs.edges) {
-            if (!dbgs.edgeToOwnerMap.containsKey(e)) {
-                // Can add this edge
-                actions.add(new AddGridCellEdge(e));
-            }
+        for (int i = 0; i < dbgs.nFreeEdges; i++) {
+            actions.add(dbgs.edgeActions[dbgs.freeEdges[i]]);
         }
 
-        return new ArrayList<>(actions);
+        return actions;
     }
 
     @Override
@@ -3,11 +3,10 @@ package games.dotsboxes;
 import core.AbstractGameState;
 import core.AbstractParameters;
 import core.components.Component;
-import core.components.GridBoard;
-import core.components.Token;
 import core.interfaces.IStateHeuristic;
 import core.turnorders.AlternatingTurnOrder;
 import games.GameType;
+import utilities.Hash;
 
 import java.util.*;
 
@@ -15,19 +14,33 @@ public class DBGameState extends AbstractGameState {
 
     IStateHeuristic heuristic;
 
-    // List of all edges possible
-    HashSet<DBEdge> edges;
-    // List of all cells possible
-    HashSet<DBCell> cells;
-    // Mapping from each edge to the cells it neighbours
-    HashMap<DBEdge, HashSet<DBCell>> edgeToCellMap;
-    // Mapping from each cell to its edges
-    HashMap<DBCell, HashSet<DBEdge>> cellToEdgesMap;
+    // Layout of the board, which never changes and so is shared between copies.
+    // Number of cells across and down the board
+    int width, height;
+    // All edges possible, by index: see edgeIndex()
+    DBEdge[] edges;
+    // All cells possible, by index: see cellIndex()
+    DBCell[] cells;
+    // Indices of the cells each edge neighbours (one or two), and of the four edges of each cell
+    int[][] edgeToCells;
+    int[][] cellToEdges;
+    // The action to add each edge, by edge index (actions are immutable, so these are used every time)
+    AddGridCellEdge[] edgeActions;
 
     // Mutable state:
     int[] nCellsPerPlayer;
-    HashMap<DBCell, Integer> cellToOwnerMap;  // Mapping from each cell to its owner, if complete
-    HashMap<DBEdge, Integer> edgeToOwnerMap;  // Mapping from each edge to its owner, if placed
+    int[] edgeOwner;  // Player who placed each edge, or -1 if not placed
+    int[] cellOwner;  // Player who completed each cell, or -1 if not complete
+    int[] cellEdgeCount;  // Number of placed edges around each cell
+    int nCellsComplete;
+    // Edges not yet placed are the first nFreeEdges entries of freeEdges, and freeEdgePosition gives the position
+    // in freeEdges of each of them
+    int[] freeEdges;
+    int[] freeEdgePosition;
+    int nFreeEdges;
+    // XOR of Hash.mix(index, owner) over every placed edge and completed cell (cells after edges), kept up to date
+    // by addEdge() and removeEdge() for longHash()
+    long ownersHash;
 
     /**
      * Constructor. Initialises some generic game state variables.
@@ -41,20 +54,29 @@ public class DBGameState extends AbstractGameState {
 
     @Override
     protected List<Component> _getAllComponents() {
-        return new ArrayList<Component>() {{ addAll(edges); addAll(cells); }};
+        return new ArrayList<Component>() {{ addAll(Arrays.asList(edges)); addAll(Arrays.asList(cells)); }};
     }
 
     @Override
     protected AbstractGameState _copy(int playerId) {
         DBGameState dbgs = new DBGameState(gameParameters, getNPlayers());
+        dbgs.width = width;
+        dbgs.height = height;
         dbgs.edges = edges;
         dbgs.cells = cells;
-        dbgs.edgeToCellMap = edgeToCellMap;
-        dbgs.cellToEdgesMap = cellToEdgesMap;
+        dbgs.edgeToCells = edgeToCells;
+        dbgs.cellToEdges = cellToEdges;
+        dbgs.edgeActions = edgeActions;
 
         dbgs.nCellsPerPlayer = nCellsPerPlayer.clone();
-        dbgs.cellToOwnerMap = (HashMap<DBCell, Integer>) cellToOwnerMap.clone();
-        dbgs.edgeToOwnerMap = (HashMap<DBEdge, Integer>) edgeToOwnerMap.clone();
+        dbgs.edgeOwner = edgeOwner.clone();
+        dbgs.cellOwner = cellOwner.clone();
+        dbgs.cellEdgeCount = cellEdgeCount.clone();
+        dbgs.nCellsComplete = nCellsComplete;
+        dbgs.freeEdges = freeEdges.clone();
+        dbgs.freeEdgePosition = freeEdgePosition.clone();
+        dbgs.nFreeEdges = nFreeEdges;
+        dbgs.ownersHash = ownersHash;
         dbgs.heuristic = heuristic;
         return dbgs;
     }
@@ -83,35 +105,121 @@ public class DBGameState extends AbstractGameState {
     @Override
     protected void _reset() {
         nCellsPerPlayer = null;
-        cellToOwnerMap = null;
-        edgeToOwnerMap = null;
+        edgeOwner = null;
+        cellOwner = null;
+        cellEdgeCount = null;
+        freeEdges = null;
+        freeEdgePosition = null;
     }
 
     @Override
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof DBGameState)) return false;
-        if (!super.equals(o)) return false;
         DBGameState that = (DBGameState) o;
+        // the other mutable arrays follow from edgeOwner
         return Arrays.equals(nCellsPerPlayer, that.nCellsPerPlayer) &&
-                Objects.equals(edgeToOwnerMap, that.edgeToOwnerMap) &&
-                Objects.equals(cellToOwnerMap, that.cellToOwnerMap);
+                Arrays.equals(edgeOwner, that.edgeOwner) &&
+                Arrays.equals(cellOwner, that.cellOwner);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(super.hashCode(), cellToOwnerMap, edgeToOwnerMap);
+        int result = Objects.hash(super.hashCode());
+        result = 31 * result + Arrays.hashCode(cellOwner);
+        result = 31 * result + Arrays.hashCode(edgeOwner);
         result = 31 * result + Arrays.hashCode(nCellsPerPlayer);
         return result;
     }
 
+    @Override
+    public long longHash() {
+        // edges and cells never change, so their owners are all there is besides the turn order and status
+        return Hash.combine(componentsLongHash(), ownersHash);
+    }
+
+    /**
+     * @return the index of the given edge. Edges along the rows of dots come first, one row of dots after another,
+     * and then the edges along the columns, also one row after another.
+     */
+    public int edgeIndex(DBEdge e) {
+        if (e.from.getY() == e.to.getY())
+            return e.from.getY() * width + Math.min(e.from.getX(), e.to.getX());
+        return (height + 1) * width + Math.min(e.from.getY(), e.to.getY()) * (width + 1) + e.from.getX();
+    }
+
+    /**
+     * @return the index of the given cell, one row after another.
+     */
+    public int cellIndex(DBCell c) {
+        return c.position.getY() * width + c.position.getX();
+    }
+
     public int countCompleteEdges(DBCell c) {
-        int retValue = 0;
-        for (DBEdge e: cellToEdgesMap.get(c)) {
-            if (edgeToOwnerMap.containsKey(e)) {
-                retValue++;
+        return cellEdgeCount[cellIndex(c)];
+    }
+
+    /**
+     * @return the player who completed the given cell, or -1 if it is not complete
+     */
+    public int getCellOwner(DBCell c) {
+        return cellOwner[cellIndex(c)];
+    }
+
+    /**
+     * @return the player who placed the given edge, or -1 if it has not been placed
+     */
+    public int getEdgeOwner(DBEdge e) {
+        return edgeOwner[edgeIndex(e)];
+    }
+
+    /**
+     * Places an edge for a player, and gives them any cells this completes.
+     *
+     * @param e      - index of the edge.
+     * @param player - player placing it.
+     */
+    void addEdge(int e, int player) {
+        if (edgeOwner[e] != -1)
+            return;  // already placed
+        edgeOwner[e] = player;
+        ownersHash ^= Hash.mix(e, player);
+        int last = freeEdges[--nFreeEdges];
+        freeEdges[freeEdgePosition[e]] = last;
+        freeEdgePosition[last] = freeEdgePosition[e];
+        for (int c : edgeToCells[e]) {
+            if (++cellEdgeCount[c] == 4) {  // A cell has 4 sides
+                cellOwner[c] = player;
+                ownersHash ^= Hash.mix(edges.length + c, player);
+                nCellsPerPlayer[player]++;
+                nCellsComplete++;
+            }
+        }
+    }
+
+    /**
+     * Takes back the last edge placed with addEdge(), exactly reversing it.
+     *
+     * @param e        - index of the edge.
+     * @param position - the position of the edge in freeEdges before it was placed.
+     */
+    void removeEdge(int e, int position) {
+        for (int c : edgeToCells[e]) {
+            if (cellEdgeCount[c]-- == 4) {
+                nCellsPerPlayer[cellOwner[c]]--;
+                ownersHash ^= Hash.mix(edges.length + c, cellOwner[c]);
+                cellOwner[c] = -1;
+                nCellsComplete--;
             }
         }
-        return retValue;
+        ownersHash ^= Hash.mix(e, edgeOwner[e]);
+        edgeOwner[e] = -1;
+        // addEdge() moved the last free edge into this edge's position, so it goes back to the end
+        int moved = freeEdges[position];
+        freeEdges[nFreeEdges] = moved;
+        freeEdgePosition[moved] = nFreeEdges;
+        freeEdges[position] = e;
+        freeEdgePosition[e] = position;
+        nFreeEdges++;
     }
 }
@@ -33,7 +33,7 @@ public class DBStateFeatures extends AbstractStateFeature {
             int edges = state.countCompleteEdges(cell);
             cellCountByEdges[edges]++;
         }
-        double totalCells = state.cells.size();
+        double totalCells = state.cells.length;
 
         int multiplier = state.getCurrentPlayer() == playerID ? 1 : -1;
         retValue[0] = cellCountByEdges[2] * multiplier / totalCells;
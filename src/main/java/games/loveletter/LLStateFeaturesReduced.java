@@ -5,6 +5,7 @@ import core.components.PartialObservableDeck;
 import core.interfaces.IStateFeatureVector;
 import games.loveletter.cards.LoveLetterCard;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.IntStream;
@@ -20,10 +21,17 @@ public class LLStateFeaturesReduced implements IStateFeatureVector {
 
     @Override
     public double[] featureVector(AbstractGameState gs, int playerId) {
+        double[] retValue = new double[names.length];
+        featureVector(gs, playerId, retValue);
+        return retValue;
+    }
+
+    @Override
+    public void featureVector(AbstractGameState gs, int playerId, double[] retValue) {
         LoveLetterGameState llgs = (LoveLetterGameState) gs;
         LoveLetterParameters llp = (LoveLetterParameters) gs.getGameParameters();
 
-        double[] retValue = new double[names.length];
+        Arrays.fill(retValue, 0.0);
 
         double cardValues = 0;
 
@@ -62,9 +70,6 @@ public class LLStateFeaturesReduced implements IStateFeatureVector {
                 .filter(p -> p != playerId)
                 .map(p -> (int) llgs.getGameScore(p)).max().orElseThrow(() -> new AssertionError("??"));
         retValue[11] = (llgs.affectionTokens[playerId] - maxOtherScore) / nRequiredTokens;
-
-        return retValue;
-
     }
 
     @Override
@@ -2,7 +2,9 @@ package games.loveletter;
 
 import core.AbstractParameters;
 import core.AbstractGameState;
+import core.Determiniser;
 import core.components.Component;
+import core.interfaces.IComponentContainer;
 import core.interfaces.IGamePhase;
 import core.components.Deck;
 import core.components.PartialObservableDeck;
@@ -78,49 +80,24 @@ public class LoveLetterGameState extends AbstractGameState implements IPrintable
         llgs.affectionTokens = affectionTokens.clone();
 
         if (getCoreGameParameters().partialObservable && playerId != -1) {
-            // Draw pile, some reserve cards and other player's hand is possibly hidden. Mix all together and draw randoms
-            HashSet<Integer>[] cardsNotVisible = new HashSet[getNPlayers()];
-            for (int i = 0; i < getNPlayers(); i++) {
-                if (i != playerId) {
-                    PartialObservableDeck<LoveLetterCard> deck = llgs.playerHandCards.get(i);
-                    cardsNotVisible[i] = new HashSet<>();
-                    for (int j = 0; j < deck.getSize(); j++) {
-                        if (!deck.getVisibilityForPlayer(j, playerId)) {
-                            // Hide!
-                            cardsNotVisible[i].add(j);
-                        }
-                    }
-                    for (int j: cardsNotVisible[i]) {
-                        llgs.drawPile.add(llgs.playerHandCards.get(i).pick(j));
-                    }
-                }
-            }
-            for (int i = 0; i < llgs.reserveCards.getSize(); i++) {
-                if (!llgs.reserveCards.isComponentVisible(i, playerId)) {
-                    // Hide!
-                    llgs.drawPile.add(llgs.reserveCards.get(i));
-                }
-            }
+            // Draw pile, some reserve cards and other player's hand is possibly hidden. Mix all together
             Random r = new Random(llgs.getGameParameters().getRandomSeed());
-            llgs.drawPile.shuffle(r);
-            for (int i = 0; i < getNPlayers(); i++) {
-                if (i != playerId) {
-                    // New random cards
-                    for (int j = 0; j < cardsNotVisible[i].size(); j++) {
-                        llgs.playerHandCards.get(i).add(llgs.drawPile.draw());
-                    }
-                }
-            }
-            for (int i = 0; i < llgs.reserveCards.getSize(); i++) {
-                if (!llgs.reserveCards.isComponentVisible(i, playerId)) {
-                    // New random card
-                    llgs.reserveCards.setComponent(i, llgs.drawPile.draw());
-                }
-            }
+            new Determiniser(this, playerId).determinise(llgs, r);
         }
         return llgs;
     }
 
+    @Override
+    public boolean isDeterminisable() {
+        return true;
+    }
+
+    @Override
+    protected int getDeterminisationGroup(IComponentContainer<?> container) {
+        // any card not seen may be in the draw pile, the reserve, or the hand of another player
+        return 0;
+    }
+
     @Override
     protected double _getHeuristicScore(int playerId) {
         return new LoveLetterHeuristic().evaluateState(this, playerId);
@@ -9,7 +9,6 @@ import core.components.FrenchCard;
 import games.poker.actions.*;
 import games.poker.actions.Fold;
 import games.poker.components.MoneyPot;
-import utilities.Pair;
 import utilities.Utils;
 
 import java.util.*;
@@ -163,13 +162,11 @@ public class PokerForwardModel extends AbstractForwardModel {
         PokerGameParameters pgp = (PokerGameParameters) pgs.getGameParameters();
         // Calculate winner of round for each of the pots, they earn the money. Ties split money equally.
 
-        Pair<HashMap<Integer, Integer>, HashMap<Integer, HashSet<Integer>>> translated = translatePokerHands(pgs);
-        HashMap<Integer, Integer> ranks = translated.a;
-        HashMap<Integer, HashSet<Integer>> hands = translated.b;
+        int[] handValues = evaluateHands(pgs);
 
         for (MoneyPot pot: pgs.moneyPots) {
             // Calculate winners separately for each money pot
-            HashSet<Integer> winners = getWinner(pgs, pot, ranks, hands);
+            HashSet<Integer> winners = getWinner(pgs, pot, handValues);
             for (int i : winners) {
                 pgs.playerMoney[i].increment(pot.getValue() / winners.size());
             }
@@ -192,62 +189,41 @@ public class PokerForwardModel extends AbstractForwardModel {
         setupRound(pgs);
     }
 
-    public Pair<HashMap<Integer, Integer>, HashMap<Integer, HashSet<Integer>>> translatePokerHands(PokerGameState pgs) {
-        HashMap<Integer, Integer> ranks = new HashMap<>();
-        HashMap<Integer, HashSet<Integer>> hands = new HashMap<>();
+    /**
+     * Evaluates the best hand each player still in the round can make from their cards and the community cards.
+     * @param pgs - current game state
+     * @return - the value of each player's hand (see PokerHandEvaluator; higher is better), or -1 for players who
+     * have folded or are out of the game
+     */
+    public int[] evaluateHands(PokerGameState pgs) {
+        int[] handValues = new int[pgs.getNPlayers()];
         for (int i = 0; i < pgs.getNPlayers(); i++) {
             if (!pgs.playerFold[i] && pgs.getPlayerResults()[i] != LOSE) {
-                pgs.playerDecks.get(i).add(pgs.communityCards.copy());
-                Pair<PokerGameState.PokerHand, HashSet<Integer>> hand = PokerGameState.PokerHand.translateHand(pgs.playerDecks.get(i));
-                if (hand != null) {
-                    ranks.put(i, hand.a.rank);
-                    hands.put(i, hand.b);
-                }
+                handValues[i] = PokerHandEvaluator.evaluate(pgs.playerDecks.get(i), pgs.communityCards);
+            } else {
+                handValues[i] = -1;
             }
         }
-        return new Pair<>(ranks, hands);
+        return handValues;
     }
 
-    public HashSet<Integer> getWinner(PokerGameState pgs, MoneyPot pot,
-                                       HashMap<Integer, Integer> ranks, HashMap<Integer, HashSet<Integer>> hands) {
-        // Calculate winners separately for each money pot
-        HashSet<Integer> playersInPot = new HashSet<>(pot.getPlayerContribution().keySet());
-        int nPlayers = playersInPot.size();
-
-        int smallestRank = 11;
-        for (int i: playersInPot) {
-            if (!pgs.playerFold[i] && pgs.getPlayerResults()[i] != LOSE && ranks.containsKey(i) && ranks.get(i) < smallestRank) {
-                smallestRank = ranks.get(i);
+    /**
+     * @param pgs        - current game state
+     * @param pot        - the money pot to find the winners of
+     * @param handValues - the value of each player's hand, from evaluateHands()
+     * @return - the players in the pot with the best hand; more than one if tied
+     */
+    public HashSet<Integer> getWinner(PokerGameState pgs, MoneyPot pot, int[] handValues) {
+        int best = -1;
+        for (int i : pot.getPlayerContribution().keySet()) {
+            if (!pgs.playerFold[i] && pgs.getPlayerResults()[i] != LOSE && handValues[i] > best) {
+                best = handValues[i];
             }
         }
         HashSet<Integer> winners = new HashSet<>();
-        for (int i: playersInPot) {
-            if (!pgs.playerFold[i] && pgs.getPlayerResults()[i] != LOSE) {
-                if (ranks.get(i) == smallestRank) winners.add(i);
-            }
-        }
-        if (winners.size() > 1) {
-            // A tie in rank, check card values
-            ArrayList<Integer>[] cardValues = new ArrayList[pgs.getNPlayers()];
-            int nCards = 0;
-            for (int i : winners) {
-                cardValues[i] = new ArrayList<>(hands.get(i));
-                cardValues[i].sort(Collections.reverseOrder());
-                nCards = cardValues[i].size();
-            }
-            for (int j = 0; j < nCards; j++) {
-                // Checking card by card, once one player is found the winner we break; could still be a tie
-                int maxValue = 0;
-                for (int i : winners) {
-                    if (cardValues[i].get(j) > maxValue) maxValue = cardValues[i].get(j);
-                }
-                HashSet<Integer> actualWinners = new HashSet<>();
-                for (int i : winners) {
-                    if (cardValues[i].get(j) == maxValue) actualWinners.add(i);
-                }
-                if (actualWinners.size() == 1 || j == nCards - 1) {
-                    return actualWinners;
-                }
+        for (int i : pot.getPlayerContribution().keySet()) {
+            if (!pgs.playerFold[i] && pgs.getPlayerResults()[i] != LOSE && handValues[i] == best) {
+                winners.add(i);
             }
         }
         return winners;
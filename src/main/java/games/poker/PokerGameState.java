@@ -6,7 +6,6 @@ import java.util.List;
 
 import core.AbstractGameState;
 import core.AbstractParameters;
-import core.CoreConstants;
 import core.components.Component;
 import core.components.Counter;
 import core.components.Deck;
@@ -15,10 +14,6 @@ import core.interfaces.IGamePhase;
 import core.interfaces.IPrintable;
 import games.GameType;
 import games.poker.components.MoneyPot;
-import utilities.Pair;
-
-import static utilities.Utils.generateCombinations;
-
 
 public class PokerGameState extends AbstractGameState implements IPrintable {
     List<Deck<FrenchCard>>  playerDecks;
@@ -275,135 +270,44 @@ public class PokerGameState extends AbstractGameState implements IPrintable {
         OnePair (9),
         HighCard (10);
 
-        static int pokerHandSize = 5;
         int rank;
         PokerHand(int rank) {
             this.rank = rank;
         }
 
-        static Pair<PokerHand, HashSet<Integer>> translateHand(Deck<FrenchCard> deck) {
-            if (deck.getSize() > pokerHandSize) {
-                // Make combinations, translate each hand and return the best hand (lowest rank; if tied, highest card values)
-                int[] indx = new int[deck.getSize()];
-                for (int i = 0; i < indx.length; i++) {
-                    indx[i] = i;
-                }
-                ArrayList<int[]> combinations = generateCombinations(indx, pokerHandSize);
-                ArrayList<Pair<Pair<PokerHand,ArrayList<Integer>>, Deck<FrenchCard>>> handOptions = new ArrayList<>();
-                int smallestRank = 11;
-                for (int[] combo : combinations) {
-                    Deck<FrenchCard> temp = new Deck<>("Temp", CoreConstants.VisibilityMode.HIDDEN_TO_ALL);
-                    for (int j : combo) {
-                        temp.add(deck.get(j).copy());
-                    }
-                    Pair<PokerHand, ArrayList<Integer>> hand = _translateHand(temp);
-                    if (hand.a.rank < smallestRank) {
-                        handOptions.clear();
-                        handOptions.add(new Pair<>(hand, temp));
-                    } else if (hand.a.rank == smallestRank) {
-                        handOptions.add(new Pair<>(hand, temp));
-                    }
-                }
-                if (handOptions.size() == 1) {
-                    deck.clear();
-                    for (FrenchCard c: handOptions.get(0).b.getComponents()) {
-                        deck.add(c);
-                    }
-                    return new Pair<>(handOptions.get(0).a.a, new HashSet<>(handOptions.get(0).a.b));
-                }
-                else {
-                    // Choose the one with highest card values
-                    for (int i = 0; i < pokerHandSize; i++) {
-                        int maxValue = 0;
-                        for (Pair<Pair<PokerHand,ArrayList<Integer>>, Deck<FrenchCard>> handOption : handOptions) {
-                            int value = handOption.a.b.get(i);
-                            if (value > maxValue) maxValue = value;
-                        }
-                        HashSet<Integer> best = new HashSet<>();
-                        for (int j = 0; j < handOptions.size(); j++) {
-                            int value = handOptions.get(j).a.b.get(i);
-                            if (value == maxValue) best.add(j);
-                        }
-                        if (best.size() == 1 || i == pokerHandSize-1) {
-                            int option = best.iterator().next();
-                            deck.clear();
-                            for (FrenchCard c: handOptions.get(option).b.getComponents()) {
-                                deck.add(c);
-                            }
-                            return new Pair<>(handOptions.get(option).a.a, new HashSet<>(handOptions.get(option).a.b));
-                        }
-                    }
-                    return null;
-                }
-            } else {
-                // Only one combination, just return its rank
-                Pair<PokerHand, ArrayList<Integer>> hand = _translateHand(deck);
-                return new Pair<>(hand.a, new HashSet<>(hand.b));
+        /**
+         * @param value - a hand value from PokerHandEvaluator.
+         * @return the kind of hand it is.
+         */
+        static PokerHand fromValue(int value) {
+            switch (PokerHandEvaluator.category(value)) {
+                case PokerHandEvaluator.STRAIGHT_FLUSH:
+                    return PokerHandEvaluator.highRank(value) == PokerHandEvaluator.ACE ? RoyalFlush : StraightFlush;
+                case PokerHandEvaluator.FOUR_OF_A_KIND:
+                    return FourOfAKind;
+                case PokerHandEvaluator.FULL_HOUSE:
+                    return FullHouse;
+                case PokerHandEvaluator.FLUSH:
+                    return Flush;
+                case PokerHandEvaluator.STRAIGHT:
+                    return Straight;
+                case PokerHandEvaluator.THREE_OF_A_KIND:
+                    return ThreeOfAKind;
+                case PokerHandEvaluator.TWO_PAIR:
+                    return TwoPair;
+                case PokerHandEvaluator.ONE_PAIR:
+                    return OnePair;
+                default:
+                    return HighCard;
             }
         }
 
-        static Pair<PokerHand, ArrayList<Integer>> _translateHand(Deck<FrenchCard> deck) {
-            HashSet<FrenchCard.Suite> suites = new HashSet<>();
-            HashSet<Integer> numberSet = new HashSet<>();
-            HashMap<Integer, Integer> numberCount = new HashMap<>();
-            ArrayList<Integer> numbers = new ArrayList<>();
-            for (FrenchCard card: deck.getComponents()) {
-                suites.add(card.suite);
-                numbers.add(card.number);
-                numberSet.add(card.number);
-                if (numberCount.containsKey(card.number)) {
-                    numberCount.put(card.number, numberCount.get(card.number) + 1);
-                } else {
-                    numberCount.put(card.number, 1);
-                }
-            }
-            Collections.sort(numbers);
-            boolean consecutive = isListConsecutive(numbers);
-            if (suites.size() == 1) {
-                // Flush
-                // Check straight
-                if (consecutive) {
-                    // Check royal
-                    if (numberSet.contains(FrenchCard.FrenchCardType.Ace.getNumber())) {
-                        return new Pair<>(RoyalFlush, numbers);
-                    } else {
-                        return new Pair<>(StraightFlush, numbers);
-                    }
-                } else {
-                    return new Pair<>(Flush, numbers);
-                }
-            }
-            if (numberSet.size() == 2) {
-                // Full house or four of a kind
-                int maxCount = maxCount(numberCount);
-                if (maxCount == 4) return new Pair<>(FourOfAKind, numbers);
-                else return new Pair<>(FullHouse, numbers);
-            } else if (numberSet.size() == 3) {
-                // Three of a kind or two pair
-                int maxCount = maxCount(numberCount);
-                if (maxCount == 3) return new Pair<>(ThreeOfAKind, numbers);
-                else return new Pair<>(TwoPair, numbers);
-            } else if (numberSet.size() == 4) {
-                return new Pair<>(OnePair, numbers);
-            } else {
-                if (consecutive) return new Pair<>(Straight, numbers);
-                else return new Pair<>(HighCard, numbers);
-            }
-        }
-
-        static boolean isListConsecutive(ArrayList<Integer> numbers) {
-            for (int i = 0; i < numbers.size()-1; i++) {
-                if (numbers.get(i+1) - numbers.get(i) != 1) return false;
-            }
-            return true;
-        }
-
-        static int maxCount(HashMap<Integer, Integer> map) {
-            int max = 0;
-            for (int c: map.values()) {
-                if (c > max) max = c;
-            }
-            return max;
+        /**
+         * @return the best hand in the cards of the two decks together (for example a player's hole cards and the
+         * community cards).
+         */
+        static PokerHand translateHand(Deck<FrenchCard> hand, Deck<FrenchCard> community) {
+            return fromValue(PokerHandEvaluator.evaluate(hand, community));
         }
     }
 
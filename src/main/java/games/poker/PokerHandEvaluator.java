@@ -0,0 +1,208 @@
+package games.poker;
+
+import core.components.Deck;
+import core.components.FrenchCard;
+
+/**
+ * Evaluates poker hands of any number of cards (usually 5 to 7: hole cards plus community cards), choosing the best
+ * 5-card hand among them, without building any intermediate hands or collections.
+ * <p>
+ * Cards are packed into an int as (suit << 4) | rank, with rank from 0 (a 2) to 12 (an Ace); see encode(). A hand
+ * is reduced to bit masks over the 13 ranks (the ranks held at least once, twice, three and four times, and the
+ * ranks held in each suit), and the best hand is then read from these using tables precomputed over all 8192 rank
+ * masks.
+ * <p>
+ * The value of a hand is an int with the category of hand (HIGH_CARD to STRAIGHT_FLUSH) in bits 20 and up, and the
+ * ranks that break ties within that category (pairs before kickers, etc.) below it, 4 bits each, most significant
+ * first. A higher value is always a better hand, and equal values are exactly tied hands, so hands are compared
+ * directly on their values.
+ */
+public final class PokerHandEvaluator {
+
+    public static final int HIGH_CARD = 0;
+    public static final int ONE_PAIR = 1;
+    public static final int TWO_PAIR = 2;
+    public static final int THREE_OF_A_KIND = 3;
+    public static final int STRAIGHT = 4;
+    public static final int FLUSH = 5;
+    public static final int FULL_HOUSE = 6;
+    public static final int FOUR_OF_A_KIND = 7;
+    public static final int STRAIGHT_FLUSH = 8;
+
+    public static final int ACE = 12;
+
+    private static final int CATEGORY_SHIFT = 20;
+    private static final int N_RANKS = 13;
+    private static final int WHEEL = 0b1_0000_0000_1111; // A, 2, 3, 4, 5
+
+    // rank of the top card of the best straight in each rank mask, or -1 if there is none
+    private static final int[] STRAIGHT_HIGH = new int[1 << N_RANKS];
+    // the (up to) five highest ranks in each rank mask, 4 bits each with the highest in bits 16-19
+    private static final int[] TOP_FIVE = new int[1 << N_RANKS];
+
+    static {
+        for (int mask = 0; mask < 1 << N_RANKS; mask++) {
+            STRAIGHT_HIGH[mask] = -1;
+            for (int high = ACE; high >= 4; high--) {
+                int straight = 0b11111 << (high - 4);
+                if ((mask & straight) == straight) {
+                    STRAIGHT_HIGH[mask] = high;
+                    break;
+                }
+            }
+            if (STRAIGHT_HIGH[mask] == -1 && (mask & WHEEL) == WHEEL)
+                STRAIGHT_HIGH[mask] = 3;
+
+            int top = 0;
+            int remaining = mask;
+            for (int i = 0; i < 5; i++) {
+                top <<= 4;
+                if (remaining != 0) {
+                    int rank = highest(remaining);
+                    top |= rank;
+                    remaining &= ~(1 << rank);
+                }
+            }
+            TOP_FIVE[mask] = top;
+        }
+    }
+
+    private PokerHandEvaluator() {
+    }
+
+    /**
+     * @return the packed int for a card, as used by evaluate(int[], int)
+     */
+    public static int encode(FrenchCard card) {
+        return card.suite.ordinal() << 4 | (card.number - 2);
+    }
+
+    public static int rank(int card) {
+        return card & 0xF;
+    }
+
+    public static int suit(int card) {
+        return card >>> 4;
+    }
+
+    /**
+     * @param cards  - packed cards (see encode()).
+     * @param nCards - the number of cards at the start of the array to use.
+     * @return the value of the best hand in the cards.
+     */
+    public static int evaluate(int[] cards, int nCards) {
+        int m1 = 0, m2 = 0, m3 = 0, m4 = 0;
+        long suits = 0;
+        for (int i = 0; i < nCards; i++) {
+            int bit = 1 << rank(cards[i]);
+            m4 |= m3 & bit;
+            m3 |= m2 & bit;
+            m2 |= m1 & bit;
+            m1 |= bit;
+            suits |= (long) bit << (suit(cards[i]) << 4);
+        }
+        return value(m1, m2, m3, m4, suits);
+    }
+
+    /**
+     * @return the value of the best hand in the cards of the two decks together (for example a player's hole cards
+     * and the community cards).
+     */
+    public static int evaluate(Deck<FrenchCard> hand, Deck<FrenchCard> community) {
+        int m1 = 0, m2 = 0, m3 = 0, m4 = 0;
+        long suits = 0;
+        for (int d = 0; d < 2; d++) {
+            Deck<FrenchCard> deck = d == 0 ? hand : community;
+            for (int i = 0; i < deck.getSize(); i++) {
+                int card = encode(deck.get(i));
+                int bit = 1 << rank(card);
+                m4 |= m3 & bit;
+                m3 |= m2 & bit;
+                m2 |= m1 & bit;
+                m1 |= bit;
+                suits |= (long) bit << (suit(card) << 4);
+            }
+        }
+        return value(m1, m2, m3, m4, suits);
+    }
+
+    /**
+     * @param m1    - the ranks held at least once.
+     * @param m2    - the ranks held at least twice.
+     * @param m3    - the ranks held at least three times.
+     * @param m4    - the ranks held four times.
+     * @param suits - the ranks held in each suit, 16 bits per suit.
+     */
+    private static int value(int m1, int m2, int m3, int m4, long suits) {
+        int flush = 0;
+        for (int s = 0; s < 4; s++) {
+            int suitMask = (int) (suits >>> (s << 4)) & 0xFFFF;
+            if (Integer.bitCount(suitMask) >= 5) {
+                int high = STRAIGHT_HIGH[suitMask];
+                flush = Math.max(flush, high >= 0 ? value(STRAIGHT_FLUSH, high << 16) : value(FLUSH, TOP_FIVE[suitMask]));
+            }
+        }
+        if (flush != 0 && category(flush) == STRAIGHT_FLUSH)
+            return flush;
+
+        if (m4 != 0) {
+            int quad = highest(m4);
+            return value(FOUR_OF_A_KIND, quad << 16 | top(m1 & ~(1 << quad), 1) << 12);
+        }
+        if (m3 != 0) {
+            int trips = highest(m3);
+            int pairs = m2 & ~(1 << trips);
+            if (pairs != 0)
+                return value(FULL_HOUSE, trips << 16 | highest(pairs) << 12);
+        }
+        if (flush != 0)
+            return flush;
+        int straight = STRAIGHT_HIGH[m1];
+        if (straight >= 0)
+            return value(STRAIGHT, straight << 16);
+        if (m3 != 0) {
+            int trips = highest(m3);
+            return value(THREE_OF_A_KIND, trips << 16 | top(m1 & ~(1 << trips), 2) << 8);
+        }
+        if (m2 != 0) {
+            int pair = highest(m2);
+            int otherPairs = m2 & ~(1 << pair);
+            if (otherPairs != 0) {
+                int second = highest(otherPairs);
+                return value(TWO_PAIR, pair << 16 | second << 12 | top(m1 & ~(1 << pair | 1 << second), 1) << 8);
+            }
+            return value(ONE_PAIR, pair << 16 | top(m1 & ~(1 << pair), 3) << 4);
+        }
+        return value(HIGH_CARD, TOP_FIVE[m1]);
+    }
+
+    private static int value(int category, int tieBreak) {
+        return category << CATEGORY_SHIFT | tieBreak;
+    }
+
+    /**
+     * @return the highest n ranks in the mask, 4 bits each, highest first
+     */
+    private static int top(int mask, int n) {
+        return TOP_FIVE[mask] >>> (4 * (5 - n));
+    }
+
+    private static int highest(int mask) {
+        return 31 - Integer.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * @return the category of a hand value, from HIGH_CARD to STRAIGHT_FLUSH
+     */
+    public static int category(int value) {
+        return value >>> CATEGORY_SHIFT;
+    }
+
+    /**
+     * @return the rank that most decides a hand value: the top card of a straight or flush, the rank of a set of
+     * four or three, or of the higher pair, or else the highest card.
+     */
+    public static int highRank(int value) {
+        return (value >>> 16) & 0xF;
+    }
+}
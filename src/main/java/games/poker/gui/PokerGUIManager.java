@@ -13,7 +13,6 @@ import gui.GamePanel;
 import players.human.ActionController;
 import players.human.HumanGUIPlayer;
 import utilities.ImageIO;
-import utilities.Pair;
 import utilities.Utils;
 
 import javax.swing.*;
@@ -23,7 +22,6 @@ import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 
 public class PokerGUIManager extends AbstractGUIManager {
@@ -295,16 +293,14 @@ public class PokerGUIManager extends AbstractGUIManager {
                     }
                 }
 
-                Pair<HashMap<Integer, Integer>, HashMap<Integer, HashSet<Integer>>> translated = pfm.translatePokerHands(pgs);
-                HashMap<Integer, Integer> ranks = translated.a;
-                HashMap<Integer, HashSet<Integer>> hands = translated.b;
+                int[] handValues = pfm.evaluateHands(pgs);
 
                 int p = 0;
                 String winnerString = "";
                 for (MoneyPot pot: pgs.getMoneyPots()) {
                     // Calculate winners separately for each money pot
                     p++;
-                    HashSet<Integer> winners = pfm.getWinner(pgs, pot, ranks, hands);
+                    HashSet<Integer> winners = pfm.getWinner(pgs, pot, handValues);
                     if (winners != null) {
                         winnerString += "pot" + p + " {";
                         for (int win: winners) {
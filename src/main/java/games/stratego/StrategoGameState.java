@@ -96,6 +96,12 @@ public class StrategoGameState extends AbstractGameState {
     }
 
 
+    @Override
+    public long longHash() {
+        // all the state is in gridBoard
+        return componentsLongHash();
+    }
+
     public GridBoard<Piece> getGridBoard() {
         return gridBoard;
     }
@@ -20,70 +20,60 @@ public class AttackMove extends Move {
 
     @Override
     public boolean execute(AbstractGameState gs) {
-        boolean movedTileEmptied = true;
-        boolean destinationTileEmptied = true;
-        boolean destinationTileSet = true;
-
         GridBoard<Piece> board = ((StrategoGameState)gs).getGridBoard();
         Piece movedPiece = (Piece) gs.getComponentById(movedPieceID);
         Piece attackedPiece = (Piece) gs.getComponentById(attackedPieceID);
         int movedPieceRank = movedPiece.getPieceRank();
         int attackedPieceRank = attackedPiece.getPieceRank();
+        int[] movedFrom = movedPiece.getPiecePosition();
+        int[] attackedAt = attackedPiece.getPiecePosition();
+
+        // Both pieces are taken off the board before they are changed, and whichever survive put back, as the board
+        // keeps a hash of the pieces on it
+        boolean movedTileEmptied = board.setElement(movedFrom[0], movedFrom[1], null);
+        boolean destinationTileEmptied = board.setElement(attackedAt[0], attackedAt[1], null);
         movedPiece.setPieceKnown(true);
         attackedPiece.setPieceKnown(true);
+        boolean destinationTileSet;
 
         if (attackedPiece.getPieceType() == Piece.PieceType.FLAG){
             gs.setGameStatus(Utils.GameResult.GAME_END);
             gs.setPlayerResult(Utils.GameResult.WIN, gs.getCurrentPlayer());
             gs.setPlayerResult(Utils.GameResult.LOSE, 1-gs.getCurrentPlayer());
+            destinationTileSet = place(board, movedPiece, movedFrom) && place(board, attackedPiece, attackedAt);
 
         } else if (attackedPiece.getPieceType() == Piece.PieceType.BOMB){
             if (movedPiece.getPieceType() == Piece.PieceType.MINER){
                 // Bomb is lost and miner moves into bomb's location
-                movedTileEmptied = board.setElement(movedPiece.getPiecePosition()[0],
-                        movedPiece.getPiecePosition()[1], null);
-                destinationTileSet = board.setElement(attackedPiece.getPiecePosition()[0],
-                        attackedPiece.getPiecePosition()[1], movedPiece);
-                movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
+                destinationTileSet = place(board, movedPiece, attackedAt);
             } else{
                 // Piece is lost and removed from the board
-                movedTileEmptied = board.setElement(movedPiece.getPiecePosition()[0],
-                        movedPiece.getPiecePosition()[1], null);
+                destinationTileSet = place(board, attackedPiece, attackedAt);
             }
 
         } else if (attackedPiece.getPieceType() == Piece.PieceType.MARSHAL && movedPiece.getPieceType() == Piece.PieceType.SPY){
             // Spy removes Marshal, but only if spy is the one attacking
-            movedTileEmptied = board.setElement(movedPiece.getPiecePosition()[0],
-                    movedPiece.getPiecePosition()[1], null);
-            destinationTileSet = board.setElement(attackedPiece.getPiecePosition()[0],
-                    attackedPiece.getPiecePosition()[1], movedPiece);
-            movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
+            destinationTileSet = place(board, movedPiece, attackedAt);
 
         } else if (movedPieceRank > attackedPieceRank){
             // Higher rank wins
-            movedTileEmptied = board.setElement(movedPiece.getPiecePosition()[0],
-                    movedPiece.getPiecePosition()[1], null);
-            destinationTileSet = board.setElement(attackedPiece.getPiecePosition()[0],
-                    attackedPiece.getPiecePosition()[1], movedPiece);
-            movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
+            destinationTileSet = place(board, movedPiece, attackedAt);
 
         } else if (movedPieceRank == attackedPieceRank){
             // Both pieces are lost
-            movedTileEmptied = board.setElement(movedPiece.getPiecePosition()[0],
-                    movedPiece.getPiecePosition()[1], null);
-            destinationTileEmptied = board.setElement(attackedPiece.getPiecePosition()[0],
-                    attackedPiece.getPiecePosition()[1], null);
+            destinationTileSet = true;
         } else {
             // Higher rank wins
-            movedTileEmptied = board.setElement(attackedPiece.getPiecePosition()[0],
-                    attackedPiece.getPiecePosition()[1], null);
-            destinationTileSet = board.setElement(movedPiece.getPiecePosition()[0],
-                    movedPiece.getPiecePosition()[1], attackedPiece);
-            attackedPiece.setPiecePosition(movedPiece.getPiecePosition());
+            destinationTileSet = place(board, attackedPiece, movedFrom);
         }
         return (movedTileEmptied && destinationTileEmptied && destinationTileSet);
     }
 
+    private static boolean place(GridBoard<Piece> board, Piece piece, int[] position) {
+        piece.setPiecePosition(position);
+        return board.setElement(position[0], position[1], piece);
+    }
+
     @Override
     public AttackMove copy() {
         return new AttackMove(movedPieceID, attackedPieceID);
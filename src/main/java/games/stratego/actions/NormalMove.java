@@ -24,9 +24,8 @@ public class NormalMove extends Move{
         Piece movedPiece = (Piece) gs.getComponentById(movedPieceID);
         GridBoard<Piece> board = ((StrategoGameState)gs).getGridBoard();
 
+        // The piece is taken off the board while it is changed, as the board keeps a hash of the pieces on it
         board.setElement(movedPiece.getPiecePosition()[0], movedPiece.getPiecePosition()[1], null);
-        board.setElement(destinationCoordinate[0], destinationCoordinate[1], movedPiece);
-
         if (movedPiece.getPieceType() == Piece.PieceType.SCOUT &&
                 Distance.manhattan_distance(destinationCoordinate, movedPiece.getPiecePosition()) >
                         ((StrategoParams)gs.getGameParameters()).moveSpeed) {
@@ -34,6 +33,7 @@ public class NormalMove extends Move{
             movedPiece.setPieceKnown(true);
         }
         movedPiece.setPiecePosition(destinationCoordinate);
+        board.setElement(destinationCoordinate[0], destinationCoordinate[1], movedPiece);
 
         return true;
     }
@@ -6,6 +6,7 @@ import core.actions.AbstractAction;
 import core.actions.SetGridValueAction;
 import core.components.GridBoard;
 import core.components.Token;
+import utilities.Pair;
 import utilities.Utils;
 
 import java.util.ArrayList;
@@ -60,6 +61,35 @@ public class TicTacToeForwardModel extends AbstractForwardModel {
         currentState.getTurnOrder().endPlayerTurn(currentState);
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _nextWithUndo(AbstractGameState currentState, AbstractAction action) {
+        // The only change to the board is the cell set by the action, so we keep what was there before
+        SetGridValueAction<Token> move = asMove(action);
+        Token previous = ((TicTacToeGameState) currentState).gridBoard.getElement(move.getX(), move.getY());
+        _next(currentState, action);
+        return new Pair<>(move, previous);
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, Object gameUndo) {
+        // gameUndo is always the Pair made by _nextWithUndo()
+        @SuppressWarnings("unchecked") Pair<SetGridValueAction<Token>, Token> undo = (Pair<SetGridValueAction<Token>, Token>) gameUndo;
+        ((TicTacToeGameState) currentState).gridBoard.setElement(undo.a.getX(), undo.a.getY(), undo.b);
+    }
+
+    /**
+     * The only actions in this game are SetGridValueActions placing a Token, so this cast is safe.
+     */
+    @SuppressWarnings("unchecked")
+    private static SetGridValueAction<Token> asMove(AbstractAction action) {
+        return (SetGridValueAction<Token>) action;
+    }
+
     /**
      * Checks if the game ended.
      *
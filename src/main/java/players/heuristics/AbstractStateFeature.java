@@ -17,7 +17,19 @@ public abstract class AbstractStateFeature implements IStateFeatureVector {
     public double[] featureVector(AbstractGameState state, int playerID) {
         double[] localFeatures = localFeatureVector(state, playerID);
         double[] retValue = new double[coreNames.length + localFeatures.length];
+        coreFeatureVector(state, playerID, retValue);
+        System.arraycopy(localFeatures, 0, retValue, coreNames.length, localFeatures.length);
+        return retValue;
+    }
+
+    @Override
+    public void featureVector(AbstractGameState state, int playerID, double[] buffer) {
+        coreFeatureVector(state, playerID, buffer);
+        double[] localFeatures = localFeatureVector(state, playerID);
+        System.arraycopy(localFeatures, 0, buffer, coreNames.length, localFeatures.length);
+    }
 
+    private void coreFeatureVector(AbstractGameState state, int playerID, double[] retValue) {
         // POINT_ADVANTAGE
         int ordinal = 1;
         double maxOtherScore = -1;
@@ -41,9 +53,6 @@ public abstract class AbstractStateFeature implements IStateFeatureVector {
         retValue[4] = state.getPlayerResults()[playerID] == Utils.GameResult.WIN ? 1.0 : 0.0;
         retValue[5] = state.isNotTerminal() ? 0.0 : state.getOrdinalPosition(playerID) / (double) state.getNPlayers();
         retValue[6] = state.getTurnOrder().getRoundCounter() / maxRounds();
-
-        System.arraycopy(localFeatures, 0, retValue, coreNames.length, localFeatures.length);
-        return retValue;
     }
 
     @Override
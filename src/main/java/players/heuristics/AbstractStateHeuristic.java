@@ -1,5 +1,6 @@
 package players.heuristics;
 
+import core.AbstractGameState;
 import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateHeuristic;
 
@@ -13,7 +14,12 @@ public abstract class AbstractStateHeuristic implements IStateHeuristic {
 
     protected IStateFeatureVector features;
     protected double[] coefficients;
+    // the coefficients without the bias term (coefficients[0]), so that they line up with the features
+    protected double[] weights;
     protected IStateHeuristic defaultHeuristic;
+    // the feature vector is written to this on each evaluation; one per thread, as a heuristic can be shared by
+    // several searches running in parallel
+    private final ThreadLocal<double[]> featureBuffer = ThreadLocal.withInitial(() -> new double[features.names().length]);
 
     public AbstractStateHeuristic(String featureVectorClassName, String coefficientsFile, String defaultHeuristicClassName) {
         try {
@@ -41,6 +47,20 @@ public abstract class AbstractStateHeuristic implements IStateHeuristic {
         loadModel(coefficientsFile);
     }
 
+    /**
+     * @return the bias plus the dot product of the coefficients with the feature vector for the player. This does not
+     * allocate, so is cheap enough to call for every player on every MCTS iteration.
+     */
+    protected double linearValue(AbstractGameState state, int playerId) {
+        double[] phi = featureBuffer.get();
+        features.featureVector(state, playerId, phi);
+        double[] w = weights;
+        double retValue = coefficients[0]; // the bias term
+        for (int i = 0; i < w.length; i++)
+            retValue += w[i] * phi[i];
+        return retValue;
+    }
+
     private void loadModel(String coefficientsFile) {
         if (coefficientsFile.isEmpty()) {
             // in this case will default to the defaultHeuristic
@@ -54,6 +74,7 @@ public abstract class AbstractStateHeuristic implements IStateHeuristic {
                     throw new AssertionError("Incompatible data in file " + coeffFile);
                 }
                 coefficients = Arrays.stream(br.readLine().split("\\t")).mapToDouble(Double::parseDouble).toArray();
+                weights = Arrays.copyOfRange(coefficients, 1, coefficients.length);
             } catch (FileNotFoundException e) {
                 e.printStackTrace();
                 throw new AssertionError("File not found : " + coeffFile);
@@ -1,6 +1,7 @@
 package players.learners;
 
 import core.interfaces.ILearner;
+import utilities.BinaryDataReader;
 import weka.core.Attribute;
 import weka.core.DenseInstance;
 import weka.core.Instances;
@@ -12,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.function.IntToDoubleFunction;
 
 public abstract class AbstractLearner implements ILearner {
 
@@ -56,16 +58,67 @@ public abstract class AbstractLearner implements ILearner {
         targetType = newTarget;
     }
 
+    /**
+     * Receives the data from one row of a file
+     */
+    @FunctionalInterface
+    protected interface DataConsumer {
+        /**
+         * @param regressionData - the features, with the bias term (1.0) first. The same array is re-used for each
+         *                       row, so it must be copied if it is to be kept.
+         * @param target         - the target value, as given by the Target type and gamma.
+         * @param currentScore   - the score of the player at this point in the game.
+         */
+        void accept(double[] regressionData, double target, double currentScore);
+    }
+
+    /**
+     * Loads all the data in the given files into dataArray, target and currentScore (see streamData()).
+     */
     protected void loadData(String... files) {
         List<double[]> data = new ArrayList<>();
+        List<double[]> targets = new ArrayList<>();
+        List<double[]> scores = new ArrayList<>();
+        streamData((regressionData, datumTarget, datumScore) -> {
+            data.add(regressionData.clone());
+            targets.add(new double[]{datumTarget});
+            scores.add(new double[]{datumScore});
+        }, files);
+        dataArray = data.toArray(new double[0][]);
+        target = targets.toArray(new double[0][]);
+        currentScore = scores.toArray(new double[0][]);
+    }
+
+    /**
+     * Reads the data in the given files, as written by a FeatureListener, one row at a time. Nothing is kept once a
+     * row has been passed on, so this can be used on more data than will fit in memory.
+     * Each file may either be tab-separated text (from FileStatsLogger), or binary (from BinaryStatsLogger); binary
+     * files are read directly from a memory-mapping of the file, without any parsing.
+     *
+     * @param consumer - is given the data from each row in turn
+     */
+    protected void streamData(DataConsumer consumer, String... files) {
         for (String file : files) {
+            if (BinaryDataReader.isBinaryDataFile(file)) {
+                try (BinaryDataReader reader = new BinaryDataReader(file)) {
+                    setHeader(reader.names().toArray(new String[0]));
+                    double[] regressionData = new double[header.length - 9];
+                    for (long row = 0; row < reader.rows(); row++) {
+                        long r = row;
+                        readDatum(col -> reader.getDouble(r, col), regressionData, consumer);
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    throw new AssertionError("Problem reading file " + file);
+                }
+                continue;
+            }
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                header = reader.readLine().split("\\t");
-                descriptions = new String[header.length - 10];
-                System.arraycopy(header, 5, descriptions, 0, descriptions.length);
+                setHeader(reader.readLine().split("\\t"));
+                double[] regressionData = new double[header.length - 9];
                 while (reader.ready()) {
                     double[] datum = Arrays.stream(reader.readLine().split("\\t")).mapToDouble(Double::parseDouble).toArray();
-                    data.add(datum);
+                    readDatum(col -> datum[col], regressionData, consumer);
                 }
             } catch (IOException e) {
                 e.printStackTrace();
@@ -75,8 +128,10 @@ public abstract class AbstractLearner implements ILearner {
                 throw new AssertionError("Problem parsing data as numeric : " + file);
             }
         }
+    }
 
-        // now convert data to [][]
+    private void setHeader(String[] newHeader) {
+        header = newHeader;
         // we assume (for the moment) that the columns are: GameID, Player, Round, Turn, CurrentScore... Win, Ordinal, FinalScore
         // with ... representing the game specific features
         if (!header[0].equals("GameID") || !header[1].equals("Player") || !header[2].equals("Round") || !header[3].equals("Turn") || !header[4].equals("CurrentScore")) {
@@ -87,35 +142,40 @@ public abstract class AbstractLearner implements ILearner {
                 || !header[header.length - 5].equals("PlayerCount")) {
             throw new AssertionError("Unexpected final header entries " + String.join("", header));
         }
+        descriptions = new String[header.length - 10];
+        System.arraycopy(header, 5, descriptions, 0, descriptions.length);
         attributes = new ArrayList<>();
         attributes.add(new Attribute("BIAS"));
         for (int i = 5; i < header.length - 5; i++)
             attributes.add(new Attribute(header[i]));
-        dataArray = new double[data.size()][];
-        target = new double[data.size()][1];
-        currentScore = new double[data.size()][1];
-        for (int i = 0; i < dataArray.length; i++) {
-            double[] allData = data.get(i);
-            // calculate the number of turns from this point until the end of the game
-            double turns = allData[header.length - 4] - allData[2];
-            // discount target (towards expected result where relevant)
-            double expectedAverage = 0.0;
-            if (targetType == Target.WIN_MEAN)
-                expectedAverage = 1.0 / allData[header.length - 5];
-            if (targetType == Target.ORD_MEAN)
-                expectedAverage = (1.0 + allData[header.length - 5]) / 2.0;
-            if (targetType == Target.SCORE_DELTA)
-                target[i][0] = (allData[header.length - targetType.indexOffset] - allData[4]) * Math.pow(gamma, turns);
-            else
-                target[i][0] = (allData[header.length - targetType.indexOffset] - expectedAverage) * Math.pow(gamma, turns) + expectedAverage;
-            if (targetType == Target.ORDINAL || targetType == Target.ORD_MEAN)
-                target[i][0] = -target[i][0];  // if we are targeting the Ordinal position, then high is bad!
-            currentScore[i][0] = allData[4];
-            double[] regressionData = new double[header.length - 9];
-            regressionData[0] = 1.0; // the bias term
-            System.arraycopy(allData, 5, regressionData, 1, regressionData.length - 1);
-            dataArray[i] = regressionData;
-        }
+    }
+
+    /**
+     * Calculates the regression data, target and current score from one row of a file, and passes them on
+     *
+     * @param allData        - the value in each column of the row
+     * @param regressionData - array to put the regression data in
+     */
+    private void readDatum(IntToDoubleFunction allData, double[] regressionData, DataConsumer consumer) {
+        // calculate the number of turns from this point until the end of the game
+        double turns = allData.applyAsDouble(header.length - 4) - allData.applyAsDouble(2);
+        // discount target (towards expected result where relevant)
+        double expectedAverage = 0.0;
+        if (targetType == Target.WIN_MEAN)
+            expectedAverage = 1.0 / allData.applyAsDouble(header.length - 5);
+        if (targetType == Target.ORD_MEAN)
+            expectedAverage = (1.0 + allData.applyAsDouble(header.length - 5)) / 2.0;
+        double datumTarget;
+        if (targetType == Target.SCORE_DELTA)
+            datumTarget = (allData.applyAsDouble(header.length - targetType.indexOffset) - allData.applyAsDouble(4)) * Math.pow(gamma, turns);
+        else
+            datumTarget = (allData.applyAsDouble(header.length - targetType.indexOffset) - expectedAverage) * Math.pow(gamma, turns) + expectedAverage;
+        if (targetType == Target.ORDINAL || targetType == Target.ORD_MEAN)
+            datumTarget = -datumTarget;  // if we are targeting the Ordinal position, then high is bad!
+        regressionData[0] = 1.0; // the bias term
+        for (int i = 1; i < regressionData.length; i++)
+            regressionData[i] = allData.applyAsDouble(i + 4);
+        consumer.accept(regressionData, datumTarget, allData.applyAsDouble(4));
     }
 
     protected Instances createInstances(boolean includeBias) {
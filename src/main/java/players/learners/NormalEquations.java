@@ -0,0 +1,91 @@
+package players.learners;
+
+import weka.core.matrix.Matrix;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates the weighted normal equations (X'WX) b = X'z one row at a time, so that a regression can be solved
+ * without holding all of X in memory. Only the (small) square matrix X'WX is kept.
+ */
+class NormalEquations {
+
+    private final double[][] xtwx;
+    private final double[] xtz;
+    private long rows;
+
+    NormalEquations(int nFeatures) {
+        xtwx = new double[nFeatures][nFeatures];
+        xtz = new double[nFeatures];
+    }
+
+    /**
+     * @param x      - the features for one row
+     * @param weight - the weight of the row in X'WX
+     * @param z      - the value of the row in X'z
+     */
+    void add(double[] x, double weight, double z) {
+        if (x.length != xtz.length)
+            throw new AssertionError("Expected " + xtz.length + " features, but have " + x.length);
+        for (int i = 0; i < x.length; i++) {
+            double wx = weight * x[i];
+            // just the lower triangle, as this is symmetric
+            double[] row = xtwx[i];
+            for (int j = 0; j <= i; j++)
+                row[j] += wx * x[j];
+            xtz[i] += z * x[i];
+        }
+        rows++;
+    }
+
+    /**
+     * Adds to X'z
+     */
+    void addToXtz(int index, double value) {
+        xtz[index] += value;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    int features() {
+        return xtz.length;
+    }
+
+    /**
+     * Solves (X'WX + ridge.I) b = X'z. As for weka's LinearRegression, if this fails then the ridge is increased
+     * by a factor of 10 until it succeeds.
+     *
+     * @param ridge         - added to the diagonal of X'WX
+     * @param firstPenalised - the ridge is only added from this feature on (1 to leave the bias term unpenalised)
+     */
+    double[] solve(double ridge, int firstPenalised) {
+        int n = xtz.length;
+        double[][] full = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j <= i; j++) {
+                full[i][j] = xtwx[i][j];
+                full[j][i] = xtwx[i][j];
+            }
+        Matrix b = new Matrix(xtz, n);
+        while (true) {
+            Matrix a = new Matrix(n, n);
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    a.set(i, j, full[i][j] + (i == j && i >= firstPenalised ? ridge : 0.0));
+            try {
+                double[] solution = a.solve(b).getColumnPackedCopy();
+                if (Arrays.stream(solution).noneMatch(Double::isNaN))
+                    return solution;
+            } catch (RuntimeException e) {
+                // singular, so increase the ridge
+            }
+            if (ridge == 0.0)
+                ridge = 1e-8;
+            ridge *= 10.0;
+            if (ridge > 1e12)
+                throw new AssertionError("Unable to solve regression on " + rows + " rows of data");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package players.learners;
+
+import java.io.FileWriter;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Ridge logistic regression that reads the data one row at a time, so can learn from data files too large to fit in
+ * memory. It uses Newton's method (iteratively reweighted least squares): each iteration streams through all the
+ * data to accumulate the gradient and Hessian, which are only as large as the number of features.
+ * <p>
+ * This is for the WIN and WIN_MEAN targets, which are between 0 and 1 (discounted targets give a 'soft' win). The
+ * bias term is not penalised by the ridge. The coefficients file is in the same format as from WekaLogisticLearner,
+ * and can be used by LogisticStateHeuristic (with a positive coefficient increasing the chance of a win).
+ */
+public class StreamingLogisticLearner extends AbstractLearner {
+
+    double[] coefficients;
+    double ridge = 0.1;
+    int maxIterations = 25;
+    double tolerance = 1e-6;
+
+    public void setRidge(double ridge) {
+        this.ridge = ridge;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    public void learnFrom(String... files) {
+        if (targetType != Target.WIN && targetType != Target.WIN_MEAN)
+            throw new IllegalArgumentException("Logistic regression needs a target between 0 and 1, not " + targetType);
+        coefficients = null;
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            NormalEquations[] equations = new NormalEquations[1];
+            double[] beta = coefficients;
+            streamData((regressionData, datumTarget, datumScore) -> {
+                if (equations[0] == null)
+                    equations[0] = new NormalEquations(regressionData.length);
+                double p = 0.5;
+                if (beta != null) {
+                    double x = 0.0;
+                    for (int i = 0; i < beta.length; i++)
+                        x += beta[i] * regressionData[i];
+                    p = 1.0 / (1.0 + Math.exp(-x));
+                }
+                // Hessian of the log-likelihood is X'WX with weights p(1-p); and the gradient is X'(y - p)
+                equations[0].add(regressionData, p * (1.0 - p), datumTarget - p);
+            }, files);
+            if (equations[0] == null)
+                throw new AssertionError("No data found in " + String.join(", ", files));
+
+            NormalEquations newton = equations[0];
+            if (coefficients == null)
+                coefficients = new double[newton.features()];
+            // and the gradient of the ridge penalty
+            for (int i = 1; i < coefficients.length; i++)
+                newton.addToXtz(i, -ridge * coefficients[i]);
+            double[] step = newton.solve(ridge, 1);
+            double maxChange = 0.0;
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] += step[i];
+                maxChange = Math.max(maxChange, Math.abs(step[i]));
+            }
+            if (maxChange < tolerance)
+                break;
+        }
+    }
+
+    @Override
+    public boolean writeToFile(String file) {
+        try (FileWriter writer = new FileWriter(file, false)) {
+            writer.write("BIAS\t" + String.join("\t", descriptions) + "\n");
+            writer.write(Arrays.stream(coefficients).mapToObj(d -> String.format("%.3g", d)).collect(Collectors.joining("\t")));
+            writer.write("\n");
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return "StreamingLogistic";
+    }
+}
@@ -0,0 +1,53 @@
+package players.learners;
+
+import java.io.FileWriter;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Linear regression with the same result as SimpleRegressionLearner, but which reads the data one row at a time,
+ * and only keeps the normal equations (one square matrix of the number of features). This can therefore learn from
+ * data files too large to fit in memory.
+ * The coefficients file is in the same format, and can be used by LinearStateHeuristic.
+ */
+public class StreamingRegressionLearner extends AbstractLearner {
+
+    double[] coefficients;
+    double ridge = 0.1;
+
+    public void setRidge(double ridge) {
+        this.ridge = ridge;
+    }
+
+    @Override
+    public void learnFrom(String... files) {
+        NormalEquations[] equations = new NormalEquations[1];
+        streamData((regressionData, datumTarget, datumScore) -> {
+            if (equations[0] == null)
+                equations[0] = new NormalEquations(regressionData.length);
+            equations[0].add(regressionData, 1.0, datumTarget);
+        }, files);
+        if (equations[0] == null)
+            throw new AssertionError("No data found in " + String.join(", ", files));
+        coefficients = equations[0].solve(ridge, 0);
+    }
+
+    @Override
+    public boolean writeToFile(String file) {
+        try (FileWriter writer = new FileWriter(file, false)) {
+            writer.write("BIAS\t" + String.join("\t", descriptions) + "\n");
+            writer.write(Arrays.stream(coefficients).mapToObj(d -> String.format("%.4g", d)).collect(Collectors.joining("\t")));
+            writer.write("\n");
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return "StreamingOLS";
+    }
+
+}
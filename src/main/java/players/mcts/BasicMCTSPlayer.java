@@ -77,6 +77,9 @@ public class BasicMCTSPlayer extends AbstractPlayer {
 
     @Override
     public BasicMCTSPlayer copy() {
-        return this;
+        // the parameters are only read, so can be shared (and may have been set directly, so are not copied)
+        BasicMCTSPlayer retValue = new BasicMCTSPlayer(params);
+        retValue.rnd = new Random(rnd.nextInt());
+        return retValue;
     }
 }
\ No newline at end of file
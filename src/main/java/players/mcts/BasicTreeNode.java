@@ -159,6 +159,7 @@ class BasicTreeNode {
         // copy the current state and advance it using the chosen action
         // we first copy the action so that the one stored in the node will not have any state changes
         AbstractGameState nextState = state.copy();
+        nextState.setRecordHistory(false);
         advance(nextState, chosen.copy());
 
         // then instantiate a new node
@@ -230,6 +231,7 @@ class BasicTreeNode {
 
         // If rollouts are enabled, select actions for the rollout in line with the rollout policy
         AbstractGameState rolloutState = state.copy();
+        rolloutState.setRecordHistory(false);
         if (player.params.rolloutLength > 0) {
             while (!finishRollout(rolloutState, rolloutDepth)) {
                 List<AbstractAction> availableActions = player.getForwardModel().computeAvailableActions(rolloutState);
@@ -4,6 +4,8 @@ import core.AbstractForwardModel;
 import core.actions.AbstractAction;
 import core.interfaces.IActionFeatureVector;
 import core.interfaces.IStateFeatureVector;
+import utilities.BinaryDataWriter;
+import utilities.BinaryDataWriter.ColumnType;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -11,7 +13,9 @@ import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static java.util.stream.Collectors.toList;
+import static utilities.BinaryDataWriter.ColumnType.DOUBLE;
+import static utilities.BinaryDataWriter.ColumnType.INT;
+
 
 public class ExpertIterationDataGatherer {
 
@@ -21,6 +25,7 @@ public class ExpertIterationDataGatherer {
     IStateFeatureVector stateFeatures;
     IActionFeatureVector actionFeatures;
     FileWriter writerV, writerQ;
+    BinaryDataWriter binaryV, binaryQ;
 
     /**
      * Two sets of features are provided.
@@ -30,13 +35,36 @@ public class ExpertIterationDataGatherer {
      * @param actionFeatures - the additional features used for Q
      */
     public ExpertIterationDataGatherer(String fileStem, IStateFeatureVector stateFeatures, IActionFeatureVector actionFeatures) {
+        this(fileStem, stateFeatures, actionFeatures, false);
+    }
+
+    /**
+     * @param binary - if true, the data is written to binary files (see BinaryDataWriter), which are much smaller and
+     *               faster to write and read than text. These have no Action column (as the action name is not
+     *               fixed-width), just the ActionHash.
+     */
+    public ExpertIterationDataGatherer(String fileStem, IStateFeatureVector stateFeatures, IActionFeatureVector actionFeatures, boolean binary) {
         if (stateFeatures == null)
             throw new IllegalArgumentException("stateFeatures must be specified - actionFeatures are optional");
+        this.stateFeatures = stateFeatures;
+        this.actionFeatures = actionFeatures;
+        if (binary) {
+            List<String> names = new ArrayList<>(Arrays.asList("Value", "Depth", "Visits"));
+            List<ColumnType> types = new ArrayList<>(Arrays.asList(DOUBLE, INT, INT));
+            addFeatureColumns(stateFeatures.names(), names, types);
+            binaryV = new BinaryDataWriter(fileStem + "_V.bin", names, types, true);
+            if (actionFeatures != null) {
+                names = new ArrayList<>(Arrays.asList("ActionHash", "Value", "Advantage", "Visits", "N"));
+                types = new ArrayList<>(Arrays.asList(INT, DOUBLE, DOUBLE, INT, INT));
+                addFeatureColumns(stateFeatures.names(), names, types);
+                addFeatureColumns(actionFeatures.names(), names, types);
+                binaryQ = new BinaryDataWriter(fileStem + "_Q.bin", names, types, true);
+            }
+            return;
+        }
         this.logFileV = new File(fileStem + "_V.txt");
         if (actionFeatures != null)
             this.logFileQ = new File(fileStem + "_Q.txt");
-        this.stateFeatures = stateFeatures;
-        this.actionFeatures = actionFeatures;
         try {
             // if file does not already exist, add a header row
             if (!logFileV.exists()) {
@@ -71,15 +99,26 @@ public class ExpertIterationDataGatherer {
         }
     }
 
+    private static void addFeatureColumns(String[] features, List<String> names, List<ColumnType> types) {
+        for (String feature : features) {
+            names.add(feature);
+            types.add(DOUBLE);
+        }
+    }
+
     public void recordData(SingleTreeNode root, AbstractForwardModel forwardModel) {
 
         // Now do our stuff, and trawl through the root to record data
         Queue<SingleTreeNode> nodeQueue = new ArrayDeque<>();
         nodeQueue.add(root);
+        // nodes shared between transpositions are only written once
+        Set<SingleTreeNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
 
         try {
             while (!nodeQueue.isEmpty()) {
                 SingleTreeNode node = nodeQueue.poll();
+                if (!seen.add(node))
+                    continue;
                 // process this node
                 // we record its depth, value, visits, and the full feature list
                 StringBuilder output = new StringBuilder();
@@ -87,8 +126,13 @@ public class ExpertIterationDataGatherer {
                 int player = node.getActor();
                 double stateValue = node.getTotValue()[player] / node.getVisits();
                 List<AbstractAction> actionsFromState = forwardModel.computeAvailableActions(node.state);
-                output.append(String.format("%.3g\t%d\t%d", stateValue, node.depth, node.getVisits()));
                 double[] stateVector = stateFeatures.featureVector(node.state, player);
+                if (binaryV != null) {
+                    recordBinary(node, player, stateValue, stateVector, actionsFromState);
+                    addChildren(node, nodeQueue);
+                    continue;
+                }
+                output.append(String.format("%.3g\t%d\t%d", stateValue, node.depth, node.getVisits()));
                 String stateVectorAsString = Arrays.stream(stateVector).mapToObj(d -> String.format("%.4g", d)).collect(Collectors.joining("\t"));
                 coreData.append("\t").append(stateVectorAsString);
 
@@ -100,40 +144,72 @@ public class ExpertIterationDataGatherer {
                 if (actionFeatures != null)
                     for (AbstractAction action : actionsFromState) {
                         output = new StringBuilder();
-                        if (node.children.get(action) == null || node.children.get(action)[player] == null)
+                        SingleTreeNode[] childNodes = node.childrenOf(action);
+                        if (childNodes == null || childNodes[player] == null)
                             continue;
-                        SingleTreeNode childNode = node.children.get(action)[player];
+                        SingleTreeNode childNode = childNodes[player];
                         double actionValue = childNode.getTotValue()[player] / childNode.getVisits();
                         output.append(String.format("%s\t%d\t%.3g\t%.3g\t%d\t%d", action.toString(), action.hashCode(),
                                 actionValue, actionValue - stateValue, childNode.getVisits(), node.getVisits()));
-                        output.append("\t").append(coreData); // the state features
+                        output.append(coreData); // the state features
                         double[] actionVector = actionFeatures.featureVector(action, node.state, player);
                         String actionVectorAsString = Arrays.stream(actionVector).mapToObj(d -> String.format("%.4g", d)).collect(Collectors.joining("\t"));
-                        coreData.append("\t").append(actionVectorAsString).append(System.lineSeparator());
+                        output.append("\t").append(actionVectorAsString).append(System.lineSeparator());
                         writerQ.write(output.toString());
                     }
 
 
-                // add children of current node to queue
-                for (SingleTreeNode child : node.children.values().stream()
-                        .filter(Objects::nonNull)
-                        .flatMap(Arrays::stream)
-                        .filter(Objects::nonNull)
-                        .filter(n -> n.getVisits() >= visitThreshold)
-                        .collect(toList())) {
-                    if (child != null)
-                        nodeQueue.add(child);
-                }
+                addChildren(node, nodeQueue);
             }
-            writerV.flush();
-            writerQ.flush();
+            if (writerV != null)
+                writerV.flush();
+            if (writerQ != null)
+                writerQ.flush();
         } catch (IOException e) {
             System.out.println("Error writing file in MCTSRecordingPlayer");
             e.printStackTrace();
         }
     }
 
+    private void recordBinary(SingleTreeNode node, int player, double stateValue, double[] stateVector, List<AbstractAction> actionsFromState) {
+        binaryV.putDouble(stateValue).putInt(node.depth).putInt(node.getVisits());
+        for (double d : stateVector)
+            binaryV.putDouble(d);
+        binaryV.endRow();
+
+        if (binaryQ != null)
+            for (AbstractAction action : actionsFromState) {
+                SingleTreeNode[] childNodes = node.childrenOf(action);
+                if (childNodes == null || childNodes[player] == null)
+                    continue;
+                SingleTreeNode childNode = childNodes[player];
+                double actionValue = childNode.getTotValue()[player] / childNode.getVisits();
+                binaryQ.putInt(action.hashCode()).putDouble(actionValue).putDouble(actionValue - stateValue)
+                        .putInt(childNode.getVisits()).putInt(node.getVisits());
+                for (double d : stateVector)
+                    binaryQ.putDouble(d);
+                for (double d : actionFeatures.featureVector(action, node.state, player))
+                    binaryQ.putDouble(d);
+                binaryQ.endRow();
+            }
+    }
+
+    // add children of current node to queue
+    private void addChildren(SingleTreeNode node, Queue<SingleTreeNode> nodeQueue) {
+        for (int i = 0; i < node.nActions; i++) {
+            if (node.children[i] == null)
+                continue;
+            for (SingleTreeNode child : node.children[i])
+                if (child != null && child.getVisits() >= visitThreshold)
+                    nodeQueue.add(child);
+        }
+    }
+
     public void close() {
+        if (binaryV != null)
+            binaryV.close();
+        if (binaryQ != null)
+            binaryQ.close();
         try {
             if (writerQ != null)
                 writerQ.close();
@@ -24,6 +24,13 @@ public class MCTSEnums {
         UCB, EXP3, AlphaGo, RegretMatching, UCB_Tuned
     }
 
+    public enum ParallelMode {
+        NONE, ROOT, TREE
+        // ROOT grows one independent tree per thread, and merges them once the budget is used up
+        // TREE has all threads share one tree, using a virtual loss to spread them over different paths
+        // (MultiTree policies keep a separate tree per player, and so fall back to ROOT)
+    }
+
     public enum RolloutTermination {
         DEFAULT, END_TURN, START_TURN, END_ROUND;
     }
@@ -19,6 +19,7 @@ import static players.mcts.MCTSEnums.Information.Open_Loop;
 import static players.mcts.MCTSEnums.MASTType.Rollout;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.MaxN;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.Paranoid;
+import static players.mcts.MCTSEnums.ParallelMode.NONE;
 import static players.mcts.MCTSEnums.RolloutTermination.DEFAULT;
 import static players.mcts.MCTSEnums.SelectionPolicy.ROBUST;
 import static players.mcts.MCTSEnums.Strategies.PARAMS;
@@ -50,6 +51,7 @@ public class MCTSParams extends PlayerParameters {
     public double exploreEpsilon = 0.1;
     public boolean gatherExpertIterationData = false;
     public String expertIterationFileStem = "ExpertIterationData";
+    public boolean expertIterationBinary = false;
     public String expertIterationStateFeatures = "";
     public IStateFeatureVector EIStateFeatureVector;
     public String expertIterationActionFeatures = "";
@@ -66,6 +68,11 @@ public class MCTSParams extends PlayerParameters {
     public MCTSEnums.RolloutTermination rolloutTermination = DEFAULT;
     public IStateHeuristic heuristic = AbstractGameState::getHeuristicScore;
     public IStateHeuristic opponentHeuristic = AbstractGameState::getHeuristicScore;
+    public MCTSEnums.ParallelMode parallelMode = NONE;
+    public int nThreads = 1;
+    public int virtualLoss = 1;
+    public boolean reuseTree = false;  // start each decision from the subtree of the last search that matches the state
+    public int transpositionTableSize = 0;  // Closed Loop only (see SearchContext): maximum nodes kept to share between transpositions; 0 is off
 
     public MCTSParams() {
         this(System.currentTimeMillis());
@@ -98,6 +105,7 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("MASTGamma", 0.5, Arrays.asList(0.0, 0.5, 0.9, 1.0));
         addTunableParameter("expertIteration", false);
         addTunableParameter("expIterFile", "");
+        addTunableParameter("expIterBinary", false);
         addTunableParameter("expertIterationStateFeatures", "");
         addTunableParameter("expertIterationActionFeatures", "");
         addTunableParameter("advantageFunction", "");
@@ -110,6 +118,11 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("discardStateAfterEachIteration", true);
         addTunableParameter("advantageFunction", IActionHeuristic.nullReturn);
         addTunableParameter("omaVisits", 0);
+        addTunableParameter("parallelMode", NONE, Arrays.asList(MCTSEnums.ParallelMode.values()));
+        addTunableParameter("nThreads", 1);
+        addTunableParameter("virtualLoss", 1, Arrays.asList(0, 1, 3, 10));
+        addTunableParameter("reuseTree", false);
+        addTunableParameter("transpositionTableSize", 0, Arrays.asList(0, 10000, 100000, 1000000));
     }
 
     @Override
@@ -139,6 +152,7 @@ public class MCTSParams extends PlayerParameters {
             maintainMasterState = true; // this is required!
         }
         expertIterationFileStem = (String) getParameterValue("expIterFile");
+        expertIterationBinary = (boolean) getParameterValue("expIterBinary");
         expertIterationStateFeatures = (String) getParameterValue("expertIterationStateFeatures");
         if (!expertIterationStateFeatures.equals(""))
             try {
@@ -162,6 +176,11 @@ public class MCTSParams extends PlayerParameters {
         nodesStoreScoreDelta = (boolean) getParameterValue("nodesStoreScoreDelta");
         maintainMasterState = (boolean) getParameterValue("maintainMasterState");
         discardStateAfterEachIteration = (boolean) getParameterValue("discardStateAfterEachIteration");
+        parallelMode = (MCTSEnums.ParallelMode) getParameterValue("parallelMode");
+        nThreads = (int) getParameterValue("nThreads");
+        virtualLoss = (int) getParameterValue("virtualLoss");
+        reuseTree = (boolean) getParameterValue("reuseTree");
+        transpositionTableSize = (int) getParameterValue("transpositionTableSize");
         if (expansionPolicy == MCTSEnums.Strategies.MAST || rolloutType == MCTSEnums.Strategies.MAST
                 || (biasVisits > 0 && advantageFunction == null)) {
             useMAST = true;
@@ -248,6 +267,7 @@ public class MCTSParams extends PlayerParameters {
         retValue.exploreEpsilon = exploreEpsilon;
         retValue.gatherExpertIterationData = gatherExpertIterationData;
         retValue.expertIterationFileStem = expertIterationFileStem;
+        retValue.expertIterationBinary = expertIterationBinary;
         retValue.expertIterationStateFeatures = expertIterationStateFeatures;
         retValue.EIStateFeatureVector = EIStateFeatureVector;
         retValue.expertIterationActionFeatures = expertIterationActionFeatures;
@@ -264,6 +284,11 @@ public class MCTSParams extends PlayerParameters {
         retValue.heuristic = heuristic;
         retValue.opponentHeuristic = opponentHeuristic;
         retValue.discardStateAfterEachIteration = discardStateAfterEachIteration;
+        retValue.parallelMode = parallelMode;
+        retValue.nThreads = nThreads;
+        retValue.virtualLoss = virtualLoss;
+        retValue.reuseTree = reuseTree;
+        retValue.transpositionTableSize = transpositionTableSize;
         return retValue;
     }
 
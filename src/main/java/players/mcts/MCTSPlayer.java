@@ -13,11 +13,14 @@ import utilities.Pair;
 import utilities.Utils;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.ToDoubleBiFunction;
 import java.util.stream.Collectors;
 
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
+import static players.mcts.MCTSEnums.ParallelMode.NONE;
 
 public class MCTSPlayer extends AbstractPlayer {
 
@@ -34,6 +37,11 @@ public class MCTSPlayer extends AbstractPlayer {
     List<Map<AbstractAction, Pair<Integer, Double>>> MASTStats;
     private AbstractPlayer opponentModel;
     private IActionHeuristic advantageFunction;
+    // Length of the game history at our last decision, used to find the actions taken since (see reuseTree)
+    private int historySizeAtLastDecision;
+    // Threads for parallel searches (see ParallelSearch), kept from one decision to the next until finalizePlayer()
+    private ExecutorService searchThreads;
+    private int nSearchThreads;
 
     public MCTSPlayer() {
         this(System.currentTimeMillis());
@@ -58,6 +66,15 @@ public class MCTSPlayer extends AbstractPlayer {
         setName(name);
     }
 
+    private MCTSPlayer(MCTSParams params, String name, long seed, AbstractPlayer rolloutStrategy, AbstractPlayer opponentModel) {
+        this.params = params;
+        this.rnd = new Random(seed);
+        this.rolloutStrategy = rolloutStrategy;
+        this.opponentModel = opponentModel;
+        this.advantageFunction = params.advantageFunction;
+        setName(name);
+    }
+
     @Override
     public void initializePlayer(AbstractGameState state) {
         rolloutStrategy.initializePlayer(state);
@@ -65,30 +82,22 @@ public class MCTSPlayer extends AbstractPlayer {
         if (advantageFunction instanceof AbstractPlayer)
             ((AbstractPlayer) advantageFunction).initializePlayer(state);
         MASTStats = null;
+        root = null;
     }
 
     @Override
     public AbstractAction getAction(AbstractGameState gameState, List<AbstractAction> actions) {
         // Search for best action from the root
-        if (params.opponentTreePolicy == MultiTree || params.opponentTreePolicy == MultiTreeParanoid)
-            root = new MultiTreeNode(this, gameState, rnd);
-        else
-            root = SingleTreeNode.createRootNode(this, gameState, rnd);
-
-        if (MASTStats != null)
-            root.MASTStatistics = MASTStats.stream()
-                    .map(m -> Utils.decay(m, params.MASTGamma))
-                    .collect(Collectors.toList());
-
-        if (rolloutStrategy instanceof MASTPlayer) {
-            ((MASTPlayer) rolloutStrategy).setStats(root.MASTStatistics);
-            ((MASTPlayer) rolloutStrategy).temperature = params.MASTBoltzmann;
+        if (params.parallelMode != NONE && params.nThreads > 1) {
+            root = new ParallelSearch(this).search(gameState, getStatsLogger());
+        } else {
+            root = createRoot(gameState);
+            root.mctsSearch(getStatsLogger());
         }
-        root.mctsSearch(getStatsLogger());
         if (params.gatherExpertIterationData) {
             ExpertIterationDataGatherer eidg = new ExpertIterationDataGatherer(
                     params.expertIterationFileStem,
-                    params.EIStateFeatureVector, params.EIActionFeatureVector);
+                    params.EIStateFeatureVector, params.EIActionFeatureVector, params.expertIterationBinary);
             eidg.recordData(root, getForwardModel());
             eidg.close();
         }
@@ -104,14 +113,87 @@ public class MCTSPlayer extends AbstractPlayer {
         if (debug)
             System.out.println(root.toString());
 
+        historySizeAtLastDecision = gameState.getHistory().size();
+
         MASTStats = root.MASTStatistics;
         // Return best action
-        if (root.children.size() > 2 * actions.size())
-            throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.children.size(), actions.size()) );
+        if (root.nActions > 2 * actions.size())
+            throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.nActions, actions.size()) );
         return root.bestAction();
     }
 
 
+    SingleTreeNode createRoot(AbstractGameState gameState) {
+        SingleTreeNode retValue = params.reuseTree ? reuseTree(gameState) : null;
+        if (retValue == null) {
+            if (params.opponentTreePolicy == MultiTree || params.opponentTreePolicy == MultiTreeParanoid)
+                retValue = new MultiTreeNode(this, gameState, rnd);
+            else
+                retValue = SingleTreeNode.createRootNode(this, gameState, rnd);
+        }
+
+        if (MASTStats != null)
+            retValue.MASTStatistics = MASTStats.stream()
+                    .map(m -> Utils.decay(m, params.MASTGamma))
+                    .collect(Collectors.toList());
+
+        if (rolloutStrategy instanceof MASTPlayer) {
+            ((MASTPlayer) rolloutStrategy).setStats(retValue.MASTStatistics);
+            ((MASTPlayer) rolloutStrategy).temperature = params.MASTBoltzmann;
+        }
+        return retValue;
+    }
+
+    /**
+     * Finds the node in the tree from our last decision that the actions taken since then lead to, and makes it the
+     * root for the next search, so that the statistics already gathered below it are kept.
+     * This needs the game history, and is not supported by MultiTree or OMA trees. The history may also be missing
+     * actions (if it was not recorded for a while), so there must be at least one action since our last decision,
+     * and the node found must be at the same round and turn as the state (see SingleTreeNode.promoteToRoot()), or a
+     * new tree is started.
+     *
+     * @return the new root, or null if there is no usable subtree (and a new tree should be started)
+     */
+    private SingleTreeNode reuseTree(AbstractGameState gameState) {
+        // In competition mode copies of the state (and so the one we are given) have no history, even though it is
+        // being recorded, so we cannot tell which actions have been taken since our last decision
+        if (root == null || !gameState.isRecordingHistory() || gameState.getCoreGameParameters().competitionMode)
+            return null;
+        switch (params.opponentTreePolicy) {
+            case MultiTree:
+            case MultiTreeParanoid:
+            case OMA:
+            case OMA_All:
+                return null;
+        }
+        List<Pair<Integer, AbstractAction>> history = gameState.getHistoryWithPlayers();
+        // If no actions have been recorded since, then either they are missing from the history, or we are asked
+        // about the same state again; the old root would be wrong in the first case, and it is not worth the risk
+        if (history.size() <= historySizeAtLastDecision)
+            return null;
+        SingleTreeNode node = root.subtreeAfter(history.subList(historySizeAtLastDecision, history.size()),
+                gameState.getCurrentPlayer());
+        if (node == null || !node.promoteToRoot(this, gameState, rnd))
+            return null;
+        return node;
+    }
+
+    /**
+     * Creates a player to act as one worker thread in a parallel search. This shares the parameters, heuristics and
+     * MAST statistics carried over from previous decisions, but has its own forward model, random number generator
+     * and copies of the rollout and opponent models, so that it can search independently of other workers.
+     *
+     * @param seed random seed for the worker
+     */
+    MCTSPlayer workerCopy(long seed) {
+        MCTSPlayer retValue = new MCTSPlayer(params, toString(), seed, rolloutStrategy.copy(), opponentModel.copy());
+        retValue.heuristic = heuristic;
+        retValue.opponentHeuristic = opponentHeuristic;
+        retValue.MASTStats = MASTStats;
+        retValue.setForwardModel(getForwardModel().copy());
+        return retValue;
+    }
+
     public AbstractPlayer getOpponentModel(int playerID) {
         return opponentModel;
     }
@@ -126,12 +208,39 @@ public class MCTSPlayer extends AbstractPlayer {
             ((IGameListener) heuristic).onEvent(CoreConstants.GameEvents.GAME_OVER, state, null);
         if (advantageFunction instanceof IGameListener)
             ((IGameListener) advantageFunction).onEvent(CoreConstants.GameEvents.GAME_OVER, state, null);
+        shutdownSearchThreads();
+    }
 
+    /**
+     * @return the threads to use for a parallel search, created when first needed
+     */
+    ExecutorService getSearchThreads() {
+        if (searchThreads != null && nSearchThreads != params.nThreads)
+            shutdownSearchThreads();
+        if (searchThreads == null) {
+            nSearchThreads = params.nThreads;
+            // daemon threads, so that a player that is never finalised does not keep the JVM running
+            searchThreads = Executors.newFixedThreadPool(nSearchThreads, task -> {
+                Thread thread = new Thread(task, toString() + " search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return searchThreads;
+    }
+
+    private void shutdownSearchThreads() {
+        if (searchThreads != null) {
+            searchThreads.shutdown();
+            searchThreads = null;
+        }
     }
 
     @Override
     public MCTSPlayer copy() {
-        return new MCTSPlayer((MCTSParams) params.copy());
+        MCTSParams newParams = (MCTSParams) params.copy();
+        newParams.setRandomSeed(rnd.nextInt());
+        return new MCTSPlayer(newParams);
     }
 
     @Override
@@ -152,10 +261,13 @@ public class MCTSPlayer extends AbstractPlayer {
         Map<AbstractAction, Map<String, Object>> retValue = new LinkedHashMap<>();
 
         if (root != null && root.getVisits() > 1) {
-            for (AbstractAction action : root.children.keySet()) {
-                int visits = Arrays.stream(root.children.get(action)).filter(Objects::nonNull).mapToInt(SingleTreeNode::getVisits).sum();
+            for (int i = 0; i < root.nActions; i++) {
+                if (root.children[i] == null)
+                    continue;
+                AbstractAction action = root.actions[i];
+                int visits = root.actionVisits(i);
                 double visitProportion = visits / (double) root.getVisits();
-                double meanValue =  Arrays.stream(root.children.get(action)).filter(Objects::nonNull).mapToDouble(n -> n.getTotValue()[root.decisionPlayer]).sum()/ visits;
+                double meanValue = root.actionTotValue(i, root.decisionPlayer) / visits;
                 double heuristicValue = heuristic != null ? heuristic.evaluateState(root.state, root.decisionPlayer) : 0.0;
                 double advantageValue = advantageFunction != null ? advantageFunction.evaluateAction(action, root.state) : 0.0;
 
@@ -10,7 +10,6 @@ import utilities.Utils;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static utilities.Utils.entropyOf;
 
@@ -39,19 +38,8 @@ public class MultiTreeNode extends SingleTreeNode {
         // Closed Loop is not yet supported for MultiTree search
         // TODO: implement this (not too difficult, but some tricky bits as we shift from tree to rollout and back again)
         this.decisionPlayer = state.getCurrentPlayer();
-        this.params = player.params;
-        this.forwardModel = player.getForwardModel();
-        this.heuristic = player.heuristic;
-        this.opponentHeuristic = player.opponentHeuristic;
-        this.rnd = rnd;
-        this.opponentModels = new AbstractPlayer[state.getNPlayers()];
+        this.search = new SearchContext(player, state, decisionPlayer, rnd);
         mctsPlayer = player;
-        for (int p = 0; p < opponentModels.length; p++) {
-            if (p == decisionPlayer)
-                opponentModels[p] = player.rolloutStrategy;
-            else
-                opponentModels[p] = player.getOpponentModel(p);
-        }
         // only root node maintains MAST statistics
         MASTStatistics = new ArrayList<>();
         for (int i = 0; i < state.getNPlayers(); i++)
@@ -60,7 +48,7 @@ public class MultiTreeNode extends SingleTreeNode {
             Map<AbstractAction, Pair<Integer, Double>> MAST = MASTStatistics.get(decisionPlayer);
             if (MAST.containsKey(a)) {
                 Pair<Integer, Double> stats = MAST.get(a);
-                return stats.b / (stats.a + params.epsilon);
+                return stats.b / (stats.a + search.params.epsilon);
             }
             return 0.0;
         };
@@ -68,7 +56,7 @@ public class MultiTreeNode extends SingleTreeNode {
 
         roots = new SingleTreeNode[state.getNPlayers()];
         roots[this.decisionPlayer] = SingleTreeNode.createRootNode(player, state, rnd);
-        if (params.opponentTreePolicy == MCTSEnums.OpponentTreePolicy.MultiTreeParanoid)
+        if (search.params.opponentTreePolicy == MCTSEnums.OpponentTreePolicy.MultiTreeParanoid)
             roots[this.decisionPlayer].paranoidPlayer = decisionPlayer;
         currentLocation = new SingleTreeNode[state.getNPlayers()];
         currentLocation[this.decisionPlayer] = roots[decisionPlayer];
@@ -86,8 +74,8 @@ public class MultiTreeNode extends SingleTreeNode {
         AbstractGameState currentState = this.openLoopState;  // this will have been set correctly before calling this method
         SingleTreeNode currentNode;
 
-        double[] startingValues = IntStream.range(0, openLoopState.getNPlayers())
-                .mapToDouble(i -> heuristic.evaluateState(currentState, i)).toArray();
+        double[] startingValues = new double[openLoopState.getNPlayers()];
+        search.heuristic.evaluateAllPlayers(currentState, startingValues);
 
         if (!currentState.isNotTerminal())
             return;
@@ -110,9 +98,9 @@ public class MultiTreeNode extends SingleTreeNode {
             int currentActor = currentState.getCurrentPlayer();
             if (roots[currentActor] == null) {
                 // their first action in search; set a root for their tree
-                SingleTreeNode pseudoRoot = SingleTreeNode.createRootNode(mctsPlayer, currentState.copy(), rnd);
+                SingleTreeNode pseudoRoot = SingleTreeNode.createRootNode(mctsPlayer, currentState.copy(), search.rnd);
                 pseudoRoot.decisionPlayer = currentActor;
-                if (params.opponentTreePolicy == MCTSEnums.OpponentTreePolicy.MultiTreeParanoid)
+                if (search.params.opponentTreePolicy == MCTSEnums.OpponentTreePolicy.MultiTreeParanoid)
                     pseudoRoot.paranoidPlayer = decisionPlayer;
                 roots[currentActor] = pseudoRoot;
                 currentLocation[currentActor] = pseudoRoot;
@@ -123,8 +111,8 @@ public class MultiTreeNode extends SingleTreeNode {
                 // all actions after the expansion for a player are rollout actions
                 // note that different players will enter rollout at different times, which is why
                 // we cannot have a simple rollout() method as in SingleTree search
-                AbstractPlayer agent = opponentModels[currentActor];
-                List<AbstractAction> availableActions = forwardModel.computeAvailableActions(currentState);
+                AbstractPlayer agent = search.opponentModels[currentActor];
+                List<AbstractAction> availableActions = search.forwardModel.computeAvailableActions(currentState);
                 if (availableActions.isEmpty())
                     throw new AssertionError("We should always have something to choose from");
 
@@ -159,13 +147,13 @@ public class MultiTreeNode extends SingleTreeNode {
                     advance(currentState, chosen);
                 }
                 actionsInTree.add(new Pair<>(currentActor, chosen));
-                if (currentLocation[currentActor].depth >= params.maxTreeDepth)
+                if (currentLocation[currentActor].depth >= search.params.maxTreeDepth)
                     maxDepthReached[currentActor] = true;
             }
             // we terminate if the game is over, or if we have exceeded our rollout count AND we have either expanded a node
             // for the decisionPlayer, or they are out of the game (in which case they will never get to expand a node)
         } while (currentState.isNotTerminal() &&
-                !(actionsInRollout.size() >= params.rolloutLength &&
+                !(actionsInRollout.size() >= search.params.rolloutLength &&
                         (nodeExpanded[decisionPlayer] || !currentState.isNotTerminalForPlayer(decisionPlayer))));
 
         for (int i = 0; i < nodeExpanded.length; i++) {
@@ -174,10 +162,10 @@ public class MultiTreeNode extends SingleTreeNode {
 
         // Evaluate final state and return normalised score
         double[] finalValues = new double[state.getNPlayers()];
-
-        for (int i = 0; i < finalValues.length; i++) {
-            finalValues[i] = heuristic.evaluateState(currentState, i) - (params.nodesStoreScoreDelta ? startingValues[i] : 0);
-        }
+        search.heuristic.evaluateAllPlayers(currentState, finalValues);
+        if (search.params.nodesStoreScoreDelta)
+            for (int i = 0; i < finalValues.length; i++)
+                finalValues[i] -= startingValues[i];
         for (SingleTreeNode singleTreeNode : currentLocation) {
             if (singleTreeNode != null)
                 singleTreeNode.backUp(finalValues);
@@ -213,6 +201,25 @@ public class MultiTreeNode extends SingleTreeNode {
         return roots[decisionPlayer].bestAction();
     }
 
+    /**
+     * Merges each player's tree in turn
+     */
+    @Override
+    void merge(SingleTreeNode other) {
+        super.merge(other);
+        MultiTreeNode otherMulti = (MultiTreeNode) other;
+        for (int p = 0; p < roots.length; p++) {
+            if (otherMulti.roots[p] == null)
+                continue;
+            if (roots[p] == null) {
+                roots[p] = otherMulti.roots[p];
+                roots[p].useSearchObjectsOf(this);
+            } else {
+                roots[p].merge(otherMulti.roots[p]);
+            }
+        }
+    }
+
     public SingleTreeNode getRoot(int player) {
         return roots[player];
     }
@@ -245,7 +252,7 @@ public class MultiTreeNode extends SingleTreeNode {
             stats.merge("leafNodes" + suffix, treeStats.totalLeaves * multiplier, addFn);
             stats.merge("terminalNodes" + suffix, treeStats.totalTerminalNodes * multiplier, addFn);
             stats.merge("maxDepth" + suffix, treeStats.depthReached * multiplier, addFn);
-            stats.merge("nActionsRoot" + suffix, node.children.size() * multiplier, addFn);
+            stats.merge("nActionsRoot" + suffix, node.nActions * multiplier, addFn);
             stats.merge("nActionsTree" + suffix, treeStats.meanActionsAtNode * multiplier, addFn);
             stats.merge("maxActionsAtNode" + suffix, treeStats.maxActionsAtNode * multiplier, addFn);
 
@@ -55,7 +55,7 @@ public class OMATreeNode extends SingleTreeNode {
         // rollout action as the 'action taken'
 
         for (int player = 0; player < result.length; player++) {
-            if (params.opponentTreePolicy == MCTSEnums.OpponentTreePolicy.OMA && player != root.decisionPlayer)
+            if (search.params.opponentTreePolicy == MCTSEnums.OpponentTreePolicy.OMA && player != root.decisionPlayer)
                 continue;  // for OMA we only consider the root player
             // We loop over each player separately to avoid confusion with interleaving actions
             // it might be more efficient to do this in a single pass...but at the cost of greater algorithmic complexity and bugginess
@@ -102,8 +102,13 @@ public class OMATreeNode extends SingleTreeNode {
     @Override
     protected void instantiate(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state) {
         super.instantiate(parent, actionToReach, state);
+        findOMAParent();
+    }
+
+    private void findOMAParent() {
+        OMAParent = Optional.empty();
         // We only track OMAParents for all players if using OMA_All; otherwise just for the root decision player
-        if (params.opponentTreePolicy == MCTSEnums.OpponentTreePolicy.OMA_All || root.decisionPlayer == decisionPlayer) {
+        if (search.params.opponentTreePolicy == MCTSEnums.OpponentTreePolicy.OMA_All || root.decisionPlayer == decisionPlayer) {
             SingleTreeNode oneUp = this.parent;
             while (oneUp != null) {
                 if (oneUp.decisionPlayer == decisionPlayer) {
@@ -116,6 +121,26 @@ public class OMATreeNode extends SingleTreeNode {
         }
     }
 
+    @Override
+    void merge(SingleTreeNode other) {
+        super.merge(other);
+        ((OMATreeNode) other).OMAChildren.forEach((parentAction, otherStats) -> {
+            Map<AbstractAction, OMAStats> myStats = OMAChildren.computeIfAbsent(parentAction, a -> new HashMap<>());
+            otherStats.forEach((childAction, stats) -> {
+                OMAStats combined = myStats.computeIfAbsent(childAction, a -> new OMAStats());
+                combined.OMAVisits += stats.OMAVisits;
+                combined.OMATotValue += stats.OMATotValue;
+            });
+        });
+    }
+
+    @Override
+    protected void moveTo(SingleTreeNode newParent) {
+        super.moveTo(newParent);
+        // the OMAParent is now the matching node in the new tree
+        findOMAParent();
+    }
+
     public Optional<OMATreeNode> getOMAParent() {
         return OMAParent;
     }
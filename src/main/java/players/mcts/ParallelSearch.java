@@ -0,0 +1,214 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.actions.AbstractAction;
+import core.interfaces.IStatisticLogger;
+import utilities.ElapsedCpuTimer;
+import utilities.Pair;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static players.PlayerConstants.BUDGET_TIME;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTreeParanoid;
+import static players.mcts.MCTSEnums.ParallelMode.ROOT;
+
+/**
+ * Runs the search for a single decision of an MCTSPlayer on params.nThreads threads.
+ * <p>
+ * ROOT parallelisation grows one independent tree per thread, each with its own forward model, random seed and
+ * copies of the rollout and opponent models. Once all threads have finished the trees are merged into one, so that
+ * bestAction() (and anything else that inspects the tree afterwards) uses the statistics from all of them.
+ * <p>
+ * TREE parallelisation has all threads work on one shared tree. Selection, expansion and back-propagation are done
+ * while holding the lock on the root node, with a virtual loss added to the selected path until the result is
+ * backed up; rollouts (usually the bulk of the work) run concurrently.
+ * <p>
+ * In both cases the iteration, FM call and copy budgets are counted across all threads. BUDGET_TIME is a wall-clock
+ * deadline shared by all threads, so that the decision takes no longer than allowed however much time the threads
+ * spend waiting for each other. The threads are those of the player (see MCTSPlayer.getSearchThreads()).
+ * The heuristics are shared by all threads, and so must not keep any state between calls.
+ */
+class ParallelSearch {
+
+    /**
+     * Totals across all workers, used to check the non-time budgets, and the deadline for BUDGET_TIME
+     */
+    static class SharedBudget {
+        final AtomicInteger iterations = new AtomicInteger();
+        final AtomicInteger fmCalls = new AtomicInteger();
+        final AtomicInteger copyCalls = new AtomicInteger();
+        // wall-clock times (System.nanoTime()) of the start of the search, and by which all workers must stop
+        final long start;
+        final long deadline;
+
+        SharedBudget(long budgetMillis) {
+            start = System.nanoTime();
+            deadline = start + budgetMillis * 1_000_000;
+        }
+
+        long elapsedMillis() {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+
+        long remainingMillis() {
+            return (deadline - System.nanoTime()) / 1_000_000;
+        }
+
+        /**
+         * @param numIters - the iterations done by one worker since the start of the search
+         * @return true if that worker should stop, as it would not have time for another two iterations
+         */
+        boolean timeUsed(int numIters, int breakMS) {
+            double avgTimeTaken = elapsedMillis() / (double) numIters;
+            long remaining = remainingMillis();
+            return remaining <= 2 * avgTimeTaken || remaining <= breakMS;
+        }
+    }
+
+    private final MCTSPlayer player;
+    private final MCTSParams params;
+
+    ParallelSearch(MCTSPlayer player) {
+        this.player = player;
+        this.params = player.params;
+    }
+
+    /**
+     * Searches from gameState, and returns the root of the final tree
+     */
+    SingleTreeNode search(AbstractGameState gameState, IStatisticLogger statsLogger) {
+        boolean multiTree = params.opponentTreePolicy == MultiTree || params.opponentTreePolicy == MultiTreeParanoid;
+        ElapsedCpuTimer timer = new ElapsedCpuTimer();
+        SingleTreeNode root;
+        int iterations;
+        SharedBudget budget = new SharedBudget(params.budget);
+        if (params.parallelMode == ROOT || multiTree) {
+            root = rootParallel(gameState, budget);
+            iterations = budget.iterations.get();
+        } else {
+            root = player.createRoot(gameState);
+            iterations = treeParallel(root, budget);
+        }
+        if (statsLogger != null)
+            root.logTreeStatistics(statsLogger, iterations, timer.elapsedMillis());
+        return root;
+    }
+
+    private SingleTreeNode rootParallel(AbstractGameState gameState, SharedBudget budget) {
+        List<SingleTreeNode> roots = new ArrayList<>();
+        for (int i = 0; i < params.nThreads; i++) {
+            // the first tree is searched by the player itself, and the others are merged into it at the end
+            MCTSPlayer worker = i == 0 ? player : player.workerCopy(player.rnd.nextLong());
+            SingleTreeNode root = worker.createRoot(gameState);
+            root.sharedBudget = budget;
+            roots.add(root);
+        }
+        runOnAllThreads(i -> roots.get(i).mctsSearch(null));
+
+        SingleTreeNode retValue = roots.get(0);
+        for (int i = 1; i < roots.size(); i++)
+            retValue.merge(roots.get(i));
+        retValue.sharedBudget = null;
+        return retValue;
+    }
+
+    /**
+     * @return the total number of iterations
+     */
+    private int treeParallel(SingleTreeNode root, SharedBudget budget) {
+        AtomicInteger iterations = new AtomicInteger();
+        List<AbstractPlayer[]> policies = new ArrayList<>();
+        List<MCTSPlayer> workers = new ArrayList<>();
+        for (int i = 0; i < params.nThreads; i++) {
+            MCTSPlayer worker = player.workerCopy(player.rnd.nextLong());
+            AbstractPlayer[] models = new AbstractPlayer[root.search.opponentModels.length];
+            for (int p = 0; p < models.length; p++)
+                models[p] = p == root.decisionPlayer ? worker.rolloutStrategy : worker.getOpponentModel(p);
+            workers.add(worker);
+            policies.add(models);
+        }
+        runOnAllThreads(i -> treeParallelWorker(root, workers.get(i), policies.get(i), iterations, budget));
+        return iterations.get();
+    }
+
+    private void treeParallelWorker(SingleTreeNode root, MCTSPlayer worker, AbstractPlayer[] policies,
+                                    AtomicInteger iterations, SharedBudget budget) {
+        int numIters = 0;
+        boolean stop = false;
+        while (!stop) {
+            List<Pair<Integer, AbstractAction>> treeActions = new ArrayList<>();
+            List<Pair<Integer, AbstractAction>> rolloutActions = new ArrayList<>();
+            double[] startingValues;
+            SingleTreeNode selected;
+            AbstractGameState rolloutState;
+            int lastActorInTree;
+            double[] virtualLoss;
+            synchronized (root) {
+                // other threads may have used up the budget while we were in our rollout
+                if (params.budgetType == BUDGET_TIME ? budget.remainingMillis() <= params.breakMS
+                        : SingleTreeNode.budgetUsed(params, iterations.get(), root.fmCallsCount, root.copyCount))
+                    break;
+                iterations.incrementAndGet();
+                root.prepareIterationState();
+                AbstractGameState startState = root.openLoopState;
+                startingValues = new double[startState.getNPlayers()];
+                root.search.heuristic.evaluateAllPlayers(startState, startingValues);
+                selected = root.treePolicy(treeActions);
+                lastActorInTree = treeActions.isEmpty() ? root.decisionPlayer : treeActions.get(treeActions.size() - 1).a;
+                // we take our own reference to the state, as other threads will move selected.openLoopState on
+                rolloutState = selected.rolloutStartState();
+                virtualLoss = selected.addVirtualLoss();
+                if (worker.rolloutStrategy instanceof MASTPlayer) {
+                    // a snapshot, as the statistics will be updated by other threads during our rollout
+                    List<Map<AbstractAction, Pair<Integer, Double>>> MASTSnapshot = new ArrayList<>();
+                    for (Map<AbstractAction, Pair<Integer, Double>> MAST : root.MASTStatistics)
+                        MASTSnapshot.add(new HashMap<>(MAST));
+                    ((MASTPlayer) worker.rolloutStrategy).setStats(MASTSnapshot);
+                    ((MASTPlayer) worker.rolloutStrategy).temperature = params.MASTBoltzmann;
+                }
+            }
+
+            int fmCalls = selected.rollOut(rolloutState, worker.getForwardModel(), policies, rolloutActions,
+                    root.decisionPlayer, lastActorInTree);
+
+            synchronized (root) {
+                double[] delta = selected.rolloutValue(rolloutState, startingValues);
+                selected.removeVirtualLoss(virtualLoss);
+                root.fmCallsCount += fmCalls;
+                root.rolloutActionsTaken += rolloutActions.size();
+                selected.backUp(delta);
+                root.updateMASTStatistics(treeActions, rolloutActions, delta);
+
+                numIters++;
+                if (params.budgetType == BUDGET_TIME) {
+                    stop = budget.timeUsed(numIters, params.breakMS);
+                } else {
+                    stop = SingleTreeNode.budgetUsed(params, iterations.get(), root.fmCallsCount, root.copyCount);
+                }
+            }
+        }
+    }
+
+    private void runOnAllThreads(IntConsumer task) {
+        ExecutorService executor = player.getSearchThreads();
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < params.nThreads; i++) {
+                int worker = i;
+                results.add(executor.submit(() -> task.accept(worker)));
+            }
+            for (Future<?> result : results)
+                result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted during parallel MCTS search", e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Error in parallel MCTS search", e.getCause());
+        }
+    }
+}
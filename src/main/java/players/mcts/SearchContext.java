@@ -0,0 +1,65 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Determiniser;
+import core.interfaces.IStateHeuristic;
+
+import java.util.Random;
+
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.Information.Information_Set;
+import static players.mcts.MCTSEnums.ParallelMode.NONE;
+
+/**
+ * The parameters, forward model, policies and so on used by one search. These are the same for every node in a
+ * tree, so each node refers to this one object rather than keeping its own references to all of them.
+ */
+class SearchContext {
+
+    final MCTSParams params;
+    final AbstractForwardModel forwardModel;
+    // the rollout policy of the decision player at the root, and the opponent model of everyone else
+    final AbstractPlayer[] opponentModels;
+    final Random rnd;
+    final IStateHeuristic heuristic;
+    final IStateHeuristic opponentHeuristic;
+    // null unless nodes are shared between transpositions (Closed Loop only)
+    final TranspositionTable transpositions;
+    // samples what the decision player cannot see for each iteration, when the game supports this (Information Set only)
+    final Determiniser determiniser;
+
+    /**
+     * @param player         - the player searching
+     * @param state          - the state at the root
+     * @param decisionPlayer - the player to move at the root
+     * @param rnd            - random number generator for the search
+     */
+    SearchContext(MCTSPlayer player, AbstractGameState state, int decisionPlayer, Random rnd) {
+        int nPlayers = state.getNPlayers();
+        this.params = player.params;
+        this.forwardModel = player.getForwardModel();
+        this.heuristic = player.heuristic;
+        this.opponentHeuristic = player.opponentHeuristic;
+        this.rnd = rnd;
+        this.opponentModels = new AbstractPlayer[nPlayers];
+        for (int p = 0; p < nPlayers; p++) {
+            if (p == decisionPlayer)
+                opponentModels[p] = player.rolloutStrategy;
+            else
+                opponentModels[p] = player.getOpponentModel(p);
+        }
+        // OMA finds its statistics through the parents of each node, and parallel searches share or merge trees, so
+        // neither of these can use a graph in which a node may have several parents.
+        // The game must also have a 64-bit hash of its own for the table to be worth it
+        boolean graphSupported = params.information == Closed_Loop && params.parallelMode == NONE
+                && params.opponentTreePolicy != MCTSEnums.OpponentTreePolicy.OMA
+                && params.opponentTreePolicy != MCTSEnums.OpponentTreePolicy.OMA_All
+                && TranspositionTable.supports(state);
+        this.transpositions = params.transpositionTableSize > 0 && graphSupported
+                ? new TranspositionTable(params.transpositionTableSize) : null;
+        this.determiniser = params.information == Information_Set && state.isDeterminisable()
+                ? new Determiniser(state, decisionPlayer) : null;
+    }
+}
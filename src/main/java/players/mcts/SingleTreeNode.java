@@ -4,15 +4,12 @@ import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
-import core.interfaces.IStateHeuristic;
 import core.interfaces.IStatisticLogger;
-import players.PlayerConstants;
 import utilities.ElapsedCpuTimer;
 import utilities.Pair;
 import utilities.Utils;
 
 import java.util.*;
-import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.ToDoubleBiFunction;
 import java.util.stream.IntStream;
@@ -29,18 +26,17 @@ import static utilities.Utils.noise;
 
 public class SingleTreeNode {
 
-    private final Map<AbstractAction, Integer> nValidVisits = new HashMap<>();
+    private static final AbstractAction[] NO_ACTIONS = new AbstractAction[0];
+    private static final int[] NO_INTS = new int[0];
+    private static final double[] NO_DOUBLES = new double[0];
+    private static final SingleTreeNode[][] NO_CHILDREN = new SingleTreeNode[0][];
+
     // State in this node (closed loop)
     protected AbstractGameState state;
     // State in this node (open loop - this is updated by onward trajectory....be very careful about using)
     protected AbstractGameState openLoopState;
-    // Parameters guiding the search
-    protected MCTSParams params;
-    protected AbstractForwardModel forwardModel;
-    protected AbstractPlayer[] opponentModels;
-    protected Random rnd;
-    protected IStateHeuristic heuristic;
-    protected IStateHeuristic opponentHeuristic;
+    // Parameters, forward model, policies and so on guiding the search (the same object for every node in the tree)
+    protected SearchContext search;
     // Number of FM calls and State copies up until this node
     protected int fmCallsCount;
     protected int copyCount;
@@ -51,8 +47,6 @@ public class SingleTreeNode {
     // Number of visits to this node
     protected int nVisits;
     protected int rolloutActionsTaken;
-    List<AbstractAction> actionsFromOpenLoopState = new ArrayList<>();
-    Map<AbstractAction, Double> advantagesOfActionsFromOLS = new HashMap<>();
     // Depth of this node
     int depth;
     // the id of the player who makes the decision at this node
@@ -65,17 +59,42 @@ public class SingleTreeNode {
     SingleTreeNode root;
     // Parent of this node
     SingleTreeNode parent;
-    // Children of this node. The value is an Array because we have to cater for the possibility that the next decision
-    // could be by any player - each of which would transition to a different Node OpenLoop search. (Closed Loop will
-    // only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
-    Map<AbstractAction, SingleTreeNode[]> children = new HashMap<>();
+    // Every action seen at this node is given an index, in the order first seen. The statistics for that action are
+    // then held at the same index in the arrays below, and actionIndex maps action hash codes to indices.
+    AbstractAction[] actions = NO_ACTIONS;
+    int[] actionHashes = NO_INTS;
+    int nActions;
+    // open addressing table of (index + 1) by action hash code, with 0 for an empty slot
+    private int[] actionIndex = NO_INTS;
+    // Children of this node by action index, or null if the action has not been expanded. Each element is an Array
+    // because we have to cater for the possibility that the next decision could be by any player - each of which would
+    // transition to a different Node OpenLoop search. (Closed Loop will only ever have one position in the array
+    // populated: and similarly if we are using a SelfOnly tree).
+    SingleTreeNode[][] children = NO_CHILDREN;
+    // Number of visits to this node on which each action was available (Open Loop only)
+    private int[] validVisits = NO_INTS;
+    // Advantage of each action in openLoopState (from MAST or the advantage function)
+    private double[] advantages = NO_DOUBLES;
+    // Indices of the actions available in openLoopState
+    int[] openLoopActions = NO_INTS;
+    int nOpenLoopActions;
+    // With a transposition table a node can be reached from several parents, so the visits and value (one element
+    // per player) of each action are kept on the edge to the child rather than taken from it. Null otherwise.
+    private int[] edgeVisits;
+    private double[] edgeValues, edgeSquares;
+    long transpositionKey;
+    // The nodes and action indices on the path taken through the tree in the current iteration (on the root only,
+    // and only with a transposition table, as then the path cannot be found by following parents)
+    private SingleTreeNode[] pathNodes;
+    private int[] pathActions;
+    private int pathLength;
     List<Map<AbstractAction, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
-    ToDoubleBiFunction<AbstractAction, AbstractGameState> advantageFunction = (a, s) -> advantagesOfActionsFromOLS.getOrDefault(a, 0.0);
     ToDoubleBiFunction<AbstractAction, AbstractGameState> MASTFunction;
     // The total value of all trajectories through this node (one element per player)
     private double[] totValue;
     private double[] totSquares;
-    // Total value of this node
+    // Set on the root when this tree is one of several searched in parallel against a common budget
+    ParallelSearch.SharedBudget sharedBudget;
 
 
     protected SingleTreeNode() {
@@ -86,33 +105,173 @@ public class SingleTreeNode {
     public static SingleTreeNode createRootNode(MCTSPlayer player, AbstractGameState state, Random rnd) {
         SingleTreeNode retValue = (player.params.opponentTreePolicy == OMA || player.params.opponentTreePolicy == OMA_All)
                 ? new OMATreeNode() : new SingleTreeNode();
-        retValue.decisionPlayer = state.getCurrentPlayer();
-        retValue.params = player.params;
-        retValue.forwardModel = player.getForwardModel();
-        retValue.heuristic = player.heuristic;
-        retValue.opponentHeuristic = player.opponentHeuristic;
-        retValue.rnd = rnd;
-        retValue.opponentModels = new AbstractPlayer[state.getNPlayers()];
-        for (int p = 0; p < retValue.opponentModels.length; p++) {
-            if (p == retValue.decisionPlayer)
-                retValue.opponentModels[p] = player.rolloutStrategy;
-            else
-                retValue.opponentModels[p] = player.getOpponentModel(p);
-        }
+        retValue.setRootFields(new SearchContext(player, state, state.getCurrentPlayer(), rnd), state);
+        retValue.instantiate(null, null, state);
+        return retValue;
+    }
+
+    /**
+     * Sets up the fields that are only maintained on the root node (or are copied from it to every other node)
+     */
+    private void setRootFields(SearchContext search, AbstractGameState state) {
+        decisionPlayer = state.getCurrentPlayer();
+        this.search = search;
         // only root node maintains MAST statistics
-        retValue.MASTStatistics = new ArrayList<>();
+        MASTStatistics = new ArrayList<>();
         for (int i = 0; i < state.getNPlayers(); i++)
-            retValue.MASTStatistics.add(new HashMap<>());
-        retValue.MASTFunction = (a, s) -> {
-            Map<AbstractAction, Pair<Integer, Double>> MAST = retValue.MASTStatistics.get(retValue.decisionPlayer);
+            MASTStatistics.add(new HashMap<>());
+        MASTFunction = (a, s) -> {
+            Map<AbstractAction, Pair<Integer, Double>> MAST = MASTStatistics.get(decisionPlayer);
             if (MAST.containsKey(a)) {
                 Pair<Integer, Double> stats = MAST.get(a);
-                return stats.b / (stats.a + retValue.params.epsilon);
+                return stats.b / (stats.a + search.params.epsilon);
             }
             return 0.0;
         };
-        retValue.instantiate(null, null, state);
-        return retValue;
+    }
+
+    /**
+     * Follows the given actions down the tree from this node (which should be the root).
+     *
+     * @param actions    - the actions taken since the state at this node, each with the player who took it
+     * @param nextPlayer - the player to act after the last of these actions
+     * @return the node reached, or null if the tree does not contain these actions
+     */
+    SingleTreeNode subtreeAfter(List<Pair<Integer, AbstractAction>> actions, int nextPlayer) {
+        SingleTreeNode node = this;
+        for (int i = 0; i < actions.size(); i++) {
+            Pair<Integer, AbstractAction> playerAction = actions.get(i);
+            // a SelfOnly tree skips over the actions of other players
+            if (search.params.opponentTreePolicy.selfOnlyTree && playerAction.a != decisionPlayer)
+                continue;
+            SingleTreeNode[] nodeArray = node.childrenOf(playerAction.b);
+            if (nodeArray == null)
+                return null;
+            // as in expandNode(), children are stored by the id of the player who acts next
+            int playerAfter = search.params.opponentTreePolicy.selfOnlyTree ? decisionPlayer
+                    : i + 1 < actions.size() ? actions.get(i + 1).a : nextPlayer;
+            node = nodeArray[playerAfter];
+            if (node == null)
+                return null;
+        }
+        return node;
+    }
+
+    /**
+     * Makes this node (found with subtreeAfter()) the root of the tree for a new search from state, keeping all the
+     * statistics below it. The rest of the old tree is no longer referenced.
+     *
+     * @return false if the node does not match state, in which case nothing is changed
+     */
+    boolean promoteToRoot(MCTSPlayer player, AbstractGameState state, Random rnd) {
+        if (terminalNode || decisionPlayer != state.getCurrentPlayer())
+            return false;
+        // If actions are missing from the history, then the node reached will usually be at an earlier turn than the
+        // state. This also catches no actions at all having been seen when the game has moved on.
+        if (round != state.getTurnOrder().getRoundCounter() || turn != state.getTurnOrder().getTurnCounter()
+                || turnOwner != state.getTurnOrder().getTurnOwner())
+            return false;
+        // the nodes below were built from the state stored on this one, so this must still be the real state
+        // (which it will be for a deterministic game, with the same turn structure)
+        if (search.params.information == Closed_Loop && this.state == null)
+            return false;
+        // the statistics kept on the nodes depend on whether there is a transposition table
+        SearchContext newSearch = new SearchContext(player, state, state.getCurrentPlayer(), rnd);
+        if ((newSearch.transpositions != null) != (edgeVisits != null))
+            return false;
+
+        // nothing can fail from here on
+        SingleTreeNode oldRoot = root;
+        setRootFields(newSearch, state);
+        lowReward = oldRoot.lowReward;
+        highReward = oldRoot.highReward;
+        parent = null;
+        actionToReach = null;
+        fmCallsCount = 0;
+        copyCount = 0;
+        sharedBudget = null;
+
+        int depthOffset = depth;
+        Deque<SingleTreeNode> nodes = new ArrayDeque<>();
+        // with a transposition table a node may be reached by several paths, but must only be moved once
+        Set<SingleTreeNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        nodes.push(this);
+        while (!nodes.isEmpty()) {
+            SingleTreeNode n = nodes.pop();
+            if (!seen.add(n))
+                continue;
+            n.root = this;
+            n.depth -= depthOffset;
+            n.search = search;
+            if (search.transpositions != null)
+                search.transpositions.put(n.transpositionKey, n);
+            for (int i = 0; i < n.nActions; i++) {
+                if (n.children[i] != null)
+                    for (SingleTreeNode child : n.children[i])
+                        if (child != null)
+                            nodes.push(child);
+            }
+        }
+
+        round = state.getTurnOrder().getRoundCounter();
+        turn = state.getTurnOrder().getTurnCounter();
+        turnOwner = state.getTurnOrder().getTurnOwner();
+        if (search.params.information == Closed_Loop) {
+            this.state = state;
+        } else {
+            copyCount++;
+            this.state = state.copy();
+        }
+        setActionsFromOpenLoopState(state);
+        retainOpenLoopActions();
+        return true;
+    }
+
+    /**
+     * Drops the statistics of all actions not in openLoopActions. This is used on a new root, which may have been
+     * reached in other determinisations, to remove the actions we cannot take in the real state (and which
+     * bestAction() must not choose).
+     */
+    private void retainOpenLoopActions() {
+        int[] newIndex = new int[nActions];
+        Arrays.fill(newIndex, -1);
+        for (int i = 0; i < nOpenLoopActions; i++)
+            newIndex[openLoopActions[i]] = 0;
+        int kept = 0;
+        int nPlayers = totValue.length;
+        for (int i = 0; i < nActions; i++) {
+            if (newIndex[i] < 0)
+                continue;
+            newIndex[i] = kept;
+            actions[kept] = actions[i];
+            actionHashes[kept] = actionHashes[i];
+            children[kept] = children[i];
+            validVisits[kept] = validVisits[i];
+            advantages[kept] = advantages[i];
+            if (edgeVisits != null) {
+                edgeVisits[kept] = edgeVisits[i];
+                System.arraycopy(edgeValues, i * nPlayers, edgeValues, kept * nPlayers, nPlayers);
+                System.arraycopy(edgeSquares, i * nPlayers, edgeSquares, kept * nPlayers, nPlayers);
+            }
+            kept++;
+        }
+        if (kept == nActions)
+            return;
+        for (int i = kept; i < nActions; i++) {
+            actions[i] = null;
+            children[i] = null;
+        }
+        for (int i = 0; i < nOpenLoopActions; i++)
+            openLoopActions[i] = newIndex[openLoopActions[i]];
+        nActions = kept;
+        Arrays.fill(actionIndex, 0);
+        int mask = actionIndex.length - 1;
+        for (int i = 0; i < nActions; i++) {
+            int slot = firstSlot(actionHashes[i], mask);
+            while (actionIndex[slot] != 0)
+                slot = (slot + 1) & mask;
+            actionIndex[slot] = i + 1;
+        }
     }
 
     public static SingleTreeNode createChildNode(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state) {
@@ -125,11 +284,7 @@ public class SingleTreeNode {
         this.fmCallsCount = 0;
         this.parent = parent;
         this.root = parent == null ? this : parent.root;
-        this.params = root.params;
-        this.heuristic = root.heuristic;
-        this.opponentModels = root.opponentModels;
-        this.forwardModel = root.forwardModel;
-        this.rnd = root.rnd;
+        this.search = root.search;
         this.round = state.getTurnOrder().getRoundCounter();
         this.turn = state.getTurnOrder().getTurnCounter();
         this.turnOwner = state.getTurnOrder().getTurnOwner();
@@ -146,7 +301,14 @@ public class SingleTreeNode {
 
         totValue = new double[state.getNPlayers()];
         totSquares = new double[state.getNPlayers()];
-        if (params.information != Closed_Loop && (params.maintainMasterState || depth == 0)) {
+        if (search.transpositions != null) {
+            edgeVisits = NO_INTS;
+            edgeValues = NO_DOUBLES;
+            edgeSquares = NO_DOUBLES;
+            transpositionKey = TranspositionTable.keyOf(state);
+            search.transpositions.put(transpositionKey, this);
+        }
+        if (search.params.information != Closed_Loop && (search.params.maintainMasterState || depth == 0)) {
             // if we're using open loop, then we need to make sure the reference state is never changed
             // however this is only used at the root - and we can switch the copy off for other nodes for performance
             // these master copies *are* required if we want to do something funky with the final tree, and gather
@@ -167,7 +329,7 @@ public class SingleTreeNode {
 
     private boolean terminalStateInSelfOnlyTree(AbstractGameState state) {
         // we then have some exceptions
-        if (params.opponentTreePolicy.selfOnlyTree && parent != null)
+        if (search.params.opponentTreePolicy.selfOnlyTree && parent != null)
             return !state.isNotTerminalForPlayer(parent.decisionPlayer);
         return false;
     }
@@ -178,26 +340,107 @@ public class SingleTreeNode {
         // so check the MCTSParams as well
         openLoopState = actionState;
         if (actionState.getCurrentPlayer() == this.decisionPlayer) {
-            actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState);
-            //      System.out.printf("Setting OLS actions for P%d (%d)%n%s%n", decisionPlayer, actionState.getCurrentPlayer(),
-//                actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
-            if (params.expansionPolicy == MAST) {
-                advantagesOfActionsFromOLS = actionsFromOpenLoopState.stream()
-                        .collect(toMap(a -> a, a -> root.MASTFunction.applyAsDouble(a, actionState)));
-            } else {
-                if (params.advantageFunction != null)
-                    advantagesOfActionsFromOLS = actionsFromOpenLoopState.stream()
-                            .collect(toMap(a -> a, a -> params.advantageFunction.evaluateAction(a, actionState)));
+            List<AbstractAction> available = search.forwardModel.computeAvailableActions(actionState);
+            if (openLoopActions.length < available.size())
+                openLoopActions = new int[available.size()];
+            nOpenLoopActions = available.size();
+            ensureCapacity(available.size());
+            for (int i = 0; i < nOpenLoopActions; i++) {
+                // This *does* rely on a good equals method being implemented for Actions
+                AbstractAction action = available.get(i);
+                int hash = action.hashCode();
+                int index = indexOf(action, hash);
+                if (index < 0)
+                    index = addAction(action, hash); // a new node to be expanded
+                openLoopActions[i] = index;
+                if (search.params.expansionPolicy == MAST)
+                    advantages[index] = root.MASTFunction.applyAsDouble(action, actionState);
+                else if (search.params.advantageFunction != null)
+                    advantages[index] = search.params.advantageFunction.evaluateAction(action, actionState);
             }
-            for (AbstractAction action : actionsFromOpenLoopState) {
-                if (!children.containsKey(action)) {
-                    children.put(action, null); // mark a new node to be expanded
-                    // This *does* rely on a good equals method being implemented for Actions
-                }
+        }
+    }
+
+    /**
+     * @return the index of action at this node, or -1 if it has not been seen here
+     */
+    int indexOf(AbstractAction action) {
+        return indexOf(action, action.hashCode());
+    }
+
+    private int indexOf(AbstractAction action, int hash) {
+        if (nActions == 0)
+            return -1;
+        int mask = actionIndex.length - 1;
+        for (int slot = firstSlot(hash, mask); actionIndex[slot] != 0; slot = (slot + 1) & mask) {
+            int index = actionIndex[slot] - 1;
+            if (actionHashes[index] == hash && actions[index].equals(action))
+                return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Gives the next index to action (which must not already have one)
+     *
+     * @return the index of action
+     */
+    private int addAction(AbstractAction action, int hash) {
+        ensureCapacity(nActions + 1);
+        actions[nActions] = action;
+        actionHashes[nActions] = hash;
+        int mask = actionIndex.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (actionIndex[slot] != 0)
+            slot = (slot + 1) & mask;
+        actionIndex[slot] = ++nActions;
+        return nActions - 1;
+    }
+
+    private static int firstSlot(int hash, int mask) {
+        // as in HashMap, spread the high bits of the hash code into the low ones
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Makes room for at least the given number of actions in the per-action arrays
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > actions.length) {
+            int newLength = Math.max(capacity, actions.length * 2);
+            actions = Arrays.copyOf(actions, newLength);
+            actionHashes = Arrays.copyOf(actionHashes, newLength);
+            children = Arrays.copyOf(children, newLength);
+            validVisits = Arrays.copyOf(validVisits, newLength);
+            advantages = Arrays.copyOf(advantages, newLength);
+            if (edgeVisits != null) {
+                edgeVisits = Arrays.copyOf(edgeVisits, newLength);
+                edgeValues = Arrays.copyOf(edgeValues, newLength * totValue.length);
+                edgeSquares = Arrays.copyOf(edgeSquares, newLength * totValue.length);
+            }
+        }
+        // keep the hash table no more than half full
+        if (capacity * 2 > actionIndex.length) {
+            int tableLength = Integer.highestOneBit(Math.max(capacity * 4 - 1, 1));
+            actionIndex = new int[tableLength];
+            int mask = tableLength - 1;
+            for (int i = 0; i < nActions; i++) {
+                int slot = firstSlot(actionHashes[i], mask);
+                while (actionIndex[slot] != 0)
+                    slot = (slot + 1) & mask;
+                actionIndex[slot] = i + 1;
             }
         }
     }
 
+    /**
+     * @return the child nodes reached by action, indexed by the player who acts next, or null if it has not been expanded
+     */
+    SingleTreeNode[] childrenOf(AbstractAction action) {
+        int index = indexOf(action);
+        return index < 0 ? null : children[index];
+    }
+
     /**
      * Performs full MCTS search, using the defined budget limits.
      */
@@ -207,30 +450,20 @@ public class SingleTreeNode {
         double avgTimeTaken;
         double acumTimeTaken = 0;
         long remaining;
-        int remainingLimit = params.breakMS;
+        int remainingLimit = search.params.breakMS;
         ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
-        if (params.budgetType == BUDGET_TIME) {
-            elapsedTimer.setMaxTimeMillis(params.budget);
+        if (search.params.budgetType == BUDGET_TIME) {
+            elapsedTimer.setMaxTimeMillis(search.params.budget);
         }
 
         // Tracking number of iterations for iteration budget
         int numIters = 0;
+        // FM and copy calls already reported to the shared budget (if we are one of several parallel workers)
+        int reportedFMCalls = 0, reportedCopies = 0;
         rolloutActionsTaken = 0;
         boolean stop = false;
         while (!stop) {
-            switch (params.information) {
-                case Closed_Loop:
-                    openLoopState = state;
-                    break;
-                case Open_Loop:
-                    openLoopState = state.copy();
-                    copyCount++;
-                    break;
-                case Information_Set:
-                    openLoopState = state.copy(decisionPlayer);
-                    copyCount++;
-                    break;
-            }
+            prepareIterationState();
 
             // New timer for this iteration
             ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
@@ -240,25 +473,27 @@ public class SingleTreeNode {
 
             // Finished iteration
             numIters++;
+            int totalIters = sharedBudget == null ? numIters : sharedBudget.iterations.incrementAndGet();
             //       System.out.printf("MCTS Iteration %d, timeLeft: %d\n", numIters, elapsedTimer.remainingTimeMillis());
             // Check stopping condition
-            PlayerConstants budgetType = params.budgetType;
-            if (budgetType == BUDGET_TIME) {
+            if (search.params.budgetType == BUDGET_TIME && sharedBudget != null) {
+                // the workers in a parallel search all stop at the same wall-clock deadline
+                stop = sharedBudget.timeUsed(numIters, remainingLimit);
+            } else if (search.params.budgetType == BUDGET_TIME) {
                 // Time budget
                 acumTimeTaken += (elapsedTimerIteration.elapsedMillis());
                 avgTimeTaken = acumTimeTaken / numIters;
                 remaining = elapsedTimer.remainingTimeMillis();
                 stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
-            } else if (budgetType == BUDGET_ITERATIONS) {
-                // Iteration budget
-                stop = numIters >= params.budget;
-            } else if (budgetType == BUDGET_FM_CALLS) {
-                // FM calls budget
-                stop = fmCallsCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_COPY_CALLS) {
-                stop = copyCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_FMANDCOPY_CALLS) {
-                stop = (copyCount + fmCallsCount) > params.budget || numIters > params.budget;
+            } else if (sharedBudget != null) {
+                // the budget is counted across all the workers in a parallel search
+                int totalFMCalls = sharedBudget.fmCalls.addAndGet(fmCallsCount - reportedFMCalls);
+                int totalCopies = sharedBudget.copyCalls.addAndGet(copyCount - reportedCopies);
+                reportedFMCalls = fmCallsCount;
+                reportedCopies = copyCount;
+                stop = budgetUsed(search.params, totalIters, totalFMCalls, totalCopies);
+            } else {
+                stop = budgetUsed(search.params, numIters, fmCallsCount, copyCount);
             }
         }
 
@@ -267,13 +502,60 @@ public class SingleTreeNode {
         }
     }
 
+    /**
+     * Sets up openLoopState at the root for the start of the next iteration
+     */
+    protected void prepareIterationState() {
+        switch (search.params.information) {
+            case Closed_Loop:
+                openLoopState = state;
+                break;
+            case Open_Loop:
+                openLoopState = state.copy();
+                openLoopState.setRecordHistory(false);
+                copyCount++;
+                break;
+            case Information_Set:
+                if (search.determiniser != null) {
+                    // a full copy, with what the decision player cannot see then shuffled in place
+                    openLoopState = state.copy();
+                    search.determiniser.determinise(openLoopState, search.rnd);
+                } else {
+                    openLoopState = state.copy(decisionPlayer);
+                }
+                openLoopState.setRecordHistory(false);
+                copyCount++;
+                break;
+        }
+    }
+
+    /**
+     * Checks the iteration, FM and copy budgets (BUDGET_TIME is tracked separately by the caller)
+     *
+     * @return true if the search should stop
+     */
+    static boolean budgetUsed(MCTSParams params, int numIters, int fmCalls, int copyCalls) {
+        switch (params.budgetType) {
+            case BUDGET_ITERATIONS:
+                return numIters >= params.budget;
+            case BUDGET_FM_CALLS:
+                return fmCalls > params.budget || numIters > params.budget;
+            case BUDGET_COPY_CALLS:
+                return copyCalls > params.budget || numIters > params.budget;
+            case BUDGET_FMANDCOPY_CALLS:
+                return (copyCalls + fmCalls) > params.budget || numIters > params.budget;
+            default:
+                return false;
+        }
+    }
+
     /**
      * oneSearchIteration() implements the strategy for tree search (plus expansion, rollouts, backup and so on)
      * Its result is purely stored in the tree generated from root
      */
     protected void oneSearchIteration() {
-        double[] startingValues = IntStream.range(0, openLoopState.getNPlayers())
-                .mapToDouble(i -> heuristic.evaluateState(openLoopState, i)).toArray();
+        double[] startingValues = new double[openLoopState.getNPlayers()];
+        search.heuristic.evaluateAllPlayers(openLoopState, startingValues);
 
         List<Pair<Integer, AbstractAction>> treeActions = new ArrayList<>();
         SingleTreeNode selected = treePolicy(treeActions);
@@ -288,9 +570,9 @@ public class SingleTreeNode {
     }
 
     protected void updateMASTStatistics(List<Pair<Integer, AbstractAction>> tree, List<Pair<Integer, AbstractAction>> rollout, double[] value) {
-        if (params.useMAST) {
+        if (search.params.useMAST) {
             List<Pair<Integer, AbstractAction>> MASTActions = new ArrayList<>();
-            switch (params.MAST) {
+            switch (search.params.MAST) {
                 case Rollout:
                     MASTActions = rollout;
                     break;
@@ -323,7 +605,7 @@ public class SingleTreeNode {
         stats.put("leafNodes", treeStats.totalLeaves);
         stats.put("terminalNodes", treeStats.totalTerminalNodes);
         stats.put("maxDepth", treeStats.depthReached);
-        stats.put("nActionsRoot", children.size());
+        stats.put("nActionsRoot", nActions);
         stats.put("nActionsTree", treeStats.meanActionsAtNode);
         stats.put("maxActionsAtNode", treeStats.maxActionsAtNode);
         OptionalInt maxVisits = Arrays.stream(actionVisits()).max();
@@ -335,6 +617,8 @@ public class SingleTreeNode {
         stats.put("lowReward", this.lowReward);
         stats.put("highReward", this.highReward);
         stats.put("rolloutActions", this.rolloutActionsTaken / numIters);
+        if (search.transpositions != null)
+            stats.put("transpositions", search.transpositions.hits);
         statsLogger.record(stats);
     }
 
@@ -342,9 +626,11 @@ public class SingleTreeNode {
      * Uses plain java loop instead of streams for performance
      * (this is called often enough it can make a measurable difference)
      */
-    protected int actionVisits(AbstractAction action) {
+    protected int actionVisits(int index) {
+        if (edgeVisits != null)
+            return edgeVisits[index];
         int retValue = 0;
-        SingleTreeNode[] nodes = children.get(action);
+        SingleTreeNode[] nodes = children[index];
         if (nodes != null) {
             for (SingleTreeNode node : nodes) {
                 if (node != null)
@@ -354,19 +640,26 @@ public class SingleTreeNode {
         return retValue;
     }
 
-    private int validVisitsFor(AbstractAction action) {
-        if (params.information == Closed_Loop)
+    protected int actionVisits(AbstractAction action) {
+        int index = indexOf(action);
+        return index < 0 ? 0 : actionVisits(index);
+    }
+
+    private int validVisitsFor(int index) {
+        if (search.params.information == Closed_Loop)
             return nVisits;
-        return nValidVisits.getOrDefault(action, 1);
+        return Math.max(validVisits[index], 1);
     }
 
     /**
      * Uses plain java loop instead of streams for performance
      * (this is called often enough it can make a measurable difference)
      */
-    protected double actionTotValue(AbstractAction action, int playerId) {
+    protected double actionTotValue(int index, int playerId) {
+        if (edgeValues != null)
+            return edgeValues[index * totValue.length + playerId];
         double retValue = 0.0;
-        SingleTreeNode[] nodes = children.get(action);
+        SingleTreeNode[] nodes = children[index];
         if (nodes != null) {
             for (SingleTreeNode node : nodes) {
                 if (node != null)
@@ -376,9 +669,16 @@ public class SingleTreeNode {
         return retValue;
     }
 
-    private double actionSquaredValue(AbstractAction action, int playerId) {
+    protected double actionTotValue(AbstractAction action, int playerId) {
+        int index = indexOf(action);
+        return index < 0 ? 0.0 : actionTotValue(index, playerId);
+    }
+
+    private double actionSquaredValue(int index, int playerId) {
+        if (edgeSquares != null)
+            return edgeSquares[index * totValue.length + playerId];
         double retValue = 0.0;
-        SingleTreeNode[] nodes = children.get(action);
+        SingleTreeNode[] nodes = children[index];
         if (nodes != null) {
             for (SingleTreeNode node : nodes) {
                 if (node != null)
@@ -393,9 +693,9 @@ public class SingleTreeNode {
      * For this reason not converted to old-style java loop as there would be no performance gain
      */
     int[] actionVisits() {
-        return children.values().stream()
-                .filter(Objects::nonNull)
-                .mapToInt(arr -> Arrays.stream(arr).filter(Objects::nonNull).mapToInt(n -> n.nVisits).sum())
+        return IntStream.range(0, nActions)
+                .filter(i -> children[i] != null)
+                .map(this::actionVisits)
                 .toArray();
     }
 
@@ -410,66 +710,150 @@ public class SingleTreeNode {
 
         SingleTreeNode cur = this;
         int actingPlayer = cur.decisionPlayer;
+        pathLength = 0;
 
         // Keep iterating while the state reached is not terminal and the depth of the tree is not exceeded
-        while (cur.openLoopState.isNotTerminalForPlayer(actingPlayer) && cur.depth < params.maxTreeDepth && cur.actionsFromOpenLoopState.size() > 0) {
-            List<AbstractAction> unexpanded = cur.unexpandedActions();
-            if (!unexpanded.isEmpty()) {
+        while (cur.openLoopState.isNotTerminalForPlayer(actingPlayer) && cur.depth < search.params.maxTreeDepth && cur.nOpenLoopActions > 0) {
+            if (!cur.fullyExpanded()) {
                 // We have an unexpanded action
-                AbstractAction chosen = cur.expand(unexpanded);
+                AbstractAction chosen = cur.expand(cur.unexpandedActions());
                 AbstractGameState nextState = cur.openLoopState;
-                if (params.information == Closed_Loop) {
+                if (search.params.information == Closed_Loop) {
                     root.copyCount++;
                     nextState = nextState.copy();
+                    nextState.setRecordHistory(false);
                     // In Closed Loop why do we do this?
                     // Because OLS = state in this case, so we need to copy it before updating it and
                     // using it to populate a new node.
                 }
                 cur.advance(nextState, chosen);
-                // then create the new node
-                return cur.expandNode(chosen, nextState);
+                SingleTreeNode transposition = cur.findTransposition(chosen, nextState);
+                if (transposition == null) {
+                    // then create the new node
+                    SingleTreeNode newNode = cur.expandNode(chosen, nextState);
+                    if (search.transpositions != null)
+                        addToPath(cur, cur.indexOf(chosen));
+                    return newNode;
+                }
+                // we have reached a state already in the tree, so carry on from its node
+                addToPath(cur, cur.indexOf(chosen));
+                cur = transposition;
+                treeActions.add(new Pair<>(actingPlayer, chosen));
             } else {
                 // Move to next child given by UCT function
-                AbstractAction chosen = cur.treePolicyAction(true);
-                if (params.information != Closed_Loop) {
+                int chosen = cur.treePolicyIndex(true);
+                AbstractAction chosenAction = cur.actions[chosen];
+                if (search.params.information != Closed_Loop) {
                     // We do not need to copy the state, as we advance this as we descend the tree.
                     // In open loop we never re-use the state...the only purpose of storing it on the Node is
                     // to pick it up in the next uct() call as we descend the tree
-                    cur.advance(cur.openLoopState, chosen);
+                    cur.advance(cur.openLoopState, chosenAction);
                 }
+                if (search.transpositions != null)
+                    addToPath(cur, chosen);
                 cur = cur.nextNodeInTree(chosen);
                 // else we keep cur, but will exit immediately
-                treeActions.add(new Pair<>(actingPlayer, chosen));
+                treeActions.add(new Pair<>(actingPlayer, chosenAction));
             }
         }
         return cur;
     }
 
-    protected List<AbstractAction> actionsToConsider(List<AbstractAction> allAvailable, int usedElsewhere) {
-        if (!allAvailable.isEmpty() && params.progressiveWideningConstant >= 1.0) {
-            int actionsToConsider = (int) Math.floor(params.progressiveWideningConstant * Math.pow(nVisits + 1, params.progressiveWideningExponent));
-            actionsToConsider = Math.min(actionsToConsider - usedElsewhere, allAvailable.size());
-            // takes account of the expanded actions
-            if (actionsToConsider <= 0) return new ArrayList<>();
-            // sort in advantage order (descending)
-            allAvailable.sort(Comparator.comparingDouble(a -> -advantagesOfActionsFromOLS.getOrDefault(a, 0.0)));
-            return allAvailable.subList(0, actionsToConsider);
+    /**
+     * Looks in the transposition table (if there is one) for a node with nextState, the state reached by taking
+     * action from this node. If there is one, then it becomes the child of this node for action.
+     *
+     * @return the node found, or null if there is none (and a new node should be expanded)
+     */
+    private SingleTreeNode findTransposition(AbstractAction action, AbstractGameState nextState) {
+        if (search.transpositions == null)
+            return null;
+        SingleTreeNode node = search.transpositions.get(TranspositionTable.keyOf(nextState));
+        int nextPlayer = search.params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : nextState.getCurrentPlayer();
+        // different states may still share a key, so what is cheap is checked first, and then the states themselves
+        if (node == null || node.decisionPlayer != nextPlayer || node.round != nextState.getTurnOrder().getRoundCounter()
+                || node.turn != nextState.getTurnOrder().getTurnCounter() || node.terminalNode == nextState.isNotTerminal())
+            return null;
+        if (node.state == null || !node.state.equals(nextState))
+            return null;
+        // a node already on the path would make a cycle
+        if (node == root)
+            return null;
+        for (int i = 0; i < root.pathLength; i++)
+            if (root.pathNodes[i] == node)
+                return null;
+        SingleTreeNode[] nodeArray = new SingleTreeNode[nextState.getNPlayers()];
+        nodeArray[nextPlayer] = node;
+        int index = indexOf(action);
+        if (index < 0)
+            index = addAction(action, action.hashCode());
+        children[index] = nodeArray;
+        search.transpositions.hits++;
+        return node;
+    }
+
+    /**
+     * Records on the root that the current iteration went from node by the action with the given index
+     */
+    private void addToPath(SingleTreeNode node, int actionIndex) {
+        if (pathNodes == null || pathLength == pathNodes.length) {
+            int newLength = Math.max(pathLength * 2, search.params.maxTreeDepth + 1);
+            pathNodes = pathNodes == null ? new SingleTreeNode[newLength] : Arrays.copyOf(pathNodes, newLength);
+            pathActions = pathActions == null ? new int[newLength] : Arrays.copyOf(pathActions, newLength);
+        }
+        pathNodes[pathLength] = node;
+        pathActions[pathLength] = actionIndex;
+        pathLength++;
+    }
+
+    /**
+     * With progressive widening, this sorts openLoopActions in descending order of advantage, and only the first
+     * ones are considered.
+     *
+     * @return the number of actions in openLoopActions to consider
+     */
+    protected int actionsToConsider() {
+        if (nOpenLoopActions > 0 && search.params.progressiveWideningConstant >= 1.0) {
+            int actionsToConsider = (int) Math.floor(search.params.progressiveWideningConstant * Math.pow(nVisits + 1, search.params.progressiveWideningExponent));
+            // sort in advantage order (descending); an insertion sort, as the order rarely changes between visits
+            for (int i = 1; i < nOpenLoopActions; i++) {
+                int index = openLoopActions[i];
+                int j = i - 1;
+                while (j >= 0 && advantages[openLoopActions[j]] < advantages[index]) {
+                    openLoopActions[j + 1] = openLoopActions[j];
+                    j--;
+                }
+                openLoopActions[j + 1] = index;
+            }
+            return Math.min(actionsToConsider, nOpenLoopActions);
         }
-        return allAvailable;
+        return nOpenLoopActions;
+    }
+
+    /**
+     * @return true if all the actions to consider from this State have been expanded
+     */
+    protected boolean fullyExpanded() {
+        int n = actionsToConsider();
+        for (int i = 0; i < n; i++)
+            if (children[openLoopActions[i]] == null)
+                return false;
+        return true;
     }
 
     /**
      * @return A list of the unexpanded Actions from this State
      */
     protected List<AbstractAction> unexpandedActions() {
-        // first cater for an edge case with progressive widening
-        // where the expanded children may include available actions not in the current pruning width
-        // this can occur where we have different available actions (actionsFromOpenLoopState) on each iteration
-        List<AbstractAction> topActions = params.progressiveWideningConstant >= 1.0
-                ? actionsToConsider(actionsFromOpenLoopState, 0)
-                : actionsFromOpenLoopState;
-        List<AbstractAction> allUnexpanded = topActions.stream().filter(a -> children.get(a) == null).collect(toList());
-        return actionsToConsider(allUnexpanded, topActions.size() - allUnexpanded.size());
+        // with progressive widening the expanded children may include available actions not in the current pruning
+        // width (this can occur where we have different available actions on each iteration), so we only look at
+        // those actions that are within it
+        int n = actionsToConsider();
+        List<AbstractAction> retValue = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            if (children[openLoopActions[i]] == null)
+                retValue.add(actions[openLoopActions[i]]);
+        return retValue;
     }
 
     /**
@@ -484,19 +868,13 @@ public class SingleTreeNode {
         Collections.shuffle(notChosen);
 
         AbstractAction chosen = null;
-
-        ToDoubleBiFunction<AbstractAction, AbstractGameState> valueFunction = params.expansionPolicy == MAST ? MASTFunction : advantageFunction;
-        if (valueFunction != null) {
-            double bestValue = Double.NEGATIVE_INFINITY;
-            for (AbstractAction action : notChosen) {
-                double estimate = valueFunction.applyAsDouble(action, openLoopState);
-                if (estimate > bestValue) {
-                    bestValue = estimate;
-                    chosen = action;
-                }
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (AbstractAction action : notChosen) {
+            double estimate = advantages[indexOf(action)];
+            if (estimate > bestValue) {
+                bestValue = estimate;
+                chosen = action;
             }
-        } else {
-            chosen = notChosen.get(0);
         }
         if (chosen == null)
             throw new AssertionError("We have somehow failed to pick an action to expand");
@@ -506,15 +884,17 @@ public class SingleTreeNode {
 
     protected SingleTreeNode expandNode(AbstractAction actionCopy, AbstractGameState nextState) {
         // then instantiate a new node
-        int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : nextState.getCurrentPlayer();
+        int nextPlayer = search.params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : nextState.getCurrentPlayer();
         SingleTreeNode tn = SingleTreeNode.createChildNode(this, actionCopy, nextState);
         SingleTreeNode[] nodeArray = new SingleTreeNode[nextState.getNPlayers()];
         nodeArray[nextPlayer] = tn; // we store this by id of the player who will take their turn next
-        children.put(actionCopy, nodeArray);
+        int index = indexOf(actionCopy);
+        if (index < 0)
+            index = addAction(actionCopy, actionCopy.hashCode());
+        children[index] = nodeArray;
         return tn;
     }
 
-
     /**
      * Advance the current game state with the given action, count the FM call and compute the next available actions.
      * <p>
@@ -525,11 +905,39 @@ public class SingleTreeNode {
      * @param act - action to apply
      */
     protected void advance(AbstractGameState gs, AbstractAction act) {
+        root.fmCallsCount += advance(gs, act, search.forwardModel, search.opponentModels);
+    }
+
+    /**
+     * As advance(gs, act), but with the forward model and opponent models to use given explicitly
+     * (a worker thread in a parallel search has its own copies of these)
+     *
+     * @return the number of forward model calls made
+     */
+    protected int advance(AbstractGameState gs, AbstractAction act, AbstractForwardModel fm, AbstractPlayer[] models) {
+        return advance(gs, act, fm, models, null);
+    }
+
+    /**
+     * As advance(gs, act, fm, models), but if undoLog is not null then each move is made with fm.nextWithUndo(), and
+     * its undo token pushed onto undoLog.
+     */
+    private int advance(AbstractGameState gs, AbstractAction act, AbstractForwardModel fm, AbstractPlayer[] models,
+                        Deque<AbstractForwardModel.UndoToken> undoLog) {
         // we execute a copy(), because this can change the action, so we then don't find the node later!
-        forwardModel.next(gs, act.copy());
-        root.fmCallsCount++;
-        if (params.opponentTreePolicy == SelfOnly && gs.getCurrentPlayer() != decisionPlayer)
-            advanceToTurnOfPlayer(gs, decisionPlayer);
+        next(gs, act.copy(), fm, undoLog);
+        int fmCalls = 1;
+        if (search.params.opponentTreePolicy == SelfOnly && gs.getCurrentPlayer() != decisionPlayer)
+            fmCalls += advanceToTurnOfPlayer(gs, decisionPlayer, fm, models, undoLog);
+        return fmCalls;
+    }
+
+    private static void next(AbstractGameState gs, AbstractAction act, AbstractForwardModel fm,
+                             Deque<AbstractForwardModel.UndoToken> undoLog) {
+        if (undoLog == null)
+            fm.next(gs, act);
+        else
+            undoLog.push(fm.nextWithUndo(gs, act));
     }
 
     /**
@@ -539,17 +947,24 @@ public class SingleTreeNode {
      * @param id
      */
     protected void advanceToTurnOfPlayer(AbstractGameState gs, int id) {
+        root.fmCallsCount += advanceToTurnOfPlayer(gs, id, search.forwardModel, search.opponentModels, null);
+    }
+
+    private int advanceToTurnOfPlayer(AbstractGameState gs, int id, AbstractForwardModel fm, AbstractPlayer[] models,
+                                      Deque<AbstractForwardModel.UndoToken> undoLog) {
+        int fmCalls = 0;
         // For the moment we only have one opponent model - that of a random player
         while (gs.getCurrentPlayer() != id && gs.isNotTerminalForPlayer(id)) {
             //       AbstractGameState preGS = gs.copy();
-            AbstractPlayer oppModel = opponentModels[gs.getCurrentPlayer()];
-            List<AbstractAction> availableActions = forwardModel.computeAvailableActions(gs);
+            AbstractPlayer oppModel = models[gs.getCurrentPlayer()];
+            List<AbstractAction> availableActions = fm.computeAvailableActions(gs);
             if (availableActions.isEmpty())
                 throw new AssertionError("Should always have at least one action possible...");
             AbstractAction action = oppModel.getAction(gs, availableActions);
-            forwardModel.next(gs, action);
-            root.fmCallsCount++;
+            next(gs, action, fm, undoLog);
+            fmCalls++;
         }
+        return fmCalls;
     }
 
     /**
@@ -558,31 +973,38 @@ public class SingleTreeNode {
      * @return - child node according to the tree policy
      */
     protected AbstractAction treePolicyAction(boolean explore) {
+        return actions[treePolicyIndex(explore)];
+    }
+
+    /**
+     * As treePolicyAction(), but returns the index of the action chosen
+     */
+    protected int treePolicyIndex(boolean explore) {
 
-        if (params.opponentTreePolicy == SelfOnly && openLoopState != null && openLoopState.getCurrentPlayer() != decisionPlayer)
+        if (search.params.opponentTreePolicy == SelfOnly && openLoopState != null && openLoopState.getCurrentPlayer() != decisionPlayer)
             throw new AssertionError("An error has occurred. SelfOnly should only call uct when we are moving.");
 
-        List<AbstractAction> availableActions = actionsToConsider(actionsFromOpenLoopState, 0);
-        if (availableActions.isEmpty())
+        int nAvailable = actionsToConsider();
+        if (nAvailable == 0)
             throw new AssertionError("We need to have at least one option");
-        AbstractAction actionChosen;
-        if (availableActions.size() == 1) {
-            actionChosen = availableActions.get(0);
+        int actionChosen;
+        if (nAvailable == 1) {
+            actionChosen = openLoopActions[0];
         } else {
-            switch (params.treePolicy) {
+            switch (search.params.treePolicy) {
                 case UCB:
                 case AlphaGo:
                 case UCB_Tuned:
                     // These just vary on the form of the exploration term in a UCB algorithm
-                    actionChosen = ucb(availableActions);
+                    actionChosen = ucb(nAvailable);
                     break;
                 case EXP3:
                 case RegretMatching:
                     // These construct a distribution over possible actions and then sample from it
-                    actionChosen = sampleFromDistribution(availableActions, explore ? params.exploreEpsilon : 0.0);
+                    actionChosen = sampleFromDistribution(nAvailable, explore ? search.params.exploreEpsilon : 0.0);
                     break;
                 default:
-                    throw new AssertionError("Unknown treepolicy: " + params.treePolicy);
+                    throw new AssertionError("Unknown treepolicy: " + search.params.treePolicy);
             }
         }
 
@@ -590,27 +1012,29 @@ public class SingleTreeNode {
     }
 
     protected SingleTreeNode nextNodeInTree(AbstractAction actionChosen) {
+        return nextNodeInTree(indexOf(actionChosen));
+    }
+
+    protected SingleTreeNode nextNodeInTree(int actionChosen) {
         // Only advance the state if this is open loop
-        SingleTreeNode[] nodeArray = children.get(actionChosen);
-        if (params.information == Closed_Loop) {
+        SingleTreeNode[] nodeArray = children[actionChosen];
+        if (search.params.information == Closed_Loop) {
             // in this case we have determinism...there should just be a single child node in the array...so we get that
-            Optional<SingleTreeNode> next = Arrays.stream(nodeArray).filter(Objects::nonNull).findFirst();
-            if (next.isPresent()) {
-                return next.get();
-            } else {
-                throw new AssertionError("We have no node to move to...");
-            }
+            for (SingleTreeNode next : nodeArray)
+                if (next != null)
+                    return next;
+            throw new AssertionError("We have no node to move to...");
         } else {
-            int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : openLoopState.getCurrentPlayer();
+            int nextPlayer = search.params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : openLoopState.getCurrentPlayer();
             SingleTreeNode nextNode = nodeArray[nextPlayer];
             if (nextNode == null) {
                 // need to create a new node - this is because we have a different player acting than expected
-                if (params.opponentTreePolicy.selfOnlyTree)
+                if (search.params.opponentTreePolicy.selfOnlyTree)
                     throw new AssertionError("Not sure this should be possible though");
-                nodeArray[nextPlayer] = SingleTreeNode.createChildNode(this, actionChosen.copy(), openLoopState);
+                nodeArray[nextPlayer] = SingleTreeNode.createChildNode(this, actions[actionChosen].copy(), openLoopState);
                 nextNode = nodeArray[nextPlayer];
-            } else if (params.opponentTreePolicy.selfOnlyTree && nextNode.decisionPlayer != decisionPlayer) {
-                nodeArray[nextPlayer] = SingleTreeNode.createChildNode(this, actionChosen.copy(), openLoopState);
+            } else if (search.params.opponentTreePolicy.selfOnlyTree && nextNode.decisionPlayer != decisionPlayer) {
+                nodeArray[nextPlayer] = SingleTreeNode.createChildNode(this, actions[actionChosen].copy(), openLoopState);
                 nextNode = nodeArray[nextPlayer];
             } else {
                 // pick up the existing one, and set the state
@@ -621,17 +1045,24 @@ public class SingleTreeNode {
         }
     }
 
-    private AbstractAction ucb(List<AbstractAction> availableActions) {
+    /**
+     * Chooses from the first nAvailable actions in openLoopActions. This is called on every step down the tree, so
+     * works directly on the per-action arrays and creates no objects.
+     *
+     * @return the index of the action with the highest UCB value
+     */
+    private int ucb(int nAvailable) {
         // Find child with highest UCB value
-        AbstractAction bestAction = null;
+        int bestAction = -1;
         double bestValue = -Double.MAX_VALUE;
 
+        MCTSParams params = search.params;
         double nodeValue = totValue[decisionPlayer] / nVisits;
         // nodeValue is the value of the state, V(s), and is used as a baseline when we use an Advantage function later
 
-        for (AbstractAction action : availableActions) {
-            SingleTreeNode[] childArray = children.get(action);
-            if (childArray == null)
+        for (int i = 0; i < nAvailable; i++) {
+            int action = openLoopActions[i];
+            if (children[action] == null)
                 throw new AssertionError("Should not be here");
 
             // Find child value
@@ -654,7 +1085,7 @@ public class SingleTreeNode {
                         if (iteratingNode == null)
                             throw new AssertionError("Should always find OMA node before root");
                     } while (iteratingNode != oma);
-                    OMATreeNode.OMAStats stats = oma.OMAChildren.get(lastActionTaken).get(action);
+                    OMATreeNode.OMAStats stats = oma.OMAChildren.get(lastActionTaken).get(actions[action]);
                     if (stats != null) {
                         double omaValue = stats.OMATotValue / stats.OMAVisits;
                         childValue = (1.0 - beta) * childValue + beta * omaValue;
@@ -665,7 +1096,7 @@ public class SingleTreeNode {
             // consider any progressive bias term
             if (params.biasVisits > 0) {
                 double beta = Math.sqrt(params.biasVisits / (double) (params.biasVisits + 3 * actionVisits));
-                childValue = (1.0 - beta) * childValue + beta * (advantagesOfActionsFromOLS.getOrDefault(action, 0.0) + nodeValue);
+                childValue = (1.0 - beta) * childValue + beta * (advantages[action] + nodeValue);
             }
 
             if (params.normaliseRewards) {
@@ -689,7 +1120,7 @@ public class SingleTreeNode {
                         // we also need to standardise the sum of squares to calculate the variance
                         meanSq = (meanSq
                                 + root.lowReward * root.lowReward
-                                - 2 * root.lowReward * actionTotValue(action, decisionPlayer) / (actionVisits + params.epsilon)
+                                - 2 * root.lowReward * hvVal / (actionVisits + params.epsilon)
                         ) / (range * range);
                     } else {
                         // we need to modify the standard variance as it is not on a 0..1 basis (which is where 0.25 comes from)
@@ -710,7 +1141,7 @@ public class SingleTreeNode {
             uctValue = childValue + explorationTerm;
 
             // Apply small noise to break ties randomly
-            uctValue = noise(uctValue, params.epsilon, rnd.nextDouble());
+            uctValue = noise(uctValue, params.epsilon, search.rnd.nextDouble());
             if (Double.isNaN(uctValue))
                 throw new AssertionError("Numeric error calculating uctValue");
 
@@ -721,23 +1152,27 @@ public class SingleTreeNode {
             }
         }
 
-        if (bestAction == null)
+        if (bestAction == -1)
             throw new AssertionError("We have a null value in UCT : shouldn't really happen!");
 
         return bestAction;
     }
 
     public double exp3Value(AbstractAction action) {
+        return exp3Value(indexOf(action));
+    }
+
+    private double exp3Value(int action) {
         double actionValue = actionTotValue(action, decisionPlayer);
         int actionVisits = actionVisits(action);
         double meanActionValue = (actionValue / actionVisits);
-        if (params.biasVisits > 0) {
-            double beta = Math.sqrt(params.biasVisits / (double) (params.biasVisits + 3 * actionVisits));
-            meanActionValue = (1.0 - beta) * meanActionValue + beta * advantagesOfActionsFromOLS.getOrDefault(action, 0.0);
+        if (search.params.biasVisits > 0) {
+            double beta = Math.sqrt(search.params.biasVisits / (double) (search.params.biasVisits + 3 * actionVisits));
+            meanActionValue = (1.0 - beta) * meanActionValue + beta * advantages[action];
         }
         // we then normalise to [0, 1], or we subtract the mean action value to get an advantage (and reduce risk of
         // NaN or Infinities when we exponentiate)
-        if (params.normaliseRewards)
+        if (search.params.normaliseRewards)
             meanActionValue = Utils.normalise(meanActionValue, root.lowReward, root.highReward);
         else
             meanActionValue = meanActionValue - (totValue[decisionPlayer] / nVisits);
@@ -745,11 +1180,15 @@ public class SingleTreeNode {
     }
 
     public double rmValue(AbstractAction action) {
+        return rmValue(indexOf(action));
+    }
+
+    private double rmValue(int action) {
         double actionValue = actionTotValue(action, decisionPlayer);
         int actionVisits = actionVisits(action);
-        if (params.biasVisits > 0) {
-            double beta = Math.sqrt(params.biasVisits / (double) (params.biasVisits + 3 * actionVisits));
-            actionValue = (1.0 - beta) * actionValue + beta * ((totValue[decisionPlayer] / nVisits) + advantagesOfActionsFromOLS.getOrDefault(action, 0.0));
+        if (search.params.biasVisits > 0) {
+            double beta = Math.sqrt(search.params.biasVisits / (double) (search.params.biasVisits + 3 * actionVisits));
+            actionValue = (1.0 - beta) * actionValue + beta * ((totValue[decisionPlayer] / nVisits) + advantages[action]);
         }
         // potential value is our estimate of our accumulated reward if we had always taken this action
         double potentialValue = actionValue * nVisits / actionVisits;
@@ -757,36 +1196,36 @@ public class SingleTreeNode {
         return Math.max(0.0, regret);
     }
 
-    private AbstractAction sampleFromDistribution(List<AbstractAction> availableActions, double explore) {
+    private int sampleFromDistribution(int nAvailable, double explore) {
         // first we get a value for each of them
-        Function<AbstractAction, Double> valueFn;
-        switch (params.treePolicy) {
-            case EXP3:
-                valueFn = this::exp3Value;
-                break;
-            case RegretMatching:
-                valueFn = this::rmValue;
-                break;
-            default:
-                throw new AssertionError("Should not be any other options!");
+        double[] values = new double[nAvailable];
+        double total = 0.0;
+        for (int i = 0; i < nAvailable; i++) {
+            switch (search.params.treePolicy) {
+                case EXP3:
+                    values[i] = exp3Value(openLoopActions[i]);
+                    break;
+                case RegretMatching:
+                    values[i] = rmValue(openLoopActions[i]);
+                    break;
+                default:
+                    throw new AssertionError("Should not be any other options!");
+            }
+            if (values[i] < 0.0)
+                throw new AssertionError("Probability has negative values!");
+            total += values[i];
         }
 
-        Map<AbstractAction, Double> actionToValueMap = availableActions.stream().collect(toMap(Function.identity(), valueFn));
-
-        // then we normalise to a pdf
-        actionToValueMap = Utils.normaliseMap(actionToValueMap);
-        // we then add on the exploration bonus
-        double exploreBonus = explore / actionToValueMap.size();
-        Map<AbstractAction, Double> probabilityOfSelection = actionToValueMap.entrySet().stream().collect(
-                toMap(Map.Entry::getKey, e -> e.getValue() * (1.0 - explore) + exploreBonus));
-
         // then we sample a uniform variable in [0, 1] and ascend the cdf to find the selection
-        double cdfSample = rnd.nextDouble();
+        // each probability is normalised to a pdf (uniform if all values are zero), with the exploration bonus added on
+        double exploreBonus = explore / nAvailable;
+        double cdfSample = search.rnd.nextDouble();
         double cdf = 0.0;
-        for (AbstractAction action : probabilityOfSelection.keySet()) {
-            cdf += probabilityOfSelection.get(action);
+        for (int i = 0; i < nAvailable; i++) {
+            double probability = total == 0.0 ? 1.0 / nAvailable : values[i] / total;
+            cdf += probability * (1.0 - explore) + exploreBonus;
             if (cdf >= cdfSample)
-                return action;
+                return openLoopActions[i];
         }
         throw new AssertionError("If we reach here, then something has gone wrong in the above code");
     }
@@ -797,41 +1236,89 @@ public class SingleTreeNode {
      * @return - value of rollout.
      */
     protected double[] rollOut(List<Pair<Integer, AbstractAction>> rolloutActions, double[] startingValues, int decisionPlayer, int lastActor) {
+        if (search.params.information == Closed_Loop && (search.params.rolloutLength > 0 || search.params.rolloutTermination != DEFAULT)
+                && search.forwardModel.supportsUndo()) {
+            // Rather than copy the node state, we roll out on it directly and then undo the moves made
+            Deque<AbstractForwardModel.UndoToken> undoLog = new ArrayDeque<>();
+            root.fmCallsCount += rollOut(state, search.forwardModel, search.opponentModels, rolloutActions, decisionPlayer, lastActor, undoLog);
+            double[] retValue = rolloutValue(state, startingValues);
+            while (!undoLog.isEmpty())
+                search.forwardModel.undo(state, undoLog.pop());
+            return retValue;
+        }
+        AbstractGameState rolloutState = rolloutStartState();
+        root.fmCallsCount += rollOut(rolloutState, search.forwardModel, search.opponentModels, rolloutActions, decisionPlayer, lastActor);
+        return rolloutValue(rolloutState, startingValues);
+    }
+
+    /**
+     * @return The state from which a rollout from this node starts. In Closed Loop this is a copy of the node state,
+     * as the rollout will change it.
+     */
+    protected AbstractGameState rolloutStartState() {
+        if (search.params.information == Closed_Loop && (search.params.rolloutLength > 0 || search.params.rolloutTermination != DEFAULT)) {
+            // the thinking here is that in openLoop we copy the state right at the root, and then use the forward
+            // model at each action. Hence the current state on the node is the one we have been using up to now.
+            /// Hence we do not need to copy it.
+            root.copyCount++;
+            AbstractGameState rolloutState = state.copy();
+            rolloutState.setRecordHistory(false);
+            return rolloutState;
+        }
+        return openLoopState;
+    }
+
+    /**
+     * Runs the rollout policy forward from rolloutState (which is modified in place), using the supplied forward
+     * model and policies. This does not touch the tree, so can be run outside any lock in a tree-parallel search.
+     *
+     * @return the number of forward model calls made
+     */
+    protected int rollOut(AbstractGameState rolloutState, AbstractForwardModel fm, AbstractPlayer[] policies,
+                          List<Pair<Integer, AbstractAction>> rolloutActions, int decisionPlayer, int lastActor) {
+        return rollOut(rolloutState, fm, policies, rolloutActions, decisionPlayer, lastActor, null);
+    }
+
+    /**
+     * As above, but if undoLog is not null then each move is made with fm.nextWithUndo(), and its undo token pushed
+     * onto undoLog, so that the caller can put rolloutState back as it was afterwards.
+     */
+    private int rollOut(AbstractGameState rolloutState, AbstractForwardModel fm, AbstractPlayer[] policies,
+                        List<Pair<Integer, AbstractAction>> rolloutActions, int decisionPlayer, int lastActor,
+                        Deque<AbstractForwardModel.UndoToken> undoLog) {
         int rolloutDepth = 0; // counting from end of tree
+        int fmCalls = 0;
 
-        int roundAtStartOfRollout = openLoopState.getTurnOrder().getRoundCounter();
+        int roundAtStartOfRollout = rolloutState.getTurnOrder().getRoundCounter();
 
         // If rollouts are enabled, select actions for the rollout in line with the rollout policy
-        AbstractGameState rolloutState = openLoopState;
-        if (params.rolloutLength > 0 || params.rolloutTermination != DEFAULT) {
+        if (search.params.rolloutLength > 0 || search.params.rolloutTermination != DEFAULT) {
             // even if rollout length is zero, we may rollout a few actions to reach the end of our turn, or the start of our next turn
-            if (params.information == Closed_Loop) {
-                // the thinking here is that in openLoop we copy the state right at the root, and then use the forward
-                // model at each action. Hence the current state on the node is the one we have been using up to now.
-                /// Hence we do not need to copy it.
-                rolloutState = state.copy();
-                root.copyCount++;
-            }
-
             while (!finishRollout(rolloutState, rolloutDepth, decisionPlayer, lastActor, roundAtStartOfRollout)) {
-                List<AbstractAction> availableActions = forwardModel.computeAvailableActions(rolloutState);
+                List<AbstractAction> availableActions = fm.computeAvailableActions(rolloutState);
                 if (availableActions.isEmpty())
                     break;
-                AbstractAction next = opponentModels[rolloutState.getCurrentPlayer()].getAction(rolloutState, availableActions);
+                AbstractAction next = policies[rolloutState.getCurrentPlayer()].getAction(rolloutState, availableActions);
                 lastActor = rolloutState.getCurrentPlayer();
                 rolloutActions.add(new Pair<>(lastActor, next));
-                int startingFMCalls = root.fmCallsCount;
-                advance(rolloutState, next);
                 // rollout moves can be tracked by total forward model calls
                 // as these may occur for opponent moves, which should count against our budget
-                rolloutDepth += (root.fmCallsCount - startingFMCalls);
+                int calls = advance(rolloutState, next, fm, policies, undoLog);
+                rolloutDepth += calls;
+                fmCalls += calls;
             }
         }
-        // Evaluate final state and return normalised score
-        double[] retValue = new double[rolloutState.getNPlayers()];
+        return fmCalls;
+    }
 
+    /**
+     * Evaluate final state of a rollout, relative to the values at the start of the iteration
+     */
+    protected double[] rolloutValue(AbstractGameState rolloutState, double[] startingValues) {
+        double[] retValue = new double[rolloutState.getNPlayers()];
+        search.heuristic.evaluateAllPlayers(rolloutState, retValue);
         for (int i = 0; i < retValue.length; i++) {
-            retValue[i] = heuristic.evaluateState(rolloutState, i) - startingValues[i];
+            retValue[i] -= startingValues[i];
         }
         return retValue;
     }
@@ -847,8 +1334,8 @@ public class SingleTreeNode {
         if (!rollerState.isNotTerminal())
             return true;
         int currentActor = rollerState.getCurrentPlayer();
-        if (depth >= params.rolloutLength) {
-            switch (params.rolloutTermination) {
+        if (depth >= search.params.rolloutLength) {
+            switch (search.params.rolloutTermination) {
                 case DEFAULT:
                     return true;
                 case END_TURN:
@@ -868,65 +1355,76 @@ public class SingleTreeNode {
      * @param result - value of rollout to backup
      */
     protected void backUp(double[] result) {
-        SingleTreeNode n = this;
-        double[] squaredResults = new double[result.length];
-        for (int i = 0; i < result.length; i++)
-            squaredResults[i] = result[i] * result[i];
+        // first work out what is added to the value for each player, which is the same for every node
+        double[] values = new double[result.length];
+        double[] squares = new double[result.length];
+        switch (search.params.opponentTreePolicy) {
+            case SelfOnly:
+                for (int j = 0; j < result.length; j++) {
+                    values[j] = result[root.decisionPlayer];
+                    squares[j] = result[root.decisionPlayer] * result[root.decisionPlayer];
+                }
+                break;
+            case Paranoid:
+            case MultiTreeParanoid:
+                int paranoid = root.paranoidPlayer == -1 ? root.decisionPlayer : root.paranoidPlayer;
+                for (int j = 0; j < result.length; j++) {
+                    values[j] = j == paranoid ? result[paranoid] : -result[paranoid];
+                    squares[j] = result[paranoid] * result[paranoid];
+                }
+                break;
+            case MaxN:
+            case MultiTree:
+            case OMA_All:
+            case OMA:
+                for (int j = 0; j < result.length; j++) {
+                    values[j] = result[j];
+                    squares[j] = result[j] * result[j];
+                }
+                break;
+        }
 
-        if (params.normaliseRewards || params.treePolicy == MCTSEnums.TreePolicy.UCB_Tuned) {
+        if (search.params.normaliseRewards || search.params.treePolicy == MCTSEnums.TreePolicy.UCB_Tuned) {
             DoubleSummaryStatistics stats = Arrays.stream(result).summaryStatistics();
-            if (n.root.lowReward > stats.getMin())
-                n.root.lowReward = stats.getMin();
-            if (n.root.highReward < stats.getMax())
-                n.root.highReward = stats.getMax();
+            if (root.lowReward > stats.getMin())
+                root.lowReward = stats.getMin();
+            if (root.highReward < stats.getMax())
+                root.highReward = stats.getMax();
         }
-        while (n != null) {
-            if (params.discardStateAfterEachIteration) {
-                n.openLoopState = null; // releases for Garbage Collection
-                if (n.depth > 0 && !params.maintainMasterState)
-                    n.state = null;
-            }
-            n.nVisits++;
-            // Here we look at actionsFromOpenLoopState to see which ones were valid
-            // when we passed through, and keep track of valid visits
-            if (params.information != Closed_Loop)
-                for (AbstractAction action : n.actionsFromOpenLoopState) {
-                    if (!n.nValidVisits.containsKey(action))
-                        n.nValidVisits.put(action, 1);
-                    else
-                        n.nValidVisits.put(action, n.nValidVisits.get(action) + 1);
+        if (search.transpositions != null) {
+            // a node may have several parents, so we follow the path taken in this iteration, and update the edges
+            backUpNode(values, squares);
+            for (int i = root.pathLength - 1; i >= 0; i--) {
+                SingleTreeNode n = root.pathNodes[i];
+                int action = root.pathActions[i];
+                n.edgeVisits[action]++;
+                for (int j = 0; j < values.length; j++) {
+                    n.edgeValues[action * values.length + j] += values[j];
+                    n.edgeSquares[action * values.length + j] += squares[j];
                 }
-            switch (params.opponentTreePolicy) {
-                case SelfOnly:
-                    for (int j = 0; j < result.length; j++) {
-                        n.totValue[j] += result[root.decisionPlayer];
-                        n.totSquares[j] += squaredResults[root.decisionPlayer];
-                    }
-                    break;
-                case Paranoid:
-                case MultiTreeParanoid:
-                    int paranoid = root.paranoidPlayer == -1 ? root.decisionPlayer : root.paranoidPlayer;
-                    for (int j = 0; j < result.length; j++) {
-                        if (j == paranoid) {
-                            n.totValue[j] += result[paranoid];
-                            n.totSquares[j] += squaredResults[paranoid];
-                        } else {
-                            n.totValue[j] -= result[paranoid];
-                            n.totSquares[j] += squaredResults[paranoid];
-                        }
-                    }
-                    break;
-                case MaxN:
-                case MultiTree:
-                case OMA_All:
-                case OMA:
-                    for (int j = 0; j < result.length; j++) {
-                        n.totValue[j] += result[j];
-                        n.totSquares[j] += squaredResults[j];
-                    }
-                    break;
+                n.backUpNode(values, squares);
             }
-            n = n.parent;
+        } else {
+            for (SingleTreeNode n = this; n != null; n = n.parent)
+                n.backUpNode(values, squares);
+        }
+    }
+
+    private void backUpNode(double[] values, double[] squares) {
+        if (search.params.discardStateAfterEachIteration) {
+            openLoopState = null; // releases for Garbage Collection
+            if (depth > 0 && !search.params.maintainMasterState)
+                state = null;
+        }
+        nVisits++;
+        // Here we look at openLoopActions to see which ones were valid
+        // when we passed through, and keep track of valid visits
+        if (search.params.information != Closed_Loop)
+            for (int i = 0; i < nOpenLoopActions; i++)
+                validVisits[openLoopActions[i]]++;
+        for (int j = 0; j < values.length; j++) {
+            totValue[j] += values[j];
+            totSquares[j] += squares[j];
         }
     }
 
@@ -943,6 +1441,112 @@ public class SingleTreeNode {
     }
 
 
+    /**
+     * Used in tree-parallel search while an iteration through this node is still in progress on another thread.
+     * This adds search.params.virtualLoss visits to this node and all its ancestors, each with the worst reward seen so far,
+     * so that other threads are less likely to select the same path before the rollout is backed up.
+     *
+     * @return the total value added, to be passed to removeVirtualLoss()
+     */
+    double[] addVirtualLoss() {
+        double[] loss = new double[totValue.length];
+        if (root.lowReward <= root.highReward) {
+            // otherwise we have no rewards yet, and the loss is just the extra visits
+            int paranoid = root.paranoidPlayer == -1 ? root.decisionPlayer : root.paranoidPlayer;
+            boolean isParanoid = search.params.opponentTreePolicy == Paranoid || search.params.opponentTreePolicy == MultiTreeParanoid;
+            for (int j = 0; j < loss.length; j++) {
+                // with a Paranoid tree the opponents store the negative of the paranoid player's reward
+                double worst = (isParanoid && j != paranoid) ? -root.highReward : root.lowReward;
+                loss[j] = worst * search.params.virtualLoss;
+            }
+        }
+        for (SingleTreeNode n = this; n != null; n = n.parent) {
+            n.nVisits += search.params.virtualLoss;
+            for (int j = 0; j < loss.length; j++)
+                n.totValue[j] += loss[j];
+        }
+        return loss;
+    }
+
+    void removeVirtualLoss(double[] loss) {
+        for (SingleTreeNode n = this; n != null; n = n.parent) {
+            n.nVisits -= search.params.virtualLoss;
+            for (int j = 0; j < loss.length; j++)
+                n.totValue[j] -= loss[j];
+        }
+    }
+
+    /**
+     * Adds the statistics from another tree, searched independently from the same root state (as in root-parallel
+     * search), into this one. Nodes reached by the same actions are combined, and any nodes only present in
+     * the other tree are moved across to this one.
+     *
+     * @param other the root of the other tree (or the node matching this one in it)
+     */
+    void merge(SingleTreeNode other) {
+        nVisits += other.nVisits;
+        fmCallsCount += other.fmCallsCount;
+        copyCount += other.copyCount;
+        rolloutActionsTaken += other.rolloutActionsTaken;
+        lowReward = Math.min(lowReward, other.lowReward);
+        highReward = Math.max(highReward, other.highReward);
+        for (int j = 0; j < totValue.length; j++) {
+            totValue[j] += other.totValue[j];
+            totSquares[j] += other.totSquares[j];
+        }
+        if (MASTStatistics != null && other.MASTStatistics != null) {
+            for (int p = 0; p < MASTStatistics.size(); p++) {
+                Map<AbstractAction, Pair<Integer, Double>> MAST = MASTStatistics.get(p);
+                other.MASTStatistics.get(p).forEach((action, stats) ->
+                        MAST.merge(action, stats.copy(), (s1, s2) -> new Pair<>(s1.a + s2.a, s1.b + s2.b)));
+            }
+        }
+        for (int j = 0; j < other.nActions; j++) {
+            int index = indexOf(other.actions[j], other.actionHashes[j]);
+            if (index < 0)
+                index = addAction(other.actions[j], other.actionHashes[j]);
+            validVisits[index] += other.validVisits[j];
+            SingleTreeNode[] otherNodes = other.children[j];
+            if (otherNodes == null)
+                continue;
+            if (children[index] == null)
+                children[index] = new SingleTreeNode[otherNodes.length];
+            SingleTreeNode[] nodes = children[index];
+            for (int i = 0; i < nodes.length; i++) {
+                if (otherNodes[i] == null)
+                    continue;
+                if (nodes[i] == null) {
+                    nodes[i] = otherNodes[i];
+                    nodes[i].moveTo(this);
+                } else {
+                    nodes[i].merge(otherNodes[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Attaches this node (and the sub-tree below it) to a new parent in a different tree
+     */
+    protected void moveTo(SingleTreeNode newParent) {
+        parent = newParent;
+        root = newParent.root;
+        useSearchObjectsOf(root);
+    }
+
+    /**
+     * Points this node and the sub-tree below it at the parameters, forward model, policies and so on of source
+     */
+    protected void useSearchObjectsOf(SingleTreeNode source) {
+        search = source.search;
+        for (int i = 0; i < nActions; i++) {
+            if (children[i] != null)
+                for (SingleTreeNode node : children[i])
+                    if (node != null)
+                        node.moveTo(this);
+        }
+    }
+
     /**
      * Calculates the best action from the root according to the selection policy
      *
@@ -953,30 +1557,30 @@ public class SingleTreeNode {
         double bestValue = -Double.MAX_VALUE;
         AbstractAction bestAction = null;
 
-        MCTSEnums.SelectionPolicy policy = params.selectionPolicy;
+        MCTSEnums.SelectionPolicy policy = search.params.selectionPolicy;
         // check to see if all nodes have the same number of visits
         // if they do, then we use average score instead
-        if (params.selectionPolicy == ROBUST &&
+        if (search.params.selectionPolicy == ROBUST &&
                 Arrays.stream(actionVisits()).boxed().collect(toSet()).size() == 1) {
             policy = SIMPLE;
         }
 
-        if (params.selectionPolicy == TREE) {
+        if (search.params.selectionPolicy == TREE) {
             bestAction = treePolicyAction(false);
         } else {
-            for (AbstractAction action : children.keySet()) {
-                if (children.get(action) != null) {
+            for (int action = 0; action < nActions; action++) {
+                if (children[action] != null) {
                     double childValue = actionVisits(action); // if ROBUST
                     if (policy == SIMPLE)
-                        childValue = actionTotValue(action, decisionPlayer) / (actionVisits(action) + params.epsilon);
+                        childValue = actionTotValue(action, decisionPlayer) / (actionVisits(action) + search.params.epsilon);
 
                     // Apply small noise to break ties randomly
-                    childValue = noise(childValue, params.epsilon, rnd.nextDouble());
+                    childValue = noise(childValue, search.params.epsilon, search.rnd.nextDouble());
 
                     // Save best value (highest visit count)
                     if (childValue > bestValue) {
                         bestValue = childValue;
-                        bestAction = action;
+                        bestAction = actions[action];
                     }
                 }
             }
@@ -1007,8 +1611,14 @@ public class SingleTreeNode {
         return totValue;
     }
 
+    /**
+     * @return A new Map of every action seen at this node to the child nodes it leads to (null if not expanded)
+     */
     public Map<AbstractAction, SingleTreeNode[]> getChildren() {
-        return children;
+        Map<AbstractAction, SingleTreeNode[]> retValue = new LinkedHashMap<>();
+        for (int i = 0; i < nActions; i++)
+            retValue.put(actions[i], children[i]);
+        return retValue;
     }
 
     public AbstractAction getActionToReach() {
@@ -1020,7 +1630,7 @@ public class SingleTreeNode {
     }
 
     public AbstractForwardModel getForwardModel() {
-        return forwardModel;
+        return search.forwardModel;
     }
 
     /**
@@ -1056,15 +1666,20 @@ public class SingleTreeNode {
     public List<SingleTreeNode> allNodesInTree() {
         List<SingleTreeNode> retValue = new ArrayList<>();
         Queue<SingleTreeNode> nodeQueue = new ArrayDeque<>();
+        // nodes shared between transpositions are only included once
+        Set<SingleTreeNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
         nodeQueue.add(this);
         while (!nodeQueue.isEmpty()) {
             SingleTreeNode node = nodeQueue.poll();
+            if (!seen.add(node))
+                continue;
             retValue.add(node);
-            nodeQueue.addAll(node.getChildren().values().stream()
-                    .filter(Objects::nonNull)
-                    .flatMap(Arrays::stream)
-                    .filter(Objects::nonNull)
-                    .collect(toList()));
+            for (int i = 0; i < node.nActions; i++) {
+                if (node.children[i] != null)
+                    for (SingleTreeNode child : node.children[i])
+                        if (child != null)
+                            nodeQueue.add(child);
+            }
         }
         return retValue;
     }
@@ -1076,27 +1691,26 @@ public class SingleTreeNode {
         // visits and values for each
         StringBuilder retValue = new StringBuilder();
         String valueString = String.format("%.2f", totValue[decisionPlayer] / nVisits);
-        if (params.opponentTreePolicy == MaxN) {
+        if (search.params.opponentTreePolicy == MaxN) {
             valueString = Arrays.stream(totValue)
                     .mapToObj(v -> String.format("%.2f", v / nVisits))
                     .collect(joining(", "));
         }
         retValue.append(String.format("%d total visits, value %s, with %d children, depth %d, FMCalls %d: \n",
-                nVisits, valueString, children.size(), depth, fmCallsCount));
+                nVisits, valueString, nActions, depth, fmCallsCount));
         // sort all actions by visit count
-        List<AbstractAction> sortedActions = children.keySet().stream()
-                .filter(Objects::nonNull)
+        List<Integer> sortedActions = IntStream.range(0, nActions).boxed()
                 .sorted(Comparator.comparingInt(a -> -actionVisits(a)))
                 .collect(toList());
 
-        for (AbstractAction action : sortedActions) {
-            String actionName = action.toString();
+        for (int action : sortedActions) {
+            String actionName = actions[action].toString();
             int actionVisits = actionVisits(action);
             int effectiveVisits = validVisitsFor(action);
             if (actionName.length() > 50)
                 actionName = actionName.substring(0, 50);
             valueString = String.format("%.2f", actionTotValue(action, decisionPlayer) / actionVisits);
-            if (params.opponentTreePolicy == MaxN) {
+            if (search.params.opponentTreePolicy == MaxN) {
                 valueString = IntStream.range(0, totValue.length)
                         .mapToObj(p -> String.format("%.2f", actionTotValue(action, p) / actionVisits))
                         .collect(joining(", "));
@@ -0,0 +1,69 @@
+package players.mcts;
+
+import core.AbstractGameState;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The nodes of a Closed Loop search by a hash of their state, so that a state reached by a different sequence of
+ * actions shares the node (and statistics) of the first one found. The tree then becomes a directed acyclic graph.
+ * <p>
+ * The table holds at most maxSize nodes; when full the least recently used one is dropped. A dropped node stays in
+ * the tree, but will not be found for any further transpositions. As different states may share a key, a node is
+ * only used for a state equal to its own.
+ */
+class TranspositionTable {
+
+    private final Map<Long, SingleTreeNode> nodes;
+    // number of times a node has been found for a new state
+    int hits;
+
+    TranspositionTable(int maxSize) {
+        nodes = new LinkedHashMap<Long, SingleTreeNode>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SingleTreeNode> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    // whether each class of state overrides longHash(), rather than using the default made from hashCode()
+    private static final ClassValue<Boolean> ownLongHash = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("longHash").getDeclaringClass() != AbstractGameState.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    /**
+     * @return true if the game has a 64-bit hash of its own; the default longHash() has only the 32 bits of
+     * hashCode(), so that different states would share keys too often
+     */
+    static boolean supports(AbstractGameState state) {
+        return ownLongHash.get(state.getClass());
+    }
+
+    static long keyOf(AbstractGameState state) {
+        return state.longHash();
+    }
+
+    /**
+     * @return the node with the given key, or null if there is none
+     */
+    SingleTreeNode get(long key) {
+        return nodes.get(key);
+    }
+
+    void put(long key, SingleTreeNode node) {
+        nodes.put(key, node);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+}
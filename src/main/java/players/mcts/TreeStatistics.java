@@ -32,24 +32,29 @@ public class TreeStatistics {
         int greatestDepth = 0;
         int maxActions = 0;
         int totalActions = 0;
+        // nodes shared between transpositions are only counted once
+        Set<SingleTreeNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
         while (!nodeQueue.isEmpty()) {
             SingleTreeNode node = nodeQueue.poll();
+            if (!seen.add(node))
+                continue;
             if (node.depth < maxDepth) {
                 nodesAtDepth[node.depth]++;
                 if (node.terminalNode)
                     gameTerminalNodesAtDepth[node.depth]++;
-                totalActions += node.children.size();
-                if (node.children.size() > maxActions)
-                    maxActions = node.children.size();
-                for (SingleTreeNode child : node.children.values().stream()
-                        .filter(Objects::nonNull)
-                        .flatMap(Arrays::stream)
-                        .filter(Objects::nonNull)
-                        .collect(toList())) {
-                    if (child != null)
-                        nodeQueue.add(child);
+                totalActions += node.nActions;
+                if (node.nActions > maxActions)
+                    maxActions = node.nActions;
+                boolean leaf = true;
+                for (int i = 0; i < node.nActions; i++) {
+                    if (node.children[i] == null)
+                        continue;
+                    leaf = false;
+                    for (SingleTreeNode child : node.children[i])
+                        if (child != null)
+                            nodeQueue.add(child);
                 }
-                if (node.children.values().stream().allMatch(Objects::isNull))
+                if (leaf)
                     leavesAtDepth[node.depth]++;
             }
             if (node.depth > greatestDepth)
@@ -36,6 +36,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
         // Rollout with random actions and assign fitness value
         gameStates[0] = gs.copy();
+        gameStates[0].setRecordHistory(false);
         rollout(fm, 0, playerID, true);
     }
 
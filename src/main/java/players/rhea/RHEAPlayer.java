@@ -80,6 +80,7 @@ public class RHEAPlayer extends AbstractPlayer {
                 System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
                 // we shift all actions along, and then rollout with repair
                 genome.gameStates[0] = stateObs.copy();
+                genome.gameStates[0].setRecordHistory(false);
                 Pair<Integer, Integer> calls = genome.rollout(getForwardModel(), 0, getPlayerID(), true);
                 fmCalls += calls.a;
                 copyCalls += calls.b;
@@ -25,6 +25,7 @@ public class Individual implements Comparable {
         actions = new AbstractAction[L];
         gameStates = new AbstractGameState[L+1];
         gameStates[0] = gs.copy();
+        gameStates[0].setRecordHistory(false);
         this.heuristic = heuristic;
 
         // Rollout with random actions and assign fitness value
@@ -49,6 +49,7 @@ public class OSLAPlayer extends AbstractPlayer {
         for (int actionIndex = 0; actionIndex < actions.size(); actionIndex++) {
             AbstractAction action = actions.get(actionIndex);
             AbstractGameState gsCopy = gs.copy();
+            gsCopy.setRecordHistory(false);
 
             getForwardModel().next(gsCopy, action);
 
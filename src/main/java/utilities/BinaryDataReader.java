@@ -0,0 +1,147 @@
+package utilities;
+
+import utilities.BinaryDataWriter.ColumnType;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a file written by BinaryDataWriter. The file is memory-mapped, and values are read directly from their
+ * position in it when asked for, so nothing is parsed or copied up front.
+ * <p>
+ * A file may be larger than a single mapping can hold (2GB), so it is mapped in chunks of whole rows.
+ */
+public class BinaryDataReader implements AutoCloseable {
+
+    private static final long MAX_CHUNK = Integer.MAX_VALUE;
+
+    private final List<String> names;
+    private final ColumnType[] types;
+    private final int[] offsets;
+    private final int headerLength;
+    private final int rowWidth;
+    private final long rows;
+    private final int rowsPerChunk;
+    private final ByteBuffer[] chunks;
+    private final FileChannel channel;
+
+    /**
+     * @param fileName - a file written by BinaryDataWriter. Any incomplete row at the end is ignored.
+     */
+    public BinaryDataReader(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        try {
+            ByteBuffer start = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+            while (start.hasRemaining() && channel.read(start) >= 0) ;
+            start.flip();
+            if (start.remaining() < 16 || start.getInt() != BinaryDataWriter.MAGIC)
+                throw new IOException(fileName + " is not a binary data file");
+            int version = start.getInt();
+            if (version != BinaryDataWriter.VERSION)
+                throw new IOException("Unsupported version " + version + " of binary data file " + fileName);
+            headerLength = start.getInt();
+            int nColumns = start.getInt();
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 16, headerLength - 16).order(ByteOrder.LITTLE_ENDIAN);
+            List<String> columnNames = new ArrayList<>(nColumns);
+            types = new ColumnType[nColumns];
+            offsets = new int[nColumns];
+            int width = 0;
+            for (int i = 0; i < nColumns; i++) {
+                types[i] = ColumnType.values()[header.get()];
+                byte[] name = new byte[header.getShort()];
+                header.get(name);
+                columnNames.add(new String(name, StandardCharsets.UTF_8));
+                offsets[i] = width;
+                width += types[i].width;
+            }
+            names = Collections.unmodifiableList(columnNames);
+            rowWidth = width;
+
+            long dataLength = channel.size() - headerLength;
+            rows = rowWidth == 0 ? 0 : dataLength / rowWidth;
+            rowsPerChunk = (int) Math.min(Math.max(rows, 1), MAX_CHUNK / Math.max(rowWidth, 1));
+            chunks = new ByteBuffer[(int) ((rows + rowsPerChunk - 1) / rowsPerChunk)];
+            for (int c = 0; c < chunks.length; c++) {
+                long firstRow = (long) c * rowsPerChunk;
+                long chunkRows = Math.min(rowsPerChunk, rows - firstRow);
+                chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, headerLength + firstRow * rowWidth,
+                        chunkRows * rowWidth).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param fileName - file to check.
+     * @return - true if the file starts as a file written by BinaryDataWriter does (so that text files can be told
+     * apart from binary ones, whatever they are called).
+     */
+    public static boolean isBinaryDataFile(String fileName) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(fileName))) {
+            return Integer.reverseBytes(in.readInt()) == BinaryDataWriter.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    public ColumnType[] types() {
+        return types.clone();
+    }
+
+    public int columns() {
+        return types.length;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return - the length in bytes of the header and all complete rows, which is the length of the file unless it
+     * ends with an incomplete row.
+     */
+    public long completeLength() {
+        return headerLength + rows * rowWidth;
+    }
+
+    /**
+     * @return - the value of the given column in the given row, as a double whatever the type of the column.
+     */
+    public double getDouble(long row, int column) {
+        ByteBuffer chunk = chunks[(int) (row / rowsPerChunk)];
+        int position = (int) (row % rowsPerChunk) * rowWidth + offsets[column];
+        return types[column] == ColumnType.DOUBLE ? chunk.getDouble(position) : chunk.getInt(position);
+    }
+
+    public int getInt(long row, int column) {
+        if (types[column] != ColumnType.INT)
+            throw new IllegalArgumentException("Column " + names.get(column) + " is not " + ColumnType.INT);
+        ByteBuffer chunk = chunks[(int) (row / rowsPerChunk)];
+        return chunk.getInt((int) (row % rowsPerChunk) * rowWidth + offsets[column]);
+    }
+
+    /**
+     * Closes the file. The mapped data remains readable until it is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
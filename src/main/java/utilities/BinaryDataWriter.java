@@ -0,0 +1,180 @@
+package utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes rows of numeric data to a binary file, as a (much faster and smaller) alternative to tab-separated text.
+ * <p>
+ * The file starts with a header that gives the name and type of each column, and then has one fixed-width record
+ * per row, with the columns in the order of the header. All values are little-endian. As every row is the same
+ * width, the file can be memory-mapped and any value read directly from its position (see BinaryDataReader), and
+ * further rows can be appended to an existing file by later runs.
+ * <p>
+ * Header layout: int MAGIC, int VERSION, int header length in bytes (a multiple of 8), int number of columns; then
+ * for each column a byte for the ColumnType, a short for the length of the name, and the name in UTF-8.
+ * <p>
+ * Values for a row are given with putDouble() / putInt() in column order, followed by endRow().
+ */
+public class BinaryDataWriter implements AutoCloseable {
+
+    public static final int MAGIC = 0x54414744; // "TAGD"
+    public static final int VERSION = 1;
+
+    public enum ColumnType {
+        INT(4), DOUBLE(8);
+
+        public final int width;
+
+        ColumnType(int width) {
+            this.width = width;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String fileName;
+    private final ColumnType[] types;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int rowWidth;
+    private int column;
+
+    /**
+     * @param fileName - the file to write to.
+     * @param names    - the name of each column.
+     * @param types    - the type of each column.
+     * @param append   - if true, and the file already exists, then rows are added to the end of it (after the last
+     *                 complete row, as any incomplete one is removed). The columns must then be the same as those
+     *                 already in the file.
+     */
+    public BinaryDataWriter(String fileName, List<String> names, List<ColumnType> types, boolean append) {
+        if (names.size() != types.size())
+            throw new IllegalArgumentException("One type is needed for each of the " + names.size() + " columns");
+        this.fileName = fileName;
+        this.types = types.toArray(new ColumnType[0]);
+        this.rowWidth = types.stream().mapToInt(t -> t.width).sum();
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, rowWidth)).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            File file = new File(fileName);
+            if (append && file.exists() && file.length() > 0) {
+                long end;
+                try (BinaryDataReader existing = new BinaryDataReader(fileName)) {
+                    if (!existing.names().equals(names) || !Arrays.asList(existing.types()).equals(types))
+                        throw new AssertionError("Columns do not match those already in " + fileName);
+                    end = existing.completeLength();
+                }
+                // a run that stopped part way through writing a row leaves that row incomplete, and the new rows
+                // would then be out of step with the columns, so it is dropped
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+                channel.truncate(end);
+                channel.position(end);
+            } else {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                writeHeader(names);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem opening file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    private void writeHeader(List<String> names) throws IOException {
+        byte[][] nameBytes = new byte[names.size()][];
+        int length = 16;
+        for (int i = 0; i < nameBytes.length; i++) {
+            nameBytes[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+            length += 3 + nameBytes[i].length;
+        }
+        // pad so that the rows start 8-byte aligned
+        length = (length + 7) & ~7;
+        ByteBuffer header = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(nameBytes.length);
+        for (int i = 0; i < nameBytes.length; i++) {
+            header.put((byte) types[i].ordinal());
+            header.putShort((short) nameBytes[i].length);
+            header.put(nameBytes[i]);
+        }
+        header.position(0);
+        while (header.hasRemaining())
+            channel.write(header);
+    }
+
+    private void checkType(ColumnType type) {
+        if (column >= types.length || types[column] != type)
+            throw new IllegalStateException("Column " + column + " of " + fileName + " is not " + type);
+        column++;
+    }
+
+    public BinaryDataWriter putDouble(double value) {
+        checkType(ColumnType.DOUBLE);
+        buffer.putDouble(value);
+        return this;
+    }
+
+    public BinaryDataWriter putInt(int value) {
+        checkType(ColumnType.INT);
+        buffer.putInt(value);
+        return this;
+    }
+
+    /**
+     * Finishes the current row. Rows are written to the file as the buffer fills, or on flush().
+     */
+    public void endRow() {
+        if (column != types.length)
+            throw new IllegalStateException("Row has " + column + " values, but " + fileName + " has " + types.length + " columns");
+        column = 0;
+        if (buffer.remaining() < rowWidth)
+            flush();
+    }
+
+    public int columns() {
+        return types.length;
+    }
+
+    public ColumnType type(int column) {
+        return types[column];
+    }
+
+    /**
+     * Writes all completed rows to the file
+     */
+    public void flush() {
+        try {
+            // leave any partial row in the buffer
+            int partial = 0;
+            for (int i = 0; i < column; i++)
+                partial += types[i].width;
+            int end = buffer.position();
+            buffer.flip();
+            buffer.limit(end - partial);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.limit(end);
+            buffer.compact();
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem writing to file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package utilities;
+
+import core.interfaces.IStatisticLogger;
+import utilities.BinaryDataWriter.ColumnType;
+
+import java.util.*;
+
+/**
+ * Logs numeric data to a binary file (see BinaryDataWriter), for data such as feature vectors that is to be read back
+ * in bulk, rather than viewed directly. This is a drop-in replacement for FileStatsLogger with the same rules:
+ * one row is output per Map<String, ?> provided via record(), and the columns are fixed by the first of these.
+ * <p>
+ * Integer and Boolean (as 0/1) values are written as ints, and all other Numbers as doubles. Data of any other type
+ * cannot be held in fixed-width columns, and is ignored (and logged to console).
+ */
+public class BinaryStatsLogger implements IStatisticLogger {
+
+    private final String fileName;
+    private final boolean append;
+    private BinaryDataWriter writer;
+    private List<String> allKeys;
+
+    /**
+     * @param fileName The full location of the file to write results to
+     * @param append   If true (and the file exists) then data will be added to the end of it
+     */
+    public BinaryStatsLogger(String fileName, boolean append) {
+        this.fileName = fileName;
+        this.append = append;
+    }
+
+    public BinaryStatsLogger(String fileName) {
+        this(fileName, true);
+    }
+
+    /**
+     * Use to register a set of data in one go. It is not possible to add new keys after the first call
+     * of record(Map). Data linked to new, previously unseen keys will be ignored (and logged to console)
+     *
+     * @param data A map of name -> value pairs
+     */
+    @Override
+    public void record(Map<String, ?> data) {
+        if (writer == null) {
+            allKeys = new ArrayList<>();
+            List<ColumnType> types = new ArrayList<>();
+            for (Map.Entry<String, ?> entry : data.entrySet()) {
+                Object datum = entry.getValue();
+                if (datum instanceof Integer || datum instanceof Boolean)
+                    types.add(ColumnType.INT);
+                else if (datum instanceof Number)
+                    types.add(ColumnType.DOUBLE);
+                else {
+                    System.out.println("Non-numeric key ignored in BinaryStatsLogger : " + entry.getKey());
+                    continue;
+                }
+                allKeys.add(entry.getKey());
+            }
+            writer = new BinaryDataWriter(fileName, allKeys, types, append);
+        } else {
+            data.keySet().forEach(s -> {
+                        if (!allKeys.contains(s)) {
+                            System.out.println("Unknown key in BinaryStatsLogger : " + s);
+                        }
+                    }
+            );
+        }
+        for (int i = 0; i < allKeys.size(); i++) {
+            Object datum = data.get(allKeys.get(i));
+            if (writer.type(i) == ColumnType.INT) {
+                if (datum instanceof Boolean)
+                    writer.putInt((Boolean) datum ? 1 : 0);
+                else
+                    writer.putInt(datum instanceof Number ? ((Number) datum).intValue() : 0);
+            } else {
+                writer.putDouble(datum instanceof Number ? ((Number) datum).doubleValue() : Double.NaN);
+            }
+        }
+        writer.endRow();
+    }
+
+    @Override
+    public void record(String key, Object datum) {
+        System.out.println("Datum ignored - BinaryStatsLogger only to be used with other record()");
+    }
+
+    @Override
+    public void processDataAndFinish() {
+        if (writer != null)
+            writer.close();
+    }
+
+    @Override
+    public void processDataAndNotFinish() {
+        if (writer != null)
+            writer.flush();
+    }
+
+    /**
+     * This always returns an empty Map
+     *
+     * @return A summary of the data
+     */
+    @Override
+    public Map<String, TAGStatSummary> summary() {
+        return new HashMap<>();
+    }
+}
@@ -21,6 +21,31 @@ public class Hash
     }
 
 
+    /**
+     * Scrambles the bits of x (the finaliser of the SplitMix64 generator), so that inputs differing in only a few
+     * bits give quite different outputs. Zobrist-style hashes use this in place of a table of random numbers: the
+     * key for a value v at a position i is mix(i, v), which needs no table sized to every possible value.
+     */
+    public static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    /**
+     * @return a key for an element with the given hash code at the given position (e.g. a cell of a board)
+     */
+    public static long mix(int position, int hashCode) {
+        return mix(((long) position << 32) ^ (hashCode & 0xffffffffL));
+    }
+
+    /**
+     * Combines a hash with another value, where (unlike XOR) the order matters.
+     */
+    public static long combine(long hash, long value) {
+        return mix(hash * 0x9e3779b97f4a7c15L + value);
+    }
+
     public int hash(String key)
     {
         if(hashmap.containsKey(key))
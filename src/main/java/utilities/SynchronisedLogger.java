@@ -0,0 +1,52 @@
+package utilities;
+
+import core.interfaces.IStatisticLogger;
+
+import java.util.Map;
+
+/**
+ * Wraps a logger that is shared by several threads (e.g. by copies of an agent playing in parallel games),
+ * so that only one thread at a time uses it.
+ */
+public class SynchronisedLogger implements IStatisticLogger {
+    final IStatisticLogger logger;
+
+    public SynchronisedLogger(IStatisticLogger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void record(Map<String, ?> data) {
+        synchronized (logger) {
+            logger.record(data);
+        }
+    }
+
+    @Override
+    public void record(String key, Object datum) {
+        synchronized (logger) {
+            logger.record(key, datum);
+        }
+    }
+
+    @Override
+    public void processDataAndFinish() {
+        synchronized (logger) {
+            logger.processDataAndFinish();
+        }
+    }
+
+    @Override
+    public void processDataAndNotFinish() {
+        synchronized (logger) {
+            logger.processDataAndNotFinish();
+        }
+    }
+
+    @Override
+    public Map<String, TAGStatSummary> summary() {
+        synchronized (logger) {
+            return logger.summary();
+        }
+    }
+}
@@ -232,6 +232,8 @@ public abstract class Utils {
                 }
             } else if (defaultValue instanceof Integer) {
                 return (T) Integer.valueOf(rawString);
+            } else if (defaultValue instanceof Long) {
+                return (T) Long.valueOf(rawString);
             } else if (defaultValue instanceof Double) {
                 return (T) Double.valueOf(rawString);
             } else if (defaultValue instanceof Boolean) {
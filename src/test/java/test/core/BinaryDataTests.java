@@ -0,0 +1,185 @@
+package test.core;
+
+import org.junit.Test;
+import players.learners.AbstractLearner;
+import utilities.BinaryDataReader;
+import utilities.BinaryDataWriter;
+import utilities.BinaryStatsLogger;
+import utilities.FileStatsLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static utilities.BinaryDataWriter.ColumnType.DOUBLE;
+import static utilities.BinaryDataWriter.ColumnType.INT;
+
+public class BinaryDataTests {
+
+    private String tempFile(String suffix) throws IOException {
+        File file = File.createTempFile("BinaryDataTests", suffix);
+        file.deleteOnExit();
+        return file.getPath();
+    }
+
+    @Test
+    public void writtenDataIsReadBack() throws IOException {
+        String file = tempFile(".bin");
+        List<String> names = Arrays.asList("Visits", "Value", "Feature");
+        try (BinaryDataWriter writer = new BinaryDataWriter(file, names, Arrays.asList(INT, DOUBLE, DOUBLE), false)) {
+            // enough rows to need several writes of the buffer
+            for (int i = 0; i < 10000; i++) {
+                writer.putInt(i).putDouble(i / 3.0).putDouble(-i);
+                writer.endRow();
+            }
+        }
+        assertTrue(BinaryDataReader.isBinaryDataFile(file));
+        try (BinaryDataReader reader = new BinaryDataReader(file)) {
+            assertEquals(names, reader.names());
+            assertEquals(10000, reader.rows());
+            for (int i = 0; i < 10000; i++) {
+                assertEquals(i, reader.getInt(i, 0));
+                assertEquals(i, reader.getDouble(i, 0), 0.0);
+                assertEquals(i / 3.0, reader.getDouble(i, 1), 0.0);
+                assertEquals(-i, reader.getDouble(i, 2), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void rowsAreAppended() throws IOException {
+        String file = tempFile(".bin");
+        List<String> names = Collections.singletonList("Value");
+        for (int run = 0; run < 3; run++) {
+            try (BinaryDataWriter writer = new BinaryDataWriter(file, names, Collections.singletonList(DOUBLE), true)) {
+                writer.putDouble(run);
+                writer.endRow();
+            }
+        }
+        try (BinaryDataReader reader = new BinaryDataReader(file)) {
+            assertEquals(3, reader.rows());
+            for (int run = 0; run < 3; run++)
+                assertEquals(run, reader.getDouble(run, 0), 0.0);
+        }
+        try {
+            new BinaryDataWriter(file, names, Collections.singletonList(INT), true);
+            fail("Appended to a file with different columns");
+        } catch (AssertionError e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void incompleteRowIsDroppedBeforeAppending() throws IOException {
+        String file = tempFile(".bin");
+        List<String> names = Arrays.asList("Visits", "Value");
+        List<BinaryDataWriter.ColumnType> types = Arrays.asList(INT, DOUBLE);
+        try (BinaryDataWriter writer = new BinaryDataWriter(file, names, types, false)) {
+            writer.putInt(1).putDouble(1.5);
+            writer.endRow();
+        }
+        // as left by a run that stopped part way through a row
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[]{7, 7, 7, 7, 7});
+        }
+        try (BinaryDataWriter writer = new BinaryDataWriter(file, names, types, true)) {
+            writer.putInt(2).putDouble(2.5);
+            writer.endRow();
+        }
+        try (BinaryDataReader reader = new BinaryDataReader(file)) {
+            assertEquals(2, reader.rows());
+            assertEquals(reader.completeLength(), new File(file).length());
+            assertEquals(1, reader.getInt(0, 0));
+            assertEquals(1.5, reader.getDouble(0, 1), 0.0);
+            assertEquals(2, reader.getInt(1, 0));
+            assertEquals(2.5, reader.getDouble(1, 1), 0.0);
+        }
+    }
+
+    @Test
+    public void wrongTypeIsRejected() throws IOException {
+        try (BinaryDataWriter writer = new BinaryDataWriter(tempFile(".bin"), Arrays.asList("A", "B"), Arrays.asList(INT, DOUBLE), false)) {
+            writer.putDouble(1.0);
+            fail("Wrote a double to an int column");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void textIsNotBinary() throws IOException {
+        String file = tempFile(".txt");
+        FileStatsLogger logger = new FileStatsLogger(file, "\t", false);
+        logger.record(Collections.singletonMap("Value", 1.0));
+        logger.processDataAndFinish();
+        assertFalse(BinaryDataReader.isBinaryDataFile(file));
+    }
+
+    private static class TestLearner extends AbstractLearner {
+        double[][] data, targets;
+
+        @Override
+        public void learnFrom(String... files) {
+            loadData(files);
+            data = dataArray;
+            targets = target;
+        }
+
+        @Override
+        public boolean writeToFile(String file) {
+            return false;
+        }
+
+        @Override
+        public String name() {
+            return "Test";
+        }
+    }
+
+    /**
+     * The same data written by a FileStatsLogger and a BinaryStatsLogger is loaded identically by a learner
+     */
+    @Test
+    public void learnerLoadsBinaryData() throws IOException {
+        String text = tempFile(".txt");
+        String binary = tempFile(".bin");
+        FileStatsLogger textLogger = new FileStatsLogger(text, "\t", false);
+        BinaryStatsLogger binaryLogger = new BinaryStatsLogger(binary);
+        Random rnd = new Random(46);
+        for (int i = 0; i < 100; i++) {
+            // values that the text format holds exactly
+            Map<String, Double> data = new LinkedHashMap<>();
+            data.put("GameID", (double) (i / 10));
+            data.put("Player", (double) (i % 2));
+            data.put("Round", (double) (i % 10));
+            data.put("Turn", (double) (i % 10));
+            data.put("CurrentScore", (double) rnd.nextInt(50));
+            data.put("Feature1", rnd.nextInt(8) / 4.0);
+            data.put("Feature2", (double) rnd.nextInt(100));
+            data.put("PlayerCount", 2.0);
+            data.put("TotalRounds", 10.0);
+            data.put("Win", (double) (i % 2));
+            data.put("Ordinal", (double) (2 - i % 2));
+            data.put("FinalScore", (double) rnd.nextInt(100));
+            textLogger.record(data);
+            binaryLogger.record(data);
+        }
+        textLogger.processDataAndFinish();
+        binaryLogger.processDataAndFinish();
+
+        TestLearner fromText = new TestLearner();
+        fromText.setGamma(0.9);
+        fromText.learnFrom(text);
+        TestLearner fromBinary = new TestLearner();
+        fromBinary.setGamma(0.9);
+        fromBinary.learnFrom(binary);
+        assertEquals(100, fromBinary.data.length);
+        for (int i = 0; i < 100; i++) {
+            assertArrayEquals(fromText.data[i], fromBinary.data[i], 0.0);
+            assertArrayEquals(fromText.targets[i], fromBinary.targets[i], 0.0);
+        }
+    }
+}
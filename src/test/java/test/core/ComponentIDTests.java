@@ -0,0 +1,79 @@
+package test.core;
+
+import core.AbstractGameState;
+import core.Game;
+import core.components.Component;
+import core.components.Counter;
+import core.interfaces.IComponentContainer;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class ComponentIDTests {
+
+    private void addIDs(List<? extends Component> components, List<Integer> ids) {
+        for (Component c : components) {
+            if (c == null)
+                continue;
+            ids.add(c.getComponentID());
+            if (c instanceof IComponentContainer)
+                addIDs(((IComponentContainer<?>) c).getComponents(), ids);
+        }
+    }
+
+    // the IDs of all components in a newly set-up game, in the order the game lists them
+    private List<Integer> setupIDs(GameType gameType, long seed) {
+        Game game = gameType.createGameInstance(3, seed);
+        game.reset(Collections.emptyList(), seed);
+        AbstractGameState state = game.getGameState();
+        List<Integer> ids = new ArrayList<>();
+        addIDs(state.getAllTopLevelComponents(), ids);
+        return ids;
+    }
+
+    @Test
+    public void sameSeedGivesSameIDs() {
+        for (GameType gameType : Arrays.asList(GameType.LoveLetter, GameType.Dominion, GameType.Catan)) {
+            List<Integer> first = setupIDs(gameType, 7);
+            assertFalse(first.isEmpty());
+            // other components created in between make no difference
+            for (int i = 0; i < 100; i++)
+                new Counter(0, 0, 10, "Unrelated");
+            assertEquals(first, setupIDs(gameType, 7));
+        }
+    }
+
+    @Test
+    public void parallelSetupGivesSameIDs() throws Exception {
+        List<Integer> expected = setupIDs(GameType.Dominion, 3);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                results.add(executor.submit(() -> setupIDs(GameType.Dominion, 3)));
+            for (Future<List<Integer>> result : results)
+                assertEquals(expected, result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void idsOutsideSetupDoNotClash() {
+        Set<Integer> setup = new HashSet<>(setupIDs(GameType.LoveLetter, 1));
+        Set<Integer> others = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            int id = new Counter(0, 0, 10, "Other").getComponentID();
+            assertTrue(others.add(id));
+            assertFalse(setup.contains(id));
+        }
+        // set-up IDs are all allocated from the same base, so do not grow from one game to the next
+        int maxSetupID = Collections.max(setup);
+        for (int g = 0; g < 5; g++)
+            assertEquals(maxSetupID, (int) Collections.max(setupIDs(GameType.LoveLetter, 1)));
+    }
+}
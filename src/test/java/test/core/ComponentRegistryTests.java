@@ -0,0 +1,131 @@
+package test.core;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.components.Card;
+import core.components.Component;
+import core.components.ComponentRegistry;
+import core.components.Deck;
+import core.interfaces.IComponentContainer;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+
+import static core.CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
+import static org.junit.Assert.*;
+
+public class ComponentRegistryTests {
+
+    private void addAll(List<? extends Component> components, Map<Integer, Component> byId) {
+        for (Component c : components) {
+            if (c == null)
+                continue;
+            byId.put(c.getComponentID(), c);
+            if (c instanceof IComponentContainer)
+                addAll(((IComponentContainer<?>) c).getComponents(), byId);
+        }
+    }
+
+    /**
+     * Plays random games on copies of the state (full and partially observable), checking that every component in
+     * each copy is found by its ID, and that the component found is the one in that copy (the last with that ID).
+     */
+    private void checkGames(GameType gameType, int nPlayers) {
+        for (long seed = 0; seed < 3; seed++) {
+            Game game = gameType.createGameInstance(nPlayers, seed);
+            game.reset(Collections.emptyList());
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            Random rnd = new Random(seed);
+            for (int move = 0; move < 300 && state.isNotTerminal(); move++) {
+                state = state.copy(move % 3 == 0 ? state.getCurrentPlayer() : -1);
+                Map<Integer, Component> byId = new HashMap<>();
+                addAll(state.getAllTopLevelComponents(), byId);
+                // in a random order, as each lookup only walks the components it needs
+                List<Integer> ids = new ArrayList<>(byId.keySet());
+                Collections.shuffle(ids, rnd);
+                for (int id : ids)
+                    assertSame(byId.get(id), state.getComponentById(id));
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+        }
+    }
+
+    @Test
+    public void dominion() {
+        checkGames(GameType.Dominion, 3);
+    }
+
+    @Test
+    public void coltExpress() {
+        // the copy creates components for hidden information, and then replaces some of them
+        checkGames(GameType.ColtExpress, 3);
+    }
+
+    @Test
+    public void uno() {
+        // the copy of the current card is a different component from the one on top of the discard deck
+        checkGames(GameType.Uno, 3);
+    }
+
+    @Test
+    public void loveLetter() {
+        checkGames(GameType.LoveLetter, 3);
+    }
+
+    @Test
+    public void catan() {
+        checkGames(GameType.Catan, 3);
+    }
+
+    @Test
+    public void lookupsOnlyWalkTheComponentsTheyNeed() {
+        Deck<Card> first = new Deck<Card>("First", VISIBLE_TO_ALL) {
+            @Override
+            public int getSize() {
+                throw new AssertionError("the first deck should not be walked");
+            }
+        };
+        Deck<Card> last = new Deck<>("Last", VISIBLE_TO_ALL);
+        Card card = new Card("Card");
+        last.add(card);
+        ComponentRegistry registry = new ComponentRegistry();
+        registry.setAll(Arrays.asList(first, last));
+        assertSame(card, registry.get(card.getComponentID()));
+        assertSame(last, registry.get(last.getComponentID()));
+    }
+
+    @Test
+    public void lastComponentWithAnIDIsFound() {
+        Card card = new Card("Card");
+        Card sameID = card.copy();
+        Deck<Card> one = new Deck<>("One", VISIBLE_TO_ALL), other = new Deck<>("Other", VISIBLE_TO_ALL);
+        // add() puts each card on top, so this is card then sameID
+        one.add(sameID);
+        one.add(card);
+        other.add(card);
+        ComponentRegistry registry = new ComponentRegistry();
+        // later in the same deck
+        registry.setAll(Collections.singletonList(one));
+        assertSame(sameID, registry.get(card.getComponentID()));
+        // in a later deck, even when the earlier deck is walked first
+        registry.setAll(Arrays.asList(one, other));
+        assertSame(one, registry.get(one.getComponentID()));
+        assertSame(card, registry.get(card.getComponentID()));
+        registry.setAll(Arrays.asList(other, one));
+        assertSame(sameID, registry.get(card.getComponentID()));
+    }
+
+    @Test
+    public void missingComponentIsNull() {
+        Game game = GameType.Dominion.createGameInstance(3, 4);
+        game.reset(Collections.emptyList());
+        AbstractGameState copy = game.getGameState().copy();
+        assertNull(copy.getComponentById(-5));
+        assertNull(copy.getComponentById(Integer.MAX_VALUE));
+    }
+}
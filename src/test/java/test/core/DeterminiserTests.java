@@ -0,0 +1,107 @@
+package test.core;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Determiniser;
+import core.Game;
+import core.actions.AbstractAction;
+import core.components.Deck;
+import core.components.PartialObservableDeck;
+import games.GameType;
+import games.loveletter.LoveLetterGameState;
+import games.loveletter.cards.LoveLetterCard;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class DeterminiserTests {
+
+    private List<Deck<LoveLetterCard>> decks(LoveLetterGameState state) {
+        List<Deck<LoveLetterCard>> decks = new ArrayList<>();
+        decks.addAll(state.getPlayerHandCards());
+        decks.addAll(state.getPlayerDiscardCards());
+        decks.add(state.getDrawPile());
+        decks.add(state.getReserveCards());
+        return decks;
+    }
+
+    private boolean visible(Deck<LoveLetterCard> deck, int index, int player) {
+        return !(deck instanceof PartialObservableDeck) || ((PartialObservableDeck<LoveLetterCard>) deck).getVisibilityForPlayer(index, player);
+    }
+
+    /**
+     * Checks that the copy has the same cards as the state, with those visible to the player in the same places
+     */
+    private void checkSample(LoveLetterGameState state, LoveLetterGameState copy, int player) {
+        List<Integer> before = new ArrayList<>();
+        List<Integer> after = new ArrayList<>();
+        List<Deck<LoveLetterCard>> original = decks(state);
+        List<Deck<LoveLetterCard>> sampled = decks(copy);
+        for (int d = 0; d < original.size(); d++) {
+            Deck<LoveLetterCard> deck = original.get(d);
+            Deck<LoveLetterCard> sample = sampled.get(d);
+            assertEquals(deck.getSize(), sample.getSize());
+            for (int i = 0; i < deck.getSize(); i++) {
+                before.add(deck.get(i).getComponentID());
+                after.add(sample.get(i).getComponentID());
+                if (visible(deck, i, player))
+                    assertEquals(deck.get(i).getComponentID(), sample.get(i).getComponentID());
+            }
+            // the hash kept up to date as the cards were swapped matches one made from scratch
+            long hash = sample.longHash();
+            sample.getComponents();
+            assertEquals(sample.longHash(), hash);
+        }
+        Collections.sort(before);
+        Collections.sort(after);
+        assertEquals(before, after);
+    }
+
+    @Test
+    public void loveLetterSamplesKeepVisibleCards() {
+        int samplesChanged = 0;
+        for (long seed = 0; seed < 5; seed++) {
+            Game game = GameType.LoveLetter.createGameInstance(3, seed);
+            game.reset(Collections.emptyList());
+            AbstractForwardModel fm = game.getForwardModel();
+            LoveLetterGameState state = (LoveLetterGameState) game.getGameState();
+            Random rnd = new Random(seed);
+            for (int move = 0; move < 100 && state.isNotTerminal(); move++) {
+                int player = state.getCurrentPlayer();
+                Determiniser determiniser = new Determiniser(state, player);
+                assertEquals(state.getUnknownComponentsIds(player).size(), determiniser.getHiddenCount());
+                // several samples on the same copy
+                LoveLetterGameState copy = (LoveLetterGameState) state.copy();
+                for (int i = 0; i < 5; i++) {
+                    determiniser.determinise(copy, rnd);
+                    checkSample(state, copy, player);
+                    if (!copy.equals(state))
+                        samplesChanged++;
+                }
+                checkSample(state, (LoveLetterGameState) state.copy(player), player);
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+        }
+        assertTrue(samplesChanged > 100);
+    }
+
+    @Test
+    public void differentStateRejected() {
+        Game game = GameType.LoveLetter.createGameInstance(3, 42);
+        game.reset(Collections.emptyList());
+        AbstractGameState state = game.getGameState();
+        Determiniser determiniser = new Determiniser(state, state.getCurrentPlayer());
+        AbstractGameState next = state.copy();
+        List<AbstractAction> actions = game.getForwardModel().computeAvailableActions(next);
+        game.getForwardModel().next(next, actions.get(0));
+        try {
+            determiniser.determinise(next, new Random(42));
+            fail("The cards in the state have moved, so the hidden positions are not the same");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
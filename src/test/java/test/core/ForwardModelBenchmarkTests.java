@@ -0,0 +1,84 @@
+package test.core;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractParameters;
+import core.Game;
+import core.ParameterFactory;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * The JMH benchmarks (src/jmh/java, benchmark profile) are not built by default, so these tests check on every game
+ * what ForwardModelBenchmark relies on: the default parameters set the game up, the sampled states can each be copied
+ * and played on without changing the sample, and random playouts end.
+ */
+public class ForwardModelBenchmarkTests {
+
+    // as in ForwardModelBenchmark, but fewer, to keep this quick
+    static final int SAMPLE_STATES = 32;
+    static final int MAX_PLAYOUT_ACTIONS = 10000;
+
+    private void checkGame(GameType gameType) {
+        AbstractParameters params = ParameterFactory.createFromFile(gameType, "");
+        Game game = gameType.createGameInstance(gameType.getMinPlayers(), 42, params);
+        assertNotNull(gameType.name(), game);
+        game.reset(Collections.emptyList());
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        AbstractGameState initialState = game.getGameState().copy();
+        initialState.setRecordHistory(false);
+        Random rnd = new Random(42);
+
+        // setup() can be run again on a copy of the initial state, as the setup benchmark does
+        AbstractGameState setup = initialState.copy();
+        forwardModel.setup(setup);
+        assertTrue(gameType.name(), setup.isNotTerminal());
+        assertFalse(gameType.name(), forwardModel.computeAvailableActions(setup).isEmpty());
+
+        List<AbstractGameState> sampleStates = new ArrayList<>();
+        int playouts = 0;
+        while (sampleStates.size() < SAMPLE_STATES) {
+            AbstractGameState state = initialState.copy();
+            int nActions = 0;
+            while (state.isNotTerminal() && nActions < MAX_PLAYOUT_ACTIONS && sampleStates.size() < SAMPLE_STATES) {
+                List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+                if (actions.isEmpty())
+                    break;
+                sampleStates.add(state.copy());
+                forwardModel.next(state, actions.get(rnd.nextInt(actions.size())));
+                nActions++;
+            }
+            assertTrue(gameType.name() + " playout with no decisions", nActions > 0);
+            assertTrue(gameType.name(), ++playouts <= SAMPLE_STATES);
+        }
+
+        for (AbstractGameState sample : sampleStates) {
+            assertNotNull(gameType.name(), sample.copy(sample.getCurrentPlayer()));
+            AbstractGameState state = sample.copy();
+            int hash = sample.hashCode();
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+            assertFalse(gameType.name(), actions.isEmpty());
+            forwardModel.next(state, actions.get(rnd.nextInt(actions.size())));
+            // the sample is used again and again, so playing on its copy must leave it as it was
+            assertEquals(gameType.name(), hash, sample.hashCode());
+        }
+    }
+
+    @Test
+    public void everyGameCanBeBenchmarked() {
+        List<String> failed = new ArrayList<>();
+        for (GameType gameType : GameType.values()) {
+            try {
+                checkGame(gameType);
+            } catch (AssertionError | RuntimeException e) {
+                failed.add(gameType.name() + ": " + e);
+            }
+        }
+        assertTrue(String.join("\n", failed), failed.isEmpty());
+    }
+}
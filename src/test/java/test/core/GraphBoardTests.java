@@ -0,0 +1,121 @@
+package test.core;
+
+import core.components.BoardNode;
+import core.components.GraphBoard;
+import core.properties.PropertyString;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static core.CoreConstants.nameHash;
+import static org.junit.Assert.*;
+
+public class GraphBoardTests {
+
+    GraphBoard board;
+    BoardNode[] nodes;
+
+    private BoardNode node(String name) {
+        BoardNode node = new BoardNode(-1, name);
+        node.setProperty(new PropertyString("name", name));
+        return node;
+    }
+
+    @Before
+    public void setup() {
+        board = new GraphBoard("Test");
+        nodes = new BoardNode[10];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = node("City" + i);
+            board.addBoardNode(nodes[i]);
+        }
+        for (int i = 0; i < nodes.length; i++)
+            board.addConnection(nodes[i], nodes[(i + 1) % nodes.length]);
+    }
+
+    @Test
+    public void nodesFoundByName() {
+        for (BoardNode node : nodes) {
+            String name = node.getComponentName();
+            assertSame(node, board.getNodeByStringProperty(nameHash, name));
+            assertSame(node, board.getNodeByProperty(nameHash, new PropertyString(name)));
+        }
+        assertNull(board.getNodeByStringProperty(nameHash, "Atlantis"));
+    }
+
+    @Test
+    public void copyFindsItsOwnNodes() {
+        // build the index before copying, so that it is shared
+        assertSame(nodes[3], board.getNodeByStringProperty(nameHash, "City3"));
+        GraphBoard copy = board.copy();
+        assertEquals(board.getBoardNodes().size(), copy.getBoardNodes().size());
+        for (int i = 0; i < nodes.length; i++) {
+            BoardNode found = copy.getNodeByStringProperty(nameHash, "City" + i);
+            assertSame(copy.getBoardNodes().get(i), found);
+            assertNotSame(nodes[i], found);
+            assertEquals(nodes[i].getComponentID(), found.getComponentID());
+        }
+        // changes to the copy do not affect the original
+        BoardNode extra = node("Extra");
+        copy.addConnection(copy.getNodeByStringProperty(nameHash, "City0"), extra);
+        assertSame(extra, copy.getNodeByStringProperty(nameHash, "Extra"));
+        assertNull(board.getNodeByStringProperty(nameHash, "Extra"));
+        assertSame(nodes[5], board.getNodeByStringProperty(nameHash, "City5"));
+    }
+
+    @Test
+    public void changedPropertiesAreFound() {
+        assertSame(nodes[2], board.getNodeByStringProperty(nameHash, "City2"));
+        nodes[2].setProperty(new PropertyString("name", "Renamed"));
+        assertSame(nodes[2], board.getNodeByStringProperty(nameHash, "Renamed"));
+        assertNull(board.getNodeByStringProperty(nameHash, "City2"));
+    }
+
+    @Test
+    public void removedNodesAreNotFound() {
+        assertSame(nodes[4], board.getNodeByStringProperty(nameHash, "City4"));
+        board.removeBoardNode(nodes[4]);
+        assertNull(board.getNodeByStringProperty(nameHash, "City4"));
+        for (int i = 5; i < nodes.length; i++)
+            assertSame(nodes[i], board.getNodeByStringProperty(nameHash, "City" + i));
+    }
+
+    @Test
+    public void copiesHaveTheSameConnections() {
+        nodes[0].addNeighbour(nodes[5], 2);
+        GraphBoard copy = board.copy();
+        GraphBoard copyOfCopy = copy.copy();
+        for (GraphBoard b : new GraphBoard[]{copy, copyOfCopy}) {
+            for (int i = 0; i < nodes.length; i++) {
+                BoardNode node = b.getBoardNodes().get(i);
+                assertEquals(nodes[i].getNeighbours().size(), node.getNeighbours().size());
+                for (BoardNode neighbour : node.getNeighbours()) {
+                    // neighbours are nodes of the copy, with the same IDs as in the original
+                    assertTrue(nodes[i].getNeighbours().contains(neighbour));
+                    int position = Arrays.asList(nodes).indexOf(neighbour);
+                    assertSame(b.getBoardNodes().get(position), neighbour);
+                }
+            }
+            assertEquals(Integer.valueOf(2), b.getBoardNodes().get(0).getNeighbourSideMapping().get(nodes[5]));
+        }
+    }
+
+    @Test
+    public void changedConnectionsDoNotAffectCopies() {
+        GraphBoard copy = board.copy();
+        GraphBoard copyOfCopy = copy.copy();
+        copy.breakConnection(copy.getBoardNodes().get(0), copy.getBoardNodes().get(1));
+        copy.addConnection(copy.getBoardNodes().get(0), copy.getBoardNodes().get(5));
+        board.breakConnection(nodes[2], nodes[3]);
+        for (int i = 0; i < nodes.length; i++) {
+            int next = (i + 1) % nodes.length;
+            assertEquals(i != 2, nodes[i].getNeighbours().contains(nodes[next]));
+            assertEquals(i != 0, copy.getBoardNodes().get(i).getNeighbours().contains(copy.getBoardNodes().get(next)));
+            assertTrue(copyOfCopy.getBoardNodes().get(i).getNeighbours().contains(copyOfCopy.getBoardNodes().get(next)));
+        }
+        assertTrue(copy.getBoardNodes().get(5).getNeighbours().contains(copy.getBoardNodes().get(0)));
+        assertFalse(nodes[5].getNeighbours().contains(nodes[0]));
+        assertFalse(copyOfCopy.getBoardNodes().get(5).getNeighbours().contains(copyOfCopy.getBoardNodes().get(0)));
+    }
+}
@@ -0,0 +1,72 @@
+package test.core;
+
+import core.components.Component;
+import core.components.GridBoard;
+import core.components.Token;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GridBoardTests {
+
+    private final Token empty = new Token("-");
+    private final Token cross = new Token("x");
+    private final Token nought = new Token("o");
+
+    private GridBoard<Token> board() {
+        GridBoard<Token> board = new GridBoard<>(3, 2, empty);
+        board.setElement(0, 0, cross);
+        board.setElement(2, 1, nought);
+        return board;
+    }
+
+    @Test
+    public void copiesAreIsolatedAfterWrites() {
+        GridBoard<Token> original = board();
+        GridBoard<Token> copy = original.copy();
+        GridBoard<Token> copyOfCopy = copy.copy();
+
+        copy.setElement(1, 0, nought);
+        assertEquals(empty, original.getElement(1, 0));
+        assertEquals(empty, copyOfCopy.getElement(1, 0));
+
+        original.setElement(1, 1, cross);
+        assertEquals(empty, copy.getElement(1, 1));
+        assertEquals(empty, copyOfCopy.getElement(1, 1));
+
+        // writing through the grid itself must not reach the other boards either
+        copyOfCopy.getGridValues()[0][2] = cross;
+        assertEquals(empty, original.getElement(2, 0));
+        assertEquals(empty, copy.getElement(2, 0));
+        assertEquals(cross, copyOfCopy.getElement(2, 0));
+
+        assertEquals(nought, copy.getElement(1, 0));
+        assertEquals(cross, copy.getElement(0, 0));
+        assertNotEquals(original, copy);
+    }
+
+    @Test
+    public void rotationsAreOwnedByTheCaller() {
+        GridBoard<Token> original = board();
+        GridBoard<Token> copy = original.copy();
+        for (int orientation : new int[]{0, 1, 2, 3, 4, 8}) {
+            Component[][] rotated = original.rotate(orientation);
+            for (Component[] row : rotated)
+                Arrays.fill(row, nought);
+            assertEquals(cross, original.getElement(0, 0));
+            assertEquals(cross, copy.getElement(0, 0));
+            assertEquals(empty, original.getElement(1, 0));
+            assertEquals(empty, copy.getElement(1, 0));
+        }
+        Component[][] once = original.rotate(1);
+        assertEquals(2, once[0].length);
+        assertEquals(3, once.length);
+        assertEquals(cross, once[0][1]);
+        assertEquals(nought, once[2][0]);
+        Component[][] none = original.rotate(4);
+        assertEquals(cross, none[0][0]);
+        assertEquals(nought, none[1][2]);
+    }
+}
@@ -0,0 +1,68 @@
+package test.core;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class HistoryTests {
+
+    @Test
+    public void textIsMadeFromTheStateTheActionWasAppliedTo() {
+        for (GameType gameType : Arrays.asList(GameType.LoveLetter, GameType.Dominion, GameType.Virus)) {
+            Game game = gameType.createGameInstance(3, 5);
+            game.reset(Collections.emptyList());
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            Random rnd = new Random(5);
+            List<String> expected = new ArrayList<>();
+            for (int move = 0; move < 60 && state.isNotTerminal(); move++) {
+                // a copy made before the move, and one from the point of view of another player, each go their own way
+                AbstractGameState copy = state.copy();
+                AbstractGameState view = state.copy((state.getCurrentPlayer() + 1) % state.getNPlayers());
+                List<String> before = state.getHistoryAsText();
+
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+                expected.add("Player " + state.getCurrentPlayer() + " : " + action.getString(state));
+                fm.next(state, action);
+                assertEquals(expected, state.getHistoryAsText());
+
+                for (AbstractGameState other : Arrays.asList(copy, view)) {
+                    List<AbstractAction> otherActions = fm.computeAvailableActions(other);
+                    if (other.isNotTerminal())
+                        fm.next(other, otherActions.get(otherActions.size() - 1));
+                    // the entries shared with the state are unchanged, whichever state asks for them first
+                    List<String> otherText = other.getHistoryAsText();
+                    assertEquals(before, otherText.subList(0, before.size()));
+                }
+                assertEquals(expected, state.getHistoryAsText());
+            }
+            assertEquals(state.getHistory().size(), expected.size());
+        }
+    }
+
+    @Test
+    public void nothingIsRecordedWhenSwitchedOff() {
+        Game game = GameType.LoveLetter.createGameInstance(3, 8);
+        game.reset(Collections.emptyList());
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        fm.next(state, actions.get(0));
+
+        AbstractGameState copy = state.copy();
+        copy.setRecordHistory(false);
+        for (int move = 0; move < 10 && copy.isNotTerminal(); move++)
+            fm.next(copy, fm.computeAvailableActions(copy).get(0));
+        assertEquals(state.getHistoryAsText(), copy.getHistoryAsText());
+        assertFalse(copy.copy().isRecordingHistory());
+        assertTrue(state.isRecordingHistory());
+    }
+}
@@ -0,0 +1,193 @@
+package test.core;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import core.components.Card;
+import core.components.Deck;
+import core.components.GridBoard;
+import core.components.Token;
+import core.interfaces.IGridGameState;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+
+import static core.CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
+import static org.junit.Assert.*;
+
+public class LongHashTests {
+
+    /**
+     * @return the hash kept up to date by the container, after checking that it is the same as the one calculated
+     * from scratch (getComponents() and getGridValues() make the next longHash() look at everything)
+     */
+    private long checkHash(Deck<Card> deck) {
+        long incremental = deck.longHash();
+        deck.getComponents();
+        assertEquals(deck.longHash(), incremental);
+        return incremental;
+    }
+
+    private long checkHash(GridBoard<Token> board) {
+        long incremental = board.longHash();
+        board.getGridValues();
+        assertEquals(board.longHash(), incremental);
+        return incremental;
+    }
+
+    @Test
+    public void deckHashIsKeptUpToDate() {
+        Random rnd = new Random(46);
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            cards.add(new Card("card" + i));
+        Deck<Card> deck = new Deck<>("test", VISIBLE_TO_ALL);
+        long emptyHash = checkHash(deck);
+        Set<Long> hashes = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            Card card = cards.get(rnd.nextInt(cards.size()));
+            switch (rnd.nextInt(8)) {
+                case 0:
+                    deck.add(card);
+                    break;
+                case 1:
+                    deck.add(card, rnd.nextInt(deck.getSize() + 1));
+                    break;
+                case 2:
+                    deck.add(Arrays.asList(card, cards.get(0)), rnd.nextInt(deck.getSize() + 1));
+                    break;
+                case 3:
+                    deck.draw();
+                    break;
+                case 4:
+                    deck.pickLast();
+                    break;
+                case 5:
+                    deck.remove(card);
+                    break;
+                case 6:
+                    if (deck.getSize() > 0)
+                        deck.setComponent(rnd.nextInt(deck.getSize()), card);
+                    break;
+                case 7:
+                    deck.shuffle(rnd);
+                    break;
+            }
+            hashes.add(checkHash(deck));
+        }
+        // different decks (almost always) have different hashes
+        assertTrue(hashes.size() > 400);
+        deck.clear();
+        assertEquals(emptyHash, checkHash(deck));
+    }
+
+    @Test
+    public void deckHashDependsOnOrder() {
+        Card a = new Card("a"), b = new Card("b");
+        Deck<Card> deck = new Deck<>("test", VISIBLE_TO_ALL);
+        deck.add(a);
+        deck.add(b);
+        long ab = checkHash(deck);
+        Deck<Card> copy = deck.copy();
+        assertEquals(ab, copy.longHash());
+        deck.clear();
+        deck.add(b);
+        deck.add(a);
+        assertNotEquals(ab, checkHash(deck));
+    }
+
+    @Test
+    public void gridHashIsKeptUpToDate() {
+        Random rnd = new Random(46);
+        Token empty = new Token("."), x = new Token("x"), o = new Token("o");
+        Token[] values = {empty, x, o, null};
+        GridBoard<Token> board = new GridBoard<>(5, 4, empty);
+        long emptyHash = checkHash(board);
+        for (int i = 0; i < 200; i++) {
+            board.setElement(rnd.nextInt(5), rnd.nextInt(4), values[rnd.nextInt(values.length)]);
+            GridBoard<Token> copy = board.copy();
+            assertEquals(checkHash(board), copy.longHash());
+            // changing the copy does not change the original
+            copy.setElement(0, 0, x);
+            copy.setElement(0, 0, o);
+            assertEquals(checkHash(board), board.longHash());
+        }
+        for (int y = 0; y < 4; y++)
+            for (int x1 = 0; x1 < 5; x1++)
+                board.setElement(x1, y, empty);
+        assertEquals(emptyHash, checkHash(board));
+    }
+
+    /**
+     * Plays random games, checking that the longHash() of the state is the same as that calculated from scratch,
+     * and is the same for copies of the state.
+     */
+    private void checkGames(GameType gameType) {
+        for (long seed = 0; seed < 10; seed++) {
+            Game game = gameType.createGameInstance(2, seed);
+            game.reset(Collections.emptyList());
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            Random rnd = new Random(seed);
+            while (state.isNotTerminal()) {
+                long hash = state.longHash();
+                assertEquals(hash, state.copy().longHash());
+                ((IGridGameState<?>) state).getGridBoard().getGridValues();
+                assertEquals(hash, state.longHash());
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+        }
+    }
+
+    @Test
+    public void connect4() {
+        checkGames(GameType.Connect4);
+    }
+
+    @Test
+    public void ticTacToe() {
+        checkGames(GameType.TicTacToe);
+    }
+
+    /**
+     * Plays a move in each of the given cells of a TicTacToe board in turn, with cell = x + 3y
+     */
+    private AbstractGameState play(Game game, int... cells) {
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState().copy();
+        for (int cell : cells) {
+            AbstractAction move = fm.computeAvailableActions(state).stream()
+                    .map(a -> (SetGridValueAction<?>) a)
+                    .filter(a -> a.getX() == cell % 3 && a.getY() == cell / 3)
+                    .findFirst().orElseThrow(AssertionError::new);
+            fm.next(state, move);
+        }
+        return state;
+    }
+
+    @Test
+    public void transpositionsHashTheSame() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 43);
+        game.reset(Collections.emptyList());
+        // the same pieces in each of these, placed in a different order
+        AbstractGameState first = play(game, 0, 1, 5, 3);
+        AbstractGameState second = play(game, 5, 3, 0, 1);
+        assertEquals(first.longHash(), second.longHash());
+        // but not when the players have each other's pieces
+        AbstractGameState third = play(game, 1, 0, 3, 5);
+        assertNotEquals(first.longHash(), third.longHash());
+        assertNotEquals(first.longHash(), play(game, 0, 1, 5).longHash());
+    }
+
+    @Test
+    public void copiesHashTheSameByDefault() {
+        Game game = GameType.Dominion.createGameInstance(3, 43);
+        game.reset(Collections.emptyList());
+        AbstractGameState state = game.getGameState();
+        assertEquals(state.longHash(), state.copy().longHash());
+    }
+}
@@ -0,0 +1,68 @@
+package test.core;
+
+import core.AbstractPlayer;
+import core.Game;
+import games.GameType;
+import org.junit.Test;
+import players.simple.OSLAPlayer;
+import players.simple.RandomPlayer;
+import utilities.GameResultListener;
+import utilities.Utils;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RunManyTests {
+
+    final List<GameType> games = Arrays.asList(GameType.TicTacToe, GameType.Connect4, GameType.DotsAndBoxes);
+    final int nRepetitions = 8;
+
+    // new players each time, as copying them uses up their random numbers
+    private Utils.GameResult[][][] runMany(int nThreads) {
+        List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(3)), new OSLAPlayer(new Random(4)));
+        return Game.runMany(games, players, 42L, nRepetitions, false, false, null, 0, nThreads);
+    }
+
+    // the number of times each player had each result, in each game
+    private int[][][] countResults(Utils.GameResult[][][] results) {
+        int[][][] counts = new int[results.length][2][Utils.GameResult.values().length];
+        for (int g = 0; g < results.length; g++) {
+            assertEquals(nRepetitions, results[g].length);
+            for (Utils.GameResult[] gameResults : results[g])
+                for (int p = 0; p < 2; p++)
+                    counts[g][p][gameResults[p].ordinal()]++;
+        }
+        return counts;
+    }
+
+    @Test
+    public void resultsDoNotDependOnThreads() {
+        Utils.GameResult[][][] serial = runMany(1);
+        assertEquals(games.size(), serial.length);
+        int[][][] serialCounts = countResults(serial);
+        for (int nThreads : new int[]{2, 5}) {
+            Utils.GameResult[][][] parallel = runMany(nThreads);
+            int[][][] counts = countResults(parallel);
+            for (int g = 0; g < games.size(); g++)
+                for (int p = 0; p < 2; p++)
+                    assertArrayEquals(serialCounts[g][p], counts[g][p]);
+            // and each repetition has the same results too
+            for (int g = 0; g < games.size(); g++)
+                for (int i = 0; i < nRepetitions; i++)
+                    assertArrayEquals(serial[g][i], parallel[g][i]);
+        }
+    }
+
+    @Test
+    public void listenersNeedOneThread() {
+        List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(3)), new RandomPlayer(new Random(4)));
+        try {
+            Game.runMany(games, players, 42L, 1, false, false,
+                    Collections.singletonList(new GameResultListener()), 0, 2);
+            fail("Listeners were shared by games played in parallel");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package test.core;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class UndoTests {
+
+    /**
+     * Plays random games, making each move with nextWithUndo(). After every move, it undoes all the moves made since
+     * a saved copy of the state, checks that a new copy equals the saved one, and then makes the first of them again.
+     * (Copies are compared, rather than the state itself, as a state only updates its index of components when copied.)
+     */
+    private void checkRoundTrips(GameType gameType, long seed) {
+        Game game = gameType.createGameInstance(2, seed);
+        List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(seed)), new RandomPlayer(new Random(seed + 1)));
+        game.reset(players);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        assertTrue(fm.supportsUndo());
+
+        Random rnd = new Random(seed);
+        while (state.isNotTerminal()) {
+            AbstractGameState before = state.copy();
+            int historyBefore = state.getHistory().size();
+            Deque<AbstractForwardModel.UndoToken> undoLog = new ArrayDeque<>();
+            List<AbstractAction> moves = new ArrayList<>();
+            // make a few moves ahead, then take them all back
+            for (int i = 0; i < 3 && state.isNotTerminal(); i++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+                moves.add(action);
+                undoLog.push(fm.nextWithUndo(state, action));
+            }
+            while (!undoLog.isEmpty())
+                fm.undo(state, undoLog.pop());
+
+            AbstractGameState after = state.copy();
+            // copy() gives the parameters a new random seed, which would otherwise make the states differ
+            after.getGameParameters().setRandomSeed(before.getGameParameters().getRandomSeed());
+            assertEquals(before, after);
+            assertEquals(before.hashCode(), after.hashCode());
+            assertEquals(historyBefore, state.getHistory().size());
+            assertEquals(fm.computeAvailableActions(before), fm.computeAvailableActions(state));
+
+            // then go forward one of those moves for real
+            fm.next(state, moves.get(0));
+        }
+    }
+
+    @Test
+    public void ticTacToe() {
+        for (long seed = 0; seed < 20; seed++)
+            checkRoundTrips(GameType.TicTacToe, seed);
+    }
+
+    @Test
+    public void connect4() {
+        for (long seed = 0; seed < 20; seed++)
+            checkRoundTrips(GameType.Connect4, seed);
+    }
+
+    @Test
+    public void dotsAndBoxes() {
+        for (long seed = 0; seed < 5; seed++)
+            checkRoundTrips(GameType.DotsAndBoxes, seed);
+    }
+}
@@ -0,0 +1,37 @@
+package test.evaluation;
+
+import core.AbstractPlayer;
+import evaluation.GameEvaluator;
+import evaluation.ITPSearchSpace;
+import games.GameType;
+import games.tictactoe.TicTacToeGameParameters;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+import players.rmhc.RMHCParams;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class GameEvaluatorTests {
+
+    private double[] evaluate(int nThreads) throws Exception {
+        JSONObject json = (JSONObject) new JSONParser().parse("{\"budget\" : [50, 100], \"horizon\" : [3, 10]}");
+        ITPSearchSpace searchSpace = new ITPSearchSpace(new RMHCParams(42), json);
+        List<AbstractPlayer> opponents = Collections.singletonList(new RandomPlayer(new Random(3)));
+        GameEvaluator evaluator = new GameEvaluator(GameType.TicTacToe, searchSpace, new TicTacToeGameParameters(42),
+                2, opponents, 7, (state, player) -> state.getGameScore(player), null, false);
+        evaluator.nThreads = nThreads;
+        return evaluator.evaluate(new int[]{1, 0}, 12);
+    }
+
+    @Test
+    public void resultsDoNotDependOnThreads() throws Exception {
+        double[] serial = evaluate(1);
+        assertEquals(12, serial.length);
+        assertArrayEquals(serial, evaluate(3), 0.0);
+        assertArrayEquals(serial, evaluate(12), 0.0);
+    }
+}
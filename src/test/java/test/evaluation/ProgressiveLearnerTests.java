@@ -0,0 +1,76 @@
+package test.evaluation;
+
+import evaluation.ProgressiveLearner;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+import utilities.BinaryDataReader;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ProgressiveLearnerTests {
+
+    // a player that makes random decisions, but from a fixed seed, so that a JSON file can describe it
+    public static class SeededRandomPlayer extends RandomPlayer {
+        public SeededRandomPlayer() {
+            super(new Random(11));
+        }
+    }
+
+    /**
+     * @return every row of data from each iteration, without the GameID (which depends on how many games this JVM
+     * has already played), from the files for each iteration in order
+     */
+    private List<List<Double>> generateData(File dir, int nThreads) throws Exception {
+        File player = new File(dir, "player.json");
+        try (FileWriter writer = new FileWriter(player)) {
+            writer.write("{\"class\" : \"" + SeededRandomPlayer.class.getName() + "\"}");
+        }
+        String prefix = new File(dir, "threads" + nThreads).getPath();
+        new ProgressiveLearner(new String[]{"game=DotsAndBoxes", "player=" + player.getPath(),
+                "learner=players.learners.SimpleRegressionLearner", "statePhi=games.dotsboxes.DBStateFeaturesReduced",
+                "fileName=" + prefix, "seed=42", "nThreads=" + nThreads, "iterations=2", "matchups=7",
+                "finalMatchups=1"}).run();
+
+        List<List<Double>> rows = new ArrayList<>();
+        for (int iter = 0; iter < 2; iter++) {
+            List<String> files = new ArrayList<>();
+            if (nThreads == 1)
+                files.add(String.format("%s_%d.data", prefix, iter));
+            else
+                for (int shard = 0; shard < nThreads; shard++)
+                    files.add(String.format("%s_%d_%d.data", prefix, iter, shard));
+            for (String file : files)
+                try (BinaryDataReader reader = new BinaryDataReader(file)) {
+                    int gameID = reader.names().indexOf("GameID");
+                    for (long row = 0; row < reader.rows(); row++) {
+                        List<Double> data = new ArrayList<>();
+                        for (int col = 0; col < reader.columns(); col++)
+                            if (col != gameID)
+                                data.add(reader.getDouble(row, col));
+                        rows.add(data);
+                    }
+                }
+        }
+        return rows;
+    }
+
+    @Test
+    public void dataDoesNotDependOnThreads() throws Exception {
+        File dir = Files.createTempDirectory("ProgressiveLearnerTests").toFile();
+        try {
+            List<List<Double>> serial = generateData(dir, 1);
+            assertTrue(serial.size() > 2 * 7);
+            assertEquals(serial, generateData(dir, 2));
+            assertEquals(serial, generateData(dir, 3));
+        } finally {
+            for (File file : Objects.requireNonNull(dir.listFiles()))
+                file.delete();
+            dir.delete();
+        }
+    }
+}
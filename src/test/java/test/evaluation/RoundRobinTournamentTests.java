@@ -0,0 +1,58 @@
+package test.evaluation;
+
+import core.AbstractPlayer;
+import evaluation.RoundRobinTournament;
+import games.GameType;
+import games.tictactoe.TicTacToeGameParameters;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+import utilities.GameResultListener;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RoundRobinTournamentTests {
+
+    private int[] runTournament(int nThreads) {
+        List<AbstractPlayer> agents = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            agents.add(new RandomPlayer(new Random(100 + i)));
+        RoundRobinTournament tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, 10, false,
+                new TicTacToeGameParameters(42));
+        tournament.verbose = false;
+        tournament.nThreads = nThreads;
+        tournament.runTournament();
+        return tournament.getPointsPerPlayer();
+    }
+
+    @Test
+    public void resultsDoNotDependOnThreads() {
+        int[] oneThread = runTournament(1);
+        for (int nThreads : new int[]{2, 4, 7})
+            assertArrayEquals(oneThread, runTournament(nThreads));
+        // 6 ordered match-ups of 10 games, each won by at most one player
+        int wins = Arrays.stream(oneThread).sum();
+        assertTrue(wins > 0);
+        assertTrue(wins <= 60);
+    }
+
+    @Test
+    public void listenersNeedOneThread() {
+        List<AbstractPlayer> agents = Arrays.asList(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)));
+        RoundRobinTournament tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, 1, false,
+                new TicTacToeGameParameters(42)) {
+            {
+                listeners.add(new GameResultListener());
+            }
+        };
+        tournament.verbose = false;
+        tournament.nThreads = 2;
+        try {
+            tournament.runTournament();
+            fail("Listeners were shared by games played in parallel");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
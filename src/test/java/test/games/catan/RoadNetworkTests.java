@@ -0,0 +1,141 @@
+package test.games.catan;
+
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.catan.CatanForwardModel;
+import games.catan.CatanGameState;
+import games.catan.CatanParameters;
+import games.catan.actions.BuildRoad;
+import games.catan.actions.BuildSettlement;
+import games.catan.components.Edge;
+import games.catan.components.Graph;
+import games.catan.components.Road;
+import games.catan.components.Settlement;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+import utilities.Utils;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RoadNetworkTests {
+
+    // the length of the road through the edge of the tile, as CatanGameState.getRoadDistance found it by searching the graph
+    private int expandRoadDistance(CatanGameState gs, Graph<Settlement, Road> graph, int x, int y, int edge, int player) {
+        HashSet<Road> roadSet = new HashSet<>();
+        HashSet<Road> roadSet2 = new HashSet<>();
+
+        ArrayList<Settlement> dir1 = new ArrayList<>();
+        ArrayList<Settlement> dir2 = new ArrayList<>();
+        Settlement settl1 = gs.getBoard()[x][y].getSettlements()[edge];
+        Settlement settl2 = gs.getBoard()[x][y].getSettlements()[(edge + 1) % 6];
+
+        dir1.add(settl1);
+        dir2.add(settl2);
+
+        roadSet = expandRoad(graph, player, roadSet, new ArrayList<>(dir1), new ArrayList<>(dir2));
+        roadSet.addAll(expandRoad(graph, player, roadSet2, new ArrayList<>(dir2), new ArrayList<>(dir1)));
+        return roadSet.size();
+    }
+
+    private HashSet<Road> expandRoad(Graph<Settlement, Road> graph, int player, HashSet<Road> roadSet,
+                                     List<Settlement> unexpanded, List<Settlement> expanded) {
+        if (unexpanded.size() == 0) {
+            return roadSet;
+        }
+        if (unexpanded.size() == 2) {
+            int length = 0;
+            HashSet<Road> longestSegment = new HashSet<>(roadSet);
+            for (Settlement settlement : unexpanded) {
+                ArrayList<Settlement> toExpand = new ArrayList<>();
+                toExpand.add(settlement);
+                HashSet<Road> roadSetCopy = new HashSet<>(roadSet);
+                roadSetCopy = expandRoad(graph, player, roadSetCopy, toExpand, expanded);
+                if (roadSetCopy.size() >= length) {
+                    length = roadSetCopy.size();
+                    longestSegment = roadSetCopy;
+                }
+            }
+            roadSet.addAll(longestSegment);
+            return roadSet;
+        } else {
+            Settlement settlement = unexpanded.remove(0);
+            expanded.add(settlement);
+
+            List<Edge<Settlement, Road>> edges = graph.getEdges(settlement);
+            if (edges != null) {
+                for (Edge<Settlement, Road> e : edges) {
+                    Road road = e.getValue();
+                    if (road.getOwner() == player) {
+                        if (expanded.contains(e.getDest())) {
+                            roadSet.add(road);
+                        } else if (e.getDest().getOwner() == -1 || e.getDest().getOwner() == player) {
+                            unexpanded.add(e.getDest());
+                        }
+                    }
+                }
+            }
+        }
+        return expandRoad(graph, player, roadSet, unexpanded, expanded);
+    }
+
+    /**
+     * Plays random games, favouring building roads and settlements, and checks the length of each road built, and so who
+     * holds the longest road, against the search of the graph that RoadNetwork replaced
+     */
+    @Test
+    public void roadDistanceMatchesExpandRoad() {
+        Random rnd = new Random(37);
+        int roadsChecked = 0;
+        int longest = 0;
+        for (int g = 0; g < 5; g++) {
+            List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(g)), new RandomPlayer(new Random(g + 10)),
+                    new RandomPlayer(new Random(g + 20)));
+            Game game = GameType.Catan.createGameInstance(3, 100 + g, new CatanParameters(100 + g));
+            game.reset(players);
+            CatanGameState state = (CatanGameState) game.getGameState();
+            CatanForwardModel fm = (CatanForwardModel) game.getForwardModel();
+            int longestRoad = state.getLongestRoadOwner();
+            int longestRoadLength = state.getLongestRoadLength();
+            for (int turn = 0; turn < 2000 && state.getGameStatus() == Utils.GameResult.GAME_ONGOING; turn++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                // prefer building, so that the roads get long enough to be interesting
+                AbstractAction chosen = null;
+                for (AbstractAction action : actions) {
+                    if ((action instanceof BuildRoad || action instanceof BuildSettlement) && rnd.nextDouble() < 0.5) {
+                        chosen = action;
+                        break;
+                    }
+                }
+                if (chosen == null)
+                    chosen = actions.get(rnd.nextInt(actions.size()));
+                int player = state.getCurrentPlayer();
+                fm.next(state, chosen);
+                if (chosen instanceof BuildRoad) {
+                    roadsChecked++;
+                    BuildRoad br = (BuildRoad) chosen;
+                    Settlement[] settlements = state.getBoard()[br.getX()][br.getY()].getSettlements();
+                    int settl1 = settlements[br.getEdge()].getID();
+                    int settl2 = settlements[(br.getEdge() + 1) % 6].getID();
+                    int length = expandRoadDistance(state, state.getGraph(), br.getX(), br.getY(), br.getEdge(), player);
+                    assertEquals(length, state.getRoadNetwork().getRoadDistance(settl1, settl2, player));
+                    longest = Math.max(longest, length);
+                    if (length > longestRoadLength) {
+                        longestRoadLength = length;
+                        longestRoad = player;
+                    }
+                    assertEquals(longestRoadLength, state.getLongestRoadLength());
+                    assertEquals(longestRoad, state.getLongestRoadOwner());
+                    // a copy carries on from the same point
+                    CatanGameState copy = (CatanGameState) state.copy();
+                    assertEquals(length, copy.getRoadNetwork().getRoadDistance(settl1, settl2, player));
+                }
+            }
+        }
+        assertTrue(roadsChecked > 50);
+        assertTrue(longest > 5);
+    }
+}
@@ -0,0 +1,149 @@
+package test.games.dotsboxes;
+
+import core.AbstractForwardModel;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.dotsboxes.*;
+import org.junit.*;
+import utilities.Vector2D;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class DotsAndBoxesTests {
+
+    // the default board is 7 cells across and 5 down
+    final int width = 7, height = 5;
+    Game game;
+    AbstractForwardModel fm;
+    DBGameState state;
+
+    @Before
+    public void setup() {
+        game = GameType.DotsAndBoxes.createGameInstance(2, 37, new DBParameters(37));
+        game.reset(Collections.emptyList());
+        fm = game.getForwardModel();
+        state = (DBGameState) game.getGameState();
+    }
+
+    private DBEdge edge(int x1, int y1, int x2, int y2) {
+        return new DBEdge(new Vector2D(x1, y1), new Vector2D(x2, y2));
+    }
+
+    private List<DBEdge> cellEdges(int x, int y) {
+        return Arrays.asList(edge(x, y, x + 1, y), edge(x, y, x, y + 1), edge(x + 1, y, x + 1, y + 1), edge(x, y + 1, x + 1, y + 1));
+    }
+
+    private List<DBEdge> allEdges() {
+        List<DBEdge> edges = new ArrayList<>();
+        for (int y = 0; y <= height; y++)
+            for (int x = 0; x <= width; x++) {
+                if (x < width)
+                    edges.add(edge(x, y, x + 1, y));
+                if (y < height)
+                    edges.add(edge(x, y, x, y + 1));
+            }
+        return edges;
+    }
+
+    private Set<AbstractAction> freeEdges(DBGameState state) {
+        Set<AbstractAction> free = new HashSet<>();
+        for (DBEdge e : allEdges())
+            if (state.getEdgeOwner(e) == -1)
+                free.add(new AddGridCellEdge(e));
+        return free;
+    }
+
+    /**
+     * Checks the counts kept for each cell and player against the edges placed
+     */
+    private void checkCounts(DBGameState state) {
+        int[] cellsPerPlayer = new int[state.getNPlayers()];
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++) {
+                DBCell cell = new DBCell(x, y);
+                int placed = 0;
+                for (DBEdge e : cellEdges(x, y))
+                    if (state.getEdgeOwner(e) != -1)
+                        placed++;
+                assertEquals(placed, state.countCompleteEdges(cell));
+                assertEquals(placed == 4, state.getCellOwner(cell) != -1);
+                if (placed == 4)
+                    cellsPerPlayer[state.getCellOwner(cell)]++;
+            }
+        for (int p = 0; p < state.getNPlayers(); p++)
+            assertEquals(cellsPerPlayer[p], state.getGameScore(p), 0.0);
+
+        Set<AbstractAction> available = new HashSet<>();
+        for (AbstractAction action : fm.computeAvailableActions(state))
+            assertTrue(available.add(action));
+        assertEquals(freeEdges(state), available);
+    }
+
+    @Test
+    public void everyEdgeHasItsOwnIndex() {
+        List<DBEdge> edges = allEdges();
+        assertEquals(edges.size(), fm.computeAvailableActions(state).size());
+        Set<Integer> indices = new HashSet<>();
+        for (DBEdge e : edges) {
+            int index = state.edgeIndex(e);
+            assertTrue(index >= 0 && index < edges.size());
+            assertTrue(indices.add(index));
+        }
+        // edges have no direction
+        assertEquals(state.edgeIndex(edge(3, 2, 4, 2)), state.edgeIndex(edge(4, 2, 3, 2)));
+        assertEquals(state.edgeIndex(edge(3, 2, 3, 3)), state.edgeIndex(edge(3, 3, 3, 2)));
+        Set<Integer> cells = new HashSet<>();
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++) {
+                int index = state.cellIndex(new DBCell(x, y));
+                assertTrue(index >= 0 && index < width * height);
+                assertTrue(cells.add(index));
+            }
+        checkCounts(state);
+    }
+
+    @Test
+    public void completingACellKeepsTheTurn() {
+        List<DBEdge> edges = cellEdges(2, 3);
+        for (int i = 0; i < 3; i++) {
+            int player = state.getCurrentPlayer();
+            fm.next(state, new AddGridCellEdge(edges.get(i)));
+            assertEquals(player, state.getEdgeOwner(edges.get(i)));
+            assertNotEquals(player, state.getCurrentPlayer());
+        }
+        assertEquals(3, state.countCompleteEdges(new DBCell(2, 3)));
+        assertEquals(-1, state.getCellOwner(new DBCell(2, 3)));
+
+        int player = state.getCurrentPlayer();
+        fm.next(state, new AddGridCellEdge(edges.get(3)));
+        assertEquals(player, state.getCellOwner(new DBCell(2, 3)));
+        assertEquals(1, state.getGameScore(player), 0.0);
+        assertEquals(player, state.getCurrentPlayer());
+        checkCounts(state);
+    }
+
+    @Test
+    public void randomGamesKeepCountsAndCopiesApart() {
+        Random rnd = new Random(37);
+        for (int g = 0; g < 5; g++) {
+            game.reset(Collections.emptyList(), g);
+            state = (DBGameState) game.getGameState();
+            while (state.isNotTerminal()) {
+                DBGameState copy = (DBGameState) state.copy();
+                Set<AbstractAction> freeBefore = freeEdges(copy);
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                checkCounts(state);
+                // the copy still has the edge that was placed
+                assertEquals(freeBefore, freeEdges(copy));
+                assertEquals(freeBefore.size(), fm.computeAvailableActions(copy).size());
+                checkCounts(copy);
+            }
+            assertTrue(freeEdges(state).isEmpty());
+            assertEquals(width * height, state.getGameScore(0) + state.getGameScore(1), 0.0);
+        }
+    }
+}
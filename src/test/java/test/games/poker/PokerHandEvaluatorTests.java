@@ -0,0 +1,115 @@
+package test.games.poker;
+
+import core.CoreConstants;
+import core.components.Deck;
+import core.components.FrenchCard;
+import games.poker.PokerHandEvaluator;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static games.poker.PokerHandEvaluator.*;
+import static org.junit.Assert.*;
+
+public class PokerHandEvaluatorTests {
+
+    // cards as e.g. "As", "Td", "9h", "2c"
+    private int[] cards(String... cards) {
+        int[] retValue = new int[cards.length];
+        for (int i = 0; i < cards.length; i++) {
+            int rank = "23456789TJQKA".indexOf(cards[i].charAt(0));
+            int suit = "dhcs".indexOf(cards[i].charAt(1));
+            retValue[i] = suit << 4 | rank;
+        }
+        return retValue;
+    }
+
+    private int value(String... cards) {
+        return evaluate(cards(cards), cards.length);
+    }
+
+    @Test
+    public void categories() {
+        assertEquals(STRAIGHT_FLUSH, category(value("As", "Ks", "Qs", "Js", "Ts", "2d", "2h")));
+        assertEquals(ACE, highRank(value("As", "Ks", "Qs", "Js", "Ts")));
+        assertEquals(FOUR_OF_A_KIND, category(value("9s", "9d", "9h", "9c", "Ts", "Td", "Th")));
+        assertEquals(FULL_HOUSE, category(value("9s", "9d", "9h", "Tc", "Ts", "2d", "3h")));
+        assertEquals(FLUSH, category(value("9s", "2s", "5s", "Ks", "Ts", "Td", "Th")));
+        assertEquals(STRAIGHT, category(value("9s", "8d", "7h", "6c", "5s", "5d", "5h")));
+        assertEquals(THREE_OF_A_KIND, category(value("9s", "9d", "9h", "Kc", "Ts", "2d", "3h")));
+        assertEquals(TWO_PAIR, category(value("9s", "9d", "Th", "Tc", "3s", "3d", "Ah")));
+        assertEquals(ONE_PAIR, category(value("9s", "9d", "Th", "Jc", "3s", "5d", "Ah")));
+        assertEquals(HIGH_CARD, category(value("9s", "7d", "Th", "Jc", "3s", "5d", "Ah")));
+    }
+
+    @Test
+    public void aceIsLowInWheel() {
+        int wheel = value("As", "2d", "3h", "4c", "5s");
+        assertEquals(STRAIGHT, category(wheel));
+        assertEquals(3, highRank(wheel));
+        assertTrue(value("2s", "3d", "4h", "5c", "6s") > wheel);
+        assertEquals(STRAIGHT_FLUSH, category(value("As", "2s", "3s", "4s", "5s", "Kd", "Qd")));
+    }
+
+    @Test
+    public void kickersBreakTies() {
+        // the pair decides before the kickers
+        assertTrue(value("9s", "9d", "2h", "3c", "4s") > value("8s", "8d", "Ah", "Kc", "Qs"));
+        // then the kickers, highest first
+        assertTrue(value("9s", "9d", "Ah", "3c", "2s") > value("9h", "9c", "Kh", "Qc", "Js"));
+        assertTrue(value("9s", "9d", "Ah", "Kc", "3s") > value("9h", "9c", "Ad", "Kh", "2s"));
+        // only the best five cards count
+        assertEquals(value("As", "Ad", "Kh", "Qc", "Js", "3d", "2h"), value("Ah", "Ac", "Kd", "Qh", "Jd", "4s", "3c"));
+        // a third pair can be a kicker
+        assertTrue(value("9s", "9d", "5h", "5c", "4s", "4d", "2h") > value("9h", "9c", "5s", "5d", "3h", "2c", "2s"));
+        assertEquals(value("9s", "9d", "5h", "5c", "Qs", "Qd", "2h"), value("9h", "9c", "Qc", "Qh", "5s", "5d", "3c"));
+    }
+
+    /**
+     * The value of 6 or 7 cards is that of the best 5 of them
+     */
+    @Test
+    public void bestOfFiveCardHands() {
+        Random rnd = new Random(23);
+        for (int trial = 0; trial < 2000; trial++) {
+            int nCards = 6 + rnd.nextInt(2);
+            int[] deck = new int[52];
+            for (int i = 0; i < 52; i++)
+                deck[i] = (i / 13) << 4 | (i % 13);
+            for (int i = 0; i < nCards; i++) {
+                int j = i + rnd.nextInt(52 - i);
+                int temp = deck[i];
+                deck[i] = deck[j];
+                deck[j] = temp;
+            }
+            int best = -1;
+            int[] five = new int[5];
+            for (int mask = 0; mask < 1 << nCards; mask++) {
+                if (Integer.bitCount(mask) != 5) continue;
+                int n = 0;
+                for (int i = 0; i < nCards; i++)
+                    if ((mask & (1 << i)) != 0)
+                        five[n++] = deck[i];
+                best = Math.max(best, evaluate(five, 5));
+            }
+            assertEquals(best, evaluate(deck, nCards));
+        }
+    }
+
+    @Test
+    public void decksMatchPackedCards() {
+        Deck<FrenchCard> hand = new Deck<>("Hand", CoreConstants.VisibilityMode.HIDDEN_TO_ALL);
+        Deck<FrenchCard> community = new Deck<>("Community", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        hand.add(new FrenchCard(FrenchCard.FrenchCardType.Ace, FrenchCard.Suite.Spades));
+        hand.add(new FrenchCard(FrenchCard.FrenchCardType.Number, FrenchCard.Suite.Hearts, 10));
+        community.add(new FrenchCard(FrenchCard.FrenchCardType.King, FrenchCard.Suite.Spades));
+        community.add(new FrenchCard(FrenchCard.FrenchCardType.Queen, FrenchCard.Suite.Spades));
+        community.add(new FrenchCard(FrenchCard.FrenchCardType.Jack, FrenchCard.Suite.Spades));
+        community.add(new FrenchCard(FrenchCard.FrenchCardType.Number, FrenchCard.Suite.Spades, 10));
+        community.add(new FrenchCard(FrenchCard.FrenchCardType.Number, FrenchCard.Suite.Diamonds, 2));
+        assertEquals(value("As", "Th", "Ks", "Qs", "Js", "Ts", "2d"), PokerHandEvaluator.evaluate(hand, community));
+        assertEquals(STRAIGHT_FLUSH, category(PokerHandEvaluator.evaluate(hand, community)));
+        assertEquals(cards("As")[0], PokerHandEvaluator.encode(new FrenchCard(FrenchCard.FrenchCardType.Ace, FrenchCard.Suite.Spades)));
+        assertEquals(cards("Th")[0], PokerHandEvaluator.encode(new FrenchCard(FrenchCard.FrenchCardType.Number, FrenchCard.Suite.Hearts, 10)));
+    }
+}
@@ -0,0 +1,99 @@
+package test.players.heuristics;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IStateFeatureVector;
+import games.GameType;
+import games.dominion.DomStateFeatures;
+import games.dominion.DomStateFeaturesReduced;
+import games.loveletter.LLStateFeaturesReduced;
+import org.junit.Test;
+import players.heuristics.LinearStateHeuristic;
+import players.heuristics.LogisticStateHeuristic;
+import players.heuristics.NullHeuristic;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BatchHeuristicTests {
+
+    /**
+     * Plays random games, and checks that at each state the features written to a (re-used, and dirty) buffer are
+     * the same as those from featureVector()
+     */
+    private void checkFeatures(GameType gameType, IStateFeatureVector phi) {
+        double[] buffer = new double[phi.names().length];
+        Game game = gameType.createGameInstance(3, 46);
+        game.reset(Collections.emptyList());
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        Random rnd = new Random(46);
+        for (int move = 0; move < 300 && state.isNotTerminal(); move++) {
+            for (int p = 0; p < state.getNPlayers(); p++) {
+                Arrays.fill(buffer, Double.NaN);
+                phi.featureVector(state, p, buffer);
+                assertArrayEquals(phi.featureVector(state, p), buffer, 0.0);
+            }
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+    }
+
+    @Test
+    public void dominionFeatures() {
+        checkFeatures(GameType.Dominion, new DomStateFeaturesReduced());
+        checkFeatures(GameType.Dominion, new DomStateFeatures());
+    }
+
+    @Test
+    public void loveLetterFeatures() {
+        checkFeatures(GameType.LoveLetter, new LLStateFeaturesReduced());
+    }
+
+    @Test
+    public void linearAndLogisticValues() throws IOException {
+        IStateFeatureVector phi = new DomStateFeaturesReduced();
+        double[] coefficients = new double[phi.names().length + 1];
+        Random rnd = new Random(46);
+        for (int i = 0; i < coefficients.length; i++)
+            coefficients[i] = rnd.nextGaussian();
+        File file = File.createTempFile("BatchHeuristicTests", ".txt");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("BIAS\t" + String.join("\t", phi.names()) + "\n");
+            StringJoiner values = new StringJoiner("\t");
+            Arrays.stream(coefficients).forEach(c -> values.add(String.valueOf(c)));
+            writer.write(values + "\n");
+        }
+        LinearStateHeuristic linear = new LinearStateHeuristic(phi, file.getPath(), new NullHeuristic());
+        LogisticStateHeuristic logistic = new LogisticStateHeuristic(phi, file.getPath(), new NullHeuristic());
+
+        Game game = GameType.Dominion.createGameInstance(3, 46);
+        game.reset(Collections.emptyList());
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        double[] linearValues = new double[3];
+        double[] logisticValues = new double[3];
+        for (int move = 0; move < 200 && state.isNotTerminal(); move++) {
+            linear.evaluateAllPlayers(state, linearValues);
+            logistic.evaluateAllPlayers(state, logisticValues);
+            for (int p = 0; p < 3; p++) {
+                double[] features = phi.featureVector(state, p);
+                double expected = coefficients[0];
+                for (int i = 0; i < features.length; i++)
+                    expected += coefficients[i + 1] * features[i];
+                assertEquals(expected, linear.evaluateState(state, p), 1e-12);
+                assertEquals(expected, linearValues[p], 1e-12);
+                assertEquals(1.0 / (1.0 + Math.exp(-expected)), logisticValues[p], 1e-12);
+            }
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+    }
+}
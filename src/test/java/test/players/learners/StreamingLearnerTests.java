@@ -0,0 +1,106 @@
+package test.players.learners;
+
+import org.junit.Test;
+import players.learners.AbstractLearner;
+import players.learners.SimpleRegressionLearner;
+import players.learners.StreamingLogisticLearner;
+import players.learners.StreamingRegressionLearner;
+import utilities.BinaryStatsLogger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StreamingLearnerTests {
+
+    private String tempFile(String suffix) throws IOException {
+        File file = File.createTempFile("StreamingLearnerTests", suffix);
+        file.deleteOnExit();
+        return file.getPath();
+    }
+
+    /**
+     * Writes a data file in the format of a FeatureListener, with two features. The final score is linear in these
+     * (plus noise), and the chance of a win is logistic in them.
+     */
+    private String writeData(int rows, long seed) throws IOException {
+        String file = tempFile(".data");
+        BinaryStatsLogger logger = new BinaryStatsLogger(file, false);
+        Random rnd = new Random(seed);
+        for (int i = 0; i < rows; i++) {
+            double f1 = rnd.nextGaussian();
+            double f2 = rnd.nextInt(5);
+            Map<String, Double> data = new LinkedHashMap<>();
+            data.put("GameID", (double) (i / 10));
+            data.put("Player", (double) (i % 2));
+            data.put("Round", (double) (i % 10));
+            data.put("Turn", (double) (i % 10));
+            data.put("CurrentScore", (double) rnd.nextInt(50));
+            data.put("F1", f1);
+            data.put("F2", f2);
+            data.put("PlayerCount", 2.0);
+            data.put("TotalRounds", 10.0);
+            double pWin = 1.0 / (1.0 + Math.exp(-(0.5 + 2.0 * f1 - 0.5 * f2)));
+            data.put("Win", rnd.nextDouble() < pWin ? 1.0 : 0.0);
+            data.put("Ordinal", 1.0);
+            data.put("FinalScore", 3.0 + 2.0 * f1 - f2 + rnd.nextGaussian());
+            logger.record(data);
+        }
+        logger.processDataAndFinish();
+        return file;
+    }
+
+    private double[] readCoefficients(AbstractLearner learner) throws IOException {
+        String file = tempFile(".txt");
+        assertTrue(learner.writeToFile(file));
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            assertEquals("BIAS\tF1\tF2", reader.readLine());
+            return Arrays.stream(reader.readLine().split("\t")).mapToDouble(Double::parseDouble).toArray();
+        }
+    }
+
+    @Test
+    public void streamingRegressionMatchesSimpleRegression() throws IOException {
+        String[] files = {writeData(500, 1), writeData(700, 2)};
+        SimpleRegressionLearner simple = new SimpleRegressionLearner();
+        simple.setTarget(AbstractLearner.Target.SCORE);
+        simple.setGamma(0.95);
+        simple.learnFrom(files);
+        StreamingRegressionLearner streaming = new StreamingRegressionLearner();
+        streaming.setTarget(AbstractLearner.Target.SCORE);
+        streaming.setGamma(0.95);
+        streaming.learnFrom(files);
+
+        double[] expected = readCoefficients(simple);
+        double[] actual = readCoefficients(streaming);
+        assertEquals(3, actual.length);
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], actual[i], Math.abs(expected[i]) * 1e-3);
+    }
+
+    @Test
+    public void streamingLogisticFindsCoefficients() throws IOException {
+        StreamingLogisticLearner learner = new StreamingLogisticLearner();
+        learner.learnFrom(writeData(20000, 3));
+        double[] coefficients = readCoefficients(learner);
+        assertEquals(0.5, coefficients[0], 0.15);
+        assertEquals(2.0, coefficients[1], 0.15);
+        assertEquals(-0.5, coefficients[2], 0.1);
+    }
+
+    @Test
+    public void streamingLogisticNeedsWinTarget() throws IOException {
+        StreamingLogisticLearner learner = new StreamingLogisticLearner();
+        learner.setTarget(AbstractLearner.Target.SCORE);
+        try {
+            learner.learnFrom(writeData(10, 4));
+            fail("Logistic regression on the score");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
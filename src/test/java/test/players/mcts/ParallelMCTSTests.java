@@ -0,0 +1,136 @@
+package test.players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.dominion.DominionGame;
+import games.dominion.DominionParameters;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.mcts.*;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelMCTSTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        // default Parameter settings for later changes
+        params = new MCTSParams(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MaxN;
+        params.information = MCTSEnums.Information.Information_Set;
+        params.maxTreeDepth = 20;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 400;
+        params.selectionPolicy = MCTSEnums.SelectionPolicy.SIMPLE;
+        params.K = 1.0;
+        params.nThreads = 4;
+    }
+
+    public Game createGame(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        return new DominionGame(players, DominionParameters.firstGame(330245));
+    }
+
+    @Test
+    public void rootParallelIterationBudget() {
+        params.parallelMode = MCTSEnums.ParallelMode.ROOT;
+        runGame(createGame(params), 4, params.budget, params.nThreads);
+    }
+
+    @Test
+    public void treeParallelIterationBudget() {
+        params.parallelMode = MCTSEnums.ParallelMode.TREE;
+        runGame(createGame(params), 4, params.budget, 0);
+    }
+
+    @Test
+    public void treeParallelParanoid() {
+        params.parallelMode = MCTSEnums.ParallelMode.TREE;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.Paranoid;
+        runGame(createGame(params), 4, params.budget, 0);
+    }
+
+    @Test
+    public void rootParallelFMBudget() {
+        params.parallelMode = MCTSEnums.ParallelMode.ROOT;
+        params.budgetType = PlayerConstants.BUDGET_FM_CALLS;
+        params.budget = 2000;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+        SingleTreeNode root = mctsPlayer.getRoot(0);
+        // each iteration uses several FM calls, and the calls of all workers count against the one budget
+        assertTrue(root.getVisits() > 0);
+        assertTrue(root.getVisits() < params.budget / 5);
+    }
+
+    private void checkTimeBudget() {
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.budget = 100;
+        params.breakMS = 0;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        for (int decision = 0; decision < 3; decision++) {
+            long start = System.nanoTime();
+            mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            // the threads share one wall-clock deadline, however long they wait for each other
+            assertTrue("Decision took " + elapsed + "ms", elapsed < 3 * params.budget);
+            assertTrue(mctsPlayer.getRoot(0).getVisits() > 0);
+        }
+        mctsPlayer.finalizePlayer(state);
+    }
+
+    @Test
+    public void treeParallelTimeBudget() {
+        params.parallelMode = MCTSEnums.ParallelMode.TREE;
+        checkTimeBudget();
+    }
+
+    @Test
+    public void rootParallelTimeBudget() {
+        params.parallelMode = MCTSEnums.ParallelMode.ROOT;
+        checkTimeBudget();
+    }
+
+    private void runGame(Game game, int moves, int expectedVisits, int errorMargin) {
+        int counter = 0;
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        do {
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    .getAction(state, forwardModel.computeAvailableActions(state));
+
+            if (state.getCurrentPlayer() == 0) {
+                SingleTreeNode root = mctsPlayer.getRoot(0);
+                // every iteration from every worker is in the final tree, and there is no virtual loss left over
+                assertEquals(expectedVisits, root.getVisits(), errorMargin);
+                int childVisits = root.getChildren().values().stream()
+                        .filter(Objects::nonNull)
+                        .flatMap(Arrays::stream)
+                        .filter(Objects::nonNull)
+                        .mapToInt(SingleTreeNode::getVisits).sum();
+                assertEquals(root.getVisits(), childVisits);
+                assertNotNull(actionChosen);
+                counter++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (counter < moves);
+    }
+}
@@ -0,0 +1,192 @@
+package test.players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.dotsboxes.DBParameters;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.mcts.*;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        // default Parameter settings for later changes
+        params = new MCTSParams(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.Paranoid;
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        params.maxTreeDepth = 20;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 1000;
+        params.selectionPolicy = MCTSEnums.SelectionPolicy.SIMPLE;
+        params.K = 1.0;
+        params.transpositionTableSize = 100000;
+    }
+
+    public Game createConnect4(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params);
+        Game game = GameType.Connect4.createGameInstance(2, 330245);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        return game;
+    }
+
+    @Test
+    public void transpositionsShareNodes() {
+        List<SingleTreeNode> roots = runGame(createConnect4(params), 3);
+        for (SingleTreeNode root : roots) {
+            assertEquals(params.budget, root.getVisits());
+            assertTrue(maxParents(root) > 1);
+            // a shared node is only counted once in the tree
+            assertEquals(parents(root).size() + 1, root.allNodesInTree().size());
+        }
+    }
+
+    @Test
+    public void noTranspositionsWhenSwitchedOff() {
+        params.transpositionTableSize = 0;
+        List<SingleTreeNode> roots = runGame(createConnect4(params), 3);
+        for (SingleTreeNode root : roots)
+            assertEquals(1, maxParents(root));
+    }
+
+    @Test
+    public void noTranspositionsInOpenLoop() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.discardStateAfterEachIteration = true;
+        List<SingleTreeNode> roots = runGame(createConnect4(params), 3);
+        for (SingleTreeNode root : roots)
+            assertEquals(1, maxParents(root));
+    }
+
+    @Test
+    public void transpositionsWithTreeReuse() {
+        params.reuseTree = true;
+        List<SingleTreeNode> roots = runGame(createConnect4(params), 4);
+        assertTrue(roots.stream().skip(1).anyMatch(r -> r.getVisits() > params.budget));
+    }
+
+    @Test
+    public void noTranspositionsWithoutLongHash() {
+        // Love Letter keeps the default longHash(), which is no more than hashCode()
+        mctsPlayer = new TestMCTSPlayer(params);
+        Game game = GameType.LoveLetter.createGameInstance(2, 330245);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        List<SingleTreeNode> roots = runGame(game, 2);
+        for (SingleTreeNode root : roots)
+            assertEquals(1, maxParents(root));
+    }
+
+    @Test
+    public void transpositionsInDotsAndBoxes() {
+        // a small board, so that the search goes deep enough to reach the same edges in different orders
+        DBParameters dbParams = new DBParameters(330245);
+        dbParams.setParameterValue("gridWidth", 3);
+        dbParams.setParameterValue("gridHeight", 2);
+        mctsPlayer = new TestMCTSPlayer(params);
+        Game game = GameType.DotsAndBoxes.createGameInstance(2, 330245, dbParams);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        List<SingleTreeNode> roots = runGame(game, 2);
+        for (SingleTreeNode root : roots) {
+            assertTrue(maxParents(root) > 1);
+            assertEquals(parents(root).size() + 1, root.allNodesInTree().size());
+        }
+    }
+
+    @Test
+    public void dotsAndBoxesLongHashIgnoresOrder() {
+        Game game = GameType.DotsAndBoxes.createGameInstance(2, 330245);
+        game.reset(Collections.emptyList());
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        Random rnd = new Random(330245);
+        for (int i = 0; i < 20; i++) {
+            AbstractGameState one = game.getGameState().copy();
+            AbstractGameState other = one.copy();
+            // each player places the same edges, in a different order, without completing any cells
+            List<AbstractAction> actions = new ArrayList<>(forwardModel.computeAvailableActions(one));
+            Collections.shuffle(actions, rnd);
+            List<AbstractAction> chosen = actions.subList(0, 4);
+            for (AbstractAction action : chosen)
+                forwardModel.next(one, action);
+            for (int a : new int[]{2, 3, 0, 1})
+                forwardModel.next(other, chosen.get(a));
+            if (one.getGameScore(0) + one.getGameScore(1) + other.getGameScore(0) + other.getGameScore(1) > 0)
+                continue;
+            assertEquals(one, other);
+            assertEquals(one.longHash(), other.longHash());
+            forwardModel.next(one, chosen.get(0).copy());
+            assertNotEquals(one.longHash(), other.longHash());
+        }
+    }
+
+    @Test
+    public void strategoLongHashFollowsPieces() {
+        for (int seed = 0; seed < 5; seed++) {
+            Game game = GameType.Stratego.createGameInstance(2, seed);
+            game.reset(Collections.emptyList());
+            AbstractGameState state = game.getGameState();
+            AbstractForwardModel forwardModel = game.getForwardModel();
+            Random rnd = new Random(seed);
+            Set<Long> hashes = new HashSet<>();
+            for (int move = 0; move < 300 && state.isNotTerminal(); move++) {
+                List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+                forwardModel.next(state, actions.get(rnd.nextInt(actions.size())));
+                // a copy puts copies of the pieces on a new board, so has its hash made from scratch
+                assertEquals(state.copy().longHash(), state.longHash());
+                assertTrue(hashes.add(state.longHash()));
+            }
+        }
+    }
+
+    /**
+     * @return the number of links to each node in the tree, other than the root
+     */
+    private Map<SingleTreeNode, Integer> parents(SingleTreeNode root) {
+        Map<SingleTreeNode, Integer> retValue = new IdentityHashMap<>();
+        for (SingleTreeNode node : root.allNodesInTree())
+            for (SingleTreeNode[] children : node.getChildren().values())
+                if (children != null)
+                    for (SingleTreeNode child : children)
+                        if (child != null)
+                            retValue.merge(child, 1, Integer::sum);
+        return retValue;
+    }
+
+    private int maxParents(SingleTreeNode root) {
+        return parents(root).values().stream().max(Integer::compare).orElse(0);
+    }
+
+    /**
+     * Plays the game until the MCTS player has made the given number of decisions
+     *
+     * @return the root of the tree after each decision
+     */
+    private List<SingleTreeNode> runGame(Game game, int moves) {
+        List<SingleTreeNode> retValue = new ArrayList<>();
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        while (retValue.size() < moves && state.isNotTerminal()) {
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    .getAction(state, forwardModel.computeAvailableActions(state));
+            assertNotNull(actionChosen);
+            if (state.getCurrentPlayer() == 0)
+                retValue.add(mctsPlayer.getRoot(0));
+            forwardModel.next(state, actionChosen);
+        }
+        return retValue;
+    }
+}
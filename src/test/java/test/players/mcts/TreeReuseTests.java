@@ -0,0 +1,161 @@
+package test.players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.dominion.DominionGame;
+import games.dominion.DominionParameters;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.mcts.*;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TreeReuseTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        // default Parameter settings for later changes
+        params = new MCTSParams(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MaxN;
+        params.information = MCTSEnums.Information.Information_Set;
+        params.maxTreeDepth = 20;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 400;
+        params.selectionPolicy = MCTSEnums.SelectionPolicy.SIMPLE;
+        params.K = 1.0;
+        params.reuseTree = true;
+    }
+
+    public Game createDominion(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        return new DominionGame(players, DominionParameters.firstGame(330245));
+    }
+
+    public Game createTicTacToe(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params);
+        Game game = GameType.TicTacToe.createGameInstance(2, 330245);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        return game;
+    }
+
+    @Test
+    public void informationSetTreeIsReused() {
+        List<Integer> visits = runGame(createDominion(params), 10);
+        // the first search starts from nothing, and later ones keep the visits to the subtree reached
+        assertEquals(params.budget, (int) visits.get(0));
+        assertTrue(visits.stream().allMatch(v -> v >= params.budget));
+        assertTrue(visits.stream().anyMatch(v -> v > params.budget));
+    }
+
+    @Test
+    public void selfOnlyTreeIsReused() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.SelfOnly;
+        List<Integer> visits = runGame(createDominion(params), 10);
+        assertTrue(visits.stream().allMatch(v -> v >= params.budget));
+        assertTrue(visits.stream().anyMatch(v -> v > params.budget));
+    }
+
+    @Test
+    public void closedLoopTreeIsReused() {
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.Paranoid;
+        params.discardStateAfterEachIteration = false;
+        params.budget = 200;
+        List<Integer> visits = runGame(createTicTacToe(params), 3);
+        assertEquals(params.budget, (int) visits.get(0));
+        assertTrue(visits.stream().skip(1).allMatch(v -> v > params.budget));
+    }
+
+    @Test
+    public void noReuseWhenSwitchedOff() {
+        params.reuseTree = false;
+        List<Integer> visits = runGame(createDominion(params), 5);
+        assertTrue(visits.stream().allMatch(v -> v == params.budget));
+    }
+
+    @Test
+    public void noReuseInNewGame() {
+        Game game = createDominion(params);
+        runGame(game, 3);
+        game.reset(Collections.emptyList());
+        List<Integer> visits = runGame(game, 1);
+        assertEquals(params.budget, (int) visits.get(0));
+    }
+
+    @Test
+    public void noReuseWithoutHistory() {
+        Game game = createDominion(params);
+        game.getGameState().setRecordHistory(false);
+        List<Integer> visits = runGame(game, 5);
+        assertTrue(visits.stream().allMatch(v -> v == params.budget));
+    }
+
+    @Test
+    public void noReuseInCompetitionMode() {
+        Game game = createDominion(params);
+        game.getGameState().getCoreGameParameters().competitionMode = true;
+        // each player is given its own copy of the state, which has no history in competition mode
+        List<Integer> visits = runGame(game, 5, true, -1);
+        assertTrue(visits.stream().allMatch(v -> v == params.budget));
+    }
+
+    @Test
+    public void noReuseWhenActionsAreMissingFromHistory() {
+        // Our own actions are not recorded, so we see either no actions at all since our last decision (when we make
+        // several in one turn), or only those of the other players
+        List<Integer> visits = runGame(createDominion(params), 10, false, 0);
+        assertTrue(visits.stream().allMatch(v -> v == params.budget));
+    }
+
+    private List<Integer> runGame(Game game, int moves) {
+        return runGame(game, moves, false, -1);
+    }
+
+    /**
+     * Plays the game until the MCTS player has made the given number of decisions
+     *
+     * @param observe      if true, each player is given a copy of the state from its point of view, as Game does
+     * @param unrecorded   a player whose actions are not recorded in the history, or -1 to record all actions
+     * @return the visits to the root of the tree after each decision
+     */
+    private List<Integer> runGame(Game game, int moves, boolean observe, int unrecorded) {
+        List<Integer> retValue = new ArrayList<>();
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        while (retValue.size() < moves && state.isNotTerminal()) {
+            AbstractGameState observation = observe ? state.copy(state.getCurrentPlayer()) : state;
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    .getAction(observation, forwardModel.computeAvailableActions(state));
+
+            if (state.getCurrentPlayer() == 0) {
+                SingleTreeNode root = mctsPlayer.getRoot(0);
+                assertNotNull(actionChosen);
+                retValue.add(root.getVisits());
+            }
+            // only the action is left out of the history: the player still sees that history is being recorded
+            if (unrecorded >= 0)
+                state.setRecordHistory(state.getCurrentPlayer() != unrecorded);
+            forwardModel.next(state, actionChosen);
+            if (unrecorded >= 0)
+                state.setRecordHistory(true);
+        }
+        return retValue;
+    }
+}